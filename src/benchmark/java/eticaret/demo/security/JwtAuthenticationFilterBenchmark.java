@@ -0,0 +1,156 @@
+package eticaret.demo.security;
+
+import eticaret.demo.auth.AppUser;
+import eticaret.demo.auth.AppUserRepository;
+import eticaret.demo.auth.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWT filtresinin istek başına maliyeti: eski akış ile tek parse + kimlik önbelleği karşılaştırması
+ * - baseline: her istekte email ile kullanıcı sorgusu ve 4 ayrı token parse'ı (her parse'ta anahtar/parser
+ *   yeniden oluşturulur); değişiklikten önceki JwtAuthenticationFilter + JwtService.validateToken akışı
+ * - singleParseWithPrincipalCache: gerçek JwtAuthenticationFilter (JwtService.verify + AuthenticatedPrincipalCache)
+ * Kullanıcı sorgusu taklit edilir; dbRoundTripMicros veritabanı gidiş-dönüşünü temsil eder.
+ * Çalıştırma: mvn -Pbenchmark test-compile exec:exec -Djmh.includes=JwtAuthenticationFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"0", "300"})
+    public long dbRoundTripMicros;
+
+    private JwtTokenBlacklist tokenBlacklist;
+    private AppUserRepository appUserRepository;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        AppUser user = AppUser.builder()
+                .id(42L)
+                .email("benchmark@example.com")
+                .role(UserRole.USER)
+                .emailVerified(true)
+                .active(true)
+                .build();
+
+        appUserRepository = mock(AppUserRepository.class);
+        when(appUserRepository.findByEmailIgnoreCase(anyString())).thenAnswer(invocation -> {
+            simulateRoundTrip();
+            return Optional.of(user);
+        });
+        when(appUserRepository.findById(anyLong())).thenAnswer(invocation -> {
+            simulateRoundTrip();
+            return Optional.of(user);
+        });
+
+        tokenBlacklist = new JwtTokenBlacklist(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class), 1024);
+        JwtService jwtService = new JwtService(tokenBlacklist);
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiration", TimeUnit.HOURS.toMillis(1));
+        token = jwtService.generateAccessToken(user);
+
+        filter = new JwtAuthenticationFilter(jwtService, new AuthenticatedPrincipalCache(appUserRepository, 10_000, 30));
+        request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        try {
+            if (tokenBlacklist.isBlacklisted(token)) {
+                return;
+            }
+            String email = legacyParse(token).getSubject();
+            AppUser user = appUserRepository.findByEmailIgnoreCase(email)
+                    .filter(AppUser::isActive)
+                    .orElse(null);
+            if (user == null) {
+                return;
+            }
+            // Eski validateToken: blacklist, süre, email ve rol için ayrı ayrı parse
+            boolean valid = !tokenBlacklist.isBlacklisted(token)
+                    && !legacyParse(token).getExpiration().before(new Date())
+                    && legacyParse(token).getSubject().equalsIgnoreCase(user.getEmail())
+                    && user.isActive()
+                    && UserRole.valueOf(legacyParse(token).get("role").toString()) == user.getRole();
+            if (valid) {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        user, null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))));
+            }
+            blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public void singleParseWithPrincipalCache(Blackhole blackhole) throws Exception {
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private void simulateRoundTrip() {
+        if (dbRoundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbRoundTripMicros));
+        }
+    }
+}
@@ -20,7 +20,9 @@ import java.time.LocalDateTime;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "addresses")
+@Table(name = "addresses", indexes = {
+    @Index(name = "idx_address_user_id", columnList = "user_id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Address {
 
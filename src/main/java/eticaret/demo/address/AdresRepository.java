@@ -1,5 +1,6 @@
 package eticaret.demo.address;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -30,4 +31,14 @@ public interface AdresRepository extends JpaRepository<Address, Long> {
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("UPDATE Address a SET a.isDefault = false WHERE a.user.id = :userId")
     void clearDefaultAddresses(@Param("userId") Long userId);
+
+    // Admin listesi: id'ye göre azalan keyset sayfalama (kullanıcı ve şehir filtresi opsiyonel)
+    @Query("SELECT a FROM Address a LEFT JOIN FETCH a.user LEFT JOIN FETCH a.order WHERE a.id < :afterId " +
+           "AND (:userId IS NULL OR a.user.id = :userId) " +
+           "AND (:city IS NULL OR LOWER(a.city) = LOWER(:city)) " +
+           "ORDER BY a.id DESC")
+    List<Address> findAdminPage(@Param("afterId") long afterId,
+                                @Param("userId") Long userId,
+                                @Param("city") String city,
+                                Pageable limit);
 }
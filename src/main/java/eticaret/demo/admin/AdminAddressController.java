@@ -7,10 +7,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import eticaret.demo.address.Address;
 import eticaret.demo.address.AdresRepository;
 import eticaret.demo.audit.AuditLogService;
 import eticaret.demo.auth.AppUserRepository;
+import eticaret.demo.common.paging.KeysetCursor;
+import eticaret.demo.common.paging.KeysetPage;
+import eticaret.demo.common.paging.KeysetPager;
 import eticaret.demo.common.response.DataResponseMessage;
 
 import java.util.List;
@@ -27,31 +31,36 @@ public class AdminAddressController {
     private final AdresRepository addressRepository;
     private final AppUserRepository userRepository;
     private final AuditLogService auditLogService;
+    private final KeysetPager keysetPager;
 
     /**
-     * Tüm adresleri getir
-     * GET /api/admin/addresses
+     * Adresleri keyset sayfalama ile getir (en yeni önce)
+     * GET /api/admin/addresses?size=50&cursor=...&userId=12&city=İstanbul
      */
     @GetMapping
-    public ResponseEntity<DataResponseMessage<List<AddressSummary>>> getAllAddresses(
+    public ResponseEntity<DataResponseMessage<KeysetPage<AddressSummary>>> getAllAddresses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String city,
             HttpServletRequest request) {
         try {
-            List<Address> addresses = addressRepository.findAll();
-            List<AddressSummary> summaries = addresses.stream()
-                    .map(this::toSummary)
-                    .collect(Collectors.toList());
+            boolean filtered = userId != null || (city != null && !city.isBlank());
+            KeysetPage<AddressSummary> page = keysetPager.page(cursor, size, addressQuery(userId, city),
+                    address -> KeysetCursor.ofId(address.getId()), this::toSummary,
+                    filtered ? null : keysetPager.estimateRows("addresses"));
             
             auditLogService.logSuccess(
                     "ADMIN_ADDRESS",
                     "GET_ALL_ADDRESSES",
                     null,
-                    "Tüm adresler getirildi",
-                    Map.of("addressCount", addresses.size()),
-                    summaries,
+                    "Adresler getirildi",
+                    Map.of("addressCount", page.content().size(), "hasMore", page.hasMore()),
+                    null,
                     request
             );
             
-            return ResponseEntity.ok(DataResponseMessage.success("Adresler başarıyla getirildi", summaries));
+            return ResponseEntity.ok(DataResponseMessage.success("Adresler başarıyla getirildi", page));
         } catch (Exception e) {
             log.error("Adresler getirilirken hata: ", e);
             auditLogService.logError(
@@ -67,6 +76,23 @@ public class AdminAddressController {
         }
     }
 
+    /**
+     * Filtreye uyan tüm adresleri JSON dizisi olarak indir (akış)
+     * GET /api/admin/addresses/export?userId=12&city=İstanbul
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAddresses(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String city) {
+        return keysetPager.export("addresses.json", addressQuery(userId, city),
+                address -> KeysetCursor.ofId(address.getId()), this::toSummary);
+    }
+
+    private KeysetPager.KeysetQuery<Address> addressQuery(Long userId, String city) {
+        String cityFilter = city != null && !city.isBlank() ? city.trim() : null;
+        return (after, limit) -> addressRepository.findAdminPage(after.id(), userId, cityFilter, limit);
+    }
+
     /**
      * Belirli bir kullanıcının adreslerini getir
      * GET /api/admin/addresses/user/{userId}
@@ -0,0 +1,105 @@
+package eticaret.demo.admin;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import eticaret.demo.common.response.DataResponseMessage;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admin cache izleme ve temizleme endpoint'leri
+ * Her cache için boyut, hit/miss/eviction sayıları döner
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Slf4j
+public class AdminCacheController {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Tüm cache istatistiklerini getir
+     * GET /api/admin/cache/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<DataResponseMessage<List<CacheStatsResponse>>> getCacheStats() {
+        List<CacheStatsResponse> stats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                stats.add(toResponse(name, caffeineCache));
+            }
+        }
+        return ResponseEntity.ok(DataResponseMessage.success("Cache istatistikleri getirildi", stats));
+    }
+
+    /**
+     * Belirli bir cache'i temizle
+     * DELETE /api/admin/cache/{name}
+     */
+    @DeleteMapping("/{name}")
+    public ResponseEntity<DataResponseMessage<Void>> clearCache(@PathVariable String name) {
+        Cache cache = cacheManager.getCacheNames().contains(name) ? cacheManager.getCache(name) : null;
+        if (cache == null) {
+            return ResponseEntity.notFound().build();
+        }
+        cache.clear();
+        log.info("Cache temizlendi: {}", name);
+        return ResponseEntity.ok(new DataResponseMessage<>("Cache temizlendi: " + name, true, null));
+    }
+
+    /**
+     * Tüm cache'leri temizle
+     * DELETE /api/admin/cache
+     */
+    @DeleteMapping
+    public ResponseEntity<DataResponseMessage<Void>> clearAllCaches() {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.info("Tüm cache'ler temizlendi");
+        return ResponseEntity.ok(new DataResponseMessage<>("Tüm cache'ler temizlendi", true, null));
+    }
+
+    private CacheStatsResponse toResponse(String name, CaffeineCache cache) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = cache.getNativeCache();
+        CacheStats cacheStats = nativeCache.stats();
+
+        CacheStatsResponse response = new CacheStatsResponse();
+        response.setName(name);
+        response.setEstimatedSize(nativeCache.estimatedSize());
+        nativeCache.policy().eviction().ifPresent(eviction -> response.setMaximumSize(eviction.getMaximum()));
+        response.setHitCount(cacheStats.hitCount());
+        response.setMissCount(cacheStats.missCount());
+        response.setHitRate(cacheStats.hitRate());
+        response.setEvictionCount(cacheStats.evictionCount());
+        response.setLoadFailureCount(cacheStats.loadFailureCount());
+        return response;
+    }
+
+    @Data
+    public static class CacheStatsResponse {
+        private String name;
+        private long estimatedSize;
+        private Long maximumSize;
+        private long hitCount;
+        private long missCount;
+        private double hitRate;
+        private long evictionCount;
+        private long loadFailureCount;
+    }
+}
@@ -5,8 +5,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import eticaret.demo.product.Category;
 import eticaret.demo.product.CategoryRepository;
+import eticaret.demo.product.event.CatalogEventPublisher;
+import eticaret.demo.common.paging.KeysetCursor;
+import eticaret.demo.common.paging.KeysetPage;
+import eticaret.demo.common.paging.KeysetPager;
 import eticaret.demo.common.response.DataResponseMessage;
 
 import java.util.List;
@@ -19,11 +24,33 @@ import java.util.Optional;
 public class AdminCategoryController {
 
     private final CategoryRepository categoryRepository;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final KeysetPager keysetPager;
 
     @GetMapping
-    public ResponseEntity<DataResponseMessage<List<Category>>> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
-        return ResponseEntity.ok(DataResponseMessage.success("Kategoriler başarıyla getirildi", categories));
+    public ResponseEntity<DataResponseMessage<KeysetPage<Category>>> getAllCategories(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String query) {
+        boolean filtered = active != null || KeysetPager.containsPattern(query) != null;
+        KeysetPage<Category> page = keysetPager.page(cursor, size, categoryQuery(active, query),
+                category -> KeysetCursor.ofId(category.getId()), category -> category,
+                filtered ? null : keysetPager.estimateRows("categories"));
+        return ResponseEntity.ok(DataResponseMessage.success("Kategoriler başarıyla getirildi", page));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCategories(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String query) {
+        return keysetPager.export("categories.json", categoryQuery(active, query),
+                category -> KeysetCursor.ofId(category.getId()), category -> category);
+    }
+
+    private KeysetPager.KeysetQuery<Category> categoryQuery(Boolean active, String query) {
+        String namePattern = KeysetPager.containsPattern(query);
+        return (after, limit) -> categoryRepository.findAdminPage(after.id(), active, namePattern, limit);
     }
 
     @GetMapping("/{id}")
@@ -47,6 +74,7 @@ public class AdminCategoryController {
                 .build();
 
         Category saved = categoryRepository.save(category);
+        catalogEventPublisher.categoryChanged(saved.getId());
         return ResponseEntity.ok(DataResponseMessage.success("Kategori başarıyla oluşturuldu", saved));
     }
 
@@ -75,6 +103,7 @@ public class AdminCategoryController {
         }
 
         Category updated = categoryRepository.save(category);
+        catalogEventPublisher.categoryChanged(updated.getId());
         return ResponseEntity.ok(DataResponseMessage.success("Kategori başarıyla güncellendi", updated));
     }
 
@@ -93,6 +122,7 @@ public class AdminCategoryController {
         }
 
         categoryRepository.deleteById(id);
+        catalogEventPublisher.categoryChanged(id);
         return ResponseEntity.ok(DataResponseMessage.success("Kategori başarıyla silindi", null));
     }
 
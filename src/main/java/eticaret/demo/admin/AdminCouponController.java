@@ -7,6 +7,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import eticaret.demo.audit.AuditLogService;
 import eticaret.demo.coupon.Coupon;
 import eticaret.demo.coupon.CouponRepository;
@@ -15,11 +16,15 @@ import eticaret.demo.coupon.CouponType;
 import eticaret.demo.coupon.CouponUsage;
 import eticaret.demo.coupon.CouponUsageRepository;
 import eticaret.demo.common.config.AppUrlConfig;
+import eticaret.demo.common.paging.KeysetCursor;
+import eticaret.demo.common.paging.KeysetPage;
+import eticaret.demo.common.paging.KeysetPager;
 import eticaret.demo.common.response.DataResponseMessage;
 import eticaret.demo.auth.AppUser;
 import eticaret.demo.auth.AppUserRepository;
 import eticaret.demo.auth.UserRole;
 import eticaret.demo.mail.EmailMessage;
+import eticaret.demo.mail.EmailPriority;
 import eticaret.demo.mail.MailService;
 import eticaret.demo.cloudinary.MediaUploadService;
 import org.springframework.http.MediaType;
@@ -49,6 +54,7 @@ public class AdminCouponController {
     private final AppUserRepository userRepository;
     private final MediaUploadService mediaUploadService;
     private final AppUrlConfig appUrlConfig;
+    private final KeysetPager keysetPager;
 
     /**
      * Yeni kupon oluştur
@@ -133,16 +139,24 @@ public class AdminCouponController {
     }
 
     /**
-     * Tüm kuponları listele
-     * GET /api/admin/coupons
+     * Kuponları keyset sayfalama ile listele (en yeni önce)
+     * GET /api/admin/coupons?size=50&cursor=...&active=true&query=WELCOME
      */
     @GetMapping
-    public ResponseEntity<DataResponseMessage<List<Coupon>>> getAllCoupons(HttpServletRequest request) {
+    public ResponseEntity<DataResponseMessage<KeysetPage<Coupon>>> getAllCoupons(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String query,
+            HttpServletRequest request) {
         try {
-            List<Coupon> coupons = couponRepository.findAll();
+            boolean filtered = active != null || KeysetPager.containsPattern(query) != null;
+            KeysetPage<Coupon> page = keysetPager.page(cursor, size, couponQuery(active, query),
+                    coupon -> KeysetCursor.ofId(coupon.getId()), coupon -> coupon,
+                    filtered ? null : keysetPager.estimateRows("coupons"));
             auditLogService.logSimple("GET_ALL_COUPONS", "Coupon", null,
-                    "Tüm kuponlar listelendi", request);
-            return ResponseEntity.ok(DataResponseMessage.success("Kuponlar başarıyla getirildi", coupons));
+                    "Kuponlar listelendi (Boyut: " + page.size() + ", Dönen: " + page.content().size() + ")", request);
+            return ResponseEntity.ok(DataResponseMessage.success("Kuponlar başarıyla getirildi", page));
         } catch (Exception e) {
             auditLogService.logError("GET_ALL_COUPONS", "Coupon", null,
                     "Kuponlar getirilirken hata: " + e.getMessage(), e.getMessage(), request);
@@ -151,6 +165,25 @@ public class AdminCouponController {
         }
     }
 
+    /**
+     * Filtreye uyan tüm kuponları JSON dizisi olarak indir (akış)
+     * GET /api/admin/coupons/export?active=true&query=WELCOME
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCoupons(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String query,
+            HttpServletRequest request) {
+        auditLogService.logSimple("EXPORT_COUPONS", "Coupon", null, "Kuponlar dışa aktarıldı", request);
+        return keysetPager.export("coupons.json", couponQuery(active, query),
+                coupon -> KeysetCursor.ofId(coupon.getId()), coupon -> coupon);
+    }
+
+    private KeysetPager.KeysetQuery<Coupon> couponQuery(Boolean active, String query) {
+        String pattern = KeysetPager.containsPattern(query);
+        return (after, limit) -> couponRepository.findAdminPage(after.id(), active, pattern, limit);
+    }
+
     /**
      * Kupon detayı getir
      * GET /api/admin/coupons/{id}
@@ -349,6 +382,7 @@ public class AdminCouponController {
                             .subject(subject)
                             .body(htmlBody)
                             .isHtml(true)
+                            .priority(EmailPriority.MARKETING)
                             .build();
 
                     mailService.queueEmail(emailMessage);
@@ -420,6 +454,7 @@ public class AdminCouponController {
                             .subject(subject)
                             .body(htmlBody)
                             .isHtml(true)
+                            .priority(EmailPriority.MARKETING)
                             .build();
                     
                     mailService.queueEmail(emailMessage);
@@ -3,24 +3,19 @@ package eticaret.demo.admin;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import eticaret.demo.contact_us.ContactUs;
-import eticaret.demo.contact_us.ContactUsRepository;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import eticaret.demo.common.response.DataResponseMessage;
-import eticaret.demo.order.Order;
-import eticaret.demo.order.OrderRepository;
-import eticaret.demo.order.OrderStatus;
 import eticaret.demo.product.ProductRepository;
-import eticaret.demo.product.ProductReviewRepository;
 import eticaret.demo.guest.GuestUserRepository;
 import eticaret.demo.auth.AppUserRepository;
 import eticaret.demo.auth.UserRole;
-import eticaret.demo.visitor.ActiveVisitorRepository;
+import eticaret.demo.visitor.VisitorAnalyticsService;
 import eticaret.demo.visitor.VisitorType;
 
-import java.math.BigDecimal;
 import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -32,13 +27,30 @@ import java.util.Map;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminDashboardController {
 
-    private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
-    private final ContactUsRepository contactUsRepository;
-    private final ProductReviewRepository reviewRepository;
     private final GuestUserRepository guestUserRepository;
     private final AppUserRepository appUserRepository;
-    private final ActiveVisitorRepository visitorRepository;
+    private final VisitorAnalyticsService visitorAnalyticsService;
+    private final DashboardLiveMetricsService liveMetricsService;
+    private final DashboardEventStream eventStream;
+    private final DashboardRollupService dashboardRollupService;
+
+    /**
+     * Canlı dashboard akışı (Server-Sent Events)
+     * İlk olay "snapshot" (tam durum); ardından "order", "revenue", "visitors", "messages", "low-stock" delta olayları.
+     * GET /api/admin/dashboard/stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream() {
+        SseEmitter emitter = eventStream.subscribe("snapshot", liveMetricsService.snapshot());
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
 
     @GetMapping("/stats")
     public ResponseEntity<?> getStats(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
@@ -48,51 +60,29 @@ public class AdminDashboardController {
         long totalProducts = productRepository.count();
         stats.put("totalProducts", totalProducts);
         
-        // Sipariş istatistikleri
-        long totalOrders = orderRepository.count();
-        stats.put("totalOrders", totalOrders);
-        
+        // Sipariş, gelir, yorum ve mesaj istatistikleri (saatlik özet tablosundan, sipariş sayısından bağımsız)
+        DashboardRollupService.DashboardSummary summary = dashboardRollupService.summary(7);
+        stats.put("totalOrders", summary.totalOrders());
+
         // Duruma göre sipariş sayıları
         Map<String, Long> ordersByStatus = new HashMap<>();
-        for (OrderStatus status : OrderStatus.values()) {
-            long count = orderRepository.countByStatus(status);
-            ordersByStatus.put(status.name(), count);
-        }
+        summary.ordersByStatus().forEach((status, count) -> ordersByStatus.put(status.name(), count));
         stats.put("ordersByStatus", ordersByStatus);
         
         // Toplam gelir (PAID, DELIVERED, COMPLETED durumundaki siparişler)
-        BigDecimal totalRevenue = orderRepository.findAll().stream()
-                .filter(o -> o.getStatus() == OrderStatus.ODENDI ||
-                           o.getStatus() == OrderStatus.TESLIM_EDILDI ||
-                           o.getStatus() == OrderStatus.TAMAMLANDI)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.put("totalRevenue", totalRevenue);
+        stats.put("totalRevenue", summary.totalRevenue());
         
         // Bugünkü siparişler
-        long todayOrders = orderRepository.findAll().stream()
-                .filter(o -> o.getCreatedAt().toLocalDate().equals(LocalDateTime.now().toLocalDate()))
-                .count();
-        stats.put("todayOrders", todayOrders);
+        stats.put("todayOrders", summary.todayOrders());
         
-        // Bekleyen mesajlar (doğrulanmış ama yanıtlanmamış)
-        long pendingMessages = contactUsRepository.findAll().stream()
-                .filter(ContactUs::isVerified)
-                .count();
-        stats.put("pendingMessages", pendingMessages);
+        // Bekleyen mesajlar (doğrulanmış)
+        stats.put("pendingMessages", summary.verifiedMessages());
         
         // Yorum istatistikleri
-        long totalReviews = reviewRepository.count();
-        long activeReviews = reviewRepository.findAllActive().size();
-        long pendingReviews = totalReviews - activeReviews;
-        Double averageRating = reviewRepository.findAllActive().stream()
-                .mapToInt(r -> r.getRating() != null ? r.getRating() : 0)
-                .average()
-                .orElse(0.0);
-        stats.put("totalReviews", totalReviews);
-        stats.put("activeReviews", activeReviews);
-        stats.put("pendingReviews", pendingReviews);
-        stats.put("averageRating", averageRating);
+        stats.put("totalReviews", summary.totalReviews());
+        stats.put("activeReviews", summary.activeReviews());
+        stats.put("pendingReviews", summary.totalReviews() - summary.activeReviews());
+        stats.put("averageRating", summary.averageRating());
         
         // Guest kullanıcı istatistikleri
         long totalGuests = guestUserRepository.countAllGuests();
@@ -101,17 +91,14 @@ public class AdminDashboardController {
         stats.put("totalGuests", totalGuests);
         stats.put("activeGuestsLast24Hours", activeGuestsLast24Hours);
         
-        // Aktif ziyaretçi istatistikleri
-        LocalDateTime last5Minutes = LocalDateTime.now().minusMinutes(5);
-        long activeVisitorsNow = visitorRepository.countActiveVisitors(last5Minutes);
-        LocalDateTime last1Hour = LocalDateTime.now().minusHours(1);
-        long activeVisitorsLastHour = visitorRepository.countActiveVisitors(last1Hour);
-        stats.put("activeVisitorsNow", activeVisitorsNow);
-        stats.put("activeVisitorsLastHour", activeVisitorsLastHour);
+        // Aktif ziyaretçi istatistikleri (bellekteki zaman çarkından)
+        VisitorAnalyticsService.RealTimeStats realTime = visitorAnalyticsService.getRealTimeStats();
+        stats.put("activeVisitorsNow", realTime.last5Minutes().total());
+        stats.put("activeVisitorsLastHour", realTime.lastHour().total());
 
-        long activeGuestSessions = visitorRepository.countActiveVisitorsByType(last5Minutes, VisitorType.MISAFIR);
-        long activeUserSessions = visitorRepository.countActiveVisitorsByType(last5Minutes, VisitorType.KULLANICI);
-        long activeAdminSessions = visitorRepository.countActiveVisitorsByType(last5Minutes, VisitorType.YONETICI);
+        long activeGuestSessions = realTime.last5Minutes().byVisitorType().getOrDefault(VisitorType.MISAFIR, 0L);
+        long activeUserSessions = realTime.last5Minutes().byVisitorType().getOrDefault(VisitorType.KULLANICI, 0L);
+        long activeAdminSessions = realTime.last5Minutes().byVisitorType().getOrDefault(VisitorType.YONETICI, 0L);
         stats.put("activeGuestSessions", activeGuestSessions);
         stats.put("activeUserSessions", activeUserSessions);
         stats.put("activeAdminSessions", activeAdminSessions);
@@ -136,15 +123,7 @@ public class AdminDashboardController {
         stats.put("usersLoggedLast24Hours", usersLoggedLast24Hours);
         
         // Son 7 günlük sipariş trendi
-        Map<String, Long> ordersLast7Days = new HashMap<>();
-        for (int i = 6; i >= 0; i--) {
-            LocalDateTime date = LocalDateTime.now().minusDays(i);
-            long count = orderRepository.findAll().stream()
-                    .filter(o -> o.getCreatedAt().toLocalDate().equals(date.toLocalDate()))
-                    .count();
-            ordersLast7Days.put(date.toLocalDate().toString(), count);
-        }
-        stats.put("ordersLast7Days", ordersLast7Days);
+        stats.put("ordersLast7Days", new HashMap<>(summary.ordersByDay()));
         
         // ETag oluştur (stats verisinin hash'i)
         String etag = generateETag(stats);
@@ -168,6 +147,16 @@ public class AdminDashboardController {
                 .body(DataResponseMessage.success("İstatistikler başarıyla getirildi", stats));
     }
     
+    /**
+     * Dashboard özet tablosunu kaynak tablolardan yeniden hesapla (backfill)
+     * POST /api/admin/dashboard/rollups/rebuild
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<DataResponseMessage<Void>> rebuildRollups() {
+        dashboardRollupService.backfill();
+        return ResponseEntity.ok(DataResponseMessage.success("Dashboard özetleri yeniden hesaplandı", null));
+    }
+    
     /**
      * Stats verisinden ETag oluştur
      */
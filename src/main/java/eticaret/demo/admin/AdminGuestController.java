@@ -4,8 +4,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import eticaret.demo.guest.GuestUser;
 import eticaret.demo.guest.GuestUserRepository;
+import eticaret.demo.common.paging.KeysetCursor;
+import eticaret.demo.common.paging.KeysetPage;
+import eticaret.demo.common.paging.KeysetPager;
 import eticaret.demo.common.response.DataResponseMessage;
 
 import java.time.LocalDateTime;
@@ -24,15 +28,36 @@ import java.util.Map;
 public class AdminGuestController {
 
     private final GuestUserRepository guestUserRepository;
+    private final KeysetPager keysetPager;
 
     /**
-     * Tüm guest kullanıcıları listele (admin)
-     * GET /api/admin/guests
+     * Guest kullanıcıları keyset sayfalama ile listele (en yeni önce)
+     * GET /api/admin/guests?size=50&cursor=...&query=gmail
      */
     @GetMapping
-    public ResponseEntity<DataResponseMessage<List<GuestUser>>> getAllGuests() {
-        List<GuestUser> guests = guestUserRepository.findAll();
-        return ResponseEntity.ok(DataResponseMessage.success("Guest kullanıcılar başarıyla getirildi", guests));
+    public ResponseEntity<DataResponseMessage<KeysetPage<GuestUser>>> getAllGuests(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String query) {
+        KeysetPage<GuestUser> page = keysetPager.page(cursor, size, guestQuery(query),
+                guest -> KeysetCursor.ofId(guest.getId()), guest -> guest,
+                KeysetPager.containsPattern(query) != null ? null : keysetPager.estimateRows("guest_users"));
+        return ResponseEntity.ok(DataResponseMessage.success("Guest kullanıcılar başarıyla getirildi", page));
+    }
+
+    /**
+     * Filtreye uyan tüm guest kullanıcıları JSON dizisi olarak indir (akış)
+     * GET /api/admin/guests/export?query=gmail
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportGuests(@RequestParam(required = false) String query) {
+        return keysetPager.export("guests.json", guestQuery(query),
+                guest -> KeysetCursor.ofId(guest.getId()), guest -> guest);
+    }
+
+    private KeysetPager.KeysetQuery<GuestUser> guestQuery(String query) {
+        String emailPattern = KeysetPager.containsPattern(query);
+        return (after, limit) -> guestUserRepository.findAdminPage(after.id(), emailPattern, limit);
     }
 
     /**
@@ -1,8 +1,10 @@
 package eticaret.demo.admin;
 
 import lombok.RequiredArgsConstructor;
+import eticaret.demo.security.ip.IpAccessControlService;
+import eticaret.demo.security.ip.IpRulesChangedEvent;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +17,8 @@ import java.util.stream.Collectors;
 public class AdminIpService {
 
     private final AdminAllowedIpRepository adminAllowedIpRepository;
+    private final IpAccessControlService ipAccessControlService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Set<String> getAllowedIps() {
         return adminAllowedIpRepository.findByIsActiveTrue()
@@ -50,6 +54,7 @@ public class AdminIpService {
                     ipEntity.setDescription(description);
                 }
                 adminAllowedIpRepository.save(ipEntity);
+                eventPublisher.publishEvent(new IpRulesChangedEvent());
                 log.info("Admin IP aktif hale getirildi: {}", trimmedIp);
                 return true;
             }
@@ -64,6 +69,7 @@ public class AdminIpService {
                 .build();
         
         adminAllowedIpRepository.save(ipEntity);
+        eventPublisher.publishEvent(new IpRulesChangedEvent());
         log.info("Admin IP eklendi: {}", trimmedIp);
         return true;
     }
@@ -82,6 +88,7 @@ public class AdminIpService {
             AdminAllowedIp entity = ipEntity.get();
             entity.setIsActive(false);
             adminAllowedIpRepository.save(entity);
+            eventPublisher.publishEvent(new IpRulesChangedEvent());
             log.info("Admin IP kaldırıldı (pasif yapıldı): {}", trimmedIp);
             return true;
         }
@@ -100,6 +107,7 @@ public class AdminIpService {
         
         if (ipEntity.isPresent()) {
             adminAllowedIpRepository.delete(ipEntity.get());
+            eventPublisher.publishEvent(new IpRulesChangedEvent());
             log.info("Admin IP kalıcı olarak silindi: {}", trimmedIp);
             return true;
         }
@@ -107,79 +115,21 @@ public class AdminIpService {
         return false;
     }
 
+    /**
+     * IP admin izinli listesinde mi (tam IP veya CIDR)
+     * Kurallar IpAccessControlService'te bellek içi CIDR ağacına derlenmiştir; veritabanı sorgulanmaz.
+     * İzinli listede loopback adresi (127.0.0.1, ::1, 0.0.0.0) varsa tüm loopback adresleri izinlidir.
+     */
     public boolean isAllowed(String ip) {
         if (ip == null) {
             return false;
         }
 
         String trimmedIp = ip.trim();
-        
-        // Localhost varyasyonlarını kontrol et
-        if (trimmedIp.equals("127.0.0.1") || 
-            trimmedIp.equals("0:0:0:0:0:0:0:1") || 
-            trimmedIp.equals("::1") ||
-            trimmedIp.startsWith("127.") ||
-            trimmedIp.equals("localhost")) {
-            // Localhost için özel kontrol
-            Set<String> allowedIps = getAllowedIps();
-            return allowedIps.contains("127.0.0.1") || 
-                   allowedIps.contains("0.0.0.0") ||
-                   allowedIps.contains("::1") ||
-                   allowedIps.contains("0:0:0:0:0:0:0:1") ||
-                   isIpInSubnet(trimmedIp, allowedIps);
-        }
-        
-        // Önce tam IP kontrolü
-        Optional<AdminAllowedIp> exactMatch = adminAllowedIpRepository.findByIpAddress(trimmedIp);
-        if (exactMatch.isPresent() && exactMatch.get().getIsActive()) {
-            return true;
-        }
-        
-        // Subnet kontrolü - tüm aktif IP'leri kontrol et
-        Set<String> allowedIps = getAllowedIps();
-        return isIpInSubnet(trimmedIp, allowedIps);
-    }
-    
-    /**
-     * IP'nin herhangi bir subnet içinde olup olmadığını kontrol eder
-     */
-    private boolean isIpInSubnet(String ip, Set<String> allowedIps) {
-        for (String allowedIp : allowedIps) {
-            if (isIpInSubnet(ip, allowedIp)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    /**
-     * IP'nin belirli bir subnet içinde olup olmadığını kontrol eder
-     * Spring'in IpAddressMatcher'ını kullanarak hem tam IP hem de CIDR formatını destekler
-     */
-    private boolean isIpInSubnet(String ip, String subnet) {
-        if (ip == null || ip.isBlank() || subnet == null || subnet.isBlank()) {
-            return false;
-        }
-        
-        try {
-            // Spring'in IpAddressMatcher'ı hem tam IP hem de CIDR formatını destekler
-            // Örnek: "192.168.1.1" (tam IP) veya "192.168.1.0/24" (CIDR)
-            IpAddressMatcher matcher = new IpAddressMatcher(subnet.trim());
-            boolean matches = matcher.matches(ip.trim());
-            
-            if (matches) {
-                log.debug("IP {} subnet {} ile eşleşti", ip, subnet);
-            }
-            
-            return matches;
-        } catch (IllegalArgumentException e) {
-            // Geçersiz subnet formatı (örn: eksik IP adresi)
-            log.debug("Geçersiz subnet formatı: {} - {}", subnet, e.getMessage());
-            return false;
-        } catch (Exception e) {
-            log.debug("Subnet kontrolü hatası: {} - {}", subnet, e.getMessage());
-            return false;
+        if (trimmedIp.equals("localhost")) {
+            trimmedIp = "127.0.0.1";
         }
+        return ipAccessControlService.isAdminAllowed(trimmedIp);
     }
 
     private boolean isValidIp(String ip) {
@@ -12,6 +12,8 @@ import eticaret.demo.auth.AppUserRepository;
 import eticaret.demo.auth.UserRole;
 import eticaret.demo.common.response.DataResponseMessage;
 import eticaret.demo.mail.EmailMessage;
+import eticaret.demo.mail.EmailPriority;
+import eticaret.demo.mail.EmailQueueSender;
 import eticaret.demo.mail.MailService;
 
 import java.util.Base64;
@@ -27,6 +29,17 @@ public class AdminMailController {
 
     private final MailService mailService;
     private final AppUserRepository userRepository;
+    private final EmailQueueSender emailQueueSender;
+
+    /**
+     * E-posta kuyruğu durumu (öncelik bazında bekleyen/başarısız mail, gecikme, gönderici hızı)
+     * GET /api/admin/mail/queue
+     */
+    @GetMapping("/queue")
+    public ResponseEntity<DataResponseMessage<EmailQueueSender.QueueStatus>> getQueueStatus() {
+        return ResponseEntity.ok(DataResponseMessage.success("E-posta kuyruğu durumu başarıyla getirildi",
+                emailQueueSender.status()));
+    }
 
     /**
      * Toplu mail gönderme endpoint'i
@@ -64,6 +77,7 @@ public class AdminMailController {
                             .subject(request.getSubject())
                             .body(htmlBody)
                             .isHtml(true)
+                            .priority(EmailPriority.MARKETING)
                             .build();
 
                     // Mail'i kuyruğa ekle
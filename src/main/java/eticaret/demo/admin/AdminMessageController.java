@@ -6,21 +6,26 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import eticaret.demo.auth.AppUser;
 
 import eticaret.demo.contact_us.AdminResponseRequest;
 import eticaret.demo.contact_us.ContactUs;
 import eticaret.demo.contact_us.ContactUsRepository;
 import eticaret.demo.mail.EmailMessage;
+import eticaret.demo.mail.EmailPriority;
+import eticaret.demo.mail.MailOutboxHandler;
 import eticaret.demo.mail.MailService;
 import eticaret.demo.mail.EmailTemplateBuilder;
 import eticaret.demo.mail.EmailTemplateModel;
+import eticaret.demo.common.paging.KeysetCursor;
+import eticaret.demo.common.paging.KeysetPage;
+import eticaret.demo.common.paging.KeysetPager;
 import eticaret.demo.common.response.DataResponseMessage;
 
 import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin/messages")
@@ -30,18 +35,36 @@ public class AdminMessageController {
 
     private final ContactUsRepository contactUsRepository;
     private final MailService mailService;
+    private final MailOutboxHandler mailOutboxHandler;
+    private final KeysetPager keysetPager;
 
     @GetMapping
-    public ResponseEntity<DataResponseMessage<List<ContactUs>>> getAllMessages(
+    public ResponseEntity<DataResponseMessage<KeysetPage<ContactUs>>> getAllMessages(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
             @RequestParam(required = false) Boolean responded,
             @RequestParam(required = false) Boolean verified) {
-        List<ContactUs> messages = contactUsRepository.findAll().stream()
-                .filter(m -> verified == null || m.isVerified() == verified)
-                .filter(m -> responded == null || m.isResponded() == responded)
-                .sorted((m1, m2) -> m2.getCreatedAt().compareTo(m1.getCreatedAt()))
-                .collect(Collectors.toList());
+        KeysetPage<ContactUs> page = keysetPager.page(cursor, size, messageQuery(verified, responded),
+                AdminMessageController::cursorOf, message -> message,
+                verified == null && responded == null ? keysetPager.estimateRows("contact_us") : null);
         
-        return ResponseEntity.ok(DataResponseMessage.success("Mesajlar başarıyla getirildi", messages));
+        return ResponseEntity.ok(DataResponseMessage.success("Mesajlar başarıyla getirildi", page));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @RequestParam(required = false) Boolean responded,
+            @RequestParam(required = false) Boolean verified) {
+        return keysetPager.export("messages.json", messageQuery(verified, responded),
+                AdminMessageController::cursorOf, message -> message);
+    }
+
+    private KeysetPager.KeysetQuery<ContactUs> messageQuery(Boolean verified, Boolean responded) {
+        return (after, limit) -> contactUsRepository.findAdminPage(after.sortValue(), after.id(), verified, responded, limit);
+    }
+
+    private static KeysetCursor cursorOf(ContactUs message) {
+        return new KeysetCursor(message.getCreatedAt(), message.getId());
     }
 
     @GetMapping("/{id}")
@@ -91,7 +114,7 @@ public class AdminMessageController {
                     .isHtml(true)
                     .build();
 
-            mailService.queueEmail(emailMessage);
+            mailOutboxHandler.enqueue(emailMessage);
 
             return ResponseEntity.ok(DataResponseMessage.success(
                     "Yanıt başarıyla gönderildi: " + contact.getEmail(),
@@ -107,9 +130,7 @@ public class AdminMessageController {
     public ResponseEntity<DataResponseMessage<Void>> sendBroadcastMessage(
             @RequestBody BroadcastMessageRequest request) {
         try {
-            List<ContactUs> verifiedContacts = contactUsRepository.findAll().stream()
-                    .filter(ContactUs::isVerified)
-                    .collect(Collectors.toList());
+            List<ContactUs> verifiedContacts = contactUsRepository.findByVerifiedTrue();
 
             for (ContactUs contact : verifiedContacts) {
                 String emailBody = buildBroadcastEmail(
@@ -122,6 +143,7 @@ public class AdminMessageController {
                         .subject(request.getSubject())
                         .body(emailBody)
                         .isHtml(true)
+                        .priority(EmailPriority.MARKETING)
                         .build();
                 mailService.queueEmail(emailMessage);
             }
@@ -5,6 +5,8 @@ import eticaret.demo.auth.AppUserRepository;
 import eticaret.demo.auth.UserRole;
 import eticaret.demo.common.config.AppUrlConfig;
 import eticaret.demo.mail.EmailMessage;
+import eticaret.demo.mail.EmailPriority;
+import eticaret.demo.mail.MailOutboxHandler;
 import eticaret.demo.mail.MailService;
 import eticaret.demo.mail.EmailTemplateBuilder;
 import eticaret.demo.mail.EmailTemplateModel;
@@ -27,6 +29,7 @@ public class AdminNotificationService {
     private final AdminPreferenceRepository adminPreferenceRepository;
     private final AppUserRepository appUserRepository;
     private final MailService mailService;
+    private final MailOutboxHandler mailOutboxHandler;
     private final AppUrlConfig appUrlConfig;
 
     /**
@@ -52,9 +55,9 @@ public class AdminNotificationService {
     }
 
     /**
-     * Yeni sipariş bildirimi gönder
+     * Yeni sipariş bildirimi gönder (mailler çağıranın transaction'ında outbox'a yazılır)
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public void sendOrderNotification(String orderNumber, String customerEmail, String customerName, 
                                      java.math.BigDecimal totalAmount) {
         List<AppUser> admins = appUserRepository.findByRole(UserRole.ADMIN);
@@ -75,9 +78,9 @@ public class AdminNotificationService {
     }
 
     /**
-     * Yeni kullanıcı bildirimi gönder
+     * Yeni kullanıcı bildirimi gönder (mailler çağıranın transaction'ında outbox'a yazılır)
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public void sendUserNotification(String userEmail, String userName) {
         List<AppUser> admins = appUserRepository.findByRole(UserRole.ADMIN);
         
@@ -104,8 +107,10 @@ public class AdminNotificationService {
                 .subject("Sistem Hatası Bildirimi - HIEDRA HOME COLLECTION")
                 .body(emailBody)
                 .isHtml(true)
+                .priority(EmailPriority.NOTIFICATION)
                 .build();
 
+        // Hata veritabanı kaynaklı olabilir; outbox yerine doğrudan mail kuyruğuna alınır
         mailService.queueEmail(emailMessage);
         log.info("Sistem hatası bildirimi gönderildi - Admin: {}", admin.getEmail());
     }
@@ -119,9 +124,10 @@ public class AdminNotificationService {
                 .subject("Yeni Sipariş - " + orderNumber)
                 .body(emailBody)
                 .isHtml(true)
+                .priority(EmailPriority.NOTIFICATION)
                 .build();
 
-        mailService.queueEmail(emailMessage);
+        mailOutboxHandler.enqueue(emailMessage);
         log.info("Sipariş bildirimi gönderildi - Admin: {}, Sipariş: {}", admin.getEmail(), orderNumber);
     }
 
@@ -133,9 +139,10 @@ public class AdminNotificationService {
                 .subject("Yeni Kullanıcı Kaydı - HIEDRA HOME COLLECTION")
                 .body(emailBody)
                 .isHtml(true)
+                .priority(EmailPriority.NOTIFICATION)
                 .build();
 
-        mailService.queueEmail(emailMessage);
+        mailOutboxHandler.enqueue(emailMessage);
         log.info("Kullanıcı bildirimi gönderildi - Admin: {}, Kullanıcı: {}", admin.getEmail(), userEmail);
     }
 
@@ -14,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import eticaret.demo.audit.AuditLogService;
 import eticaret.demo.mail.EmailMessage;
+import eticaret.demo.mail.MailOutboxHandler;
 import eticaret.demo.mail.MailService;
 import eticaret.demo.mail.EmailTemplateBuilder;
 import eticaret.demo.mail.EmailTemplateModel;
@@ -48,6 +49,7 @@ public class AdminOrderController {
     private final OrderService orderService;
     private final PaymentService paymentService;
     private final MailService mailService;
+    private final MailOutboxHandler mailOutboxHandler;
     private final AuditLogService auditLogService;
 
     @GetMapping
@@ -157,7 +159,7 @@ public class AdminOrderController {
                     refundRequest.setReason(request.getAdminNotes() != null 
                             ? request.getAdminNotes() 
                             : "Admin tarafından iade yapıldı");
-                    refundRequest.setIp(httpRequest != null ? getClientIpAddress(httpRequest) : "127.0.0.1");
+                    refundRequest.setIp(httpRequest != null ? httpRequest.getRemoteAddr() : "127.0.0.1");
                     
                     log.info("Admin sipariş iadesi başlatılıyor - OrderNumber: {}, PaymentId: {}, RefundAmount: {} TL", 
                             order.getOrderNumber(), refundRequest.getPaymentId(), refundRequest.getRefundAmount());
@@ -536,210 +538,6 @@ public class AdminOrderController {
         }
     }
     
-    /**
-     * Sipariş durumu güncelleme maili gönder
-     */
-    private void sendOrderStatusUpdateEmail(Order order, OrderStatus oldStatus, OrderStatus newStatus) {
-        String subject = "Sipariş Durumu Güncellendi - " + order.getOrderNumber();
-        MailService.OrderStatusEmailPayload payload = new MailService.OrderStatusEmailPayload(
-                order.getCustomerName(),
-                order.getOrderNumber(),
-                getStatusDisplayName(oldStatus),
-                getStatusDisplayName(newStatus),
-                order.getTotalAmount(),
-                null
-        );
-        String body = mailService.buildOrderStatusEmail(payload);
-        
-        EmailMessage emailMessage = EmailMessage.builder()
-                .toEmail(order.getCustomerEmail())
-                .subject(subject)
-                .body(body)
-                .isHtml(true)
-                .build();
-        
-        mailService.queueEmail(emailMessage);
-    }
-    
-    /**
-     * İptal onayı ve para iadesi maili gönder
-     */
-    private void sendOrderApprovalEmail(Order order) {
-        String subject = "Siparişiniz Onaylandı - " + order.getOrderNumber();
-        String body = buildOrderApprovalEmailBody(order);
-        
-        EmailMessage emailMessage = EmailMessage.builder()
-                .toEmail(order.getCustomerEmail())
-                .subject(subject)
-                .body(body)
-                .isHtml(true)
-                .build();
-        
-        mailService.queueEmail(emailMessage);
-    }
-    
-    /**
-     * İade talebi onayı maili gönder
-     */
-    private void sendRefundApprovalEmail(Order order) {
-        String subject = "İade Talebiniz Onaylandı - " + order.getOrderNumber();
-        String body = buildRefundApprovalEmailBody(order);
-        
-        EmailMessage emailMessage = EmailMessage.builder()
-                .toEmail(order.getCustomerEmail())
-                .subject(subject)
-                .body(body)
-                .isHtml(true)
-                .build();
-        
-        mailService.queueEmail(emailMessage);
-    }
-    
-    /**
-     * İade talebi reddi maili gönder
-     */
-    private void sendRefundRejectionEmail(Order order, String reason) {
-        String subject = "İade Talebiniz Değerlendirildi - " + order.getOrderNumber();
-        String body = buildRefundRejectionEmailBody(order, reason);
-        
-        EmailMessage emailMessage = EmailMessage.builder()
-                .toEmail(order.getCustomerEmail())
-                .subject(subject)
-                .body(body)
-                .isHtml(true)
-                .build();
-        
-        mailService.queueEmail(emailMessage);
-    }
-    
-    /**
-     * Sipariş onayı ve para iadesi mail içeriği
-     */
-    private String buildOrderApprovalEmailBody(Order order) {
-        boolean isRefunded = order.getStatus() == OrderStatus.IADE_YAPILDI;
-
-        LinkedHashMap<String, String> details = new LinkedHashMap<>();
-        details.put("Sipariş No", order.getOrderNumber());
-        details.put("Toplam Tutar", formatCurrency(order.getTotalAmount()));
-
-        EmailTemplateModel.EmailTemplateModelBuilder builder = EmailTemplateModel.builder()
-                .title("Siparişiniz Onaylandı")
-                .preheader("İptal ettiğiniz siparişiniz onaylandı.")
-                .greeting("Sayın " + order.getCustomerName() + ",")
-                .paragraphs(List.of(
-                        "İptal talebiniz işleme alındı ve siparişiniz başarıyla onaylandı.",
-                        "Aşağıda siparişinize dair özet bilgileri bulabilirsiniz."
-                ))
-                .details(details)
-                .footerNote("Detaylı bilgi için hesabınızdaki siparişlerim bölümünü ziyaret edebilirsiniz.");
-
-        if (isRefunded) {
-            builder.highlight("Para iadeniz başlatıldı. Bankanıza bağlı olarak 3-5 iş günü içinde hesabınıza yansıyacaktır.");
-        }
-
-        return EmailTemplateBuilder.build(builder.build());
-    }
-    
-    /**
-     * İade onayı mail içeriği
-     */
-    private String buildRefundApprovalEmailBody(Order order) {
-        boolean isRefunded = order.getStatus() == OrderStatus.IADE_YAPILDI;
-
-        LinkedHashMap<String, String> details = new LinkedHashMap<>();
-        details.put("Sipariş No", order.getOrderNumber());
-        details.put("İade Tutarı", formatCurrency(order.getTotalAmount()));
-
-        EmailTemplateModel.EmailTemplateModelBuilder builder = EmailTemplateModel.builder()
-                .title("İade Talebiniz Onaylandı")
-                .preheader("İade talebiniz başarıyla onaylandı.")
-                .greeting("Sayın " + order.getCustomerName() + ",")
-                .paragraphs(List.of(
-                        "Ürün iade talebiniz olumlu değerlendirildi.",
-                        "İade sürecine dair özet bilgileri aşağıda paylaştık."
-                ))
-                .details(details)
-                .footerNote("Süreçle ilgili sorularınız için info@hiedra.com.tr adresine yazabilirsiniz.");
-
-        if (isRefunded) {
-            builder.highlight("Para iadeniz bankanıza iletildi. Hesabınıza yansıması 3-5 iş günü sürebilir.");
-        }
-
-        return EmailTemplateBuilder.build(builder.build());
-    }
-    
-    /**
-     * İade reddi mail içeriği
-     */
-    private String buildRefundRejectionEmailBody(Order order, String reason) {
-        LinkedHashMap<String, String> details = new LinkedHashMap<>();
-        details.put("Sipariş No", order.getOrderNumber());
-        details.put("Talep Edilen Tutar", formatCurrency(order.getTotalAmount()));
-        details.put("Red Nedeni", reason);
-
-        return EmailTemplateBuilder.build(EmailTemplateModel.builder()
-                .title("İade Talebiniz Değerlendirildi")
-                .preheader("İade talebiniz sonuçlandı.")
-                .greeting("Sayın " + order.getCustomerName() + ",")
-                .paragraphs(List.of(
-                        "İade talebiniz değerlendirilmiş ve maalesef reddedilmiştir.",
-                        "Detayları aşağıda bulabilirsiniz."
-                ))
-                .details(details)
-                .highlight("İade talebiniz bu aşamada reddedildi. Dilerseniz müşteri hizmetlerimizle tekrar iletişime geçebilirsiniz.")
-                .footerNote("Destek için info@hiedra.com.tr adresine yazabilirsiniz.")
-                .build());
-    }
-
-    private String formatCurrency(BigDecimal amount) {
-        if (amount == null) {
-            return "-";
-        }
-        return amount.setScale(2, RoundingMode.HALF_UP).toPlainString() + " ₺";
-    }
-    
-    private String getStatusDisplayName(OrderStatus status) {
-        return switch (status) {
-            case ODEME_BEKLIYOR -> "Ödeme Bekleniyor";
-            case ODENDI -> "Ödendi";
-            case ISLEME_ALINDI -> "İşleme Alındı";
-            case KARGOYA_VERILDI -> "Kargoya Verildi";
-            case TESLIM_EDILDI -> "Teslim Edildi";
-            case IPTAL_EDILDI -> "İptal Edildi";
-            case IADE_TALEP_EDILDI -> "İade Talep Edildi";
-            case IADE_YAPILDI -> "İade Yapıldı";
-            case TAMAMLANDI -> "Tamamlandı";
-        };
-    }
-
-    /**
-     * Client IP adresini al
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_CLIENT_IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_X_FORWARDED_FOR");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        
-        // X-Forwarded-For birden fazla IP içerebilir, ilkini al
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
-        }
-        
-        return ip != null ? ip : "UNKNOWN";
-    }
 
     @Data
     public static class UpdateOrderStatusRequest {
@@ -0,0 +1,74 @@
+package eticaret.demo.admin;
+
+import eticaret.demo.common.paging.KeysetPager;
+import eticaret.demo.common.response.DataResponseMessage;
+import eticaret.demo.outbox.OutboxService;
+import eticaret.demo.outbox.OutboxStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Outbox izleme ve dead-letter yönetimi (mail, bildirim, fatura ve ödeme sonrası adımlar)
+ */
+@RestController
+@RequestMapping("/api/admin/outbox")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Slf4j
+public class AdminOutboxController {
+
+    private final OutboxService outboxService;
+
+    /**
+     * Tip ve duruma göre adım sayıları
+     * GET /api/admin/outbox/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<DataResponseMessage<List<OutboxService.OutboxStat>>> getStats() {
+        return ResponseEntity.ok(DataResponseMessage.success("Outbox durumu başarıyla getirildi", outboxService.stats()));
+    }
+
+    /**
+     * Adımlar (varsayılan: dead-letter)
+     * GET /api/admin/outbox?status=FAILED&type=&beforeId=&limit=50
+     */
+    @GetMapping
+    public ResponseEntity<DataResponseMessage<List<OutboxService.OutboxEntry>>> getMessages(
+            @RequestParam(value = "status", defaultValue = "FAILED") OutboxStatus status,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "beforeId", required = false) Long beforeId,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), KeysetPager.MAX_PAGE_SIZE);
+        return ResponseEntity.ok(DataResponseMessage.success("Outbox adımları başarıyla getirildi",
+                outboxService.list(status, type, beforeId, pageSize)));
+    }
+
+    /**
+     * Dead-letter adımı tekrar kuyruğa al
+     * POST /api/admin/outbox/{id}/requeue
+     */
+    @PostMapping("/{id}/requeue")
+    public ResponseEntity<DataResponseMessage<Void>> requeue(@PathVariable Long id) {
+        if (!outboxService.requeue(id)) {
+            return ResponseEntity.badRequest()
+                    .body(DataResponseMessage.error("Adım bulunamadı veya başarısız durumda değil"));
+        }
+        return ResponseEntity.ok(DataResponseMessage.success("Adım tekrar kuyruğa alındı", null));
+    }
+
+    /**
+     * Tipteki tüm dead-letter adımları tekrar kuyruğa al
+     * POST /api/admin/outbox/requeue?type=mail.send
+     */
+    @PostMapping("/requeue")
+    public ResponseEntity<DataResponseMessage<Integer>> requeueByType(@RequestParam("type") String type) {
+        int requeued = outboxService.requeueFailed(type);
+        log.info("Admin outbox tekrar kuyruğa alma - tip: {}, adım: {}", type, requeued);
+        return ResponseEntity.ok(DataResponseMessage.success(requeued + " adım tekrar kuyruğa alındı", requeued));
+    }
+}
@@ -5,6 +5,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import eticaret.demo.cloudinary.MediaUploadService;
@@ -12,9 +14,11 @@ import eticaret.demo.product.Category;
 import eticaret.demo.product.CategoryRepository;
 import eticaret.demo.product.Product;
 import eticaret.demo.product.ProductRepository;
-import eticaret.demo.product.ProductReviewRepository;
-import eticaret.demo.product.ProductViewRepository;
+import eticaret.demo.product.ProductStatsService;
+import eticaret.demo.product.event.CatalogEventPublisher;
+import eticaret.demo.product.stock.InventoryLedger;
 import eticaret.demo.cart.CartItemRepository;
+import eticaret.demo.common.paging.KeysetPager;
 import eticaret.demo.common.response.DataResponseMessage;
 import eticaret.demo.audit.AuditLogService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +26,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,10 +44,11 @@ public class AdminProductController {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final MediaUploadService mediaUploadService;
-    private final ProductReviewRepository reviewRepository;
-    private final ProductViewRepository productViewRepository;
+    private final ProductStatsService productStatsService;
     private final CartItemRepository cartItemRepository;
     private final AuditLogService auditLogService;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final InventoryLedger inventoryLedger;
 
     /**
      * Yeni ürün oluştur
@@ -56,7 +62,7 @@ public class AdminProductController {
             @RequestParam(value = "width", required = false) Double width,
             @RequestParam(value = "height", required = false) Double height,
             @RequestParam(value = "pleatType", required = false) String pleatType,
-            @RequestParam(value = "quantity", required = false) Integer quantity,
+            @RequestParam(value = "quantity", required = false) BigDecimal quantity,
             @RequestParam(value = "categoryId", required = false) Long categoryId,
             @RequestParam(value = "coverImage", required = false) MultipartFile coverImage,
             @RequestParam(value = "detailImage", required = false) MultipartFile detailImage,
@@ -105,7 +111,7 @@ public class AdminProductController {
             product.setWidth(width);
             product.setHeight(height);
             product.setPleatType(pleatType);
-            product.setQuantity(quantity);
+            product.setQuantity(wholeMeters(quantity));
             product.setMountingType(mountingType);
             product.setMaterial(material);
             product.setLightTransmittance(lightTransmittance);
@@ -124,6 +130,8 @@ public class AdminProductController {
             // Önce ürünü kaydet (hızlı geri dönüş için)
             Product saved = productRepository.save(product);
             final Long productId = saved.getId();
+            inventoryLedger.adjustTo(productId, quantity != null ? quantity : BigDecimal.ZERO, stockReference());
+            catalogEventPublisher.productChanged(productId);
 
             // Kapak resmi yükle (asenkron - arka planda, optimize edilmiş)
             if (coverImage != null && !coverImage.isEmpty()) {
@@ -211,23 +219,8 @@ public class AdminProductController {
             try {
                 List<Product> products = productRepository.findAllWithCategory();
                 
-                // Her ürün için yorum sayısı, ortalama puanı ve görüntüleme sayısını ekle
-                for (Product product : products) {
-                    try {
-                        Long reviewCount = reviewRepository.countByProductIdAndActiveTrue(product.getId());
-                        Double averageRating = reviewRepository.calculateAverageRatingByProductId(product.getId());
-                        Long viewCount = productViewRepository.countByProductId(product.getId());
-                        
-                        product.setReviewCount(reviewCount != null ? reviewCount : 0L);
-                        product.setAverageRating(averageRating != null ? averageRating : 0.0);
-                        product.setViewCount(viewCount != null ? viewCount : 0L);
-                    } catch (Exception e) {
-                        log.warn("Ürün {} için istatistik hesaplanırken hata: {}", product.getId(), e.getMessage());
-                        product.setReviewCount(0L);
-                        product.setAverageRating(0.0);
-                        product.setViewCount(0L);
-                    }
-                }
+                // Yorum sayısı, ortalama puan ve görüntüleme sayısını tek sorguda ekle (product_stats)
+                productStatsService.applyTo(products);
                 
                 return ResponseEntity.ok(DataResponseMessage.success("Ürünler başarıyla getirildi", products));
             } catch (Exception e) {
@@ -263,7 +256,7 @@ public class AdminProductController {
             @RequestParam(value = "width", required = false) Double width,
             @RequestParam(value = "height", required = false) Double height,
             @RequestParam(value = "pleatType", required = false) String pleatType,
-            @RequestParam(value = "quantity", required = false) Integer quantity,
+            @RequestParam(value = "quantity", required = false) BigDecimal quantity,
             @RequestParam(value = "price", required = false) BigDecimal price,
             @RequestParam(value = "categoryId", required = false) Long categoryId,
             @RequestParam(value = "coverImage", required = false) MultipartFile coverImage,
@@ -317,7 +310,6 @@ public class AdminProductController {
             if (width != null) product.setWidth(width);
             if (height != null) product.setHeight(height);
             if (pleatType != null) product.setPleatType(pleatType);
-            if (quantity != null) product.setQuantity(quantity);
             if (price != null) product.setPrice(price);
             if (mountingType != null) product.setMountingType(mountingType);
             if (material != null) product.setMaterial(material);
@@ -339,6 +331,9 @@ public class AdminProductController {
 
             // Önce ürünü güncelle
             Product updatedProduct = productRepository.save(product);
+            if (quantity != null) {
+                updatedProduct.setQuantity(adjustStock(id, quantity));
+            }
 
             // Kapak fotoğrafı güncelle (senkron - response'da güncellenmiş URL dönsün)
             if (coverImage != null && !coverImage.isEmpty()) {
@@ -378,6 +373,7 @@ public class AdminProductController {
                 }
             }
 
+            catalogEventPublisher.productChanged(updatedProduct.getId());
             return ResponseEntity.ok(DataResponseMessage.success("Ürün başarıyla güncellendi", updatedProduct));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -403,6 +399,7 @@ public class AdminProductController {
                     product.setDetailImageUrl(imageUrl);
                 }
                 productRepository.saveAndFlush(product); // Flush ile hemen commit et
+                catalogEventPublisher.productChanged(productId);
                 log.info("Ürün {} fotoğraf URL'si güncellendi: {}", isCoverImage ? "kapak" : "detay", imageUrl);
             } else {
                 log.warn("Ürün bulunamadı, fotoğraf URL'si güncellenemedi: productId={}", productId);
@@ -437,6 +434,7 @@ public class AdminProductController {
             
             // Sonra ürünü sil
             productRepository.deleteById(id);
+            catalogEventPublisher.productDeleted(id);
             
             log.info("Ürün başarıyla silindi: {}", id);
             return ResponseEntity.ok(new DataResponseMessage<>("Ürün başarıyla silindi", true, null));
@@ -453,17 +451,34 @@ public class AdminProductController {
     @PatchMapping("/{id}/stock")
     public ResponseEntity<DataResponseMessage<Product>> updateStock(
             @PathVariable Long id,
-            @RequestParam("quantity") Integer quantity) {
+            @RequestParam("quantity") BigDecimal quantity) {
         Optional<Product> productOpt = productRepository.findById(id);
         if (productOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
         Product product = productOpt.get();
-        product.setQuantity(quantity);
-        Product updatedProduct = productRepository.save(product);
+        inventoryLedger.adjustTo(id, quantity, stockReference());
+        product.setQuantity(wholeMeters(quantity));
+
+        return ResponseEntity.ok(DataResponseMessage.success("Stok başarıyla güncellendi", product));
+    }
 
-        return ResponseEntity.ok(DataResponseMessage.success("Stok başarıyla güncellendi", updatedProduct));
+    /**
+     * Ürün stok bakiyesi ve hareketleri (admin denetimi)
+     * GET /api/admin/products/{id}/inventory?beforeId=&limit=50
+     */
+    @GetMapping("/{id}/inventory")
+    public ResponseEntity<DataResponseMessage<InventoryLedger.LedgerView>> getInventory(
+            @PathVariable Long id,
+            @RequestParam(value = "beforeId", required = false) Long beforeId,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        if (!productRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        int pageSize = Math.min(Math.max(limit, 1), KeysetPager.MAX_PAGE_SIZE);
+        return ResponseEntity.ok(DataResponseMessage.success("Stok hareketleri başarıyla getirildi",
+                inventoryLedger.view(id, beforeId, pageSize)));
     }
 
     /**
@@ -482,8 +497,32 @@ public class AdminProductController {
         Product product = productOpt.get();
         product.setPrice(price);
         Product updatedProduct = productRepository.save(product);
+        catalogEventPublisher.productChanged(id);
 
         return ResponseEntity.ok(DataResponseMessage.success("Fiyat başarıyla güncellendi", updatedProduct));
     }
-}
 
+    /**
+     * Ürün formundan gelen stoğu ledger'a yaz
+     * Formdaki değer mevcut bakiyenin tam metre kısmı ile aynıysa stok değiştirilmemiş sayılır (kesirli bakiye korunur).
+     *
+     * @return güncel tam metre
+     */
+    private Integer adjustStock(Long productId, BigDecimal quantity) {
+        BigDecimal current = inventoryLedger.available(productId);
+        boolean unchanged = quantity.stripTrailingZeros().scale() <= 0
+                && quantity.compareTo(new BigDecimal(wholeMeters(current))) == 0;
+        BigDecimal target = unchanged ? current : quantity;
+        inventoryLedger.adjustTo(productId, target, stockReference());
+        return wholeMeters(target);
+    }
+
+    private static Integer wholeMeters(BigDecimal meters) {
+        return meters == null ? null : Math.max(0, meters.setScale(0, RoundingMode.FLOOR).intValue());
+    }
+
+    private static String stockReference() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return "admin:" + (authentication != null ? authentication.getName() : "unknown");
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import eticaret.demo.product.ProductView;
+import eticaret.demo.product.ProductViewIngestionService;
 import eticaret.demo.product.ProductViewRepository;
 import eticaret.demo.product.ProductRepository;
 import eticaret.demo.common.response.DataResponseMessage;
@@ -27,6 +28,7 @@ public class AdminProductViewController {
 
     private final ProductViewRepository productViewRepository;
     private final ProductRepository productRepository;
+    private final ProductViewIngestionService productViewIngestionService;
 
     /**
      * Tüm görüntülemeleri listele (admin)
@@ -128,5 +130,14 @@ public class AdminProductViewController {
                 .collect(Collectors.toList());
         return ResponseEntity.ok(DataResponseMessage.success("Görüntülemeler başarıyla getirildi", views));
     }
-}
 
+    /**
+     * Görüntüleme yazma kuyruğu istatistikleri (kuyruk derinliği, düşürülen/yazılan kayıtlar)
+     * GET /api/admin/product-views/ingestion
+     */
+    @GetMapping("/ingestion")
+    public ResponseEntity<DataResponseMessage<ProductViewIngestionService.IngestionStats>> getIngestionStats() {
+        return ResponseEntity.ok(DataResponseMessage.success(
+                "Görüntüleme kuyruğu istatistikleri getirildi", productViewIngestionService.getStats()));
+    }
+}
@@ -0,0 +1,44 @@
+package eticaret.demo.admin;
+
+import eticaret.demo.common.response.DataResponseMessage;
+import eticaret.demo.recommendation.ProductNeighborIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin öneri indeksi izleme ve yeniden hesaplama endpoint'leri
+ */
+@RestController
+@RequestMapping("/api/admin/recommendations")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Slf4j
+public class AdminRecommendationController {
+
+    private final ProductNeighborIndexService productNeighborIndexService;
+
+    /**
+     * Ürün komşuluk indeksi durumu
+     * GET /api/admin/recommendations/index
+     */
+    @GetMapping("/index")
+    public ResponseEntity<DataResponseMessage<ProductNeighborIndexService.IndexStats>> getIndexStats() {
+        return ResponseEntity.ok(DataResponseMessage.success("Öneri indeksi durumu getirildi",
+                productNeighborIndexService.getStats()));
+    }
+
+    /**
+     * Ürün komşuluk indeksini hemen yeniden hesapla
+     * POST /api/admin/recommendations/index/rebuild
+     */
+    @PostMapping("/index/rebuild")
+    public ResponseEntity<DataResponseMessage<ProductNeighborIndexService.IndexStats>> rebuildIndex() {
+        productNeighborIndexService.rebuild();
+        log.info("Öneri indeksi admin tarafından yeniden hesaplandı");
+        return ResponseEntity.ok(DataResponseMessage.success("Öneri indeksi yeniden hesaplandı",
+                productNeighborIndexService.getStats()));
+    }
+}
@@ -0,0 +1,104 @@
+package eticaret.demo.admin;
+
+import eticaret.demo.common.response.DataResponseMessage;
+import eticaret.demo.product.ProductRepository;
+import eticaret.demo.product.search.ProductSearchIndex;
+import eticaret.demo.product.search.ProductSearchService;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin arama indeksi izleme ve karşılaştırma (benchmark) endpoint'leri
+ */
+@RestController
+@RequestMapping("/api/admin/search")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Slf4j
+public class AdminSearchController {
+
+    private static final int MAX_ITERATIONS = 200;
+
+    private final ProductSearchService productSearchService;
+    private final ProductRepository productRepository;
+
+    /**
+     * Arama indeksi durumu
+     * GET /api/admin/search/index
+     */
+    @GetMapping("/index")
+    public ResponseEntity<DataResponseMessage<IndexStatsResponse>> getIndexStats() {
+        ProductSearchIndex index = productSearchService.currentIndex();
+        IndexStatsResponse response = IndexStatsResponse.builder()
+                .documentCount(index.documentCount())
+                .termCount(index.termCount())
+                .build();
+        return ResponseEntity.ok(DataResponseMessage.success("Arama indeksi durumu getirildi", response));
+    }
+
+    /**
+     * Aynı anahtar kelime için bellek içi indeks ile eski LIKE sorgusunu karşılaştır
+     * GET /api/admin/search/benchmark?keyword=perde&iterations=20
+     */
+    @GetMapping("/benchmark")
+    public ResponseEntity<DataResponseMessage<BenchmarkResponse>> benchmark(
+            @RequestParam String keyword,
+            @RequestParam(required = false, defaultValue = "20") int iterations) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return ResponseEntity.badRequest().body(DataResponseMessage.error("Arama kelimesi boş olamaz"));
+        }
+        String trimmed = keyword.trim();
+        int runs = Math.max(1, Math.min(iterations, MAX_ITERATIONS));
+
+        // Isınma (JIT, bağlantı havuzu, indeks oluşturma)
+        int indexHits = productSearchService.search(trimmed).products().size();
+        int likeHits = productRepository.searchByKeyword(trimmed).size();
+
+        long indexStart = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            productSearchService.search(trimmed);
+        }
+        long indexAvgMicros = (System.nanoTime() - indexStart) / runs / 1_000;
+
+        long likeStart = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            productRepository.searchByKeyword(trimmed);
+        }
+        long likeAvgMicros = (System.nanoTime() - likeStart) / runs / 1_000;
+
+        BenchmarkResponse response = BenchmarkResponse.builder()
+                .keyword(trimmed)
+                .iterations(runs)
+                .indexAvgMicros(indexAvgMicros)
+                .indexResultCount(indexHits)
+                .likeQueryAvgMicros(likeAvgMicros)
+                .likeQueryResultCount(likeHits)
+                .build();
+        log.info("Arama karşılaştırması '{}': indeks {} µs ({} sonuç), LIKE {} µs ({} sonuç)",
+                trimmed, indexAvgMicros, indexHits, likeAvgMicros, likeHits);
+        return ResponseEntity.ok(DataResponseMessage.success("Arama karşılaştırması tamamlandı", response));
+    }
+
+    @Data
+    @Builder
+    public static class IndexStatsResponse {
+        private int documentCount;
+        private int termCount;
+    }
+
+    @Data
+    @Builder
+    public static class BenchmarkResponse {
+        private String keyword;
+        private int iterations;
+        private long indexAvgMicros;
+        private int indexResultCount;
+        private long likeQueryAvgMicros;
+        private int likeQueryResultCount;
+    }
+}
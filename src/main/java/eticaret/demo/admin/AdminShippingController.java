@@ -2,9 +2,14 @@ package eticaret.demo.admin;
 
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import eticaret.demo.common.paging.KeysetCursor;
+import eticaret.demo.common.paging.KeysetPage;
+import eticaret.demo.common.paging.KeysetPager;
 import eticaret.demo.common.response.DataResponseMessage;
 import eticaret.demo.order.Order;
 import eticaret.demo.order.OrderRepository;
@@ -16,11 +21,12 @@ import eticaret.demo.address.Address;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/admin/shipping")
@@ -29,44 +35,68 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AdminShippingController {
 
+    private static final Set<OrderStatus> SHIPPING_STATUSES = EnumSet.of(
+            OrderStatus.ODENDI, OrderStatus.ISLEME_ALINDI, OrderStatus.KARGOYA_VERILDI, OrderStatus.TESLIM_EDILDI);
+
     private final OrderRepository orderRepository;
     private final DhlService dhlService;
     private final ShipmentRepository shipmentRepository;
+    private final KeysetPager keysetPager;
 
+    /**
+     * Kargo sürecindeki siparişler, keyset sayfalama ile (en yeni önce)
+     * GET /api/admin/shipping?size=50&cursor=...
+     */
     @GetMapping
-    public ResponseEntity<DataResponseMessage<List<ShippingInfo>>> getAllShipping() {
-        List<Order> orders = orderRepository.findAllByOrderByCreatedAtDesc();
-        List<ShippingInfo> shippingList = orders.stream()
-                .filter(order -> order.getStatus() == OrderStatus.ODENDI ||
-                               order.getStatus() == OrderStatus.ISLEME_ALINDI ||
-                               order.getStatus() == OrderStatus.KARGOYA_VERILDI ||
-                               order.getStatus() == OrderStatus.TESLIM_EDILDI)
-                .map(order -> {
-                    ShippingInfo info = new ShippingInfo();
-                    info.setOrderId(order.getId());
-                    info.setOrderNumber(order.getOrderNumber());
-                    info.setCustomerName(order.getCustomerName());
-                    info.setCustomerEmail(order.getCustomerEmail());
-                    info.setCustomerPhone(order.getCustomerPhone());
-                    info.setStatus(order.getStatus().name());
-                    info.setTotalAmount(order.getTotalAmount());
-                    info.setCreatedAt(order.getCreatedAt());
-                    info.setTrackingNumber(order.getTrackingNumber());
-                    info.setCarrier(order.getCarrier());
-                    info.setShippedAt(order.getShippedAt());
-                    if (order.getAddresses() != null && !order.getAddresses().isEmpty()) {
-                        var address = order.getAddresses().get(0);
-                        info.setShippingAddress(String.format("%s %s, %s/%s", 
-                                address.getAddressLine(),
-                                address.getAddressDetail() != null ? address.getAddressDetail() : "",
-                                address.getDistrict(),
-                                address.getCity()));
-                    }
-                    return info;
-                })
-                .collect(Collectors.toList());
+    public ResponseEntity<DataResponseMessage<KeysetPage<ShippingInfo>>> getAllShipping(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        KeysetPage<ShippingInfo> page = keysetPager.page(cursor, size, this::fetchShippingOrders,
+                AdminShippingController::cursorOf, this::toShippingInfo, null);
         
-        return ResponseEntity.ok(DataResponseMessage.success("Kargo bilgileri başarıyla getirildi", shippingList));
+        return ResponseEntity.ok(DataResponseMessage.success("Kargo bilgileri başarıyla getirildi", page));
+    }
+
+    /**
+     * Kargo sürecindeki tüm siparişleri JSON dizisi olarak indir (akış)
+     * GET /api/admin/shipping/export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportShipping() {
+        return keysetPager.export("shipping.json", this::fetchShippingOrders,
+                AdminShippingController::cursorOf, this::toShippingInfo);
+    }
+
+    private List<Order> fetchShippingOrders(KeysetCursor after, Pageable limit) {
+        return orderRepository.findKeysetPageByStatusIn(SHIPPING_STATUSES, after.sortValue(), after.id(), limit);
+    }
+
+    private static KeysetCursor cursorOf(Order order) {
+        return new KeysetCursor(order.getCreatedAt(), order.getId());
+    }
+
+    private ShippingInfo toShippingInfo(Order order) {
+        ShippingInfo info = new ShippingInfo();
+        info.setOrderId(order.getId());
+        info.setOrderNumber(order.getOrderNumber());
+        info.setCustomerName(order.getCustomerName());
+        info.setCustomerEmail(order.getCustomerEmail());
+        info.setCustomerPhone(order.getCustomerPhone());
+        info.setStatus(order.getStatus().name());
+        info.setTotalAmount(order.getTotalAmount());
+        info.setCreatedAt(order.getCreatedAt());
+        info.setTrackingNumber(order.getTrackingNumber());
+        info.setCarrier(order.getCarrier());
+        info.setShippedAt(order.getShippedAt());
+        if (order.getAddresses() != null && !order.getAddresses().isEmpty()) {
+            var address = order.getAddresses().get(0);
+            info.setShippingAddress(String.format("%s %s, %s/%s", 
+                    address.getAddressLine(),
+                    address.getAddressDetail() != null ? address.getAddressDetail() : "",
+                    address.getDistrict(),
+                    address.getCity()));
+        }
+        return info;
     }
 
     @PutMapping("/{orderId}/tracking")
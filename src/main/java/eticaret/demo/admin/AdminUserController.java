@@ -2,15 +2,18 @@ package eticaret.demo.admin;
 
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import eticaret.demo.address.Address;
 import eticaret.demo.address.AdresRepository;
 import eticaret.demo.audit.AuditLog;
 import eticaret.demo.audit.AuditLogRepository;
 import eticaret.demo.auth.AppUser;
 import eticaret.demo.auth.AppUserRepository;
+import eticaret.demo.auth.UserRole;
 import eticaret.demo.cart.Cart;
 import eticaret.demo.cart.CartRepository;
 import eticaret.demo.coupon.CouponUsage;
@@ -19,6 +22,9 @@ import eticaret.demo.order.Order;
 import eticaret.demo.order.OrderRepository;
 import eticaret.demo.product.ProductReview;
 import eticaret.demo.product.ProductReviewRepository;
+import eticaret.demo.common.paging.KeysetCursor;
+import eticaret.demo.common.paging.KeysetPage;
+import eticaret.demo.common.paging.KeysetPager;
 import eticaret.demo.common.response.DataResponseMessage;
 
 
@@ -34,6 +40,8 @@ import java.util.stream.Collectors;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminUserController {
 
+    private static final int SEARCH_LIMIT = 50;
+
     private final AppUserRepository userRepository;
     private final AuditLogRepository auditLogRepository;
     private final AdresRepository addressRepository;
@@ -41,23 +49,54 @@ public class AdminUserController {
     private final CouponUsageRepository couponUsageRepository;
     private final ProductReviewRepository productReviewRepository;
     private final OrderRepository orderRepository;
+    private final KeysetPager keysetPager;
 
+    /**
+     * Kullanıcıları keyset sayfalama ile listele (en yeni önce)
+     * GET /api/admin/users?size=50&cursor=...&role=USER&active=true&query=gmail
+     */
     @GetMapping
-    public ResponseEntity<DataResponseMessage<List<UserSummary>>> getAllUsers() {
-        List<AppUser> users = userRepository.findAll();
-        List<UserSummary> summaries = users.stream()
-                .map(user -> UserSummary.builder()
-                        .id(user.getId())
-                        .email(user.getEmail())
-                        .role(user.getRole().name())
-                        .emailVerified(user.isEmailVerified())
-                        .active(user.isActive())
-                        .lastLoginAt(user.getLastLoginAt())
-                        .createdAt(user.getCreatedAt())
-                        .build())
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(DataResponseMessage.success("Kullanıcılar başarıyla getirildi", summaries));
+    public ResponseEntity<DataResponseMessage<KeysetPage<UserSummary>>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String query) {
+        boolean filtered = role != null || active != null || KeysetPager.containsPattern(query) != null;
+        KeysetPage<UserSummary> page = keysetPager.page(cursor, size, userQuery(role, active, query),
+                user -> KeysetCursor.ofId(user.getId()), this::toSummary,
+                filtered ? null : keysetPager.estimateRows("app_users"));
+        return ResponseEntity.ok(DataResponseMessage.success("Kullanıcılar başarıyla getirildi", page));
+    }
+
+    /**
+     * Filtreye uyan tüm kullanıcıları JSON dizisi olarak indir (akış)
+     * GET /api/admin/users/export?role=USER&active=true&query=gmail
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String query) {
+        return keysetPager.export("users.json", userQuery(role, active, query),
+                user -> KeysetCursor.ofId(user.getId()), this::toSummary);
+    }
+
+    private KeysetPager.KeysetQuery<AppUser> userQuery(UserRole role, Boolean active, String query) {
+        String emailPattern = KeysetPager.containsPattern(query);
+        return (after, limit) -> userRepository.findAdminPage(after.id(), role, active, emailPattern, limit);
+    }
+
+    private UserSummary toSummary(AppUser user) {
+        return UserSummary.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .role(user.getRole().name())
+                .emailVerified(user.isEmailVerified())
+                .active(user.isActive())
+                .lastLoginAt(user.getLastLoginAt())
+                .createdAt(user.getCreatedAt())
+                .build();
     }
 
     /**
@@ -77,24 +116,14 @@ public class AdminUserController {
             userRepository.findByEmailIgnoreCase(query).ifPresent(users::add);
         }
         
-        // Email ile kısmi eşleşme
-        if (users.isEmpty()) {
-            List<AppUser> allUsers = userRepository.findAll();
-            users = allUsers.stream()
-                    .filter(user -> user.getEmail().toLowerCase().contains(query.toLowerCase()))
-                    .collect(Collectors.toList());
+        // Email ile kısmi eşleşme (veritabanında, en yeni SEARCH_LIMIT kullanıcı)
+        if (users.isEmpty() && KeysetPager.containsPattern(query) != null) {
+            users = userRepository.findAdminPage(KeysetCursor.FIRST.id(), null, null,
+                    KeysetPager.containsPattern(query), PageRequest.of(0, SEARCH_LIMIT));
         }
         
         List<UserSummary> summaries = users.stream()
-                .map(user -> UserSummary.builder()
-                        .id(user.getId())
-                        .email(user.getEmail())
-                        .role(user.getRole().name())
-                        .emailVerified(user.isEmailVerified())
-                        .active(user.isActive())
-                        .lastLoginAt(user.getLastLoginAt())
-                        .createdAt(user.getCreatedAt())
-                        .build())
+                .map(this::toSummary)
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(DataResponseMessage.success("Arama sonuçları", summaries));
@@ -216,10 +245,7 @@ public class AdminUserController {
                             .collect(Collectors.toList()));
                     
                     // Siparişler - user field'ına göre veya email'e göre
-                    List<Order> orders = orderRepository.findAllByOrderByCreatedAtDesc().stream()
-                            .filter(order -> (order.getUser() != null && order.getUser().getId().equals(user.getId())) ||
-                                           (order.getCustomerEmail() != null && order.getCustomerEmail().equalsIgnoreCase(user.getEmail())))
-                            .toList();
+                    List<Order> orders = orderRepository.findByUserIdOrCustomerEmail(user.getId(), user.getEmail());
                     details.setOrders(orders.stream()
                             .map(order -> OrderSummary.builder()
                                     .id(order.getId())
@@ -236,26 +262,35 @@ public class AdminUserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Kullanıcı aktivite logları, son aktiviteye göre keyset sayfalama ile
+     * GET /api/admin/users/logs?size=50&cursor=...
+     */
     @GetMapping("/logs")
-    public ResponseEntity<DataResponseMessage<List<UserLog>>> getUserLogs() {
-        List<AppUser> users = userRepository.findAll();
-        List<UserLog> logs = users.stream()
-                .map(user -> UserLog.builder()
+    public ResponseEntity<DataResponseMessage<KeysetPage<UserLog>>> getUserLogs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        KeysetPage<UserLog> page = keysetPager.page(cursor, size,
+                (after, limit) -> userRepository.findActivityPage(after.sortValue(), after.id(), limit),
+                user -> new KeysetCursor(activityAt(user), user.getId()),
+                user -> UserLog.builder()
                         .userId(user.getId())
                         .email(user.getEmail())
                         .action("LOGIN")
-                        .timestamp(user.getLastLoginAt() != null ? user.getLastLoginAt() : user.getCreatedAt())
+                        .timestamp(activityAt(user))
                         .details(Map.of(
                                 "role", user.getRole().name(),
                                 "emailVerified", String.valueOf(user.isEmailVerified()),
                                 "active", String.valueOf(user.isActive())
                         ))
-                        .build())
-                .filter(log -> log.getTimestamp() != null)
-                .sorted((l1, l2) -> l2.getTimestamp().compareTo(l1.getTimestamp()))
-                .collect(Collectors.toList());
+                        .build(),
+                keysetPager.estimateRows("app_users"));
         
-        return ResponseEntity.ok(DataResponseMessage.success("Kullanıcı logları başarıyla getirildi", logs));
+        return ResponseEntity.ok(DataResponseMessage.success("Kullanıcı logları başarıyla getirildi", page));
+    }
+
+    private static LocalDateTime activityAt(AppUser user) {
+        return user.getLastLoginAt() != null ? user.getLastLoginAt() : user.getCreatedAt();
     }
 
     @PutMapping("/{id}/status")
@@ -43,6 +43,16 @@ public class AdminVisitorController {
         return ResponseEntity.ok(DataResponseMessage.success("Aktif ziyaretçiler başarıyla getirildi", activeVisitors));
     }
 
+    /**
+     * Gerçek zamanlı ziyaretçi sayıları (son 5 dakika / son 1 saat, tip ve cihaz kırılımlı)
+     * GET /api/admin/visitors/realtime
+     */
+    @GetMapping("/realtime")
+    public ResponseEntity<DataResponseMessage<VisitorAnalyticsService.RealTimeStats>> getRealTimeStats() {
+        return ResponseEntity.ok(DataResponseMessage.success("Gerçek zamanlı ziyaretçi sayıları getirildi",
+                analyticsService.getRealTimeStats()));
+    }
+
     /**
      * Ziyaretçi istatistikleri (detaylı)
      * GET /api/admin/visitors/stats?since=60 (dakika)
@@ -0,0 +1,132 @@
+package eticaret.demo.admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Admin dashboard SSE abonelikleri
+ * - Her event bir kez JSON'a çevrilir ve tüm açık sekmelere aynı metin gönderilir
+ * - Gönderim tek bir arka plan thread'inde sıralı yapılır; yavaş istemci event'i üreten thread'i bekletmez
+ * - Kopan bağlantılar ilk başarısız gönderimde listeden çıkarılır
+ */
+@Component
+@Slf4j
+public class DashboardEventStream {
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DashboardEventStream(
+            ObjectMapper objectMapper,
+            @Value("${dashboard.stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${dashboard.stream.max-subscribers:100}") int maxSubscribers
+    ) {
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Yeni abonelik aç ve ilk olarak verilen olayı (tam durum) gönder
+     *
+     * @return abone sınırı aşıldıysa null
+     */
+    public SseEmitter subscribe(String initialEventName, Object initialPayload) {
+        if (emitters.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        emitters.add(emitter);
+
+        String data = serialize(initialPayload);
+        sender.execute(() -> send(emitter, SseEmitter.event().name(initialEventName).data(data)));
+        return emitter;
+    }
+
+    public boolean hasSubscribers() {
+        return !emitters.isEmpty();
+    }
+
+    public int subscriberCount() {
+        return emitters.size();
+    }
+
+    /**
+     * Olayı tüm abonelere gönder (payload yalnızca bir kez serileştirilir)
+     */
+    public void publish(String eventName, Object payload) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        String data = serialize(payload);
+        sender.execute(() -> {
+            for (SseEmitter emitter : emitters) {
+                send(emitter, SseEmitter.event().name(eventName).data(data));
+            }
+        });
+    }
+
+    /**
+     * Proxy'lerin boşta kalan bağlantıyı kesmemesi için periyodik yorum satırı
+     */
+    @Scheduled(fixedDelayString = "${dashboard.stream.keepalive-ms:25000}")
+    public void keepAlive() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> {
+            for (SseEmitter emitter : emitters) {
+                send(emitter, SseEmitter.event().comment("keepalive"));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (SseEmitter emitter : emitters) {
+            emitter.complete();
+        }
+        emitters.clear();
+        sender.shutdownNow();
+    }
+
+    private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            emitters.remove(emitter);
+            log.debug("Dashboard SSE bağlantısı kapandı: {}", e.getMessage());
+        }
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (Exception e) {
+            log.warn("Dashboard event'i serileştirilemedi: {}", e.getMessage());
+            return "{}";
+        }
+    }
+}
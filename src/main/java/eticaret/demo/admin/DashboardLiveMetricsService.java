@@ -0,0 +1,242 @@
+package eticaret.demo.admin;
+
+import eticaret.demo.contact_us.ContactUsRepository;
+import eticaret.demo.contact_us.event.ContactMessageChangedEvent;
+import eticaret.demo.order.OrderRepository;
+import eticaret.demo.order.OrderStatus;
+import eticaret.demo.order.event.OrderStatusChangedEvent;
+import eticaret.demo.product.Product;
+import eticaret.demo.product.ProductRepository;
+import eticaret.demo.product.event.StockChangedEvent;
+import eticaret.demo.visitor.VisitorAnalyticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Admin dashboard canlı metrikleri
+ * - Başlangıçta bir kez sorgularla doldurulur, sonra domain event'leriyle artımlı güncellenir
+ *   (sipariş oluşturma/durum geçişi, iletişim mesajı, stok değişimi)
+ * - Her değişiklik DashboardEventStream üzerinden tüm açık sekmelere tek seferde delta olarak gönderilir
+ * - Aktif ziyaretçi sayıları bellekteki zaman çarkından periyodik okunur, değiştiyse gönderilir
+ * Açık sekme sayısı ne olursa olsun hesaplama bir kez yapılır.
+ */
+@Service
+@Slf4j
+public class DashboardLiveMetricsService {
+
+    /**
+     * Gelire sayılan sipariş durumları
+     */
+    public static final Set<OrderStatus> REVENUE_STATUSES =
+            EnumSet.of(OrderStatus.ODENDI, OrderStatus.TESLIM_EDILDI, OrderStatus.TAMAMLANDI);
+
+    private final OrderRepository orderRepository;
+    private final ContactUsRepository contactUsRepository;
+    private final ProductRepository productRepository;
+    private final VisitorAnalyticsService visitorAnalyticsService;
+    private final DashboardEventStream eventStream;
+    private final int lowStockThreshold;
+
+    private long totalOrders;
+    private LocalDate today = LocalDate.now();
+    private long todayOrders;
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+    private final Map<OrderStatus, Long> ordersByStatus = new EnumMap<>(OrderStatus.class);
+    private long pendingMessages;
+    private VisitorCounts visitors = new VisitorCounts(0, 0, Map.of());
+    private boolean initialized;
+
+    public DashboardLiveMetricsService(
+            OrderRepository orderRepository,
+            ContactUsRepository contactUsRepository,
+            ProductRepository productRepository,
+            VisitorAnalyticsService visitorAnalyticsService,
+            DashboardEventStream eventStream,
+            @Value("${dashboard.low-stock-threshold:5}") int lowStockThreshold
+    ) {
+        this.orderRepository = orderRepository;
+        this.contactUsRepository = contactUsRepository;
+        this.productRepository = productRepository;
+        this.visitorAnalyticsService = visitorAnalyticsService;
+        this.eventStream = eventStream;
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    /**
+     * Başlangıç değerlerini yükle
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void initialize() {
+        try {
+            totalOrders = orderRepository.count();
+            today = LocalDate.now();
+            todayOrders = orderRepository.countByCreatedAtGreaterThanEqual(today.atStartOfDay());
+            totalRevenue = orderRepository.sumTotalAmountByStatusIn(REVENUE_STATUSES);
+            ordersByStatus.clear();
+            for (OrderStatus status : OrderStatus.values()) {
+                ordersByStatus.put(status, orderRepository.countByStatus(status));
+            }
+            pendingMessages = contactUsRepository.countByVerifiedTrue();
+            initialized = true;
+            log.info("Dashboard canlı metrikleri yüklendi: {} sipariş, gelir {}", totalOrders, totalRevenue);
+        } catch (Exception e) {
+            log.warn("Dashboard canlı metrikleri yüklenemedi: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Tam durum (yeni abonelikte ilk olay)
+     */
+    public synchronized Map<String, Object> snapshot() {
+        rollDay();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("totalOrders", totalOrders);
+        snapshot.put("todayOrders", todayOrders);
+        snapshot.put("totalRevenue", totalRevenue);
+        snapshot.put("ordersByStatus", new EnumMap<>(ordersByStatus));
+        snapshot.put("pendingMessages", pendingMessages);
+        snapshot.put("visitors", visitors);
+        snapshot.put("lowStockThreshold", lowStockThreshold);
+        snapshot.put("timestamp", LocalDateTime.now());
+        return snapshot;
+    }
+
+    /**
+     * Sipariş oluşturma / durum geçişi
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        Map<String, Object> orderDelta = new LinkedHashMap<>();
+        Map<String, Object> revenueDelta = null;
+        synchronized (this) {
+            if (!initialized) {
+                return;
+            }
+            rollDay();
+            if (event.created()) {
+                totalOrders++;
+                if (event.createdAt() == null || !event.createdAt().toLocalDate().isBefore(today)) {
+                    todayOrders++;
+                }
+            } else {
+                ordersByStatus.merge(event.previousStatus(), -1L, Long::sum);
+            }
+            ordersByStatus.merge(event.status(), 1L, Long::sum);
+
+            BigDecimal amount = event.totalAmount() != null ? event.totalAmount() : BigDecimal.ZERO;
+            boolean wasRevenue = event.previousStatus() != null && REVENUE_STATUSES.contains(event.previousStatus());
+            boolean isRevenue = REVENUE_STATUSES.contains(event.status());
+            if (wasRevenue != isRevenue && amount.signum() != 0) {
+                BigDecimal delta = isRevenue ? amount : amount.negate();
+                totalRevenue = totalRevenue.add(delta);
+                revenueDelta = new LinkedHashMap<>();
+                revenueDelta.put("delta", delta);
+                revenueDelta.put("totalRevenue", totalRevenue);
+            }
+
+            orderDelta.put("orderId", event.orderId());
+            orderDelta.put("previousStatus", event.previousStatus());
+            orderDelta.put("status", event.status());
+            orderDelta.put("totalAmount", event.totalAmount());
+            orderDelta.put("totalOrders", totalOrders);
+            orderDelta.put("todayOrders", todayOrders);
+        }
+        eventStream.publish("order", orderDelta);
+        if (revenueDelta != null) {
+            eventStream.publish("revenue", revenueDelta);
+        }
+    }
+
+    /**
+     * İletişim mesajı değişti; bekleyen mesaj sayısı bir kez sayılır
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onContactMessageChanged(ContactMessageChangedEvent event) {
+        long count = contactUsRepository.countByVerifiedTrue();
+        synchronized (this) {
+            if (count == pendingMessages) {
+                return;
+            }
+            pendingMessages = count;
+        }
+        eventStream.publish("messages", Map.of("pendingMessages", count));
+    }
+
+    /**
+     * Stok değişti; eşik altına inen aktif ürün için uyarı gönder
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (!eventStream.hasSubscribers()) {
+            return;
+        }
+        Product product = productRepository.findById(event.productId()).orElse(null);
+        if (product == null || !Boolean.TRUE.equals(product.getActive())) {
+            return;
+        }
+        int quantity = product.getQuantity() != null ? product.getQuantity() : 0;
+        if (quantity > lowStockThreshold) {
+            return;
+        }
+        Map<String, Object> alert = new LinkedHashMap<>();
+        alert.put("productId", product.getId());
+        alert.put("name", product.getName());
+        alert.put("quantity", quantity);
+        alert.put("threshold", lowStockThreshold);
+        eventStream.publish("low-stock", alert);
+    }
+
+    /**
+     * Aktif ziyaretçi sayılarını oku (bellekten), değiştiyse gönder
+     */
+    @Scheduled(fixedDelayString = "${dashboard.stream.visitor-interval-ms:5000}")
+    public void publishVisitorCounts() {
+        if (!eventStream.hasSubscribers()) {
+            return;
+        }
+        VisitorAnalyticsService.RealTimeStats stats = visitorAnalyticsService.getRealTimeStats();
+        Map<String, Long> byType = new LinkedHashMap<>();
+        stats.last5Minutes().byVisitorType().forEach((type, count) -> byType.put(type.name(), count));
+        VisitorCounts counts = new VisitorCounts(stats.last5Minutes().total(), stats.lastHour().total(), byType);
+        synchronized (this) {
+            if (counts.equals(visitors)) {
+                return;
+            }
+            visitors = counts;
+        }
+        eventStream.publish("visitors", counts);
+    }
+
+    /**
+     * Gün değiştiyse bugünkü sipariş sayacını sıfırla
+     */
+    private void rollDay() {
+        LocalDate now = LocalDate.now();
+        if (!now.equals(today)) {
+            today = now;
+            todayOrders = 0;
+        }
+    }
+
+    public record VisitorCounts(long activeNow, long activeLastHour, Map<String, Long> activeByType) {
+    }
+}
@@ -0,0 +1,62 @@
+package eticaret.demo.admin;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Dashboard saatlik özet satırı
+ * (saat, metrik, boyut) başına adet ve tutar tutulur:
+ * - ORDERS: boyut = sipariş durumu, tutar = sipariş toplamı
+ * - REVIEWS: boyut = ACTIVE / INACTIVE, tutar = puan toplamı
+ * - MESSAGES: boyut = VERIFIED / UNVERIFIED
+ * Saatler kaynak kaydın oluşturulma zamanına göredir; günlük değerler saatlerin toplamıdır.
+ * Yazma/okuma DashboardRollupService üzerinden JDBC ile yapılır; entity tablo şeması içindir.
+ */
+@Entity
+@Table(name = "dashboard_rollups", indexes = {
+    @Index(name = "idx_dashboard_rollup_metric_bucket", columnList = "metric, bucket_start")
+})
+@IdClass(DashboardRollup.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardRollup {
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Id
+    @Column(name = "metric", length = 20, nullable = false)
+    private String metric;
+
+    @Id
+    @Column(name = "dimension", length = 50, nullable = false)
+    private String dimension;
+
+    @Column(name = "item_count", nullable = false)
+    private Long itemCount;
+
+    @Column(name = "amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDateTime bucketStart;
+        private String metric;
+        private String dimension;
+    }
+}
@@ -0,0 +1,272 @@
+package eticaret.demo.admin;
+
+import eticaret.demo.contact_us.event.ContactMessageChangedEvent;
+import eticaret.demo.order.OrderStatus;
+import eticaret.demo.order.event.OrderStatusChangedEvent;
+import eticaret.demo.product.event.ReviewChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard saatlik özet (dashboard_rollups) servisi
+ * - Sipariş, yorum ve iletişim mesajı event'lerinde yalnızca etkilenen saat kaynak tablodan yeniden hesaplanır
+ *   (artımlı ve idempotent; aynı saat için eşzamanlı hesaplamalar advisory lock ile sıralanır)
+ * - İlk açılışta tablo boşsa ve her gece tüm geçmiş kaynak tablolardan yeniden doldurulur (backfill/uzlaştırma)
+ * - Dashboard okuması sipariş sayısından bağımsız olarak iki gruplu sorgu ile yapılır
+ */
+@Service
+@Slf4j
+public class DashboardRollupService {
+
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private static final String DELETE_SQL =
+            "DELETE FROM dashboard_rollups WHERE metric = ? AND bucket_start >= ? AND bucket_start < ?";
+
+    private static final String TOTALS_SQL =
+            "SELECT metric, dimension, SUM(item_count), SUM(amount) FROM dashboard_rollups GROUP BY metric, dimension";
+
+    private static final String DAILY_ORDERS_SQL =
+            "SELECT CAST(bucket_start AS DATE), SUM(item_count) FROM dashboard_rollups " +
+            "WHERE metric = 'ORDERS' AND bucket_start >= ? GROUP BY CAST(bucket_start AS DATE)";
+
+    /**
+     * Özet metrikleri ve kaynak tablo ifadeleri
+     */
+    enum Metric {
+        ORDERS("orders", "status", "COALESCE(SUM(total_amount), 0)"),
+        REVIEWS("product_reviews", "CASE WHEN active THEN 'ACTIVE' ELSE 'INACTIVE' END", "COALESCE(SUM(rating), 0)"),
+        MESSAGES("contact_us", "CASE WHEN verified THEN 'VERIFIED' ELSE 'UNVERIFIED' END", "0");
+
+        private final String insertSql;
+
+        Metric(String table, String dimension, String amount) {
+            this.insertSql = "INSERT INTO dashboard_rollups (bucket_start, metric, dimension, item_count, amount, updated_at) " +
+                    "SELECT date_trunc('hour', created_at), '" + name() + "', " + dimension + ", COUNT(*), " + amount + ", ? " +
+                    "FROM " + table + " WHERE created_at >= ? AND created_at < ? " +
+                    "GROUP BY date_trunc('hour', created_at), " + dimension;
+        }
+
+        long lockKey() {
+            return 0x44524F4C4CL + ordinal();
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DashboardRollupService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Sipariş oluşturuldu / durumu değişti: siparişin oluşturulduğu saati yeniden hesapla
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        recomputeHour(Metric.ORDERS, event.createdAt());
+    }
+
+    /**
+     * İletişim mesajı değişti: mesajın oluşturulduğu saati yeniden hesapla
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onContactMessageChanged(ContactMessageChangedEvent event) {
+        recomputeHour(Metric.MESSAGES, event.createdAt());
+    }
+
+    /**
+     * Yorum değişti: yorumun oluşturulduğu saati yeniden hesapla
+     * Yorum silinmişse saati bilinemez; yorum özetinin tamamı yeniden hesaplanır (nadir, admin işlemi).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        try {
+            List<Timestamp> createdAt = event.reviewId() == null ? List.of() : jdbcTemplate.queryForList(
+                    "SELECT created_at FROM product_reviews WHERE id = ?", Timestamp.class, event.reviewId());
+            if (createdAt.isEmpty() || createdAt.get(0) == null) {
+                recompute(Metric.REVIEWS, MIN_TIME, MAX_TIME);
+            } else {
+                recomputeHour(Metric.REVIEWS, createdAt.get(0).toLocalDateTime());
+            }
+        } catch (Exception e) {
+            // Gece uzlaştırması kaymayı düzeltir
+            log.error("Yorum özeti güncellenirken hata - reviewId: {}, hata: {}", event.reviewId(), e.getMessage(), e);
+        }
+    }
+
+    private void recomputeHour(Metric metric, LocalDateTime createdAt) {
+        LocalDateTime hour = (createdAt != null ? createdAt : LocalDateTime.now()).truncatedTo(ChronoUnit.HOURS);
+        try {
+            recompute(metric, hour, hour.plusHours(1));
+        } catch (Exception e) {
+            // Gece uzlaştırması kaymayı düzeltir
+            log.error("Dashboard özeti güncellenirken hata - metric: {}, saat: {}, hata: {}", metric, hour, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * [from, to) aralığındaki saatleri kaynak tablodan yeniden yaz (çağıranın transaction'ında)
+     */
+    private void recompute(Metric metric, LocalDateTime from, LocalDateTime to) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, metric.lockKey());
+        Timestamp fromTs = Timestamp.valueOf(from);
+        Timestamp toTs = Timestamp.valueOf(to);
+        jdbcTemplate.update(DELETE_SQL, metric.name(), fromTs, toTs);
+        jdbcTemplate.update(metric.insertSql, Timestamp.valueOf(LocalDateTime.now()), fromTs, toTs);
+    }
+
+    /**
+     * Özet tablosu boşsa (ilk kurulum) geçmişi doldur
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM dashboard_rollups", Long.class);
+            if (rows != null && rows == 0) {
+                log.info("Dashboard özet tablosu boş, geçmiş dolduruluyor");
+                backfill();
+            }
+        } catch (Exception e) {
+            log.error("Dashboard özet tablosu doldurulurken hata: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tüm metrikleri tüm geçmiş için kaynak tablolardan yeniden hesapla
+     * Varsayılan: Her gün saat 04:30
+     */
+    @Scheduled(cron = "${dashboard.rollup.reconcile-cron:0 30 4 * * ?}")
+    public void backfill() {
+        long start = System.currentTimeMillis();
+        for (Metric metric : Metric.values()) {
+            transactionTemplate.executeWithoutResult(status -> recompute(metric, MIN_TIME, MAX_TIME));
+        }
+        log.info("Dashboard özet tablosu yeniden hesaplandı ({} ms)", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Dashboard özeti (sipariş sayısından bağımsız maliyet)
+     *
+     * @param chartDays günlük sipariş grafiği için gün sayısı (bugün dahil)
+     */
+    @Transactional(readOnly = true)
+    public DashboardSummary summary(int chartDays) {
+        Map<OrderStatus, Long> ordersByStatus = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, 0L);
+        }
+        long[] totals = new long[4]; // aktif yorum, pasif yorum, doğrulanmış mesaj, toplam sipariş
+        BigDecimal[] amounts = {BigDecimal.ZERO, BigDecimal.ZERO}; // gelir, aktif yorum puan toplamı
+
+        jdbcTemplate.query(TOTALS_SQL, rs -> {
+            String metric = rs.getString(1);
+            String dimension = rs.getString(2);
+            long count = rs.getLong(3);
+            BigDecimal amount = rs.getBigDecimal(4) != null ? rs.getBigDecimal(4) : BigDecimal.ZERO;
+            switch (metric) {
+                case "ORDERS" -> {
+                    totals[3] += count;
+                    OrderStatus status = parseStatus(dimension);
+                    if (status != null) {
+                        ordersByStatus.merge(status, count, Long::sum);
+                        if (DashboardLiveMetricsService.REVENUE_STATUSES.contains(status)) {
+                            amounts[0] = amounts[0].add(amount);
+                        }
+                    }
+                }
+                case "REVIEWS" -> {
+                    if ("ACTIVE".equals(dimension)) {
+                        totals[0] += count;
+                        amounts[1] = amounts[1].add(amount);
+                    } else {
+                        totals[1] += count;
+                    }
+                }
+                case "MESSAGES" -> {
+                    if ("VERIFIED".equals(dimension)) {
+                        totals[2] += count;
+                    }
+                }
+                default -> {
+                }
+            }
+        });
+
+        LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusDays(Math.max(1, chartDays) - 1L);
+        Map<String, Long> ordersByDay = new LinkedHashMap<>();
+        for (LocalDate day = firstDay; !day.isAfter(today); day = day.plusDays(1)) {
+            ordersByDay.put(day.toString(), 0L);
+        }
+        jdbcTemplate.query(DAILY_ORDERS_SQL, rs -> {
+            String day = rs.getDate(1).toLocalDate().toString();
+            long count = rs.getLong(2);
+            ordersByDay.computeIfPresent(day, (key, zero) -> count);
+        }, Timestamp.valueOf(firstDay.atStartOfDay()));
+
+        long activeReviews = totals[0];
+        double averageRating = activeReviews == 0 ? 0.0
+                : amounts[1].divide(BigDecimal.valueOf(activeReviews), 4, RoundingMode.HALF_UP).doubleValue();
+
+        return new DashboardSummary(
+                totals[3],
+                ordersByStatus,
+                amounts[0],
+                ordersByDay.getOrDefault(today.toString(), 0L),
+                ordersByDay,
+                activeReviews + totals[1],
+                activeReviews,
+                averageRating,
+                totals[2]
+        );
+    }
+
+    private static OrderStatus parseStatus(String value) {
+        try {
+            return value != null ? OrderStatus.valueOf(value) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Dashboard özeti
+     */
+    public record DashboardSummary(
+            long totalOrders,
+            Map<OrderStatus, Long> ordersByStatus,
+            BigDecimal totalRevenue,
+            long todayOrders,
+            Map<String, Long> ordersByDay,
+            long totalReviews,
+            long activeReviews,
+            double averageRating,
+            long verifiedMessages
+    ) {
+    }
+}
@@ -6,11 +6,13 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import eticaret.demo.security.AppUserCacheListener;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "app_users")
+@EntityListeners(AppUserCacheListener.class)
 @Getter
 @Setter
 @Builder
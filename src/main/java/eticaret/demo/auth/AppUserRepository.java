@@ -1,5 +1,6 @@
 package eticaret.demo.auth;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -30,6 +31,24 @@ public interface AppUserRepository extends JpaRepository<AppUser, Long> {
     long countByCreatedAtAfter(LocalDateTime dateTime);
 
     List<AppUser> findByRole(UserRole role);
-}
-
 
+    // Admin listesi: id'ye göre azalan keyset sayfalama (filtreler opsiyonel)
+    @Query("SELECT u FROM AppUser u WHERE u.id < :afterId " +
+           "AND (:role IS NULL OR u.role = :role) " +
+           "AND (:active IS NULL OR u.active = :active) " +
+           "AND (:emailPattern IS NULL OR LOWER(u.email) LIKE :emailPattern ESCAPE '\\') " +
+           "ORDER BY u.id DESC")
+    List<AppUser> findAdminPage(@Param("afterId") long afterId,
+                                @Param("role") UserRole role,
+                                @Param("active") Boolean active,
+                                @Param("emailPattern") String emailPattern,
+                                Pageable limit);
+
+    // Admin kullanıcı logları: son aktivite zamanına (son giriş, yoksa kayıt) göre azalan keyset sayfalama
+    @Query("SELECT u FROM AppUser u WHERE COALESCE(u.lastLoginAt, u.createdAt) <= :afterAt " +
+           "AND (COALESCE(u.lastLoginAt, u.createdAt) < :afterAt OR u.id < :afterId) " +
+           "ORDER BY COALESCE(u.lastLoginAt, u.createdAt) DESC, u.id DESC")
+    List<AppUser> findActivityPage(@Param("afterAt") LocalDateTime afterAt,
+                                   @Param("afterId") long afterId,
+                                   Pageable limit);
+}
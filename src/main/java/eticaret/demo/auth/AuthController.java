@@ -20,6 +20,7 @@ import eticaret.demo.audit.AuditLogService;
 import eticaret.demo.common.response.DataResponseMessage;
 import eticaret.demo.common.response.ResponseMessage;
 import eticaret.demo.admin.AdminIpService;
+import eticaret.demo.security.JwtService;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -34,6 +35,7 @@ import java.util.Set;
 public class AuthController {
 
     private final AuthService authService;
+    private final JwtService jwtService;
     private final AdminIpService adminIpService;
     private final AuditLogService auditLogService;
 
@@ -44,7 +46,7 @@ public class AuthController {
     @PostMapping("/request-code")
     public ResponseEntity<ResponseMessage> requestLoginCode(@Valid @RequestBody LoginCodeRequest request,
                                                             HttpServletRequest httpServletRequest) {
-        String clientIp = getClientIp(httpServletRequest);
+        String clientIp = httpServletRequest.getRemoteAddr();
         String userAgent = Optional.ofNullable(httpServletRequest.getHeader("User-Agent")).orElse("unknown");
         
         try {
@@ -93,7 +95,7 @@ public class AuthController {
     public ResponseEntity<DataResponseMessage<Boolean>> checkAdminEmail(
             @Valid @RequestBody LoginCodeRequest request,
             HttpServletRequest httpServletRequest) {
-        String clientIp = getClientIp(httpServletRequest);
+        String clientIp = httpServletRequest.getRemoteAddr();
         
         try {
             boolean isAdmin = authService.isAdminEmail(request.getEmail());
@@ -154,7 +156,7 @@ public class AuthController {
     public ResponseEntity<ResponseMessage> requestAdminLoginCode(
             @Valid @RequestBody LoginCodeRequest request,
             HttpServletRequest httpServletRequest) {
-        String clientIp = getClientIp(httpServletRequest);
+        String clientIp = httpServletRequest.getRemoteAddr();
         String userAgent = Optional.ofNullable(httpServletRequest.getHeader("User-Agent")).orElse("unknown");
         
         try {
@@ -203,7 +205,7 @@ public class AuthController {
     public ResponseEntity<ResponseMessage> resendAdminLoginCode(
             @Valid @RequestBody LoginCodeRequest request,
             HttpServletRequest httpServletRequest) {
-        String clientIp = getClientIp(httpServletRequest);
+        String clientIp = httpServletRequest.getRemoteAddr();
         String userAgent = Optional.ofNullable(httpServletRequest.getHeader("User-Agent")).orElse("unknown");
         
         try {
@@ -252,7 +254,7 @@ public class AuthController {
     public ResponseEntity<DataResponseMessage<AuthResponse>> verifyLoginCode(
             @Valid @RequestBody VerifyCodeRequest request,
             HttpServletRequest httpServletRequest) {
-        String clientIp = getClientIp(httpServletRequest);
+        String clientIp = httpServletRequest.getRemoteAddr();
         String userAgent = Optional.ofNullable(httpServletRequest.getHeader("User-Agent")).orElse("unknown");
         
         try {
@@ -313,7 +315,7 @@ public class AuthController {
     public ResponseEntity<DataResponseMessage<AuthResponse>> verifyAdminLoginCode(
             @Valid @RequestBody VerifyCodeRequest request,
             HttpServletRequest httpServletRequest) {
-        String clientIp = getClientIp(httpServletRequest);
+        String clientIp = httpServletRequest.getRemoteAddr();
         String userAgent = Optional.ofNullable(httpServletRequest.getHeader("User-Agent")).orElse("unknown");
         
         try {
@@ -372,7 +374,7 @@ public class AuthController {
 
     @GetMapping("/admin/allowed-ip")
     public ResponseEntity<DataResponseMessage<Boolean>> checkAdminIp(HttpServletRequest httpServletRequest) {
-        String clientIp = getClientIp(httpServletRequest);
+        String clientIp = httpServletRequest.getRemoteAddr();
         
         log.info("IP kontrol endpoint'i çağrıldı. Gelen IP: {}, İzin verilen IP'ler: {}", clientIp, getAllowedAdminIps());
         
@@ -395,7 +397,7 @@ public class AuthController {
     @GetMapping("/client-ip")
     public ResponseEntity<DataResponseMessage<Map<String, String>>> getClientIpInfo(HttpServletRequest httpServletRequest) {
         Map<String, String> ipInfo = new HashMap<>();
-        ipInfo.put("clientIp", getClientIp(httpServletRequest));
+        ipInfo.put("clientIp", httpServletRequest.getRemoteAddr());
         ipInfo.put("remoteAddr", httpServletRequest.getRemoteAddr());
         ipInfo.put("xForwardedFor", Optional.ofNullable(httpServletRequest.getHeader("X-Forwarded-For")).orElse(""));
         ipInfo.put("xRealIp", Optional.ofNullable(httpServletRequest.getHeader("X-Real-IP")).orElse(""));
@@ -411,7 +413,7 @@ public class AuthController {
     @PostMapping("/resend-code")
     public ResponseEntity<ResponseMessage> resendLoginCode(@Valid @RequestBody LoginCodeRequest request,
                                                            HttpServletRequest httpServletRequest) {
-        String clientIp = getClientIp(httpServletRequest);
+        String clientIp = httpServletRequest.getRemoteAddr();
         String userAgent = Optional.ofNullable(httpServletRequest.getHeader("User-Agent")).orElse("unknown");
         
         try {
@@ -461,11 +463,17 @@ public class AuthController {
             @AuthenticationPrincipal AppUser currentUser,
             HttpServletRequest httpServletRequest) {
         try {
-            String clientIp = getClientIp(httpServletRequest);
+            String clientIp = httpServletRequest.getRemoteAddr();
             String userAgent = Optional.ofNullable(httpServletRequest.getHeader("User-Agent")).orElse("unknown");
             
             Long userId = currentUser != null ? currentUser.getId() : null;
             String userEmail = currentUser != null ? currentUser.getEmail() : null;
+            
+            // Access token'ı iptal et (tüm uygulama örneklerinde geçersiz olur)
+            String authHeader = httpServletRequest.getHeader("Authorization");
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                jwtService.invalidateToken(authHeader.substring(7));
+            }
 
             auditLogService.logSuccess(
                     "LOGOUT",
@@ -568,33 +576,6 @@ public class AuthController {
         response.sendRedirect("/api/auth/oauth2/authorization/google");
     }
 
-    private String getClientIp(HttpServletRequest request) {
-        // X-Client-IP header'ını kontrol et (frontend'den gönderilen)
-        String clientIp = request.getHeader("X-Client-IP");
-        if (clientIp != null && !clientIp.isBlank()) {
-            log.debug("X-Client-IP header'dan IP alındı: {}", clientIp);
-            return clientIp.trim();
-        }
-
-        // X-Real-IP header'ını kontrol et (nginx, reverse proxy)
-        String realIp = request.getHeader("X-Real-IP");
-        if (realIp != null && !realIp.isBlank()) {
-            log.debug("X-Real-IP header'dan IP alındı: {}", realIp);
-            return realIp.trim();
-        }
-
-        // X-Forwarded-For header'ını kontrol et
-        String forwarded = request.getHeader("X-Forwarded-For");
-        if (forwarded != null && !forwarded.isBlank()) {
-            String firstIp = forwarded.split(",")[0].trim();
-            log.debug("X-Forwarded-For header'dan IP alındı: {}", firstIp);
-            return firstIp;
-        }
-
-        String remoteAddr = request.getRemoteAddr();
-        log.debug("RemoteAddr'den IP alındı: {}", remoteAddr);
-        return remoteAddr;
-    }
 
     private boolean isAllowedAdminIp(String clientIp) {
         return adminIpService.isAllowed(clientIp);
@@ -3,6 +3,8 @@ package eticaret.demo.auth;
 import eticaret.demo.admin.AdminNotificationService;
 import eticaret.demo.common.config.AppUrlConfig;
 import eticaret.demo.mail.EmailMessage;
+import eticaret.demo.mail.EmailPriority;
+import eticaret.demo.mail.MailOutboxHandler;
 import eticaret.demo.mail.MailService;
 import eticaret.demo.security.JwtService;
 import jakarta.transaction.Transactional;
@@ -30,6 +32,7 @@ public class AuthService {
     private final AppUserRepository appUserRepository;
     private final AuthVerificationCodeRepository verificationCodeRepository;
     private final MailService mailService;
+    private final MailOutboxHandler mailOutboxHandler;
     private final JwtService jwtService;
     private final AppUrlConfig appUrlConfig;
     private final AdminNotificationService adminNotificationService;
@@ -100,9 +103,10 @@ public class AuthService {
                 .subject(subject)
                 .body(emailBody)
                 .isHtml(true)
+                .priority(EmailPriority.OTP)
                 .build();
 
-        mailService.queueEmail(emailMessage);
+        mailOutboxHandler.enqueue(emailMessage);
     }
 
     private AppUser createNewUser(String email) {
@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import eticaret.demo.product.Product;
+import eticaret.demo.product.stock.StockMeters;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -75,13 +76,8 @@ public class CartItem {
             if (width != null && pleatType != null) {
                 try {
                     double metreCinsindenEn = width / 100.0;
-                    double pileCarpani = 1.0;
-                    
-                    // Pile tipini parse et (örn: "1x2" -> 2.0)
-                    String[] parts = pleatType.split("x");
-                    if (parts.length == 2) {
-                        pileCarpani = Double.parseDouble(parts[1]);
-                    }
+                    // Pile çarpanı (örn: "1x2" -> 2.0; önbellekten)
+                    double pileCarpani = StockMeters.pleatMultiplier(pleatType).doubleValue();
                     
                     // Toplam fiyat = metre * pile * 1m fiyatı * adet
                     double toplam = metreCinsindenEn * pileCarpani * basePrice.doubleValue() * quantity;
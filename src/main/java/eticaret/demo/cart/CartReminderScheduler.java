@@ -7,15 +7,19 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import eticaret.demo.audit.AuditLogService;
 import eticaret.demo.mail.EmailMessage;
+import eticaret.demo.mail.EmailPriority;
 import eticaret.demo.mail.MailService;
 import eticaret.demo.mail.EmailTemplateBuilder;
 import eticaret.demo.mail.EmailTemplateModel;
+import eticaret.demo.product.Product;
+import eticaret.demo.product.ProductLoader;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
@@ -25,6 +29,7 @@ public class CartReminderScheduler {
     private final CartService cartService;
     private final MailService mailService;
     private final AuditLogService auditLogService;
+    private final ProductLoader productLoader;
 
     /**
      * Günde 3 kez çalışır (sabah 10:00, öğlen 14:00, akşam 18:00)
@@ -40,6 +45,14 @@ public class CartReminderScheduler {
             List<Cart> cartsToRemind = cartService.getCartsForReminderEmail();
             log.info("Hatırlatma maili gönderilecek sepet sayısı: {}", cartsToRemind.size());
             
+            // Tüm sepetlerdeki ürünleri tek sorguda yükle; mail içeriği kalem başına
+            // lazy yükleme yerine bu map'ten okur
+            Map<Long, Product> products = productLoader.loadAll(cartsToRemind.stream()
+                    .flatMap(cart -> cart.getItems().stream())
+                    .filter(item -> item.getProduct() != null)
+                    .map(item -> item.getProduct().getId())
+                    .toList());
+            
             int sentCount = 0;
             for (Cart cart : cartsToRemind) {
                 try {
@@ -49,7 +62,7 @@ public class CartReminderScheduler {
                         continue;
                     }
                     
-                    sendReminderEmail(cart);
+                    sendReminderEmail(cart, products);
                     sentCount++;
                     
                     // Audit log
@@ -72,7 +85,7 @@ public class CartReminderScheduler {
     /**
      * Hatırlatma maili gönder
      */
-    private void sendReminderEmail(Cart cart) {
+    private void sendReminderEmail(Cart cart, Map<Long, Product> products) {
         String email = null;
         String userName = "Değerli Müşterimiz";
         
@@ -91,13 +104,14 @@ public class CartReminderScheduler {
         }
         
         String subject = "Sepetinizi Onaylamayı Unutmayın! 🛒";
-        String htmlContent = buildReminderEmailContent(cart, userName);
+        String htmlContent = buildReminderEmailContent(cart, userName, products);
         
         EmailMessage emailMessage = EmailMessage.builder()
                 .toEmail(email)
                 .subject(subject)
                 .body(htmlContent)
                 .isHtml(true)
+                .priority(EmailPriority.MARKETING)
                 .build();
         
         mailService.queueEmail(emailMessage);
@@ -107,9 +121,9 @@ public class CartReminderScheduler {
     /**
      * Hatırlatma maili içeriğini oluştur
      */
-    private String buildReminderEmailContent(Cart cart, String userName) {
+    private String buildReminderEmailContent(Cart cart, String userName, Map<Long, Product> products) {
         int itemCount = cart.getItems() != null ? cart.getItems().size() : 0;
-        String itemsHtml = buildCartItemsHtml(cart);
+        String itemsHtml = buildCartItemsHtml(cart, products);
 
         LinkedHashMap<String, String> details = new LinkedHashMap<>();
         details.put("Sepet No", cart.getId() != null ? cart.getId().toString() : "-");
@@ -136,7 +150,7 @@ public class CartReminderScheduler {
                 .build());
     }
 
-    private String buildCartItemsHtml(Cart cart) {
+    private String buildCartItemsHtml(Cart cart, Map<Long, Product> products) {
         if (cart.getItems() == null || cart.getItems().isEmpty()) {
             return "";
         }
@@ -148,8 +162,10 @@ public class CartReminderScheduler {
             if (item.getProduct() == null) {
                 continue;
             }
+            // Toplu yüklenen ürün; map'te yoksa (silinmiş vb.) kalemin kendi referansı kullanılır
+            Product product = products.getOrDefault(item.getProduct().getId(), item.getProduct());
             
-            String productImageUrl = item.getProduct().getCoverImageUrl();
+            String productImageUrl = product.getCoverImageUrl();
             String imageHtml = "";
             if (productImageUrl != null && !productImageUrl.isEmpty()) {
                 imageHtml = String.format(
@@ -157,7 +173,7 @@ public class CartReminderScheduler {
                     "<img src=\"%s\" alt=\"%s\" style=\"max-width: 200px; width: 100%%; height: auto; border-radius: 8px; object-fit: cover;\">" +
                     "</div>",
                     sanitize(productImageUrl),
-                    sanitize(item.getProduct().getName())
+                    sanitize(product.getName())
                 );
             }
             
@@ -168,7 +184,7 @@ public class CartReminderScheduler {
             }
             
             builder.append("<div style=\"font-weight:600;color:#333333;font-size:16px;margin-bottom:8px;word-wrap:break-word;\">")
-                    .append(sanitize(item.getProduct().getName()))
+                    .append(sanitize(product.getName()))
                     .append("</div>");
             
             builder.append("<div style=\"color:#555555;font-size:14px;line-height:1.6;\">");
@@ -4,6 +4,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,5 +38,7 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     
     // Onaylanmış sepetler
     List<Cart> findByStatusOrderByUpdatedAtDesc(CartStatus status);
+    
+    // Belirli zaman aralığında oluşturulmuş, belirli durumdaki sepetler (hatırlatma maili için)
+    List<Cart> findByStatusAndCreatedAtBetween(CartStatus status, LocalDateTime from, LocalDateTime to);
 }
-
@@ -10,13 +10,17 @@ import eticaret.demo.common.exception.CartException;
 import eticaret.demo.common.exception.ProductException;
 import eticaret.demo.product.Product;
 import eticaret.demo.product.ProductRepository;
+import eticaret.demo.product.stock.InventoryLedger;
+import eticaret.demo.product.stock.StockMeters;
 import eticaret.demo.coupon.CouponService;
 import eticaret.demo.coupon.CouponUsage;
 import eticaret.demo.coupon.CouponUsageRepository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -31,6 +35,7 @@ public class CartService {
     private final AppUserRepository userRepository;
     private final CouponService couponService;
     private final CouponUsageRepository couponUsageRepository;
+    private final InventoryLedger inventoryLedger;
 
     /**
      * Kullanıcının aktif sepetini getir veya oluştur
@@ -309,6 +314,7 @@ public class CartService {
 
     /**
      * Sepeti onayla (siparişe dönüştür)
+     * Stok burada düşülmez; ödeme başlatılırken StockReservationService ile ayrılır.
      */
     @Transactional
     public Cart confirmCart(Long cartId) {
@@ -324,6 +330,13 @@ public class CartService {
             throw CartException.emptyCart();
         }
         
+        // Satılabilir metre (ledger bakiyesi, ürün başına tek satır)
+        Map<Long, BigDecimal> available = inventoryLedger.available(cart.getItems().stream()
+                .filter(item -> item.getProduct() != null)
+                .map(item -> item.getProduct().getId())
+                .toList());
+        Map<Long, BigDecimal> required = new HashMap<>();
+
         // Stok kontrolü ve ürün kontrolü
         for (CartItem item : cart.getItems()) {
             if (item.getProduct() == null) {
@@ -337,28 +350,23 @@ public class CartService {
                 throw new ProductException("Ürün '" + product.getName() + "' şu anda satışta değil (ID: " + product.getId() + ")");
             }
             
-            // Stok kontrolü
-            if (product.getQuantity() == null || product.getQuantity() <= 0) {
+            // Stok kontrolü (metre cinsinden; kesin ayırma ödeme başlatılırken atomik olarak yapılır)
+            BigDecimal availableMeters = available.getOrDefault(product.getId(), StockMeters.zero());
+            if (availableMeters.signum() <= 0) {
                 throw ProductException.outOfStock(product.getId());
             }
-            if (product.getQuantity() < item.getQuantity()) {
+            BigDecimal requiredMeters = required.merge(product.getId(),
+                    StockMeters.fromCentimeters(item.getWidth(), item.getPleatType(), item.getQuantity()),
+                    BigDecimal::add);
+            if (availableMeters.compareTo(requiredMeters) < 0) {
                 throw CartException.insufficientStock(
                         product.getId(),
-                        item.getQuantity(),
-                        product.getQuantity()
+                        requiredMeters,
+                        availableMeters
                 );
             }
         }
         
-        // Stokları düş
-        for (CartItem item : cart.getItems()) {
-            Product product = item.getProduct();
-            if (product.getQuantity() != null) {
-                product.setQuantity(product.getQuantity() - item.getQuantity());
-                productRepository.save(product);
-            }
-        }
-        
         cart.setStatus(CartStatus.ONAYLANMIS);
         cart.calculateTotal();
         return cartRepository.save(cart);
@@ -389,13 +397,8 @@ public class CartService {
         LocalDateTime threeHoursAgo = LocalDateTime.now().minusHours(3);
         
         // 2-3 saat önce oluşturulmuş, aktif ve onaylanmamış sepetler
-        return cartRepository.findAll().stream()
-                .filter(cart -> cart.getStatus() == CartStatus.AKTIF)
+        return cartRepository.findByStatusAndCreatedAtBetween(CartStatus.AKTIF, threeHoursAgo, twoHoursAgo).stream()
                 .filter(cart -> !cart.isEmpty())
-                .filter(cart -> {
-                    LocalDateTime createdAt = cart.getCreatedAt();
-                    return createdAt.isAfter(threeHoursAgo) && createdAt.isBefore(twoHoursAgo);
-                })
                 .filter(cart -> cart.getUser() != null || cart.getGuestUserId() != null) // Kullanıcı veya guest bilgisi olmalı
                 .toList();
     }
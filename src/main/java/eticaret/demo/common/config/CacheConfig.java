@@ -1,37 +1,50 @@
 package eticaret.demo.common.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
- * Spring Cache Configuration - In-memory cache
+ * Spring Cache Configuration - Caffeine (bounded, TTL-aware)
  * Performans için önemli verileri cache'ler
+ * Her cache'in boyut sınırı ve TTL'i application.properties'den (app.cache.*) okunur,
+ * hit/miss/eviction istatistikleri /api/admin/cache üzerinden izlenebilir.
  */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+@Slf4j
 public class CacheConfig {
 
     /**
-     * In-memory cache manager
+     * Caffeine cache manager
      * Product listesi, category listesi gibi sık kullanılan verileri cache'ler
+     * Tanımsız bir cache ismi kullanılırsa varsayılan ayarlarla oluşturulur (sınırsız büyümez)
      */
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        // Cache isimleri
-        cacheManager.setCacheNames(java.util.Arrays.asList(
-                "products",           // Ürün listesi
-                "categories",          // Kategori listesi
-                "productDetails",      // Ürün detayları
-                "productReviews",      // Ürün yorumları
-                "imageUrls",           // Görsel URL'leri
-                "recommendations"      // Ürün önerileri
-        ));
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(buildCaffeine(cacheProperties.getDefaultSpec()));
         cacheManager.setAllowNullValues(false);
+
+        for (String name : cacheProperties.getNames()) {
+            CacheProperties.Spec spec = cacheProperties.specFor(name);
+            cacheManager.registerCustomCache(name, buildCaffeine(spec).build());
+            log.info("Cache oluşturuldu: {} (maksimum: {}, TTL: {})",
+                    name, spec.getMaximumSize(), spec.getExpireAfterWrite());
+        }
         return cacheManager;
     }
-}
 
+    private Caffeine<Object, Object> buildCaffeine(CacheProperties.Spec spec) {
+        return Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getExpireAfterWrite())
+                .recordStats();
+    }
+}
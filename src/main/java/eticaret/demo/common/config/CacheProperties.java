@@ -0,0 +1,66 @@
+package eticaret.demo.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache katmanı ayarları (application.properties: app.cache.*)
+ * Her cache için ayrı boyut sınırı ve TTL tanımlanabilir,
+ * tanımlanmayan cache'ler varsayılan ayarları kullanır.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    /**
+     * Oluşturulacak cache isimleri
+     */
+    private List<String> names = new ArrayList<>();
+
+    /**
+     * Özel ayarı olmayan cache'ler için varsayılan ayar
+     */
+    private Spec defaultSpec = new Spec();
+
+    /**
+     * Cache ismine göre özel ayarlar
+     */
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    /**
+     * Cache ismine ait ayarı getir (büyük/küçük harf duyarsız), yoksa varsayılanı döndür
+     */
+    public Spec specFor(String cacheName) {
+        Spec spec = specs.get(cacheName);
+        if (spec != null) {
+            return spec;
+        }
+        return specs.entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(cacheName))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(defaultSpec);
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+        /**
+         * Maksimum kayıt sayısı (W-TinyLFU ile tahliye edilir)
+         */
+        private long maximumSize = 1000;
+
+        /**
+         * Yazıldıktan sonra geçerlilik süresi
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+}
@@ -1,5 +1,7 @@
 package eticaret.demo.common.exception;
 
+import java.math.BigDecimal;
+
 /**
  * Sepet işlemleri ile ilgili hatalar
  */
@@ -24,6 +26,14 @@ public class CartException extends BusinessException {
         );
     }
     
+    public static CartException insufficientStock(Long productId, BigDecimal requestedMeters, BigDecimal availableMeters) {
+        return new CartException(
+            String.format("Ürün stoğu yetersiz. İstenen: %s m, Mevcut: %s m (Ürün ID: %d)", 
+                         requestedMeters.stripTrailingZeros().toPlainString(),
+                         availableMeters.stripTrailingZeros().toPlainString(), productId)
+        );
+    }
+    
     public static CartException emptyCart() {
         return new CartException("Sepet boş");
     }
@@ -1,5 +1,7 @@
 package eticaret.demo.common.exception;
 
+import java.math.BigDecimal;
+
 /**
  * Ürün işlemleri ile ilgili hatalar
  */
@@ -24,6 +26,14 @@ public class ProductException extends BusinessException {
         );
     }
     
+    public static ProductException insufficientStock(Long productId, BigDecimal requestedMeters, BigDecimal availableMeters) {
+        return new ProductException(
+            String.format("Ürün stoğu yetersiz. İstenen: %s m, Mevcut: %s m (Ürün ID: %d)", 
+                         requestedMeters.stripTrailingZeros().toPlainString(),
+                         availableMeters.stripTrailingZeros().toPlainString(), productId)
+        );
+    }
+    
     public static ProductException outOfStock(Long productId) {
         return new ProductException(String.format("Ürün stoğu tükendi (ID: %d)", productId));
     }
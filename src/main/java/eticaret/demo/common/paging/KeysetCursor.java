@@ -0,0 +1,60 @@
+package eticaret.demo.common.paging;
+
+import eticaret.demo.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset (seek) sayfalama imleci: son satırın sıralama değeri ve id'si
+ * - İstemciye opak bir token (URL uyumlu Base64) olarak verilir
+ * - İlk sayfa için FIRST kullanılır; sorgular her zaman "sort < :at OR (sort = :at AND id < :id)" biçiminde
+ *   çalışır, böylece null kontrolü olmadan indeks üzerinden doğrudan konumlanılır
+ */
+public record KeysetCursor(LocalDateTime sortValue, long id) {
+
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    /**
+     * İlk sayfa (tüm satırlardan büyük)
+     */
+    public static final KeysetCursor FIRST = new KeysetCursor(MAX_TIME, Long.MAX_VALUE);
+
+    public KeysetCursor {
+        if (sortValue == null) {
+            sortValue = MAX_TIME;
+        }
+    }
+
+    /**
+     * Yalnızca id ile sıralanan listeler için imleç
+     */
+    public static KeysetCursor ofId(Long id) {
+        return new KeysetCursor(MAX_TIME, id != null ? id : Long.MAX_VALUE);
+    }
+
+    public String encode() {
+        String raw = id + "|" + sortValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Token'ı çöz; boşsa ilk sayfa
+     *
+     * @throws BadRequestException token bozuksa
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(separator + 1)),
+                    Long.parseLong(raw.substring(0, separator)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Geçersiz sayfa imleci");
+        }
+    }
+}
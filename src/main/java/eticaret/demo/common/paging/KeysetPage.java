@@ -0,0 +1,12 @@
+package eticaret.demo.common.paging;
+
+import java.util.List;
+
+/**
+ * Keyset sayfası
+ *
+ * @param nextCursor     sonraki sayfa için imleç (son sayfada null)
+ * @param estimatedTotal filtresiz listelerde tablo istatistiğinden tahmini toplam, filtreli listelerde null
+ */
+public record KeysetPage<T>(List<T> content, int size, boolean hasMore, String nextCursor, Long estimatedTotal) {
+}
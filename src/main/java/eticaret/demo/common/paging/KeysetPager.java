@@ -0,0 +1,157 @@
+package eticaret.demo.common.paging;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Admin listeleri için ortak keyset sayfalama ve akış (export) yardımcısı
+ * - Sorgu her zaman size + 1 satır ister; fazladan gelen satır sonraki sayfanın varlığını gösterir
+ * - Satırlar ve DTO dönüşümü aynı read-only transaction içinde yapılır (lazy ilişkiler güvenle okunur)
+ * - Export modunda liste aynı sorgu ile parça parça okunur ve JSON dizisi olarak doğrudan yanıta yazılır;
+ *   bellekte tek seferde yalnızca bir parça tutulur
+ */
+@Component
+@Slf4j
+public class KeysetPager {
+
+    /**
+     * Tek sayfadaki en fazla satır
+     */
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Keyset sorgusu: imleçten sonraki en fazla limit.getPageSize() satırı döner
+     */
+    @FunctionalInterface
+    public interface KeysetQuery<E> {
+        List<E> fetch(KeysetCursor after, Pageable limit);
+    }
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int exportBatchSize;
+
+    public KeysetPager(
+            PlatformTransactionManager transactionManager,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${admin.export.batch-size:500}") int exportBatchSize
+    ) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.exportBatchSize = Math.max(1, exportBatchSize);
+    }
+
+    /**
+     * Tek sayfa getir
+     *
+     * @param cursor         istemciden gelen imleç token'ı (boşsa ilk sayfa)
+     * @param cursorOf       satırın imleci (sorgunun sıralama anahtarı ile aynı olmalıdır)
+     * @param estimatedTotal tahmini toplam (bilinmiyorsa null)
+     */
+    public <E, T> KeysetPage<T> page(String cursor, int size, KeysetQuery<E> query,
+                                     Function<E, KeysetCursor> cursorOf, Function<E, T> mapper,
+                                     Long estimatedTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return readOnlyTransaction.execute(status -> {
+            List<E> rows = query.fetch(after, PageRequest.of(0, pageSize + 1));
+            boolean hasMore = rows.size() > pageSize;
+            List<E> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+            List<T> content = new ArrayList<>(pageRows.size());
+            for (E row : pageRows) {
+                content.add(mapper.apply(row));
+            }
+            String nextCursor = hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+            return new KeysetPage<>(content, pageSize, hasMore, nextCursor, estimatedTotal);
+        });
+    }
+
+    /**
+     * Listenin tamamını JSON dizisi olarak akıt (indirme)
+     */
+    public <E, T> ResponseEntity<StreamingResponseBody> export(String fileName, KeysetQuery<E> query,
+                                                               Function<E, KeysetCursor> cursorOf,
+                                                               Function<E, T> mapper) {
+        StreamingResponseBody body = outputStream -> {
+            long written = 0;
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                KeysetCursor after = KeysetCursor.FIRST;
+                while (after != null) {
+                    KeysetCursor current = after;
+                    List<T> batch = new ArrayList<>(exportBatchSize);
+                    after = readOnlyTransaction.execute(status -> {
+                        List<E> rows = query.fetch(current, PageRequest.of(0, exportBatchSize));
+                        for (E row : rows) {
+                            batch.add(mapper.apply(row));
+                        }
+                        return rows.size() < exportBatchSize ? null : cursorOf.apply(rows.get(rows.size() - 1));
+                    });
+                    for (T item : batch) {
+                        generator.writeObject(item);
+                    }
+                    generator.flush();
+                    written += batch.size();
+                }
+                generator.writeEndArray();
+            }
+            log.info("Admin export tamamlandı: {} ({} satır)", fileName, written);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    /**
+     * Arama metnini "içerir" LIKE desenine çevir (küçük harf; %, _ ve \ kaçışlı, sorguda ESCAPE '\' ile kullanılır)
+     *
+     * @return metin boşsa null (filtre uygulanmaz)
+     */
+    public static String containsPattern(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        String escaped = query.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    /**
+     * Tablo satır sayısı tahmini (PostgreSQL istatistiği; COUNT(*) taraması yapılmaz)
+     *
+     * @return istatistik henüz yoksa veya okunamazsa null
+     */
+    public Long estimateRows(String table) {
+        try {
+            List<Long> estimate = readOnlyTransaction.execute(status -> jdbcTemplate.queryForList(
+                    "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass(?)", Long.class, table));
+            return estimate == null || estimate.isEmpty() || estimate.get(0) == null || estimate.get(0) < 0 ? null : estimate.get(0);
+        } catch (Exception e) {
+            log.debug("Satır sayısı tahmini okunamadı - tablo: {}, hata: {}", table, e.getMessage());
+            return null;
+        }
+    }
+}
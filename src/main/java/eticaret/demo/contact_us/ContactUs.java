@@ -6,12 +6,16 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import eticaret.demo.contact_us.event.ContactUsEntityListener;
 
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "contact_us")
+@Table(name = "contact_us", indexes = {
+    @Index(name = "idx_contact_us_created_at_id", columnList = "created_at, id")
+})
+@EntityListeners(ContactUsEntityListener.class)
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
@@ -1,5 +1,6 @@
 package eticaret.demo.contact_us;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +12,9 @@ import java.util.Optional;
 public interface ContactUsRepository extends JpaRepository<ContactUs, Long> {
     // Doğrulanmış mesajları getir
     List<ContactUs> findByVerifiedTrue();
+
+    // Doğrulanmış mesaj sayısı
+    long countByVerifiedTrue();
     
     // Email'e göre doğrulanmamış mesajları getir
     List<ContactUs> findByEmailAndVerifiedFalse(String email);
@@ -36,4 +40,16 @@ public interface ContactUsRepository extends JpaRepository<ContactUs, Long> {
     
     // Email'e göre mesajları getir (sıralı)
     List<ContactUs> findByEmailIgnoreCaseOrderByCreatedAtDesc(String email);
-}
\ No newline at end of file
+
+    // Admin listesi: oluşturulma zamanına göre azalan keyset sayfalama (filtreler opsiyonel)
+    @Query("SELECT c FROM ContactUs c WHERE c.createdAt <= :afterAt " +
+           "AND (c.createdAt < :afterAt OR c.id < :afterId) " +
+           "AND (:verified IS NULL OR c.verified = :verified) " +
+           "AND (:responded IS NULL OR c.isResponded = :responded) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ContactUs> findAdminPage(@Param("afterAt") LocalDateTime afterAt,
+                                  @Param("afterId") long afterId,
+                                  @Param("verified") Boolean verified,
+                                  @Param("responded") Boolean responded,
+                                  Pageable limit);
+}
@@ -8,7 +8,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import eticaret.demo.mail.EmailMessage;
-import eticaret.demo.mail.MailService;
+import eticaret.demo.mail.EmailPriority;
+import eticaret.demo.mail.MailOutboxHandler;
 import eticaret.demo.mail.EmailTemplateBuilder;
 import eticaret.demo.mail.EmailTemplateModel;
 import eticaret.demo.common.response.DataResponseMessage;
@@ -28,7 +29,7 @@ public class ContactUsServiceImpl implements ContactUsServis {
 
     private final ContactUsRepository contactUsRepository;
     private final EmailVerificationRepository verificationRepository;
-    private final MailService mailService;
+    private final MailOutboxHandler mailOutboxHandler;
     private final ObjectMapper objectMapper;
     
     // Email regex pattern
@@ -116,8 +117,9 @@ public class ContactUsServiceImpl implements ContactUsServis {
                         .subject("E-posta Doğrulama Kodu - HIEDRA HOME COLLECTION")
                         .body(emailBody)
                         .isHtml(true)
+                        .priority(EmailPriority.OTP)
                         .build();
-                mailService.queueEmail(emailMessage);
+                mailOutboxHandler.enqueue(emailMessage);
                 log.info("Doğrulama emaili kuyruğa eklendi: {}", message.getEmail());
             } catch (Exception e) {
                 log.error("Email gönderilirken hata: {}", e.getMessage(), e);
@@ -501,7 +503,7 @@ public class ContactUsServiceImpl implements ContactUsServis {
                     .isHtml(true)
                     .build();
 
-            mailService.queueEmail(emailMessage);
+            mailOutboxHandler.enqueue(emailMessage);
                 log.info("Yanıt emaili kuyruğa eklendi: Email={}", contact.getEmail());
             } catch (Exception e) {
                 log.error("Yanıt emaili gönderilirken hata: {}", e.getMessage(), e);
@@ -0,0 +1,12 @@
+package eticaret.demo.contact_us.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * İletişim mesajı oluşturuldu, doğrulandı, yanıtlandı veya silindi
+ *
+ * @param messageId Mesaj ID
+ * @param createdAt Mesajın oluşturulma zamanı
+ */
+public record ContactMessageChangedEvent(Long messageId, LocalDateTime createdAt) {
+}
@@ -0,0 +1,28 @@
+package eticaret.demo.contact_us.event;
+
+import eticaret.demo.contact_us.ContactUs;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * İletişim mesajı değişikliklerini ContactMessageChangedEvent olarak yayınlayan JPA entity listener
+ */
+@Component
+public class ContactUsEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ContactUsEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(ContactUs contactUs) {
+        eventPublisher.publishEvent(new ContactMessageChangedEvent(contactUs.getId(), contactUs.getCreatedAt()));
+    }
+}
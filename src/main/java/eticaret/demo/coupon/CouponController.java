@@ -47,8 +47,9 @@ public class CouponController {
                 if (authHeader != null && authHeader.startsWith("Bearer ")) {
                     String token = authHeader.substring(7);
                     try {
-                        String email = jwtService.extractEmail(token);
-                        Long extractedUserId = jwtService.extractUserId(token);
+                        JwtService.TokenClaims claims = jwtService.verify(token).orElse(null);
+                        String email = claims != null ? claims.email() : null;
+                        Long extractedUserId = claims != null ? claims.userId() : null;
                         if (email != null) {
                             AppUser user = appUserRepository.findByEmailIgnoreCase(email).orElse(null);
                             if (user != null && extractedUserId != null && extractedUserId.equals(user.getId())) {
@@ -1,5 +1,6 @@
 package eticaret.demo.coupon;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.time.LocalDateTime;
@@ -54,5 +55,13 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
         "ORDER BY c.createdAt DESC"
     )
     List<Coupon> findPersonalCouponsByEmails(LocalDateTime now, List<String> emails);
-}
 
+    // Admin listesi: id'ye göre azalan keyset sayfalama (durum ve kod/ad filtresi opsiyonel)
+    @org.springframework.data.jpa.repository.Query(
+        "SELECT c FROM Coupon c WHERE c.id < :afterId " +
+        "AND (:active IS NULL OR c.active = :active) " +
+        "AND (:pattern IS NULL OR LOWER(c.code) LIKE :pattern ESCAPE '\\' OR LOWER(c.name) LIKE :pattern ESCAPE '\\') " +
+        "ORDER BY c.id DESC"
+    )
+    List<Coupon> findAdminPage(long afterId, Boolean active, String pattern, Pageable limit);
+}
@@ -1,7 +1,9 @@
 package eticaret.demo.guest;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -35,5 +37,14 @@ public interface GuestUserRepository extends JpaRepository<GuestUser, Long> {
      */
     @Query("SELECT COUNT(DISTINCT g.id) FROM GuestUser g WHERE g.lastSeenAt >= :since")
     Long countActiveGuestsSince(LocalDateTime since);
-}
 
+    /**
+     * Admin listesi: id'ye göre azalan keyset sayfalama (email filtresi opsiyonel)
+     */
+    @Query("SELECT g FROM GuestUser g WHERE g.id < :afterId " +
+           "AND (:emailPattern IS NULL OR LOWER(g.email) LIKE :emailPattern ESCAPE '\\') " +
+           "ORDER BY g.id DESC")
+    List<GuestUser> findAdminPage(@Param("afterId") long afterId,
+                                  @Param("emailPattern") String emailPattern,
+                                  Pageable limit);
+}
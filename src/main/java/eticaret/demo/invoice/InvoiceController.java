@@ -146,7 +146,7 @@ public class InvoiceController {
     @PostMapping("/order/{orderNumber}/send-email")
     public ResponseEntity<ResponseMessage> sendInvoiceByEmail(@PathVariable String orderNumber) {
         log.info("Fatura e-posta ile gönderiliyor: {}", orderNumber);
-        ResponseMessage response = invoiceService.sendInvoiceByEmail(orderNumber);
+        ResponseMessage response = invoiceService.queueInvoiceEmail(orderNumber);
         return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,36 @@
+package eticaret.demo.invoice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eticaret.demo.common.response.ResponseMessage;
+import eticaret.demo.outbox.OutboxHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Fatura e-postası (outbox üzerinden; PDF gönderim anında oluşturulur, outbox'ta yalnızca sipariş numarası tutulur)
+ */
+@Component
+@RequiredArgsConstructor
+public class InvoiceMailOutboxHandler implements OutboxHandler {
+
+    static final String MESSAGE_TYPE = "invoice.email";
+
+    private final InvoiceService invoiceService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Set<String> messageTypes() {
+        return Set.of(MESSAGE_TYPE);
+    }
+
+    @Override
+    public void handle(String messageType, String aggregateKey, String payload) throws Exception {
+        String orderNumber = objectMapper.readValue(payload, String.class);
+        ResponseMessage response = invoiceService.sendInvoiceByEmail(orderNumber);
+        if (!response.isSuccess()) {
+            throw new IllegalStateException(response.getMessage());
+        }
+    }
+}
@@ -57,5 +57,10 @@ public interface InvoiceService {
      * Faturayı müşteriye e-posta ile gönder
      */
     ResponseMessage sendInvoiceByEmail(String orderNumber);
+
+    /**
+     * Fatura e-postasını kuyruğa al (outbox; gönderim arka planda, hata durumunda tekrar denenir)
+     */
+    ResponseMessage queueInvoiceEmail(String orderNumber);
 }
 
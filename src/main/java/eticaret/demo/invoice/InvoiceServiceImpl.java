@@ -23,6 +23,7 @@ import eticaret.demo.order.OrderItemRepository;
 import eticaret.demo.mail.EmailAttachment;
 import eticaret.demo.mail.EmailMessage;
 import eticaret.demo.mail.MailService;
+import eticaret.demo.outbox.OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ClassPathResource;
@@ -47,6 +48,7 @@ public class InvoiceServiceImpl implements InvoiceService {
     private final OrderItemRepository orderItemRepository;
     private final AdresRepository adresRepository;
     private final MailService mailService;
+    private final OutboxService outboxService;
 
     // Firma sabit bilgileri
     private static final String COMPANY_NAME = "HIEDRA HOME COLLECTION";
@@ -284,6 +286,20 @@ public class InvoiceServiceImpl implements InvoiceService {
         }
     }
 
+    @Override
+    @Transactional
+    public ResponseMessage queueInvoiceEmail(String orderNumber) {
+        if (invoiceRepository.findByOrderNumber(orderNumber).isEmpty()) {
+            return new ResponseMessage("Bu sipariş için fatura bulunamadı: " + orderNumber, false);
+        }
+        // Aynı dakika içindeki tekrar istekler tek gönderim olarak kuyruğa alınır
+        String key = orderNumber + ":" + System.currentTimeMillis() / 60_000;
+        if (outboxService.enqueue(InvoiceMailOutboxHandler.MESSAGE_TYPE, key, orderNumber)) {
+            log.info("Fatura e-postası kuyruğa alındı: {}", orderNumber);
+        }
+        return new DataResponseMessage<>("Fatura e-posta adresinize gönderilecek.", true, null);
+    }
+
     /**
      * Fatura e-posta içeriği oluştur
      */
@@ -0,0 +1,57 @@
+package eticaret.demo.mail;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uyarlanabilir gönderim hızı (AIMD)
+ * Tüm göndericiler ortak hızı paylaşır: her başarılı saniyelik gönderim hızı 1 mail/sn artırır,
+ * SMTP sunucusu yavaşlatma veya bağlantı hatası döndürdüğünde hız yarıya iner.
+ */
+final class AdaptiveRateLimiter {
+
+    private final double minRate;
+    private final double maxRate;
+    private double rate;
+    private long nextSlotNanos;
+    private int successStreak;
+
+    AdaptiveRateLimiter(double initialRate, double minRate, double maxRate) {
+        this.minRate = Math.max(0.1, minRate);
+        this.maxRate = Math.max(this.minRate, maxRate);
+        this.rate = Math.min(this.maxRate, Math.max(this.minRate, initialRate));
+        this.nextSlotNanos = System.nanoTime();
+    }
+
+    /**
+     * Sıradaki gönderim zamanına kadar bekle
+     */
+    void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        long slot = Math.max(now, nextSlotNanos);
+        nextSlotNanos = slot + (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        return slot - now;
+    }
+
+    synchronized void onSuccess() {
+        if (++successStreak >= Math.max(1, (int) rate)) {
+            successStreak = 0;
+            rate = Math.min(maxRate, rate + 1);
+        }
+    }
+
+    synchronized void onThrottle() {
+        successStreak = 0;
+        rate = Math.max(minRate, rate / 2);
+    }
+
+    synchronized double rate() {
+        return rate;
+    }
+}
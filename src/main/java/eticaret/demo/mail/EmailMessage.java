@@ -18,5 +18,9 @@ public class EmailMessage {
     private boolean isHtml;
     private List<EmailAttachment> attachments;
 
+    /**
+     * Kuyruk önceliği (boşsa TRANSACTIONAL)
+     */
+    private EmailPriority priority;
 
 }
\ No newline at end of file
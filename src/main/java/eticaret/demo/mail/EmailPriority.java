@@ -0,0 +1,42 @@
+package eticaret.demo.mail;
+
+/**
+ * E-posta kuyruğu önceliği (düşük seviye önce gönderilir)
+ */
+public enum EmailPriority {
+    /**
+     * Tek kullanımlık doğrulama kodları (giriş, sipariş sorgulama, e-posta doğrulama)
+     */
+    OTP(0),
+    /**
+     * Sipariş, iade ve mesaj yanıtı gibi işlem mailleri (varsayılan)
+     */
+    TRANSACTIONAL(1),
+    /**
+     * Yönetici bildirimleri
+     */
+    NOTIFICATION(2),
+    /**
+     * Kampanya, sepet hatırlatma ve toplu mailler
+     */
+    MARKETING(3);
+
+    private final int level;
+
+    EmailPriority(int level) {
+        this.level = level;
+    }
+
+    public int level() {
+        return level;
+    }
+
+    public static EmailPriority of(int level) {
+        for (EmailPriority priority : values()) {
+            if (priority.level == level) {
+                return priority;
+            }
+        }
+        return TRANSACTIONAL;
+    }
+}
@@ -2,57 +2,173 @@ package eticaret.demo.mail;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
+/**
+ * Kalıcı ve öncelikli e-posta kuyruğu (email_queue tablosu)
+ * - Kuyruğa alma çağıranın transaction'ına katılır; yeniden başlatmada mail kaybolmaz, kuyruk dolunca silinmez
+ * - Göndericiler bekleyen kayıtları öncelik sırasıyla "FOR UPDATE SKIP LOCKED" ile alır ve kiralar;
+ *   birden fazla gönderici / instance aynı maili almaz, kiralama süresi dolan kayıt tekrar alınır
+ * - Sonuç yalnızca kaydı alan denemenin numarası (attempts) hâlâ geçerliyse yazılır
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class EmailQueue {
 
-    private final ObjectMapper objectMapper;
+    private static final String INSERT_SQL =
+            "INSERT INTO email_queue (priority, status, to_email, subject, payload, dedup_key, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, 'PENDING', ?, ?, ?, ?, 0, ?, ?) ON CONFLICT (dedup_key) DO NOTHING";
 
-    private final Queue<String> emailQueue = new ConcurrentLinkedQueue<>();
+    private static final String CLAIM_SQL =
+            "UPDATE email_queue SET attempts = attempts + 1, next_attempt_at = ? " +
+            "WHERE id IN (SELECT id FROM email_queue WHERE status = 'PENDING' AND next_attempt_at <= ? " +
+            "ORDER BY priority, id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, priority, payload, attempts, created_at";
 
-    public void enqueue(EmailMessage email) {
-        try {
+    private static final String SENT_SQL =
+            "UPDATE email_queue SET status = 'SENT', sent_at = ?, payload = NULL, last_error = NULL " +
+            "WHERE id = ? AND attempts = ? AND status = 'PENDING'";
+
+    private static final String RETRY_SQL =
+            "UPDATE email_queue SET next_attempt_at = ?, last_error = ? " +
+            "WHERE id = ? AND attempts = ? AND status = 'PENDING'";
+
+    private static final String FAILED_SQL =
+            "UPDATE email_queue SET status = 'FAILED', last_error = ? " +
+            "WHERE id = ? AND attempts = ? AND status = 'PENDING'";
+
+    private static final String STATS_SQL =
+            "SELECT priority, " +
+            "COUNT(*) FILTER (WHERE status = 'PENDING'), " +
+            "MIN(created_at) FILTER (WHERE status = 'PENDING'), " +
+            "COUNT(*) FILTER (WHERE status = 'FAILED'), " +
+            "COUNT(*) FILTER (WHERE status = 'SENT' AND sent_at >= ?), " +
+            "AVG(EXTRACT(EPOCH FROM (sent_at - created_at)) * 1000) FILTER (WHERE status = 'SENT' AND sent_at >= ?) " +
+            "FROM email_queue GROUP BY priority ORDER BY priority";
+
+    private static final String CLEANUP_SQL =
+            "DELETE FROM email_queue WHERE status = 'SENT' AND sent_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-            String json = objectMapper.writeValueAsString(email);
-            emailQueue.offer(json);
-            log.info("Kuyruğa e-posta eklendi: {}", email.getToEmail());
+    public EmailQueue(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
 
+    /**
+     * Kuyruğa al (öncelik maildeki değerden, yoksa TRANSACTIONAL)
+     *
+     * @param dedupKey aynı anahtarla ikinci kez kuyruğa alınan mail yok sayılır (null olabilir)
+     * @return mail zaten kuyruktaysa false
+     */
+    @Transactional
+    public boolean enqueue(EmailMessage email, String dedupKey) {
+        EmailPriority priority = email.getPriority() != null ? email.getPriority() : EmailPriority.TRANSACTIONAL;
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(email);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Email JSON serialize hatası", e);
         }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String subject = email.getSubject() != null && email.getSubject().length() > 500
+                ? email.getSubject().substring(0, 500) : email.getSubject();
+        boolean inserted = jdbcTemplate.update(INSERT_SQL, priority.level(), email.getToEmail(), subject, json,
+                dedupKey, now, now) > 0;
+        if (inserted) {
+            log.info("Kuyruğa e-posta eklendi: {} (öncelik: {})", email.getToEmail(), priority);
+            eventPublisher.publishEvent(new EmailQueuedEvent(priority));
+        }
+        return inserted;
     }
 
-    public String dequeue() {
-        try {
-            return emailQueue.poll(); // İlk elemanı al ve kaldır
-        } catch (Exception e) {
-            System.err.println("Dequeue sırasında hata: " + e.getMessage());
-            return null;
-        }
+    /**
+     * Bekleyen mailleri öncelik sırasıyla al ve kirala
+     */
+    @Transactional
+    public List<Claimed> claim(int limit, long leaseMillis) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Claimed> claimed = new ArrayList<>(jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new Claimed(rs.getLong(1), EmailPriority.of(rs.getInt(2)), rs.getString(3),
+                        rs.getInt(4), rs.getTimestamp(5).toLocalDateTime()),
+                Timestamp.valueOf(now.plus(Duration.ofMillis(leaseMillis))), Timestamp.valueOf(now), limit));
+        // RETURNING sırası garanti değil
+        claimed.sort(Comparator.comparingInt((Claimed c) -> c.priority().level()).thenComparingLong(Claimed::id));
+        return claimed;
     }
 
-    public boolean isEmpty() {
-        return emailQueue.isEmpty();
+    public EmailMessage read(Claimed claimed) throws JsonProcessingException {
+        return objectMapper.readValue(claimed.payload(), EmailMessage.class);
     }
 
-    public long size() {
-        return emailQueue.size();
+    @Transactional
+    public void markSent(Claimed claimed) {
+        jdbcTemplate.update(SENT_SQL, Timestamp.valueOf(LocalDateTime.now()), claimed.id(), claimed.attempts());
     }
 
-    // Kuyruğu tamamen temizle
-    public void clear() {
-        try {
-            emailQueue.clear();
-        } catch (Exception e) {
-            System.err.println("Kuyruk temizlenirken hata: " + e.getMessage());
-        }
+    @Transactional
+    public void markRetry(Claimed claimed, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update(RETRY_SQL, Timestamp.valueOf(nextAttemptAt), abbreviate(error), claimed.id(), claimed.attempts());
+    }
+
+    @Transactional
+    public void markFailed(Claimed claimed, String error) {
+        jdbcTemplate.update(FAILED_SQL, abbreviate(error), claimed.id(), claimed.attempts());
+    }
+
+    /**
+     * Öncelik bazında kuyruk derinliği, en eski bekleyen mail ve son bir saatteki gönderim süresi
+     */
+    @Transactional(readOnly = true)
+    public List<PriorityStats> stats() {
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusHours(1));
+        return jdbcTemplate.query(STATS_SQL, (rs, rowNum) -> {
+            Timestamp oldest = rs.getTimestamp(3);
+            double avgLatency = rs.getDouble(6);
+            return new PriorityStats(EmailPriority.of(rs.getInt(1)), rs.getLong(2),
+                    oldest != null ? oldest.toLocalDateTime() : null, rs.getLong(4), rs.getLong(5),
+                    rs.wasNull() ? null : Math.round(avgLatency));
+        }, since, since);
+    }
+
+    /**
+     * Gönderilmiş eski kayıtları sil
+     */
+    @Transactional
+    public int deleteSentBefore(LocalDateTime before) {
+        return jdbcTemplate.update(CLEANUP_SQL, Timestamp.valueOf(before));
+    }
+
+    private static String abbreviate(String value) {
+        return value != null && value.length() > 1000 ? value.substring(0, 1000) : value;
+    }
+
+    public record Claimed(long id, EmailPriority priority, String payload, int attempts, LocalDateTime createdAt) {
+    }
+
+    /**
+     * @param pending           bekleyen mail sayısı
+     * @param oldestPendingAt   en eski bekleyen mailin kuyruğa alınma zamanı
+     * @param failed            gönderilemeyen (dead-letter) mail sayısı
+     * @param sentLastHour      son bir saatte gönderilen
+     * @param avgLatencyMillis  son bir saatte kuyruğa alınmadan gönderilene kadar geçen ortalama süre
+     */
+    public record PriorityStats(EmailPriority priority, long pending, LocalDateTime oldestPendingAt, long failed,
+                                long sentLastHour, Long avgLatencyMillis) {
     }
 }
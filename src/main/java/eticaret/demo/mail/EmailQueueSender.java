@@ -0,0 +1,359 @@
+package eticaret.demo.mail;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kalıcı e-posta kuyruğunu gönderen paralel göndericiler
+ * - Her gönderici kendi SMTP bağlantısını açık tutar ve mailleri aynı bağlantı üzerinden gönderir;
+ *   bağlantı hata alınca veya boşta kalınca kapatılır
+ * - Göndericiler kuyruktan öncelik sırasıyla küçük parçalar alır; doğrulama kodları kampanya maillerinin arkasında beklemez
+ * - Gönderim hızı AdaptiveRateLimiter ile SMTP sunucusunun tepkisine göre ayarlanır
+ * - Hata: artan bekleme ile tekrar; geçersiz adres veya deneme sınırı aşılırsa FAILED
+ * Yeni mail kuyruğa alındığında commit sonrası hemen, ayrıca periyodik olarak çalışır.
+ */
+@Component
+@Slf4j
+public class EmailQueueSender {
+
+    private final EmailQueue emailQueue;
+    private final MailService mailService;
+    private final JavaMailSender mailSender;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final int senderCount;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long leaseMillis;
+    private final long pollIntervalMillis;
+    private final long idleMillis;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int retentionDays;
+
+    private final Object signal = new Object();
+    private final List<Thread> senders = new ArrayList<>();
+    private volatile boolean running;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private volatile double avgSendMillis;
+
+    public EmailQueueSender(
+            EmailQueue emailQueue,
+            MailService mailService,
+            JavaMailSender mailSender,
+            @Value("${mail.queue.senders:4}") int senderCount,
+            @Value("${mail.queue.batch-size:10}") int batchSize,
+            @Value("${mail.queue.max-attempts:5}") int maxAttempts,
+            @Value("${mail.queue.lease-ms:120000}") long leaseMillis,
+            @Value("${mail.queue.poll-interval-ms:1000}") long pollIntervalMillis,
+            @Value("${mail.queue.connection-idle-ms:30000}") long idleMillis,
+            @Value("${mail.queue.retry.base-delay-ms:30000}") long baseDelayMillis,
+            @Value("${mail.queue.retry.max-delay-ms:3600000}") long maxDelayMillis,
+            @Value("${mail.queue.rate.initial:5}") double initialRate,
+            @Value("${mail.queue.rate.min:1}") double minRate,
+            @Value("${mail.queue.rate.max:20}") double maxRate,
+            @Value("${mail.queue.retention-days:7}") int retentionDays
+    ) {
+        this.emailQueue = emailQueue;
+        this.mailService = mailService;
+        this.mailSender = mailSender;
+        this.rateLimiter = new AdaptiveRateLimiter(initialRate, minRate, maxRate);
+        this.senderCount = Math.max(1, senderCount);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.leaseMillis = leaseMillis;
+        this.pollIntervalMillis = Math.max(100, pollIntervalMillis);
+        this.idleMillis = idleMillis;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.retentionDays = retentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 1; i <= senderCount; i++) {
+            Thread thread = new Thread(this::run, "email-sender-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            senders.add(thread);
+        }
+        log.info("E-posta kuyruğu göndericileri başlatıldı: {} gönderici, başlangıç hızı {} mail/sn",
+                senderCount, rateLimiter.rate());
+    }
+
+    /**
+     * Yeni mail commit edildi: bekleyen bir göndericiyi uyandır
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQueued(EmailQueuedEvent event) {
+        synchronized (signal) {
+            signal.notify();
+        }
+    }
+
+    private void run() {
+        SmtpConnection connection = new SmtpConnection();
+        try {
+            while (running) {
+                List<EmailQueue.Claimed> batch = claim();
+                if (batch.isEmpty()) {
+                    connection.closeIfIdle();
+                    synchronized (signal) {
+                        signal.wait(pollIntervalMillis);
+                    }
+                    continue;
+                }
+                for (EmailQueue.Claimed claimed : batch) {
+                    if (!running) {
+                        // Kapanırken alınmış ama gönderilmemiş mailler hemen tekrar alınabilsin
+                        complete(() -> emailQueue.markRetry(claimed, LocalDateTime.now(), null));
+                        continue;
+                    }
+                    rateLimiter.acquire();
+                    deliver(connection, claimed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connection.close();
+        }
+    }
+
+    private List<EmailQueue.Claimed> claim() throws InterruptedException {
+        try {
+            return emailQueue.claim(batchSize, leaseMillis);
+        } catch (Exception e) {
+            log.error("E-posta kuyruğundan mail alınamadı: {}", e.getMessage());
+            TimeUnit.MILLISECONDS.sleep(pollIntervalMillis);
+            return List.of();
+        }
+    }
+
+    private void deliver(SmtpConnection connection, EmailQueue.Claimed claimed) {
+        EmailMessage email;
+        try {
+            email = emailQueue.read(claimed);
+        } catch (JsonProcessingException e) {
+            fail(claimed, "Email JSON deserialize hatası: " + e.getMessage());
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            connection.send(mailService.createMimeMessage(email));
+            recordSendTime(System.nanoTime() - started);
+            rateLimiter.onSuccess();
+            complete(() -> emailQueue.markSent(claimed));
+            sentCount.incrementAndGet();
+            log.info("Mail başarıyla gönderildi: {} (Subject: {}, öncelik: {}, kuyrukta: {} ms)",
+                    email.getToEmail(), email.getSubject(), claimed.priority(),
+                    Duration.between(claimed.createdAt(), LocalDateTime.now()).toMillis());
+        } catch (SendFailedException e) {
+            connection.close();
+            if (e.getInvalidAddresses() != null && e.getInvalidAddresses().length > 0) {
+                // Kalıcı hata: tekrar denemek sonucu değiştirmez
+                fail(claimed, "Geçersiz adres: " + e.getMessage());
+            } else {
+                rateLimiter.onThrottle();
+                retryOrFail(claimed, e);
+            }
+        } catch (MessagingException e) {
+            // Bağlantı hatası veya sunucu yavaşlatması (4xx): bağlantıyı yenile, hızı düşür
+            connection.close();
+            rateLimiter.onThrottle();
+            retryOrFail(claimed, e);
+        } catch (Exception e) {
+            connection.close();
+            retryOrFail(claimed, e);
+        }
+    }
+
+    private void retryOrFail(EmailQueue.Claimed claimed, Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (claimed.attempts() >= maxAttempts) {
+            fail(claimed, error);
+            return;
+        }
+        LocalDateTime nextAttempt = LocalDateTime.now().plus(Duration.ofMillis(backoffMillis(claimed.attempts())));
+        complete(() -> emailQueue.markRetry(claimed, nextAttempt, error));
+        retriedCount.incrementAndGet();
+        log.warn("Mail gönderilemedi - id: {}, deneme: {}, sonraki deneme: {}, hata: {}",
+                claimed.id(), claimed.attempts(), nextAttempt, error);
+    }
+
+    private void fail(EmailQueue.Claimed claimed, String error) {
+        complete(() -> emailQueue.markFailed(claimed, error));
+        failedCount.incrementAndGet();
+        log.error("Mail gönderilemedi, tekrar denenmeyecek - id: {}, deneme: {}, hata: {}",
+                claimed.id(), claimed.attempts(), error);
+    }
+
+    private void complete(Runnable update) {
+        try {
+            update.run();
+        } catch (Exception e) {
+            // Kiralama süresi dolunca mail tekrar alınır
+            log.error("E-posta kuyruğu durumu güncellenemedi: {}", e.getMessage());
+        }
+    }
+
+    private void recordSendTime(long nanos) {
+        double millis = nanos / 1_000_000.0;
+        double current = avgSendMillis;
+        avgSendMillis = current == 0 ? millis : current * 0.9 + millis * 0.1;
+    }
+
+    /**
+     * Üstel bekleme: base * 2^(deneme-1), en fazla maxDelay
+     */
+    private long backoffMillis(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(maxDelayMillis, baseDelayMillis * (1L << exponent));
+    }
+
+    /**
+     * Kuyruk derinliği, gecikme ve gönderici durumu
+     */
+    public QueueStatus status() {
+        return new QueueStatus(emailQueue.stats(), new SenderStats(senderCount, openConnections.get(),
+                rateLimiter.rate(), sentCount.get(), retriedCount.get(), failedCount.get(), Math.round(avgSendMillis)));
+    }
+
+    /**
+     * Bekleyen mail varsa kuyruk durumunu logla
+     * Varsayılan: 5 dakikada bir
+     */
+    @Scheduled(fixedDelayString = "${mail.queue.report-interval-ms:300000}")
+    public void report() {
+        try {
+            for (EmailQueue.PriorityStats stats : emailQueue.stats()) {
+                if (stats.pending() > 0 || stats.failed() > 0) {
+                    log.info("E-posta kuyruğu - öncelik: {}, bekleyen: {}, en eski: {}, başarısız: {}, son 1 saatte gönderilen: {}, ort. gecikme: {} ms",
+                            stats.priority(), stats.pending(), stats.oldestPendingAt(), stats.failed(),
+                            stats.sentLastHour(), stats.avgLatencyMillis());
+                }
+            }
+        } catch (Exception e) {
+            log.error("E-posta kuyruğu durumu okunamadı: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Gönderilmiş eski mailleri sil
+     * Varsayılan: Her gün saat 05:30
+     */
+    @Scheduled(cron = "${mail.queue.cleanup-cron:0 30 5 * * ?}")
+    public void cleanup() {
+        try {
+            int deleted = emailQueue.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+            log.info("E-posta kuyruğu temizlendi: {} gönderilmiş mail silindi", deleted);
+        } catch (Exception e) {
+            log.error("E-posta kuyruğu temizlenirken hata: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        for (Thread thread : senders) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Göndericiye ait, tekrar kullanılan SMTP bağlantısı
+     */
+    private final class SmtpConnection {
+
+        private Transport transport;
+        private long lastUsedNanos;
+
+        void send(MimeMessage message) throws MessagingException {
+            if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+                mailSender.send(message);
+                return;
+            }
+            if (transport == null || !transport.isConnected()) {
+                close();
+                open(sender);
+            }
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+            lastUsedNanos = System.nanoTime();
+        }
+
+        private void open(JavaMailSenderImpl sender) throws MessagingException {
+            Transport opened = sender.getSession().getTransport(sender.getProtocol() != null ? sender.getProtocol() : "smtp");
+            opened.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+            transport = opened;
+            lastUsedNanos = System.nanoTime();
+            openConnections.incrementAndGet();
+        }
+
+        void closeIfIdle() {
+            if (transport != null && System.nanoTime() - lastUsedNanos > TimeUnit.MILLISECONDS.toNanos(idleMillis)) {
+                close();
+            }
+        }
+
+        void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (Exception e) {
+                log.debug("SMTP bağlantısı kapatılırken hata: {}", e.getMessage());
+            }
+            transport = null;
+            openConnections.decrementAndGet();
+        }
+    }
+
+    public record SenderStats(int senders, int openConnections, double ratePerSecond, long sent, long retried,
+                              long failed, long avgSendMillis) {
+    }
+
+    public record QueueStatus(List<EmailQueue.PriorityStats> priorities, SenderStats senders) {
+    }
+}
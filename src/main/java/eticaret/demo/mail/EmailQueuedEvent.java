@@ -0,0 +1,7 @@
+package eticaret.demo.mail;
+
+/**
+ * Kuyruğa yeni e-posta yazıldı (commit sonrası göndericiler uyandırılır)
+ */
+public record EmailQueuedEvent(EmailPriority priority) {
+}
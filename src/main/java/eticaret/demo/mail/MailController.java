@@ -16,7 +16,7 @@ public class MailController {
     @GetMapping("/direct")
     public ResponseEntity<String> sendDirect(@RequestParam String to) {
         try {
-            EmailMessage emailMessage=new EmailMessage(to, "Selam","MERHABA",false,null);
+            EmailMessage emailMessage=new EmailMessage(to, "Selam","MERHABA",false,null,null);
             mailService.queueEmail(emailMessage);
             return ResponseEntity.ok("E-posta doğrudan gönderildi: " + to);
         } catch (Exception e) {
@@ -0,0 +1,52 @@
+package eticaret.demo.mail;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eticaret.demo.outbox.OutboxHandler;
+import eticaret.demo.outbox.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * İş akışına bağlı mailler (outbox üzerinden)
+ * Mail, iş değişikliği ile aynı transaction'da outbox'a yazılır; işlem geri alınırsa gönderilmez.
+ * Commit sonrası kalıcı e-posta kuyruğuna aktarılır (outbox anahtarı ile, tekrar denemede iki kez eklenmez);
+ * gönderim öncelik sırasıyla EmailQueueSender tarafından yapılır.
+ */
+@Component
+@RequiredArgsConstructor
+public class MailOutboxHandler implements OutboxHandler {
+
+    static final String MESSAGE_TYPE = "mail.send";
+
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper;
+    private final MailService mailService;
+
+    /**
+     * Maili kuyruğa al
+     */
+    public void enqueue(EmailMessage emailMessage) {
+        outboxService.enqueue(MESSAGE_TYPE, emailMessage);
+    }
+
+    /**
+     * Maili kuyruğa al
+     *
+     * @param key aynı anahtarla ikinci kez kuyruğa alınan mail yok sayılır (örn: "order-confirmation:" + sipariş no)
+     */
+    public void enqueue(String key, EmailMessage emailMessage) {
+        outboxService.enqueue(MESSAGE_TYPE, key, emailMessage);
+    }
+
+    @Override
+    public Set<String> messageTypes() {
+        return Set.of(MESSAGE_TYPE);
+    }
+
+    @Override
+    public void handle(String messageType, String aggregateKey, String payload) throws Exception {
+        mailService.queueEmail(MESSAGE_TYPE + ":" + aggregateKey, objectMapper.readValue(payload, EmailMessage.class));
+    }
+}
@@ -1,7 +1,6 @@
 package eticaret.demo.mail;
 
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import eticaret.demo.common.config.AppUrlConfig;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
@@ -11,7 +10,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -19,7 +17,6 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.LinkedHashMap;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -31,7 +28,6 @@ public class MailService {
 
     private final JavaMailSender mailSender;
     private final EmailQueue emailQueue;
-    private final ObjectMapper objectMapper;
     private final AppUrlConfig appUrlConfig;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd MMMM yyyy");
@@ -39,9 +35,21 @@ public class MailService {
     @Value("${spring.mail.username}")
     private String senderEmail;
 
-    // Kuyruğa ekle
+    /**
+     * Kalıcı kuyruğa ekle (öncelik: emailMessage.priority, yoksa TRANSACTIONAL)
+     * Çağıranın transaction'ı varsa ona katılır; gönderim EmailQueueSender tarafından yapılır.
+     */
     public void queueEmail(EmailMessage emailMessage) {
-        emailQueue.enqueue(emailMessage);
+        emailQueue.enqueue(emailMessage, null);
+    }
+
+    /**
+     * Kalıcı kuyruğa ekle
+     *
+     * @param dedupKey aynı anahtarla ikinci kez kuyruğa alınan mail yok sayılır
+     */
+    public void queueEmail(String dedupKey, EmailMessage emailMessage) {
+        emailQueue.enqueue(emailMessage, dedupKey);
     }
 
     // Direkt gönder (kuyruğu atla) - Attachment'lar için önemli
@@ -58,76 +66,9 @@ public class MailService {
         }
     }
 
-    // 1 saniyede bir çalışsın
-    @Scheduled(fixedRate = 1000)
-    public void sendQueuedEmails() {
-        try {
-            long queueSize = emailQueue.size();
-
-            // Eğer kuyrukta 10.000'den fazla mail varsa temizle
-            if (queueSize > 10000) {
-                log.warn("Mail kuyruğu çok büyük ({}), temizleniyor.", queueSize);
-                emailQueue.clear();
-                return;
-            }
-
-            // Kuyrukta mail varsa gönder
-            if (queueSize > 0) {
-                int maxBatchSize = 20;  // Aynı anda max 20 mail gönder
-                List<EmailMessage> batch = new ArrayList<>();
-
-                for (int i = 0; i < maxBatchSize; i++) {
-                    String emailJson = emailQueue.dequeue();
-                    if (emailJson == null) break;
-
-                    try {
-                        EmailMessage email = objectMapper.readValue(emailJson, EmailMessage.class);
-                        batch.add(email);
-                    } catch (Exception e) {
-                        log.error("Kuyruktan email deserialize hatası: {}", e.getMessage());
-                    }
-                }
-
-                for (EmailMessage email : batch) {
-                    sendEmail(email);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Mail gönderim işlemi sırasında hata: {}", e.getMessage());
-        }
-    }
-
     private void sendEmail(EmailMessage email) {
         try {
-            log.debug("Mail hazırlanıyor - To: {}, Subject: {}, HasAttachments: {}",
-                    email.getToEmail(), email.getSubject(),
-                    email.getAttachments() != null && !email.getAttachments().isEmpty());
-
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-            helper.setTo(email.getToEmail());
-            helper.setSubject(email.getSubject());
-            helper.setText(email.getBody(), email.isHtml());
-            helper.setFrom(senderEmail);
-
-            if (email.getAttachments() != null && !email.getAttachments().isEmpty()) {
-                log.info("{} adet ek dosya işleniyor", email.getAttachments().size());
-                for (EmailAttachment attachment : email.getAttachments()) {
-                    try {
-                        if (attachment.getContent() != null && attachment.getName() != null) {
-                            helper.addAttachment(attachment.getName(),
-                                    new ByteArrayDataSource(attachment.getContent(), attachment.getContentType()));
-                            log.info("Attachment eklendi: {} ({} bytes)", attachment.getName(), attachment.getContent().length);
-                        } else {
-                            log.warn("Eksik attachment bilgisi - Name: {}, Content: {}",
-                                    attachment.getName(), attachment.getContent() != null ? "var" : "null");
-                        }
-                    } catch (Exception ex) {
-                        log.error("Attachment eklenirken hata: {}", ex.getMessage(), ex);
-                    }
-                }
-            }
-
+            MimeMessage mimeMessage = createMimeMessage(email);
             log.info("Mail gönderiliyor - To: {}, Subject: {}", email.getToEmail(), email.getSubject());
             mailSender.send(mimeMessage);
             log.info("Mail başarıyla gönderildi: {} (Subject: {})", email.getToEmail(), email.getSubject());
@@ -142,6 +83,42 @@ public class MailService {
             throw e;
         }
     }
+
+    /**
+     * Maili MIME mesajına çevir (ekler dahil)
+     */
+    MimeMessage createMimeMessage(EmailMessage email) throws MessagingException {
+        log.debug("Mail hazırlanıyor - To: {}, Subject: {}, HasAttachments: {}",
+                email.getToEmail(), email.getSubject(),
+                email.getAttachments() != null && !email.getAttachments().isEmpty());
+
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+        helper.setTo(email.getToEmail());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), email.isHtml());
+        helper.setFrom(senderEmail);
+
+        if (email.getAttachments() != null && !email.getAttachments().isEmpty()) {
+            log.info("{} adet ek dosya işleniyor", email.getAttachments().size());
+            for (EmailAttachment attachment : email.getAttachments()) {
+                try {
+                    if (attachment.getContent() != null && attachment.getName() != null) {
+                        helper.addAttachment(attachment.getName(),
+                                new ByteArrayDataSource(attachment.getContent(), attachment.getContentType()));
+                        log.info("Attachment eklendi: {} ({} bytes)", attachment.getName(), attachment.getContent().length);
+                    } else {
+                        log.warn("Eksik attachment bilgisi - Name: {}, Content: {}",
+                                attachment.getName(), attachment.getContent() != null ? "var" : "null");
+                    }
+                } catch (Exception ex) {
+                    log.error("Attachment eklenirken hata: {}", ex.getMessage(), ex);
+                }
+            }
+        }
+        return mimeMessage;
+    }
+
     public String buildAdminOtpEmail(String adminEmail, String code, String actionUrl) {
         LinkedHashMap<String, String> details = new LinkedHashMap<>();
         details.put("Yönetici E-postası", adminEmail);
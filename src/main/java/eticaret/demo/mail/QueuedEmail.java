@@ -0,0 +1,76 @@
+package eticaret.demo.mail;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kalıcı e-posta kuyruğu kaydı
+ * Yazma/okuma EmailQueue üzerinden JDBC ile yapılır; entity tablo şeması içindir.
+ */
+@Entity
+@Table(name = "email_queue", indexes = {
+    @Index(name = "idx_email_queue_status_priority", columnList = "status, priority, next_attempt_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_email_queue_dedup_key", columnNames = "dedup_key")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueuedEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * EmailPriority seviyesi (düşük önce)
+     */
+    @Column(name = "priority", nullable = false)
+    private Integer priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private QueuedEmailStatus status;
+
+    @Column(name = "to_email", nullable = false)
+    private String toEmail;
+
+    @Column(name = "subject", length = 500)
+    private String subject;
+
+    /**
+     * EmailMessage JSON'u; gönderildikten sonra silinir (ekler yer kaplamasın)
+     */
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    /**
+     * Aynı mailin iki kez kuyruğa alınmasını engeller (boş olabilir)
+     */
+    @Column(name = "dedup_key", length = 150)
+    private String dedupKey;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    /**
+     * Bir sonraki deneme zamanı; gönderilirken kiralama (lease) bitiş zamanıdır
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
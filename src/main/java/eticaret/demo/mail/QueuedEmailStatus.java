@@ -0,0 +1,7 @@
+package eticaret.demo.mail;
+
+public enum QueuedEmailStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -8,11 +8,12 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import eticaret.demo.auth.AppUser;
 import eticaret.demo.mail.EmailMessage;
+import eticaret.demo.mail.EmailPriority;
 import eticaret.demo.mail.MailService;
 import eticaret.demo.mail.EmailTemplateBuilder;
 import eticaret.demo.mail.EmailTemplateModel;
 import eticaret.demo.product.Product;
-import eticaret.demo.product.ProductRepository;
+import eticaret.demo.product.ProductLoader;
 
 import java.time.LocalDateTime;
 import java.util.Base64;
@@ -32,7 +33,7 @@ import java.util.stream.Collectors;
 public class MarketingEmailScheduler {
 
     private final EmailPreferenceRepository emailPreferenceRepository;
-    private final ProductRepository productRepository;
+    private final ProductLoader productLoader;
     private final MailService mailService;
     private final Random random = new Random();
     
@@ -55,7 +56,7 @@ public class MarketingEmailScheduler {
         log.info("=== Marketing email gönderim işlemi başlatılıyor ===");
         LocalDateTime startTime = LocalDateTime.now();
         
-        try {
+        try (ProductLoader.Scope productScope = productLoader.openScope()) {
             // 1. Uygun kullanıcıları bul
             LocalDateTime since = LocalDateTime.now().minusDays(MIN_EMAIL_INTERVAL_DAYS);
             
@@ -281,6 +282,7 @@ public class MarketingEmailScheduler {
                     .subject(subject)
                     .body(htmlContent)
                     .isHtml(true)
+                    .priority(EmailPriority.MARKETING)
                     .build();
             
             // 4. Email gönder
@@ -341,7 +343,8 @@ public class MarketingEmailScheduler {
      */
     private String buildNewProductsEmail(AppUser user) {
         try {
-            List<Product> allProducts = productRepository.findAll();
+            // Aktif ürünler gönderim boyunca bir kez yüklenir (alıcı başına findAll yok)
+            List<Product> allProducts = productLoader.loadAllActive();
             
             if (allProducts.isEmpty()) {
                 return buildGenericMarketingEmail(user);
@@ -456,7 +459,8 @@ public class MarketingEmailScheduler {
      */
     private String buildProductRecommendationEmail(AppUser user) {
         try {
-            List<Product> allProducts = productRepository.findAll();
+            // Aktif ürünler gönderim boyunca bir kez yüklenir (alıcı başına findAll yok)
+            List<Product> allProducts = productLoader.loadAllActive();
             
             if (allProducts.isEmpty()) {
                 return buildGenericMarketingEmail(user);
@@ -6,9 +6,12 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import eticaret.demo.address.Address;
 import eticaret.demo.auth.AppUser;
+import eticaret.demo.order.event.OrderEntityListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -30,9 +33,11 @@ import java.util.List;
     @Index(name = "idx_order_guest_user_id", columnList = "guest_user_id"),
     @Index(name = "idx_order_status", columnList = "status"),
     @Index(name = "idx_order_created_at", columnList = "created_at"),
+    @Index(name = "idx_order_created_at_id", columnList = "created_at, id"),
     @Index(name = "idx_order_tracking_number", columnList = "tracking_number")
 })
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@EntityListeners(OrderEntityListener.class)
 public class Order {
 
     @Id
@@ -266,6 +271,15 @@ public class Order {
     @Column(name = "user_agent", length = 500)
     private String userAgent;
 
+    /**
+     * Veritabanından okunduğu / yazıldığı andaki durum (durum geçişi event'leri için, kalıcı değil)
+     */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private OrderStatus persistedStatus;
+
     @PrePersist
     public void onCreate() {
         LocalDateTime now = LocalDateTime.now();
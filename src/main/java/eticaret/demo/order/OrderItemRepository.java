@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     
@@ -36,4 +37,13 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
            "WHERE LOWER(TRIM(o.customerEmail)) = LOWER(TRIM(:customerEmail)) " +
            "AND oi.productId IS NOT NULL")
     List<Long> findPurchasedProductIdsByCustomerEmail(String customerEmail);
+    
+    /**
+     * Tüm (sipariş, ürün) çiftleri sipariş ID'sine göre sıralı
+     * Ürün komşuluk indeksi oluşturulurken akış (stream) olarak okunur; transaction içinde kullanılmalıdır.
+     */
+    @Query("SELECT DISTINCT oi.order.id, oi.productId FROM OrderItem oi " +
+           "WHERE oi.productId IS NOT NULL " +
+           "ORDER BY oi.order.id")
+    Stream<Object[]> streamOrderProductPairs();
 }
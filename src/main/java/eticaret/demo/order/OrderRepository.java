@@ -6,7 +6,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,6 +50,13 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     // Duruma göre sipariş sayısı
     long countByStatus(OrderStatus status);
+
+    // Belirtilen tarihten itibaren oluşturulan sipariş sayısı
+    long countByCreatedAtGreaterThanEqual(LocalDateTime since);
+
+    // Belirtilen durumlardaki siparişlerin toplam tutarı
+    @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.status IN :statuses")
+    BigDecimal sumTotalAmountByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
     
     // Addresses ile birlikte sipariş getir
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.addresses WHERE o.id = :id")
@@ -75,4 +84,18 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     // Payment ID ile sipariş getir
     Optional<Order> findByPaymentId(String paymentId);
-}
\ No newline at end of file
+
+    // Kullanıcının siparişleri (kullanıcı bağlantısı veya müşteri email'i ile)
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems " +
+           "WHERE o.user.id = :userId OR LOWER(o.customerEmail) = LOWER(:email) ORDER BY o.createdAt DESC")
+    List<Order> findByUserIdOrCustomerEmail(@Param("userId") Long userId, @Param("email") String email);
+
+    // Kargo listesi: verilen durumlardaki siparişler, oluşturulma zamanına göre azalan keyset sayfalama
+    @Query("SELECT o FROM Order o WHERE o.status IN :statuses AND o.createdAt <= :afterAt " +
+           "AND (o.createdAt < :afterAt OR o.id < :afterId) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findKeysetPageByStatusIn(@Param("statuses") Collection<OrderStatus> statuses,
+                                         @Param("afterAt") LocalDateTime afterAt,
+                                         @Param("afterId") long afterId,
+                                         Pageable limit);
+}
@@ -1,6 +1,7 @@
 package eticaret.demo.order;
 
-import eticaret.demo.product.ProductRepository;
+import eticaret.demo.product.stock.StockMeters;
+import eticaret.demo.product.stock.StockReservationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,7 +15,9 @@ import eticaret.demo.common.response.ResponseMessage;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,7 +27,7 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final PaymentService paymentService;
-    private final ProductRepository productRepository;
+    private final StockReservationService stockReservationService;
 
     @Override
     public ResponseMessage queryOrder(OrderQueryRequest request) {
@@ -442,25 +445,18 @@ public class OrderServiceImpl implements OrderService {
                         return refundResult;
                     }
 
-                    // Stokları geri yükle
+                    // Stokları geri yükle (siparişte düşülen metre kadar, atomik)
                     try {
                         if (order.getOrderItems() != null) {
+                            Map<Long, BigDecimal> restock = new HashMap<>();
                             for (var orderItem : order.getOrderItems()) {
                                 if (orderItem.getProductId() != null) {
-                                    productRepository.findById(orderItem.getProductId())
-                                            .ifPresent(product -> {
-                                                // Stoku geri yükle
-                                                if (product.getQuantity() != null) {
-                                                    product.setQuantity(product.getQuantity() + orderItem.getQuantity());
-                                                    productRepository.save(product);
-                                                    log.info("Stok geri yüklendi - productId: {}, quantity: {}, yeni stok: {}", 
-                                                            orderItem.getProductId(), orderItem.getQuantity(), product.getQuantity());
-                                                } else {
-                                                    log.warn("Ürün stok bilgisi yok - productId: {}", orderItem.getProductId());
-                                                }
-                                            });
+                                    restock.merge(orderItem.getProductId(), StockMeters.fromMeters(
+                                            orderItem.getWidth(), orderItem.getPleatType(), orderItem.getQuantity()),
+                                            BigDecimal::add);
                                 }
                             }
+                            stockReservationService.restock(order.getOrderNumber(), restock);
                         }
                     } catch (Exception e) {
                         log.error("Stok geri yüklenirken hata: {}", e.getMessage());
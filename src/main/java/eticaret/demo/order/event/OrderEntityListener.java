@@ -0,0 +1,47 @@
+package eticaret.demo.order.event;
+
+import eticaret.demo.order.Order;
+import eticaret.demo.order.OrderStatus;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sipariş oluşturma ve durum geçişlerini OrderStatusChangedEvent olarak yayınlayan JPA entity listener
+ * Durum hangi servisten/controller'dan değiştirilirse değiştirilsin yakalanır.
+ * Dinleyiciler @TransactionalEventListener ile commit sonrasında çalışır.
+ */
+@Component
+public class OrderEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OrderEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostLoad
+    public void onLoad(Order order) {
+        order.setPersistedStatus(order.getStatus());
+    }
+
+    @PostPersist
+    public void onCreate(Order order) {
+        publish(order, null);
+    }
+
+    @PostUpdate
+    public void onUpdate(Order order) {
+        if (order.getPersistedStatus() != order.getStatus()) {
+            publish(order, order.getPersistedStatus());
+        }
+    }
+
+    private void publish(Order order, OrderStatus previousStatus) {
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                order.getId(), previousStatus, order.getStatus(), order.getTotalAmount(), order.getCreatedAt()));
+        order.setPersistedStatus(order.getStatus());
+    }
+}
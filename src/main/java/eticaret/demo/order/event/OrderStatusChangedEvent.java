@@ -0,0 +1,23 @@
+package eticaret.demo.order.event;
+
+import eticaret.demo.order.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Sipariş oluşturuldu veya durumu değişti
+ *
+ * @param orderId        Sipariş ID
+ * @param previousStatus Önceki durum (yeni siparişte null)
+ * @param status         Yeni durum
+ * @param totalAmount    Sipariş tutarı
+ * @param createdAt      Sipariş oluşturulma zamanı
+ */
+public record OrderStatusChangedEvent(Long orderId, OrderStatus previousStatus, OrderStatus status,
+                                      BigDecimal totalAmount, LocalDateTime createdAt) {
+
+    public boolean created() {
+        return previousStatus == null;
+    }
+}
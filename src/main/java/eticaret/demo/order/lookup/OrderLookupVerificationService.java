@@ -2,6 +2,8 @@ package eticaret.demo.order.lookup;
 
 import eticaret.demo.common.config.AppUrlConfig;
 import eticaret.demo.mail.EmailMessage;
+import eticaret.demo.mail.EmailPriority;
+import eticaret.demo.mail.MailOutboxHandler;
 import eticaret.demo.mail.MailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,9 +31,11 @@ public class OrderLookupVerificationService {
     private final OrderLookupSessionRepository sessionRepository;
     private final PasswordEncoder passwordEncoder;
     private final MailService mailService;
+    private final MailOutboxHandler mailOutboxHandler;
     private final AppUrlConfig appUrlConfig;
     private final SecureRandom secureRandom = new SecureRandom();
 
+    @Transactional
     public void sendVerificationCode(String email) {
         String normalizedEmail = normalizeEmail(email);
         Instant now = Instant.now();
@@ -66,11 +70,12 @@ public class OrderLookupVerificationService {
                 appUrlConfig.getFrontendUrl() + "/siparis-sorgula"
         );
 
-        mailService.queueEmail(EmailMessage.builder()
+        mailOutboxHandler.enqueue(EmailMessage.builder()
                 .toEmail(normalizedEmail)
                 .subject("Siparişlerinizi görüntülemek için doğrulama kodunuz")
                 .body(emailBody)
                 .isHtml(true)
+                .priority(EmailPriority.OTP)
                 .build());
 
         log.info("Order lookup doğrulama kodu gönderildi: {}", normalizedEmail);
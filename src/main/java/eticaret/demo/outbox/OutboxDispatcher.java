@@ -0,0 +1,254 @@
+package eticaret.demo.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbox adımlarını işleyen dağıtıcı
+ * - Bekleyen kayıtlar tek SQL ile "FOR UPDATE SKIP LOCKED" kullanılarak parça parça alınır ve kiralanır
+ *   (next_attempt_at = şimdi + kiralama süresi); birden fazla instance aynı kaydı almaz
+ * - Alınan kayıtlar işleyicilere paralel dağıtılır; başarılı → DONE, hata → artan bekleme ile tekrar,
+ *   deneme sınırı aşılırsa FAILED (dead-letter; admin panelinden tekrar kuyruğa alınabilir)
+ * - İşlenirken instance kapanırsa kiralama süresi dolunca kayıt başka bir instance tarafından tekrar alınır;
+ *   sonuç yalnızca kaydı alan denemenin numarası (attempts) hâlâ geçerliyse yazılır, geç kalan işçi
+ *   başka instance'ın sonucunu ezmez
+ * Yeni adım yazıldığında commit sonrası hemen, ayrıca periyodik olarak çalışır.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final String CLAIM_SQL =
+            "UPDATE outbox_messages SET attempts = attempts + 1, next_attempt_at = ? " +
+            "WHERE id IN (SELECT id FROM outbox_messages WHERE status = 'PENDING' AND next_attempt_at <= ? " +
+            "ORDER BY next_attempt_at, id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, message_type, aggregate_key, payload, attempts";
+
+    private static final String DONE_SQL =
+            "UPDATE outbox_messages SET status = 'DONE', processed_at = ?, last_error = NULL " +
+            "WHERE id = ? AND attempts = ? AND status = 'PENDING'";
+
+    private static final String RETRY_SQL =
+            "UPDATE outbox_messages SET next_attempt_at = ?, last_error = ? " +
+            "WHERE id = ? AND attempts = ? AND status = 'PENDING'";
+
+    private static final String FAILED_SQL =
+            "UPDATE outbox_messages SET status = 'FAILED', processed_at = ?, last_error = ? " +
+            "WHERE id = ? AND attempts = ? AND status = 'PENDING'";
+
+    private static final String CLEANUP_SQL =
+            "DELETE FROM outbox_messages WHERE status = 'DONE' AND processed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, OutboxHandler> handlers = new HashMap<>();
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long leaseMillis;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int retentionDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService poller = Executors.newSingleThreadExecutor(daemon("outbox-poller"));
+    private final ExecutorService workers;
+
+    public OutboxDispatcher(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            List<OutboxHandler> handlerBeans,
+            @Value("${outbox.batch-size:50}") int batchSize,
+            @Value("${outbox.workers:4}") int workerCount,
+            @Value("${outbox.max-attempts:10}") int maxAttempts,
+            @Value("${outbox.lease-ms:300000}") long leaseMillis,
+            @Value("${outbox.retry.base-delay-ms:5000}") long baseDelayMillis,
+            @Value("${outbox.retry.max-delay-ms:3600000}") long maxDelayMillis,
+            @Value("${outbox.retention-days:7}") int retentionDays
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        for (OutboxHandler handler : handlerBeans) {
+            for (String type : handler.messageTypes()) {
+                OutboxHandler previous = handlers.put(type, handler);
+                if (previous != null) {
+                    throw new IllegalStateException("Outbox mesaj tipi için birden fazla işleyici var: " + type);
+                }
+            }
+        }
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.leaseMillis = leaseMillis;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.retentionDays = retentionDays;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerCount), daemon("outbox-worker"));
+    }
+
+    /**
+     * Yeni adım commit edildi: periyodik çalışmayı beklemeden işle
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnqueued(OutboxEnqueuedEvent event) {
+        trigger();
+    }
+
+    /**
+     * Periyodik çalışma (tekrar denemesi gelen ve başka instance'larda yazılan adımlar)
+     * Varsayılan: 2 saniyede bir
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:2000}")
+    public void poll() {
+        trigger();
+    }
+
+    private void trigger() {
+        if (running.compareAndSet(false, true)) {
+            try {
+                poller.execute(this::drain);
+            } catch (Exception e) {
+                running.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            int claimed;
+            do {
+                List<Claimed> batch = claim();
+                claimed = batch.size();
+                if (claimed > 0) {
+                    process(batch);
+                }
+            } while (claimed == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox işlenirken hata: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<Claimed> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Claimed> batch = transactionTemplate.execute(status -> jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new Claimed(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5)),
+                Timestamp.valueOf(now.plus(Duration.ofMillis(leaseMillis))), Timestamp.valueOf(now), batchSize));
+        return batch != null ? batch : List.of();
+    }
+
+    private void process(List<Claimed> batch) throws InterruptedException {
+        AtomicInteger failed = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>(batch.size());
+        for (Claimed message : batch) {
+            tasks.add(() -> {
+                if (!handle(message)) {
+                    failed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        workers.invokeAll(tasks);
+        if (failed.get() > 0) {
+            log.warn("Outbox: {} adımdan {} tanesi başarısız", batch.size(), failed.get());
+        }
+    }
+
+    private boolean handle(Claimed message) {
+        OutboxHandler handler = handlers.get(message.messageType());
+        try {
+            if (handler == null) {
+                throw new IllegalStateException("İşleyici bulunamadı: " + message.messageType());
+            }
+            handler.handle(message.messageType(), message.aggregateKey(), message.payload());
+            complete(DONE_SQL, Timestamp.valueOf(LocalDateTime.now()), message.id(), message.attempts());
+            return true;
+        } catch (Exception e) {
+            String error = abbreviate(e.getClass().getSimpleName() + ": " + e.getMessage());
+            if (handler == null || message.attempts() >= maxAttempts) {
+                complete(FAILED_SQL, Timestamp.valueOf(LocalDateTime.now()), error, message.id(), message.attempts());
+                log.error("Outbox adımı başarısız, tekrar denenmeyecek - tip: {}, anahtar: {}, deneme: {}, hata: {}",
+                        message.messageType(), message.aggregateKey(), message.attempts(), error, e);
+            } else {
+                LocalDateTime nextAttempt = LocalDateTime.now().plus(Duration.ofMillis(backoffMillis(message.attempts())));
+                complete(RETRY_SQL, Timestamp.valueOf(nextAttempt), error, message.id(), message.attempts());
+                log.warn("Outbox adımı başarısız - tip: {}, anahtar: {}, deneme: {}, sonraki deneme: {}, hata: {}",
+                        message.messageType(), message.aggregateKey(), message.attempts(), nextAttempt, error);
+            }
+            return false;
+        }
+    }
+
+    private void complete(String sql, Object... args) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(sql, args));
+        } catch (Exception e) {
+            // Kiralama süresi dolunca adım tekrar alınır
+            log.error("Outbox durumu güncellenemedi - sql: {}, hata: {}", sql, e.getMessage());
+        }
+    }
+
+    /**
+     * Üstel bekleme: base * 2^(deneme-1), en fazla maxDelay
+     */
+    private long backoffMillis(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(maxDelayMillis, baseDelayMillis * (1L << exponent));
+    }
+
+    /**
+     * Tamamlanan eski adımları sil
+     * Varsayılan: Her gün saat 05:00
+     */
+    @Scheduled(cron = "${outbox.cleanup-cron:0 0 5 * * ?}")
+    public void cleanup() {
+        try {
+            Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(CLEANUP_SQL,
+                    Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays))));
+            log.info("Outbox temizlendi: {} tamamlanmış adım silindi", deleted);
+        } catch (Exception e) {
+            log.error("Outbox temizlenirken hata: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private static String abbreviate(String value) {
+        return value.length() > 1000 ? value.substring(0, 1000) : value;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Claimed(long id, String messageType, String aggregateKey, String payload, int attempts) {
+    }
+}
@@ -0,0 +1,7 @@
+package eticaret.demo.outbox;
+
+/**
+ * Outbox'a yeni adım yazıldı (commit sonrası dispatcher'ı beklemeden uyandırmak için)
+ */
+public record OutboxEnqueuedEvent(String messageType, String aggregateKey) {
+}
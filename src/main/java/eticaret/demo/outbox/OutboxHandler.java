@@ -0,0 +1,20 @@
+package eticaret.demo.outbox;
+
+import java.util.Set;
+
+/**
+ * Outbox adımı işleyicisi
+ * En az bir kez çağrılır (hata veya kiralama süresi dolarsa tekrar denenir); işleyiciler idempotent olmalıdır.
+ */
+public interface OutboxHandler {
+
+    /**
+     * İşlenen mesaj tipleri
+     */
+    Set<String> messageTypes();
+
+    /**
+     * Adımı işle; exception fırlatılırsa adım artan bekleme süresiyle tekrar denenir
+     */
+    void handle(String messageType, String aggregateKey, String payload) throws Exception;
+}
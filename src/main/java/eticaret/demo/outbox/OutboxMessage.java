@@ -0,0 +1,71 @@
+package eticaret.demo.outbox;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox kaydı: iş değişikliği ile aynı transaction'da yazılan, commit sonrası işlenecek adım
+ * (messageType, aggregateKey) benzersizdir; aynı adım iki kez kuyruğa alınamaz.
+ * Yazma/okuma OutboxService ve OutboxDispatcher üzerinden JDBC ile yapılır; entity tablo şeması içindir.
+ */
+@Entity
+@Table(name = "outbox_messages", indexes = {
+    @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_outbox_type_aggregate", columnNames = {"message_type", "aggregate_key"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "message_type", length = 50, nullable = false)
+    private String messageType;
+
+    /**
+     * Adımın ait olduğu kayıt (örn: sipariş numarası)
+     */
+    @Column(name = "aggregate_key", length = 100, nullable = false)
+    private String aggregateKey;
+
+    /**
+     * JSON içerik
+     */
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private OutboxStatus status;
+
+    /**
+     * Yapılan deneme sayısı (kayıt alındığında artırılır)
+     */
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    /**
+     * Bir sonraki deneme zamanı; işlenirken kiralama (lease) bitiş zamanıdır
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,146 @@
+package eticaret.demo.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outbox'a adım yazma ve dead-letter yönetimi
+ * Çağıranın transaction'ında yazılır (iş değişikliği ile birlikte commit edilir veya geri alınır);
+ * transaction yoksa kendi kısa transaction'ında yazılır. Commit sonrası OutboxDispatcher uyandırılır.
+ * Deneme sınırını aşan adımlar FAILED (dead-letter) olarak kalır; admin inceleyip tekrar kuyruğa alabilir.
+ */
+@Service
+@Slf4j
+public class OutboxService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_messages (message_type, aggregate_key, payload, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, 'PENDING', 0, ?, ?) ON CONFLICT (message_type, aggregate_key) DO NOTHING";
+
+    private static final String REQUEUE_SQL =
+            "UPDATE outbox_messages SET status = 'PENDING', attempts = 0, next_attempt_at = ?, processed_at = NULL " +
+            "WHERE status = 'FAILED' AND id = ?";
+
+    private static final String REQUEUE_TYPE_SQL =
+            "UPDATE outbox_messages SET status = 'PENDING', attempts = 0, next_attempt_at = ?, processed_at = NULL " +
+            "WHERE status = 'FAILED' AND message_type = ?";
+
+    private static final String STATS_SQL =
+            "SELECT message_type, status, COUNT(*), MIN(created_at) FROM outbox_messages " +
+            "GROUP BY message_type, status ORDER BY message_type, status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OutboxService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Doğal anahtarı olmayan adımı kuyruğa al (her çağrı ayrı adımdır)
+     */
+    @Transactional
+    public boolean enqueue(String messageType, Object payload) {
+        return enqueue(messageType, UUID.randomUUID().toString(), payload);
+    }
+
+    /**
+     * Adımı kuyruğa al
+     *
+     * @param payload JSON'a çevrilir (null olabilir)
+     * @return aynı (messageType, aggregateKey) zaten kuyruktaysa false
+     */
+    @Transactional
+    public boolean enqueue(String messageType, String aggregateKey, Object payload) {
+        String json;
+        try {
+            json = payload != null ? objectMapper.writeValueAsString(payload) : null;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Outbox içeriği serileştirilemedi: " + messageType, e);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        boolean inserted = jdbcTemplate.update(INSERT_SQL, messageType, aggregateKey, json, now, now) > 0;
+        if (inserted) {
+            eventPublisher.publishEvent(new OutboxEnqueuedEvent(messageType, aggregateKey));
+        } else {
+            log.debug("Outbox adımı zaten kuyrukta - tip: {}, anahtar: {}", messageType, aggregateKey);
+        }
+        return inserted;
+    }
+
+    /**
+     * Tip ve duruma göre adım sayıları (en eski kaydın zamanı ile; birikme takibi için)
+     */
+    @Transactional(readOnly = true)
+    public List<OutboxStat> stats() {
+        return jdbcTemplate.query(STATS_SQL, (rs, rowNum) -> new OutboxStat(
+                rs.getString(1), rs.getString(2), rs.getLong(3), rs.getTimestamp(4).toLocalDateTime()));
+    }
+
+    /**
+     * Durumdaki adımlar, yeniden eskiye
+     *
+     * @param messageType null ise tüm tipler
+     * @param beforeId    bu id'den eski adımlar (ilk sayfa için null)
+     */
+    @Transactional(readOnly = true)
+    public List<OutboxEntry> list(OutboxStatus status, String messageType, Long beforeId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, message_type, aggregate_key, status, attempts, next_attempt_at, last_error, created_at, " +
+                "processed_at FROM outbox_messages WHERE status = ? AND (CAST(? AS VARCHAR) IS NULL OR message_type = ?) " +
+                "AND id < ? ORDER BY id DESC LIMIT ?",
+                (rs, rowNum) -> new OutboxEntry(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getInt(5), rs.getTimestamp(6).toLocalDateTime(), rs.getString(7),
+                        rs.getTimestamp(8).toLocalDateTime(),
+                        rs.getTimestamp(9) != null ? rs.getTimestamp(9).toLocalDateTime() : null),
+                status.name(), messageType, messageType, beforeId != null ? beforeId : Long.MAX_VALUE, limit);
+    }
+
+    /**
+     * Dead-letter adımı tekrar kuyruğa al (deneme sayısı sıfırlanır)
+     *
+     * @return adım FAILED değilse false
+     */
+    @Transactional
+    public boolean requeue(long id) {
+        boolean requeued = jdbcTemplate.update(REQUEUE_SQL, Timestamp.valueOf(LocalDateTime.now()), id) > 0;
+        if (requeued) {
+            log.info("Outbox adımı tekrar kuyruğa alındı - id: {}", id);
+            eventPublisher.publishEvent(new OutboxEnqueuedEvent(null, String.valueOf(id)));
+        }
+        return requeued;
+    }
+
+    /**
+     * Tipteki tüm dead-letter adımları tekrar kuyruğa al (hatanın nedeni giderildikten sonra)
+     */
+    @Transactional
+    public int requeueFailed(String messageType) {
+        int requeued = jdbcTemplate.update(REQUEUE_TYPE_SQL, Timestamp.valueOf(LocalDateTime.now()), messageType);
+        if (requeued > 0) {
+            log.info("{} outbox adımı tekrar kuyruğa alındı - tip: {}", requeued, messageType);
+            eventPublisher.publishEvent(new OutboxEnqueuedEvent(messageType, null));
+        }
+        return requeued;
+    }
+
+    public record OutboxStat(String messageType, String status, long count, LocalDateTime oldestCreatedAt) {
+    }
+
+    public record OutboxEntry(long id, String messageType, String aggregateKey, String status, int attempts,
+                              LocalDateTime nextAttemptAt, String lastError, LocalDateTime createdAt,
+                              LocalDateTime processedAt) {
+    }
+}
@@ -0,0 +1,7 @@
+package eticaret.demo.outbox;
+
+public enum OutboxStatus {
+    PENDING,    // İşlenmeyi bekliyor (veya tekrar denenecek)
+    DONE,       // Başarıyla işlendi
+    FAILED      // Deneme sınırı aşıldı, işlenmeyecek
+}
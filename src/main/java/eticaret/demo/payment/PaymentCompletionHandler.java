@@ -0,0 +1,304 @@
+package eticaret.demo.payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eticaret.demo.admin.AdminNotificationService;
+import eticaret.demo.cart.Cart;
+import eticaret.demo.cart.CartRepository;
+import eticaret.demo.cart.CartService;
+import eticaret.demo.cart.CartStatus;
+import eticaret.demo.common.config.AppUrlConfig;
+import eticaret.demo.coupon.CouponService;
+import eticaret.demo.coupon.CouponUsage;
+import eticaret.demo.guest.GuestUser;
+import eticaret.demo.guest.GuestUserRepository;
+import eticaret.demo.invoice.InvoiceService;
+import eticaret.demo.mail.EmailMessage;
+import eticaret.demo.mail.MailOutboxHandler;
+import eticaret.demo.mail.MailService;
+import eticaret.demo.order.Order;
+import eticaret.demo.order.OrderItem;
+import eticaret.demo.order.OrderRepository;
+import eticaret.demo.outbox.OutboxHandler;
+import eticaret.demo.outbox.OutboxService;
+import eticaret.demo.product.stock.StockMeters;
+import eticaret.demo.product.stock.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 3D Secure ödemesi sonrası adımlar (outbox üzerinden, commit sonrası ve tekrar denemeli)
+ * Ödeme kaydı ve sipariş callback içinde kısa bir transaction'da yazılır; stok onayı, fatura, kupon, sepet,
+ * misafir kullanıcı, admin bildirimi ve onay maili aynı transaction'da ayrı outbox adımları olarak kuyruğa alınır.
+ * Her adım bağımsız olarak tekrar denenir ve idempotenttir.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentCompletionHandler implements OutboxHandler {
+
+    /**
+     * Ödeme sonrası adımlar (outbox mesaj tipi)
+     */
+    enum Step {
+        STOCK("payment.stock"),
+        INVOICE("payment.invoice"),
+        COUPON("payment.coupon"),
+        CART("payment.cart"),
+        GUEST_USER("payment.guest-user"),
+        ADMIN_NOTIFICATION("payment.admin-notification"),
+        CONFIRMATION_EMAIL("payment.confirmation-email");
+
+        private final String messageType;
+
+        Step(String messageType) {
+            this.messageType = messageType;
+        }
+
+        static Step of(String messageType) {
+            for (Step step : values()) {
+                if (step.messageType.equals(messageType)) {
+                    return step;
+                }
+            }
+            throw new IllegalArgumentException("Bilinmeyen ödeme adımı: " + messageType);
+        }
+    }
+
+    /**
+     * Adımların ortak içeriği (sepet ve oturum bilgisi callback sonrası bellekte tutulmaz)
+     */
+    public record PaymentCompletion(
+            String orderNumber,
+            String conversationId,
+            Long cartId,
+            Long userId,
+            String guestUserId,
+            String couponCode,
+            String ipAddress,
+            String userAgent
+    ) {
+    }
+
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper;
+    private final OrderRepository orderRepository;
+    private final StockReservationService stockReservationService;
+    private final InvoiceService invoiceService;
+    private final CouponService couponService;
+    private final CartService cartService;
+    private final CartRepository cartRepository;
+    private final GuestUserRepository guestUserRepository;
+    private final AdminNotificationService adminNotificationService;
+    private final MailService mailService;
+    private final MailOutboxHandler mailOutboxHandler;
+    private final AppUrlConfig appUrlConfig;
+
+    /**
+     * Tüm adımları kuyruğa al (çağıranın transaction'ında; sipariş ile birlikte commit edilir)
+     */
+    public void enqueue(PaymentCompletion completion) {
+        for (Step step : Step.values()) {
+            outboxService.enqueue(step.messageType, completion.orderNumber(), completion);
+        }
+    }
+
+    @Override
+    public Set<String> messageTypes() {
+        return Arrays.stream(Step.values()).map(step -> step.messageType).collect(Collectors.toSet());
+    }
+
+    @Override
+    @Transactional
+    public void handle(String messageType, String aggregateKey, String payload) throws Exception {
+        PaymentCompletion completion = objectMapper.readValue(payload, PaymentCompletion.class);
+        Order order = orderRepository.findByOrderNumber(completion.orderNumber())
+                .orElseThrow(() -> new IllegalStateException("Sipariş bulunamadı: " + completion.orderNumber()));
+
+        switch (Step.of(messageType)) {
+            case STOCK -> commitStock(order, completion);
+            case INVOICE -> {
+                invoiceService.createInvoiceForOrder(order);
+                log.info("Fatura oluşturuldu - OrderNumber: {}", order.getOrderNumber());
+            }
+            case COUPON -> markCouponUsed(order, completion);
+            case CART -> clearCart(completion);
+            case GUEST_USER -> upsertGuestUser(order, completion);
+            case ADMIN_NOTIFICATION -> adminNotificationService.sendOrderNotification(
+                    order.getOrderNumber(),
+                    order.getCustomerEmail(),
+                    order.getCustomerName(),
+                    order.getTotalAmount()
+            );
+            case CONFIRMATION_EMAIL -> sendOrderConfirmationEmail(order);
+        }
+    }
+
+    /**
+     * Ayrılan stoğu kalıcı yap; ayırma bulunamazsa (süresi dolup serbest bırakılmışsa) satış için doğrudan düş
+     */
+    private void commitStock(Order order, PaymentCompletion completion) {
+        if (stockReservationService.commit(completion.conversationId())) {
+            return;
+        }
+        if (stockReservationService.isSettled(completion.conversationId())) {
+            // Önceki denemede onaylanmış veya düşülmüş; bu bir tekrar
+            return;
+        }
+        log.warn("Aktif stok ayırması bulunamadı, stok doğrudan düşülüyor - ConversationId: {}, OrderNumber: {}",
+                completion.conversationId(), order.getOrderNumber());
+        Map<Long, BigDecimal> meters = new HashMap<>();
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                if (item.getProductId() != null) {
+                    meters.merge(item.getProductId(),
+                            StockMeters.fromMeters(item.getWidth(), item.getPleatType(), item.getQuantity()),
+                            BigDecimal::add);
+                }
+            }
+        }
+        stockReservationService.consume(completion.conversationId(), meters);
+    }
+
+    /**
+     * Kupon kullanımını KULLANILDI olarak işaretle (BEKLEMEDE kullanım yoksa zaten işaretlenmiştir)
+     */
+    private void markCouponUsed(Order order, PaymentCompletion completion) {
+        if (completion.couponCode() == null || completion.userId() == null) {
+            return;
+        }
+        Optional<CouponUsage> couponUsageOpt = couponService.getPendingCouponUsage(
+                completion.userId(), completion.guestUserId());
+        if (couponUsageOpt.isEmpty()) {
+            log.info("BEKLEMEDE durumundaki kupon kullanımı bulunamadı - Kupon: {}, UserId: {}",
+                    completion.couponCode(), completion.userId());
+            return;
+        }
+        CouponUsage couponUsage = couponUsageOpt.get();
+        if (couponUsage.getCoupon() != null
+                && couponUsage.getCoupon().getCode().equalsIgnoreCase(completion.couponCode())) {
+            couponService.markCouponAsUsed(couponUsage.getId(), order);
+            log.info("Kupon kullanıldı olarak işaretlendi - Kupon: {}, OrderNumber: {}",
+                    completion.couponCode(), order.getOrderNumber());
+        } else {
+            log.warn("Kupon kodu eşleşmedi - Beklenen: {}, Bulunan: {}",
+                    completion.couponCode(),
+                    couponUsage.getCoupon() != null ? couponUsage.getCoupon().getCode() : "null");
+        }
+    }
+
+    private void clearCart(PaymentCompletion completion) {
+        if (completion.cartId() != null) {
+            cartService.clearCart(completion.cartId());
+            log.info("Sepet temizlendi - cartId: {}", completion.cartId());
+        } else if (completion.userId() != null) {
+            Optional<Cart> cartOpt = cartRepository.findByUser_IdAndStatus(completion.userId(), CartStatus.AKTIF);
+            if (cartOpt.isPresent()) {
+                cartService.clearCart(cartOpt.get().getId());
+                log.info("Login kullanıcı sepeti temizlendi - userId: {}, cartId: {}",
+                        completion.userId(), cartOpt.get().getId());
+            }
+        } else if (completion.guestUserId() != null) {
+            Optional<Cart> cartOpt = cartRepository.findByGuestUserIdAndStatus(completion.guestUserId(), CartStatus.AKTIF);
+            if (cartOpt.isPresent()) {
+                cartService.clearCart(cartOpt.get().getId());
+                log.info("Guest kullanıcı sepeti temizlendi - guestUserId: {}, cartId: {}",
+                        completion.guestUserId(), cartOpt.get().getId());
+            }
+        }
+    }
+
+    /**
+     * Guest kullanıcı kaydı oluştur veya güncelle
+     */
+    private void upsertGuestUser(Order order, PaymentCompletion completion) {
+        String userAgent = completion.userAgent();
+        GuestUser guestUser = guestUserRepository.findByEmailIgnoreCase(order.getCustomerEmail())
+                .orElse(null);
+
+        if (guestUser == null) {
+            guestUser = GuestUser.builder()
+                    .email(order.getCustomerEmail())
+                    .fullName(order.getCustomerName())
+                    .phone(order.getCustomerPhone())
+                    .ipAddress(completion.ipAddress())
+                    .userAgent(userAgent != null ? (userAgent.length() > 500 ? userAgent.substring(0, 500) : userAgent) : null)
+                    .firstSeenAt(LocalDateTime.now())
+                    .lastSeenAt(LocalDateTime.now())
+                    .orderCount(1)
+                    .viewCount(0)
+                    .build();
+        } else {
+            guestUser.setLastSeenAt(LocalDateTime.now());
+            guestUser.setOrderCount(guestUser.getOrderCount() + 1);
+            if (guestUser.getFullName() == null || guestUser.getFullName().isEmpty()) {
+                guestUser.setFullName(order.getCustomerName());
+            }
+            if (guestUser.getPhone() == null || guestUser.getPhone().isEmpty()) {
+                guestUser.setPhone(order.getCustomerPhone());
+            }
+        }
+
+        guestUserRepository.save(guestUser);
+    }
+
+    private void sendOrderConfirmationEmail(Order order) {
+        String subject = "Siparişiniz Alındı - #" + order.getOrderNumber();
+
+        List<MailService.OrderEmailItem> items = order.getOrderItems() != null
+                ? order.getOrderItems().stream()
+                .map(item -> new MailService.OrderEmailItem(
+                        item.getProductName(),
+                        buildEmailItemDescription(item),
+                        item.getQuantity(),
+                        item.getTotalPrice(),
+                        item.getProductImageUrl() != null ? item.getProductImageUrl() : ""))
+                .collect(Collectors.toList())
+                : List.of();
+
+        MailService.OrderEmailPayload payload = new MailService.OrderEmailPayload(
+                order.getCustomerName(),
+                order.getOrderNumber(),
+                order.getSubtotal(),
+                order.getDiscountAmount(),
+                order.getTotalAmount(),
+                items,
+                appUrlConfig.getFrontendUrl() + "/siparislerim"
+        );
+
+        String body = mailService.buildOrderCreatedEmail(payload);
+
+        EmailMessage emailMessage = EmailMessage.builder()
+                .toEmail(order.getCustomerEmail())
+                .subject(subject)
+                .body(body)
+                .isHtml(true)
+                .build();
+
+        mailOutboxHandler.enqueue("order-confirmation:" + order.getOrderNumber(), emailMessage);
+        log.info("Sipariş onay maili kuyruğa alındı: {}", order.getCustomerEmail());
+    }
+
+    private String buildEmailItemDescription(OrderItem item) {
+        List<String> parts = new ArrayList<>();
+        if (item.getWidth() != null && item.getHeight() != null) {
+            parts.add(String.format("Ölçü: %.0f x %.0f cm", item.getWidth(), item.getHeight()));
+        }
+        if (item.getPleatType() != null) {
+            parts.add("Pile: " + item.getPleatType());
+        }
+        return String.join(" • ", parts);
+    }
+}
@@ -9,33 +9,32 @@ import eticaret.demo.cart.CartRepository;
 import eticaret.demo.common.config.AppUrlConfig;
 import eticaret.demo.coupon.CouponService;
 import eticaret.demo.common.exception.CouponException;
+import eticaret.demo.common.exception.ProductException;
 import eticaret.demo.coupon.Coupon;
-import eticaret.demo.coupon.CouponUsage;
 import eticaret.demo.common.response.DataResponseMessage;
 import eticaret.demo.common.response.ResponseMessage;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import eticaret.demo.address.Address;
 import eticaret.demo.address.AdresRepository;
-import eticaret.demo.mail.EmailMessage;
-import eticaret.demo.mail.MailService;
-import eticaret.demo.guest.GuestUser;
-import eticaret.demo.guest.GuestUserRepository;
 import eticaret.demo.product.Product;
 import eticaret.demo.product.ProductRepository;
+import eticaret.demo.product.stock.InventoryLedger;
+import eticaret.demo.product.stock.StockMeters;
+import eticaret.demo.product.stock.StockReservationService;
 
 import eticaret.demo.order.Order;
 import eticaret.demo.order.OrderItem;
 import eticaret.demo.order.OrderRepository;
 import eticaret.demo.order.OrderStatus;
-import eticaret.demo.invoice.InvoiceService;
 import eticaret.demo.cart.Cart;
 import eticaret.demo.cart.CartService;
 import eticaret.demo.cart.CartStatus;
-import eticaret.demo.admin.AdminNotificationService;
 import eticaret.demo.auth.AppUser;
 import eticaret.demo.auth.AppUserRepository;
 
@@ -43,10 +42,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
@@ -58,17 +58,17 @@ public class PaymentManager implements PaymentService {
     private final OrderRepository orderRepository;
     private final AdresRepository adresRepository;
     private final ProductRepository productRepository;
-    private final MailService mailService;
-    private final GuestUserRepository guestUserRepository;
     private final CartRepository cartRepository;
     private final CartService cartService;
     private final AppUserRepository appUserRepository;
     private final CouponService couponService;
     private final AppUrlConfig appUrlConfig;
-    private final AdminNotificationService adminNotificationService;
     private final PaymentRecordRepository paymentRecordRepository;
     private final RefundRecordRepository refundRecordRepository;
-    private final InvoiceService invoiceService;
+    private final StockReservationService stockReservationService;
+    private final InventoryLedger inventoryLedger;
+    private final PaymentCompletionHandler paymentCompletionHandler;
+    private final TransactionTemplate transactionTemplate;
 
 
 
@@ -85,6 +85,14 @@ public class PaymentManager implements PaymentService {
             return new ResponseMessage("Eksik parametreler gönderildi.", false);
         }
 
+        // Tekrar gelen callback (sayfa yenileme, iyzico tekrar yönlendirmesi): iyzico'ya gitmeden aynı siparişi dön
+        Optional<String> completedOrderNumber = findCompletedOrderNumber(conversationId);
+        if (completedOrderNumber.isPresent()) {
+            log.info("3D callback tekrarı, sipariş zaten oluşturulmuş - ConversationId: {}, OrderNumber: {}",
+                    conversationId, completedOrderNumber.get());
+            return orderCompletedResponse(completedOrderNumber.get());
+        }
+
         RetrievePaymentRequest retrieveRequest = new RetrievePaymentRequest();
         retrieveRequest.setPaymentId(paymentId);
         retrieveRequest.setConversationId(conversationId);
@@ -152,575 +160,442 @@ public class PaymentManager implements PaymentService {
                     log.error("Başarısız PaymentRecord kaydedilirken hata: {}", e.getMessage(), e);
                 }
                 
+                // Ayrılan stoğu geri ver
+                try {
+                    stockReservationService.release(conversationId);
+                } catch (Exception e) {
+                    log.error("Stok ayırması serbest bırakılırken hata (süre dolunca tekrar denenecek): {}", e.getMessage(), e);
+                }
+                
                 return new ResponseMessage("3D ödeme başarısız: " + payment.getErrorMessage(), false);
             }
 
             // ✅ Ödeme başarılı
             TopUpSessionData sessionData = topUpSessionCache.get(conversationId);
             if (sessionData == null) {
+                // Eşzamanlı tekrar callback siparişi oluşturup oturumu silmiş olabilir
+                Optional<String> racedOrderNumber = findCompletedOrderNumber(conversationId);
+                if (racedOrderNumber.isPresent()) {
+                    return orderCompletedResponse(racedOrderNumber.get());
+                }
                 log.error("TopUpSessionCache içinde '{}' için veri bulunamadı.", conversationId);
                 return new ResponseMessage("Ödeme oturum bilgisi bulunamadı.", false);
             }
 
-            String orderNumber = generateOrderNumber();
-            
-            // 🔹 Sipariş oluştur
-            Order order = new Order();
-            order.setOrderNumber(orderNumber);
-            
-            // Fiyat bilgilerini hesapla
-            BigDecimal subtotal = BigDecimal.ZERO;
-            if (sessionData.getOrderDetails() != null && !sessionData.getOrderDetails().isEmpty()) {
-                // OrderDetails'ten subtotal hesapla (kupon indirimi öncesi)
-                subtotal = sessionData.getOrderDetails().stream()
-                        .map(OrderDetail::getPrice)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-            } else {
-                // OrderDetails yoksa, totalAmount'dan discountAmount'u çıkar
-                subtotal = sessionData.getAmount();
-                if (sessionData.getDiscountAmount() != null) {
-                    subtotal = subtotal.add(sessionData.getDiscountAmount());
+            // Sipariş, ödeme kaydı ve sonraki adımlar (outbox) tek kısa transaction'da yazılır
+            CompletedPayment completed;
+            try {
+                completed = transactionTemplate.execute(status ->
+                        persistCompletedPayment(payment, paymentId, conversationId, sessionData, httpServletRequest));
+            } catch (DataIntegrityViolationException e) {
+                // Aynı conversationId için eşzamanlı callback kaydı önce yazdı
+                Optional<String> racedOrderNumber = findCompletedOrderNumber(conversationId);
+                if (racedOrderNumber.isEmpty()) {
+                    throw e;
                 }
+                completed = new CompletedPayment(racedOrderNumber.get(), false, null, null);
             }
-            
-            BigDecimal discountAmount = sessionData.getDiscountAmount() != null 
-                    ? sessionData.getDiscountAmount() 
-                    : BigDecimal.ZERO;
-            BigDecimal shippingCost = BigDecimal.ZERO; // Ücretsiz kargo
-            BigDecimal taxAmount = BigDecimal.ZERO; // KDV dahil fiyat
-            BigDecimal totalAmount = sessionData.getAmount(); // Kupon indirimi sonrası toplam
-            
-            order.setSubtotal(subtotal);
-            order.setShippingCost(shippingCost);
-            order.setDiscountAmount(discountAmount);
-            order.setTaxAmount(taxAmount);
-            order.setTotalAmount(totalAmount);
-            order.setStatus(OrderStatus.ODENDI);
-            order.setCreatedAt(LocalDateTime.now());
-            order.setCustomerEmail(sessionData.getUsername());
-            order.setCustomerName(sessionData.getFullName() != null ? sessionData.getFullName() : "Misafir Kullanıcı");
-            order.setCustomerPhone(sessionData.getPhone() != null ? sessionData.getPhone() : "Bilinmiyor");
-            
-            // Kupon bilgilerini kaydet
-            if (sessionData.getCouponCode() != null && sessionData.getDiscountAmount() != null) {
-                order.setCouponCode(sessionData.getCouponCode());
-                log.info("Siparişe kupon bilgisi eklendi - Kupon: {}, İndirim: {} TL, Subtotal: {} TL, Total: {} TL", 
-                        sessionData.getCouponCode(), sessionData.getDiscountAmount(), subtotal, totalAmount);
-            } else {
-                log.info("Sipariş fiyat bilgileri - Subtotal: {} TL, Total: {} TL", subtotal, totalAmount);
-            }
-            
-            // Kullanıcı bağlantısı
-            if (sessionData.getUserId() != null) {
-                Optional<AppUser> userOpt = appUserRepository.findById(sessionData.getUserId());
-                if (userOpt.isPresent()) {
-                    order.setUser(userOpt.get());
-                    log.info("Sipariş kullanıcıya bağlandı - userId: {}", sessionData.getUserId());
-                }
+
+            if (!completed.created()) {
+                log.info("3D callback tekrarı, sipariş zaten oluşturulmuş - ConversationId: {}, OrderNumber: {}",
+                        conversationId, completed.orderNumber());
+                return orderCompletedResponse(completed.orderNumber());
             }
-            
-            // Guest kullanıcı ID'si
-            if (sessionData.getGuestUserId() != null) {
-                order.setGuestUserId(sessionData.getGuestUserId());
-                log.info("Sipariş guest kullanıcıya bağlandı - guestUserId: {}", sessionData.getGuestUserId());
+
+            cacheRefundData(paymentId, conversationId, sessionData, completed, httpServletRequest);
+            topUpSessionCache.remove(conversationId);
+
+            log.info("Sipariş kaydedildi: {} - stok, fatura, kupon, sepet ve bildirim adımları kuyruğa alındı",
+                    completed.orderNumber());
+
+            return orderCompletedResponse(completed.orderNumber());
+
+        } catch (Exception e) {
+            log.error("3D ödeme tamamlama hatası:", e);
+            return new ResponseMessage("3D ödeme tamamlanırken hata oluştu: " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Başarılı ödemenin siparişini ve ödeme kaydını yaz, sonraki adımları outbox'a al
+     * Ödeme kaydı satırı kilitlenir; aynı oturum için tekrar gelen callback mevcut siparişi döner.
+     */
+    private CompletedPayment persistCompletedPayment(
+            Payment payment,
+            String paymentId,
+            String conversationId,
+            TopUpSessionData sessionData,
+            HttpServletRequest httpServletRequest) {
+
+        Optional<PaymentRecord> existingRecordOpt = paymentRecordRepository.findByConversationIdForUpdate(conversationId);
+        if (existingRecordOpt.isPresent() && existingRecordOpt.get().getStatus() == PaymentStatus.SUCCESS
+                && existingRecordOpt.get().getOrderNumber() != null) {
+            return new CompletedPayment(existingRecordOpt.get().getOrderNumber(), false, null, null);
+        }
+
+        String orderNumber = generateOrderNumber();
+
+        // 🔹 Sipariş oluştur
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+
+        // Fiyat bilgilerini hesapla
+        BigDecimal subtotal = BigDecimal.ZERO;
+        if (sessionData.getOrderDetails() != null && !sessionData.getOrderDetails().isEmpty()) {
+            // OrderDetails'ten subtotal hesapla (kupon indirimi öncesi)
+            subtotal = sessionData.getOrderDetails().stream()
+                    .map(OrderDetail::getPrice)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        } else {
+            // OrderDetails yoksa, totalAmount'dan discountAmount'u çıkar
+            subtotal = sessionData.getAmount();
+            if (sessionData.getDiscountAmount() != null) {
+                subtotal = subtotal.add(sessionData.getDiscountAmount());
             }
-            
-            // 🔹 Payment ID'yi kaydet (İyzico'dan - iade için gerekli)
-            // Payment.retrieve'dan gelen paymentId'yi kullan (callback'ten gelen değil)
-            String iyzicoPaymentId = payment.getPaymentId();
-            if (iyzicoPaymentId != null && !iyzicoPaymentId.isEmpty()) {
-                order.setPaymentId(iyzicoPaymentId);
-                log.info("İyzico PaymentId kaydedildi (retrieve'dan): {}", iyzicoPaymentId);
-            } else {
-                // Fallback: callback'ten gelen paymentId'yi kullan
-                order.setPaymentId(paymentId);
-                log.warn("Payment.retrieve'dan paymentId alınamadı, callback'ten gelen kullanılıyor: {}", paymentId);
+        }
+
+        BigDecimal discountAmount = sessionData.getDiscountAmount() != null 
+                ? sessionData.getDiscountAmount() 
+                : BigDecimal.ZERO;
+        BigDecimal shippingCost = BigDecimal.ZERO; // Ücretsiz kargo
+        BigDecimal taxAmount = BigDecimal.ZERO; // KDV dahil fiyat
+        BigDecimal totalAmount = sessionData.getAmount(); // Kupon indirimi sonrası toplam
+
+        order.setSubtotal(subtotal);
+        order.setShippingCost(shippingCost);
+        order.setDiscountAmount(discountAmount);
+        order.setTaxAmount(taxAmount);
+        order.setTotalAmount(totalAmount);
+        order.setStatus(OrderStatus.ODENDI);
+        order.setCreatedAt(LocalDateTime.now());
+        order.setCustomerEmail(sessionData.getUsername());
+        order.setCustomerName(sessionData.getFullName() != null ? sessionData.getFullName() : "Misafir Kullanıcı");
+        order.setCustomerPhone(sessionData.getPhone() != null ? sessionData.getPhone() : "Bilinmiyor");
+
+        // Kupon bilgilerini kaydet
+        if (sessionData.getCouponCode() != null && sessionData.getDiscountAmount() != null) {
+            order.setCouponCode(sessionData.getCouponCode());
+            log.info("Siparişe kupon bilgisi eklendi - Kupon: {}, İndirim: {} TL, Subtotal: {} TL, Total: {} TL", 
+                    sessionData.getCouponCode(), sessionData.getDiscountAmount(), subtotal, totalAmount);
+        } else {
+            log.info("Sipariş fiyat bilgileri - Subtotal: {} TL, Total: {} TL", subtotal, totalAmount);
+        }
+
+        // Kullanıcı bağlantısı
+        if (sessionData.getUserId() != null) {
+            Optional<AppUser> userOpt = appUserRepository.findById(sessionData.getUserId());
+            if (userOpt.isPresent()) {
+                order.setUser(userOpt.get());
+                log.info("Sipariş kullanıcıya bağlandı - userId: {}", sessionData.getUserId());
             }
-            
-            // 🔹 Payment Transaction ID'yi al ve kaydet (İyzico'dan)
-            String paymentTransactionId = null;
-            if (payment.getPaymentItems() != null && !payment.getPaymentItems().isEmpty()) {
-                // PaymentItems listesinden ilk item'ın transaction ID'sini al
-                PaymentItem firstItem = payment.getPaymentItems().get(0);
-                paymentTransactionId = firstItem.getPaymentTransactionId();
-                
-                if (paymentTransactionId != null && !paymentTransactionId.isEmpty()) {
-                    order.setPaymentTransactionId(paymentTransactionId);
-                    log.info("İyzico PaymentTransactionId kaydedildi: {}", paymentTransactionId);
-                } else {
-                    log.warn("PaymentTransactionId boş veya null, paymentId kullanılacak: {}", iyzicoPaymentId != null ? iyzicoPaymentId : paymentId);
-                    // Fallback: paymentId'yi transaction ID olarak kullan
-                    String fallbackId = iyzicoPaymentId != null ? iyzicoPaymentId : paymentId;
-                    order.setPaymentTransactionId(fallbackId);
-                    paymentTransactionId = fallbackId;
-                }
+        }
+
+        // Guest kullanıcı ID'si
+        if (sessionData.getGuestUserId() != null) {
+            order.setGuestUserId(sessionData.getGuestUserId());
+            log.info("Sipariş guest kullanıcıya bağlandı - guestUserId: {}", sessionData.getGuestUserId());
+        }
+
+        // 🔹 Payment ID'yi kaydet (İyzico'dan - iade için gerekli)
+        // Payment.retrieve'dan gelen paymentId'yi kullan (callback'ten gelen değil)
+        String iyzicoPaymentId = payment.getPaymentId();
+        if (iyzicoPaymentId != null && !iyzicoPaymentId.isEmpty()) {
+            order.setPaymentId(iyzicoPaymentId);
+            log.info("İyzico PaymentId kaydedildi (retrieve'dan): {}", iyzicoPaymentId);
+        } else {
+            // Fallback: callback'ten gelen paymentId'yi kullan
+            order.setPaymentId(paymentId);
+            log.warn("Payment.retrieve'dan paymentId alınamadı, callback'ten gelen kullanılıyor: {}", paymentId);
+        }
+
+        // 🔹 Payment Transaction ID'yi al ve kaydet (İyzico'dan)
+        String paymentTransactionId = null;
+        if (payment.getPaymentItems() != null && !payment.getPaymentItems().isEmpty()) {
+            // PaymentItems listesinden ilk item'ın transaction ID'sini al
+            PaymentItem firstItem = payment.getPaymentItems().get(0);
+            paymentTransactionId = firstItem.getPaymentTransactionId();
+
+            if (paymentTransactionId != null && !paymentTransactionId.isEmpty()) {
+                order.setPaymentTransactionId(paymentTransactionId);
+                log.info("İyzico PaymentTransactionId kaydedildi: {}", paymentTransactionId);
             } else {
-                // PaymentItems yoksa paymentId'yi kullan
-                log.warn("PaymentItems bulunamadı, paymentId kullanılacak: {}", iyzicoPaymentId != null ? iyzicoPaymentId : paymentId);
+                log.warn("PaymentTransactionId boş veya null, paymentId kullanılacak: {}", iyzicoPaymentId != null ? iyzicoPaymentId : paymentId);
+                // Fallback: paymentId'yi transaction ID olarak kullan
                 String fallbackId = iyzicoPaymentId != null ? iyzicoPaymentId : paymentId;
                 order.setPaymentTransactionId(fallbackId);
                 paymentTransactionId = fallbackId;
             }
-            
-            // Conversation ID'yi de kaydet (iade için gerekli olabilir)
-            if (conversationId != null && !conversationId.isEmpty()) {
-                log.info("ConversationId kaydedildi: {}", conversationId);
-            }
-            
-            // 🔹 Payment Record kaydet veya güncelle (güvenlik ve audit için)
-            try {
-                String ipAddress = getClientIpAddress(httpServletRequest);
-                String userAgent = httpServletRequest != null ? httpServletRequest.getHeader("User-Agent") : null;
-                
-                // Kart bilgilerini extract et (güvenlik için sadece son 4 hane)
-                String cardLastFour = null;
-                String cardBrand = null;
-                if (payment.getCardType() != null) {
-                    cardBrand = payment.getCardType();
-                }
-                
-                // Önce conversationId ile mevcut PENDING PaymentRecord'u bul
-                Optional<PaymentRecord> existingRecordOpt = paymentRecordRepository.findByConversationId(conversationId);
-                PaymentRecord paymentRecordToSave;
-                
-                if (existingRecordOpt.isPresent()) {
-                    // Mevcut kaydı güncelle
-                    paymentRecordToSave = existingRecordOpt.get();
-                    paymentRecordToSave.setIyzicoPaymentId(iyzicoPaymentId != null ? iyzicoPaymentId : paymentId);
-                    paymentRecordToSave.setPaymentTransactionId(paymentTransactionId);
-                    paymentRecordToSave.setOrderNumber(orderNumber);
-                    paymentRecordToSave.setAmount(sessionData.getAmount());
-                    paymentRecordToSave.setStatus(PaymentStatus.SUCCESS);
-                    paymentRecordToSave.setIyzicoStatus(payment.getStatus());
-                    paymentRecordToSave.setIyzicoErrorMessage(null); // Başarılı olduğu için hata mesajı yok
-                    paymentRecordToSave.setIyzicoErrorCode(null); // Başarılı olduğu için hata kodu yok
-                    paymentRecordToSave.setCardLastFour(cardLastFour);
-                    paymentRecordToSave.setCardBrand(cardBrand);
-                    paymentRecordToSave.setCompletedAt(LocalDateTime.now());
-                    log.info("Mevcut PaymentRecord güncellendi (PENDING -> SUCCESS): ConversationId={}, OrderNumber={}", 
-                            conversationId, orderNumber);
-                } else {
-                    // Yeni kayıt oluştur
-                    paymentRecordToSave = PaymentRecord.builder()
-                            .iyzicoPaymentId(iyzicoPaymentId != null ? iyzicoPaymentId : paymentId)
-                            .paymentTransactionId(paymentTransactionId)
-                            .conversationId(conversationId)
-                            .orderNumber(orderNumber)
-                            .amount(sessionData.getAmount())
-                            .status(PaymentStatus.SUCCESS)
-                            .paymentMethod("CREDIT_CARD")
-                            .is3DSecure(true)
-                            .iyzicoStatus(payment.getStatus())
-                            .user(sessionData.getUserId() != null ? 
-                                    appUserRepository.findById(sessionData.getUserId()).orElse(null) : null)
-                            .guestUserId(sessionData.getGuestUserId())
-                            .customerEmail(sessionData.getUsername())
-                            .customerName(sessionData.getFullName())
-                            .customerPhone(sessionData.getPhone())
-                            .ipAddress(ipAddress)
-                            .userAgent(userAgent != null && userAgent.length() > 500 ? userAgent.substring(0, 500) : userAgent)
-                            .cardLastFour(cardLastFour)
-                            .cardBrand(cardBrand)
-                            .iyzicoRawResponse(null) // Iyzico Payment sınıfında getRawResult() metodu yok
-                            .completedAt(LocalDateTime.now())
-                            .build();
-                    log.info("Yeni PaymentRecord oluşturuldu: ConversationId={}, OrderNumber={}", 
-                            conversationId, orderNumber);
-                }
-                
-                paymentRecordRepository.save(paymentRecordToSave);
-                log.info("PaymentRecord kaydedildi: PaymentId={}, OrderNumber={}, Status=SUCCESS", 
-                        iyzicoPaymentId, orderNumber);
-            } catch (Exception e) {
-                log.error("PaymentRecord kaydedilirken hata (ödeme başarılı): {}", e.getMessage(), e);
-                // PaymentRecord hatası ödeme işlemini engellemez
-            }
+        } else {
+            // PaymentItems yoksa paymentId'yi kullan
+            log.warn("PaymentItems bulunamadı, paymentId kullanılacak: {}", iyzicoPaymentId != null ? iyzicoPaymentId : paymentId);
+            String fallbackId = iyzicoPaymentId != null ? iyzicoPaymentId : paymentId;
+            order.setPaymentTransactionId(fallbackId);
+            paymentTransactionId = fallbackId;
+        }
 
-            Address address = new Address();
-            // Eğer sessionData'da addressId varsa, o adresi kullan
-            if (sessionData.getAddressId() != null && sessionData.getUserId() != null) {
-                Optional<Address> userAddress = adresRepository.findById(sessionData.getAddressId());
-                if (userAddress.isPresent() && userAddress.get().getUser() != null 
-                        && userAddress.get().getUser().getId().equals(sessionData.getUserId())) {
-                    Address selectedAddress = userAddress.get();
-                    address.setFullName(selectedAddress.getFullName());
-                    address.setPhone(selectedAddress.getPhone());
-                    address.setAddressLine(selectedAddress.getAddressLine());
-                    address.setAddressDetail(selectedAddress.getAddressDetail());
-                    address.setCity(selectedAddress.getCity());
-                    address.setDistrict(selectedAddress.getDistrict());
-                    log.info("3D ödeme sonrası login kullanıcı seçili adresi kullanılıyor: addressId={}, userId={}", 
-                            sessionData.getAddressId(), sessionData.getUserId());
-                } else {
-                    // Adres bulunamadı, sessionData'dan al
-                    address.setFullName(order.getCustomerName());
-                    address.setPhone(order.getCustomerPhone());
-                    address.setAddressLine(sessionData.getAddress() != null ? sessionData.getAddress() : "Adres Belirtilmedi");
-                    address.setCity(sessionData.getCity() != null ? sessionData.getCity() : "Bilinmiyor");
-                    address.setDistrict(sessionData.getDistrict() != null ? sessionData.getDistrict() : "Bilinmiyor");
-                    log.warn("Seçilen adres bulunamadı, sessionData'dan alınıyor");
-                }
+        // Conversation ID'yi de kaydet (iade için gerekli olabilir)
+        if (conversationId != null && !conversationId.isEmpty()) {
+            log.info("ConversationId kaydedildi: {}", conversationId);
+        }
+
+        // 🔹 Payment Record kaydet veya güncelle (güvenlik ve audit için)
+        // Sipariş ile aynı transaction'da yazılır; tekrar gelen callback bu kayıttan siparişi bulur
+        String ipAddress = getClientIpAddress(httpServletRequest);
+        String userAgent = httpServletRequest != null ? httpServletRequest.getHeader("User-Agent") : null;
+
+        // Kart bilgilerini extract et (güvenlik için sadece son 4 hane)
+        String cardLastFour = null;
+        String cardBrand = null;
+        if (payment.getCardType() != null) {
+            cardBrand = payment.getCardType();
+        }
+
+        PaymentRecord paymentRecordToSave;
+
+        if (existingRecordOpt.isPresent()) {
+            // Mevcut kaydı güncelle
+            paymentRecordToSave = existingRecordOpt.get();
+            paymentRecordToSave.setIyzicoPaymentId(iyzicoPaymentId != null ? iyzicoPaymentId : paymentId);
+            paymentRecordToSave.setPaymentTransactionId(paymentTransactionId);
+            paymentRecordToSave.setOrderNumber(orderNumber);
+            paymentRecordToSave.setAmount(sessionData.getAmount());
+            paymentRecordToSave.setStatus(PaymentStatus.SUCCESS);
+            paymentRecordToSave.setIyzicoStatus(payment.getStatus());
+            paymentRecordToSave.setIyzicoErrorMessage(null); // Başarılı olduğu için hata mesajı yok
+            paymentRecordToSave.setIyzicoErrorCode(null); // Başarılı olduğu için hata kodu yok
+            paymentRecordToSave.setCardLastFour(cardLastFour);
+            paymentRecordToSave.setCardBrand(cardBrand);
+            paymentRecordToSave.setCompletedAt(LocalDateTime.now());
+            log.info("Mevcut PaymentRecord güncellendi (PENDING -> SUCCESS): ConversationId={}, OrderNumber={}", 
+                    conversationId, orderNumber);
+        } else {
+            // Yeni kayıt oluştur
+            paymentRecordToSave = PaymentRecord.builder()
+                    .iyzicoPaymentId(iyzicoPaymentId != null ? iyzicoPaymentId : paymentId)
+                    .paymentTransactionId(paymentTransactionId)
+                    .conversationId(conversationId)
+                    .orderNumber(orderNumber)
+                    .amount(sessionData.getAmount())
+                    .status(PaymentStatus.SUCCESS)
+                    .paymentMethod("CREDIT_CARD")
+                    .is3DSecure(true)
+                    .iyzicoStatus(payment.getStatus())
+                    .user(sessionData.getUserId() != null ? 
+                            appUserRepository.findById(sessionData.getUserId()).orElse(null) : null)
+                    .guestUserId(sessionData.getGuestUserId())
+                    .customerEmail(sessionData.getUsername())
+                    .customerName(sessionData.getFullName())
+                    .customerPhone(sessionData.getPhone())
+                    .ipAddress(ipAddress)
+                    .userAgent(userAgent != null && userAgent.length() > 500 ? userAgent.substring(0, 500) : userAgent)
+                    .cardLastFour(cardLastFour)
+                    .cardBrand(cardBrand)
+                    .iyzicoRawResponse(null) // Iyzico Payment sınıfında getRawResult() metodu yok
+                    .completedAt(LocalDateTime.now())
+                    .build();
+            log.info("Yeni PaymentRecord oluşturuldu: ConversationId={}, OrderNumber={}", 
+                    conversationId, orderNumber);
+        }
+
+        paymentRecordRepository.save(paymentRecordToSave);
+        log.info("PaymentRecord kaydedildi: PaymentId={}, OrderNumber={}, Status=SUCCESS", 
+                iyzicoPaymentId, orderNumber);
+
+        Address address = new Address();
+        // Eğer sessionData'da addressId varsa, o adresi kullan
+        if (sessionData.getAddressId() != null && sessionData.getUserId() != null) {
+            Optional<Address> userAddress = adresRepository.findById(sessionData.getAddressId());
+            if (userAddress.isPresent() && userAddress.get().getUser() != null 
+                    && userAddress.get().getUser().getId().equals(sessionData.getUserId())) {
+                Address selectedAddress = userAddress.get();
+                address.setFullName(selectedAddress.getFullName());
+                address.setPhone(selectedAddress.getPhone());
+                address.setAddressLine(selectedAddress.getAddressLine());
+                address.setAddressDetail(selectedAddress.getAddressDetail());
+                address.setCity(selectedAddress.getCity());
+                address.setDistrict(selectedAddress.getDistrict());
+                log.info("3D ödeme sonrası login kullanıcı seçili adresi kullanılıyor: addressId={}, userId={}", 
+                        sessionData.getAddressId(), sessionData.getUserId());
             } else {
-                // Guest kullanıcı veya adres seçilmemiş, sessionData'dan al
+                // Adres bulunamadı, sessionData'dan al
                 address.setFullName(order.getCustomerName());
                 address.setPhone(order.getCustomerPhone());
                 address.setAddressLine(sessionData.getAddress() != null ? sessionData.getAddress() : "Adres Belirtilmedi");
                 address.setCity(sessionData.getCity() != null ? sessionData.getCity() : "Bilinmiyor");
                 address.setDistrict(sessionData.getDistrict() != null ? sessionData.getDistrict() : "Bilinmiyor");
+                log.warn("Seçilen adres bulunamadı, sessionData'dan alınıyor");
             }
-            address.setOrder(order);
-
-            // Sipariş öğelerini oluştur
-            List<OrderItem> orderItems = new ArrayList<>();
-            if (sessionData.getOrderDetails() != null && !sessionData.getOrderDetails().isEmpty()) {
-                // SessionData'dan orderDetails kullan
-                for (OrderDetail detail : sessionData.getOrderDetails()) {
-                    OrderItem item = new OrderItem();
-                    item.setProductName(detail.getProductName());
-                    
-                    // Width ve height cm cinsinden geliyor, metreye çevir
-                    // Frontend'den cm olarak geliyor, backend'de metre olarak saklanıyor
-                    double widthInMeters = detail.getWidth() != null ? detail.getWidth() / 100.0 : 0.0;
-                    double heightInMeters = detail.getHeight() != null ? detail.getHeight() / 100.0 : 0.0;
-                    item.setWidth(widthInMeters);
-                    item.setHeight(heightInMeters);
-                    item.setPleatType(detail.getPleatType() != null ? detail.getPleatType() : "1x1");
-                    item.setQuantity(detail.getQuantity());
-                    
-                    // Fiyat hesaplama - unitPrice ve totalPrice
-                    Product product = productRepository.findById(detail.getProductId()).orElse(null);
-                    BigDecimal unitPrice = product != null ? product.getPrice() : detail.getPrice();
-                    item.setUnitPrice(unitPrice);
-                    
-                    // Ürün görselini ekle
-                    if (product != null && product.getCoverImageUrl() != null && !product.getCoverImageUrl().isEmpty()) {
-                        item.setProductImageUrl(product.getCoverImageUrl());
-                    }
-                    
-                    // Ürün SKU'sunu ekle
-                    if (product != null && product.getSku() != null && !product.getSku().isEmpty()) {
-                        item.setProductSku(product.getSku());
-                    }
-                    
-                    // Toplam fiyatı hesapla (metre cinsinden width ve height ile)
-                    BigDecimal totalPrice = item.calculateTotalPrice();
-                    if (totalPrice.compareTo(BigDecimal.ZERO) == 0 || totalPrice == null) {
-                        // Hesaplama başarısız olursa detail'den al (zaten hesaplanmış fiyat)
-                        totalPrice = detail.getPrice();
-                    }
-                    item.setTotalPrice(totalPrice);
-                    
-                    item.setProductId(detail.getProductId());
-                    item.setOrder(order);
-                    orderItems.add(item);
-                }
-            } else {
-                // Fallback: Eğer orderDetails yoksa (eski sistem uyumluluğu için)
-                log.warn("OrderDetails bulunamadı, fallback kullanılıyor");
-                OrderItem item = new OrderItem();
-                item.setProductName("Genel Ürün");
-                item.setWidth(1.0);
-                item.setHeight(1.0);
-                item.setPleatType("1x1");
-                item.setQuantity(1);
-                item.setUnitPrice(sessionData.getAmount());
-                item.setTotalPrice(sessionData.getAmount());
-                item.setOrder(order);
-                orderItems.add(item);
-            }
-
-            // Sipariş ilişkilerini ayarla
-            order.setAddresses(List.of(address));
-            order.setOrderItems(orderItems);
-            
-            // OrderItem'ları kaydet (cascade ile otomatik kaydedilir ama emin olmak için)
-            for (OrderItem item : orderItems) {
-                item.setOrder(order);
-            }
-
-            // Siparişi kaydet (cascade ile address ve orderItems da kaydedilir)
-            order = orderRepository.save(order);
-            
-            log.info("Sipariş kaydedildi - OrderNumber: {}, ItemCount: {}, TotalAmount: {} TL", 
-                    orderNumber, orderItems.size(), order.getTotalAmount());
-
-            // 🔹 Fatura oluştur
-            try {
-                invoiceService.createInvoiceForOrder(order);
-                log.info("Fatura oluşturuldu - OrderNumber: {}", orderNumber);
-            } catch (Exception e) {
-                log.error("Fatura oluşturulurken hata (ödeme devam eder): {}", e.getMessage(), e);
-                // Fatura hatası ödeme işlemini engellemez
-            }
+        } else {
+            // Guest kullanıcı veya adres seçilmemiş, sessionData'dan al
+            address.setFullName(order.getCustomerName());
+            address.setPhone(order.getCustomerPhone());
+            address.setAddressLine(sessionData.getAddress() != null ? sessionData.getAddress() : "Adres Belirtilmedi");
+            address.setCity(sessionData.getCity() != null ? sessionData.getCity() : "Bilinmiyor");
+            address.setDistrict(sessionData.getDistrict() != null ? sessionData.getDistrict() : "Bilinmiyor");
+        }
+        address.setOrder(order);
 
-            // 🔹 Kupon kullanımını KULLANILDI olarak işaretle (3D Secure başarılı)
-            if (sessionData.getCouponCode() != null && sessionData.getUserId() != null) {
-                try {
-                    // BEKLEMEDE durumundaki CouponUsage'ı bul
-                    Optional<CouponUsage> couponUsageOpt = couponService.getPendingCouponUsage(
-                            sessionData.getUserId(), sessionData.getGuestUserId());
-                    
-                    if (couponUsageOpt.isPresent()) {
-                        CouponUsage couponUsage = couponUsageOpt.get();
-                        // Kupon kodu eşleşiyorsa, kullanılmış olarak işaretle
-                        if (couponUsage.getCoupon() != null && 
-                            couponUsage.getCoupon().getCode().equalsIgnoreCase(sessionData.getCouponCode())) {
-                            couponService.markCouponAsUsed(couponUsage.getId(), order);
-                            log.info("Kupon kullanıldı olarak işaretlendi - Kupon: {}, OrderNumber: {}", 
-                                    sessionData.getCouponCode(), orderNumber);
-                        } else {
-                            log.warn("Kupon kodu eşleşmedi - Beklenen: {}, Bulunan: {}", 
-                                    sessionData.getCouponCode(), 
-                                    couponUsage.getCoupon() != null ? couponUsage.getCoupon().getCode() : "null");
-                        }
-                    } else {
-                        log.warn("BEKLEMEDE durumundaki kupon kullanımı bulunamadı - Kupon: {}, UserId: {}", 
-                                sessionData.getCouponCode(), sessionData.getUserId());
-                    }
-                } catch (Exception e) {
-                    log.error("Kupon kullanımı işaretlenirken hata: {}", e.getMessage(), e);
-                    // Kupon hatası ödeme işlemini engellemez
+        // Sipariş öğelerini oluştur
+        List<OrderItem> orderItems = new ArrayList<>();
+        if (sessionData.getOrderDetails() != null && !sessionData.getOrderDetails().isEmpty()) {
+            // SessionData'dan orderDetails kullan
+            for (OrderDetail detail : sessionData.getOrderDetails()) {
+                OrderItem item = new OrderItem();
+                item.setProductName(detail.getProductName());
+
+                // Width ve height cm cinsinden geliyor, metreye çevir
+                // Frontend'den cm olarak geliyor, backend'de metre olarak saklanıyor
+                double widthInMeters = detail.getWidth() != null ? detail.getWidth() / 100.0 : 0.0;
+                double heightInMeters = detail.getHeight() != null ? detail.getHeight() / 100.0 : 0.0;
+                item.setWidth(widthInMeters);
+                item.setHeight(heightInMeters);
+                item.setPleatType(detail.getPleatType() != null ? detail.getPleatType() : "1x1");
+                item.setQuantity(detail.getQuantity());
+
+                // Fiyat hesaplama - unitPrice ve totalPrice
+                Product product = productRepository.findById(detail.getProductId()).orElse(null);
+                BigDecimal unitPrice = product != null ? product.getPrice() : detail.getPrice();
+                item.setUnitPrice(unitPrice);
+
+                // Ürün görselini ekle
+                if (product != null && product.getCoverImageUrl() != null && !product.getCoverImageUrl().isEmpty()) {
+                    item.setProductImageUrl(product.getCoverImageUrl());
                 }
-            }
-
-            // Admin bildirimi gönder
-            try {
-                adminNotificationService.sendOrderNotification(
-                    order.getOrderNumber(),
-                    order.getCustomerEmail(),
-                    order.getCustomerName(),
-                    order.getTotalAmount()
-                );
-            } catch (Exception e) {
-                log.error("Sipariş bildirimi gönderilemedi: {}", e.getMessage(), e);
-            }
 
-            // Stoktan düş (metre cinsinden)
-            try {
-                for (OrderItem item : orderItems) {
-                    if (item.getProductId() != null) {
-                        Optional<Product> productOpt = productRepository.findById(item.getProductId());
-                        if (productOpt.isPresent()) {
-                            Product product = productOpt.get();
-                            
-                            // Kullanılan stok miktarını hesapla (metre cinsinden)
-                            // Formül: (width / 100) * pleatType çarpanı * quantity
-                            double widthInMeters = item.getWidth() != null ? item.getWidth() / 100.0 : 0.0;
-                            
-                            // PleatType çarpanını hesapla (örn: "1x2.5" → 2.5)
-                            double pleatMultiplier = 1.0;
-                            if (item.getPleatType() != null && !item.getPleatType().isEmpty()) {
-                                try {
-                                    String[] parts = item.getPleatType().split("x");
-                                    if (parts.length == 2) {
-                                        pleatMultiplier = Double.parseDouble(parts[1]);
-                                    }
-                                } catch (Exception e) {
-                                    log.warn("PleatType parse edilemedi: {}, varsayılan 1.0 kullanılıyor", item.getPleatType());
-                                }
-                            }
-                            
-                            // Kullanılan stok = metre * pile çarpanı * adet
-                            double usedStock = widthInMeters * pleatMultiplier * item.getQuantity();
-                            
-                            // Stoktan düş
-                            if (product.getQuantity() != null) {
-                                int currentStock = product.getQuantity();
-                                int newStock = (int) Math.max(0, currentStock - usedStock);
-                                product.setQuantity(newStock);
-                                productRepository.save(product);
-                                
-                                log.info("Stok güncellendi - ProductId: {}, ProductName: {}, Eski Stok: {} m, Kullanılan: {} m, Yeni Stok: {} m", 
-                                        product.getId(), product.getName(), currentStock, usedStock, newStock);
-                            } else {
-                                log.warn("Product stok bilgisi yok - ProductId: {}, ProductName: {}", 
-                                        product.getId(), product.getName());
-                            }
-                        } else {
-                            log.warn("Product bulunamadı - ProductId: {}", item.getProductId());
-                        }
-                    }
+                // Ürün SKU'sunu ekle
+                if (product != null && product.getSku() != null && !product.getSku().isEmpty()) {
+                    item.setProductSku(product.getSku());
                 }
-            } catch (Exception e) {
-                // Stok güncelleme hatası sipariş işlemini engellemez, sadece log'a yaz
-                log.error("Stok güncellenirken hata oluştu (sipariş kaydedildi): {}", e.getMessage(), e);
-            }
 
-            // Guest kullanıcı kaydı oluştur veya güncelle
-            try {
-                String ipAddress = httpServletRequest.getRemoteAddr();
-                String userAgent = httpServletRequest.getHeader("User-Agent");
-                
-                GuestUser guestUser = guestUserRepository.findByEmailIgnoreCase(order.getCustomerEmail())
-                        .orElse(null);
-                
-                if (guestUser == null) {
-                    // Yeni guest kullanıcı oluştur
-                    guestUser = GuestUser.builder()
-                            .email(order.getCustomerEmail())
-                            .fullName(order.getCustomerName())
-                            .phone(order.getCustomerPhone())
-                            .ipAddress(ipAddress)
-                            .userAgent(userAgent != null ? (userAgent.length() > 500 ? userAgent.substring(0, 500) : userAgent) : null)
-                            .firstSeenAt(LocalDateTime.now())
-                            .lastSeenAt(LocalDateTime.now())
-                            .orderCount(1)
-                            .viewCount(0)
-                            .build();
-                } else {
-                    // Mevcut guest kullanıcıyı güncelle
-                    guestUser.setLastSeenAt(LocalDateTime.now());
-                    guestUser.setOrderCount(guestUser.getOrderCount() + 1);
-                    if (guestUser.getFullName() == null || guestUser.getFullName().isEmpty()) {
-                        guestUser.setFullName(order.getCustomerName());
-                    }
-                    if (guestUser.getPhone() == null || guestUser.getPhone().isEmpty()) {
-                        guestUser.setPhone(order.getCustomerPhone());
-                    }
+                // Toplam fiyatı hesapla (metre cinsinden width ve height ile)
+                BigDecimal totalPrice = item.calculateTotalPrice();
+                if (totalPrice.compareTo(BigDecimal.ZERO) == 0 || totalPrice == null) {
+                    // Hesaplama başarısız olursa detail'den al (zaten hesaplanmış fiyat)
+                    totalPrice = detail.getPrice();
                 }
-                
-                guestUserRepository.save(guestUser);
-            } catch (Exception e) {
-                // Guest kullanıcı kaydı hatası sipariş işlemini engellemez
-                log.warn("Guest kullanıcı kaydı hatası: {}", e.getMessage());
-            }
-
-            // 📌 İADE BİLGİLERİNİ BELLEKTE SAKLA (Hem paymentId hem de orderNumber ile)
-            RefundSessionData refundData = new RefundSessionData();
-            refundData.setPaymentId(paymentId);
-            refundData.setConversationId(conversationId);
-            
-            // İsim bilgilerini düzgün ayır
-            String[] nameParts = sessionData.getFullName() != null ? 
-                sessionData.getFullName().split(" ", 2) : new String[]{"Misafir", "Kullanıcı"};
-            refundData.setFirstName(nameParts.length > 0 ? nameParts[0] : "Misafir");
-            refundData.setLastName(nameParts.length > 1 ? nameParts[1] : "Kullanıcı");
-            
-            refundData.setEmail(sessionData.getUsername());
-            refundData.setPaymentTransactionId(paymentTransactionId); // ✅ İyzico transaction ID
-            refundData.setPhone(sessionData.getPhone() != null ? sessionData.getPhone() : "");
-            refundData.setAddress(address.getAddressLine() != null ? address.getAddressLine() : 
-                (sessionData.getAddress() != null ? sessionData.getAddress() : ""));
-            refundData.setCity(address.getCity() != null ? address.getCity() : 
-                (sessionData.getCity() != null ? sessionData.getCity() : ""));
-            refundData.setDistrict(address.getDistrict() != null ? address.getDistrict() : 
-                (sessionData.getDistrict() != null ? sessionData.getDistrict() : ""));
-            refundData.setAddressDetail(address.getAddressDetail() != null ? address.getAddressDetail() : 
-                (sessionData.getAddressDetail() != null ? sessionData.getAddressDetail() : ""));
-            refundData.setAmount(sessionData.getAmount());
-            refundData.setPaymentDate(LocalDateTime.now());
-            refundData.setOrderNumber(orderNumber);
-            refundData.setIp(httpServletRequest != null ? httpServletRequest.getRemoteAddr() : "127.0.0.1");
-            
-            // Kart bilgisi yoksa boş bırak (güvenlik için)
-            refundData.setCardNumber(null);
-
-            // Cache'e hem paymentId hem de orderNumber ile kaydet
-            refundSessionCache.put(paymentId, refundData);
-            // orderNumber ile de erişim için ayrıca kaydet
-            if (!orderNumber.equals(paymentId)) {
-                refundSessionCache.put(orderNumber, refundData);
-            }
-            
-            log.info("İade bilgileri cache'e kaydedildi - paymentId: {}, orderNumber: {}, transactionId: {}", 
-                    paymentId, orderNumber, paymentTransactionId);
+                item.setTotalPrice(totalPrice);
 
-            // Sepeti temizle (ödeme başarılı olduğunda)
-            try {
-                if (sessionData.getCartId() != null) {
-                    // Sepet ID'si varsa direkt temizle
-                    cartService.clearCart(sessionData.getCartId());
-                    log.info("Sepet temizlendi - cartId: {}", sessionData.getCartId());
-                } else if (sessionData.getUserId() != null) {
-                    // Login kullanıcı için sepeti bul ve temizle
-                    Optional<Cart> cartOpt = cartRepository.findByUser_IdAndStatus(sessionData.getUserId(), CartStatus.AKTIF);
-                    if (cartOpt.isPresent()) {
-                        cartService.clearCart(cartOpt.get().getId());
-                        log.info("Login kullanıcı sepeti temizlendi - userId: {}, cartId: {}", 
-                                sessionData.getUserId(), cartOpt.get().getId());
-                    }
-                } else if (sessionData.getGuestUserId() != null) {
-                    // Guest kullanıcı için sepeti bul ve temizle
-                    Optional<Cart> cartOpt = cartRepository.findByGuestUserIdAndStatus(sessionData.getGuestUserId(), CartStatus.AKTIF);
-                    if (cartOpt.isPresent()) {
-                        cartService.clearCart(cartOpt.get().getId());
-                        log.info("Guest kullanıcı sepeti temizlendi - guestUserId: {}, cartId: {}", 
-                                sessionData.getGuestUserId(), cartOpt.get().getId());
-                    }
-                }
-            } catch (Exception e) {
-                // Sepet temizleme hatası sipariş işlemini engellemez, sadece log'a yaz
-                log.warn("Sepet temizlenirken hata oluştu (sipariş kaydedildi): {}", e.getMessage());
+                item.setProductId(detail.getProductId());
+                item.setOrder(order);
+                orderItems.add(item);
             }
+        } else {
+            // Fallback: Eğer orderDetails yoksa (eski sistem uyumluluğu için)
+            log.warn("OrderDetails bulunamadı, fallback kullanılıyor");
+            OrderItem item = new OrderItem();
+            item.setProductName("Genel Ürün");
+            item.setWidth(1.0);
+            item.setHeight(1.0);
+            item.setPleatType("1x1");
+            item.setQuantity(1);
+            item.setUnitPrice(sessionData.getAmount());
+            item.setTotalPrice(sessionData.getAmount());
+            item.setOrder(order);
+            orderItems.add(item);
+        }
 
-            topUpSessionCache.remove(conversationId);
-            sendOrderConfirmationEmail(order);
-
-            log.info("Sipariş kaydedildi: {} - İade bilgileri bellekte saklandı, sepet temizlendi", orderNumber);
-
-            return new DataResponseMessage<>(
-                    "Ödeme başarılı. Sipariş numaranız: " + orderNumber,
-                    true,
-                    orderNumber
-            );
+        // Sipariş ilişkilerini ayarla
+        order.setAddresses(List.of(address));
+        order.setOrderItems(orderItems);
 
-        } catch (Exception e) {
-            log.error("3D ödeme tamamlama hatası:", e);
-            return new ResponseMessage("3D ödeme tamamlanırken hata oluştu: " + e.getMessage(), false);
+        // OrderItem'ları kaydet (cascade ile otomatik kaydedilir ama emin olmak için)
+        for (OrderItem item : orderItems) {
+            item.setOrder(order);
         }
-    }
-
-    private void sendOrderConfirmationEmail(Order order) {
-        try {
-            String subject = "Siparişiniz Alındı - #" + order.getOrderNumber();
-
-            List<MailService.OrderEmailItem> items = order.getOrderItems() != null
-                    ? order.getOrderItems().stream()
-                    .map(item -> new MailService.OrderEmailItem(
-                            item.getProductName(),
-                            buildEmailItemDescription(item),
-                            item.getQuantity(),
-                            item.getTotalPrice(),
-                            item.getProductImageUrl() != null ? item.getProductImageUrl() : ""))
-                    .collect(Collectors.toList())
-                    : List.of();
-
-            MailService.OrderEmailPayload payload = new MailService.OrderEmailPayload(
-                    order.getCustomerName(),
-                    order.getOrderNumber(),
-                    order.getSubtotal(),
-                    order.getDiscountAmount(),
-                    order.getTotalAmount(),
-                    items,
-                    appUrlConfig.getFrontendUrl() + "/siparislerim"
-            );
 
-            String body = mailService.buildOrderCreatedEmail(payload);
+        // Siparişi kaydet (cascade ile address ve orderItems da kaydedilir)
+        order = orderRepository.save(order);
+
+        log.info("Sipariş kaydedildi - OrderNumber: {}, ItemCount: {}, TotalAmount: {} TL", 
+                orderNumber, orderItems.size(), order.getTotalAmount());
+
+        // Stok onayı, fatura, kupon, sepet, misafir kaydı, admin bildirimi ve onay maili commit sonrası outbox'tan
+        paymentCompletionHandler.enqueue(new PaymentCompletionHandler.PaymentCompletion(
+                orderNumber,
+                conversationId,
+                sessionData.getCartId(),
+                sessionData.getUserId(),
+                sessionData.getGuestUserId(),
+                sessionData.getCouponCode(),
+                ipAddress,
+                userAgent
+        ));
+
+        return new CompletedPayment(orderNumber, true, address, paymentTransactionId);
+    }
 
-            EmailMessage emailMessage = EmailMessage.builder()
-                    .toEmail(order.getCustomerEmail())
-                    .subject(subject)
-                    .body(body)
-                    .isHtml(true)
-                    .build();
+    /**
+     * Bu 3D oturumu için oluşturulmuş siparişin numarası (ödeme kaydı SUCCESS ise)
+     */
+    private Optional<String> findCompletedOrderNumber(String conversationId) {
+        return paymentRecordRepository.findByConversationId(conversationId)
+                .filter(record -> record.getStatus() == PaymentStatus.SUCCESS)
+                .map(PaymentRecord::getOrderNumber);
+    }
 
-            mailService.queueEmail(emailMessage);
-            log.info("Sipariş onay maili gönderildi: {}", order.getCustomerEmail());
+    private ResponseMessage orderCompletedResponse(String orderNumber) {
+        return new DataResponseMessage<>(
+                "Ödeme başarılı. Sipariş numaranız: " + orderNumber,
+                true,
+                orderNumber
+        );
+    }
 
-        } catch (Exception e) {
-            log.error("Sipariş onay maili gönderilemedi: {}", e.getMessage());
+    private void cacheRefundData(
+            String paymentId,
+            String conversationId,
+            TopUpSessionData sessionData,
+            CompletedPayment completed,
+            HttpServletRequest httpServletRequest) {
+        String orderNumber = completed.orderNumber();
+        String paymentTransactionId = completed.paymentTransactionId();
+        Address address = completed.address();
+
+        // 📌 İADE BİLGİLERİNİ BELLEKTE SAKLA (Hem paymentId hem de orderNumber ile)
+        RefundSessionData refundData = new RefundSessionData();
+        refundData.setPaymentId(paymentId);
+        refundData.setConversationId(conversationId);
+
+        // İsim bilgilerini düzgün ayır
+        String[] nameParts = sessionData.getFullName() != null ? 
+            sessionData.getFullName().split(" ", 2) : new String[]{"Misafir", "Kullanıcı"};
+        refundData.setFirstName(nameParts.length > 0 ? nameParts[0] : "Misafir");
+        refundData.setLastName(nameParts.length > 1 ? nameParts[1] : "Kullanıcı");
+
+        refundData.setEmail(sessionData.getUsername());
+        refundData.setPaymentTransactionId(paymentTransactionId); // ✅ İyzico transaction ID
+        refundData.setPhone(sessionData.getPhone() != null ? sessionData.getPhone() : "");
+        refundData.setAddress(address.getAddressLine() != null ? address.getAddressLine() : 
+            (sessionData.getAddress() != null ? sessionData.getAddress() : ""));
+        refundData.setCity(address.getCity() != null ? address.getCity() : 
+            (sessionData.getCity() != null ? sessionData.getCity() : ""));
+        refundData.setDistrict(address.getDistrict() != null ? address.getDistrict() : 
+            (sessionData.getDistrict() != null ? sessionData.getDistrict() : ""));
+        refundData.setAddressDetail(address.getAddressDetail() != null ? address.getAddressDetail() : 
+            (sessionData.getAddressDetail() != null ? sessionData.getAddressDetail() : ""));
+        refundData.setAmount(sessionData.getAmount());
+        refundData.setPaymentDate(LocalDateTime.now());
+        refundData.setOrderNumber(orderNumber);
+        refundData.setIp(httpServletRequest != null ? httpServletRequest.getRemoteAddr() : "127.0.0.1");
+
+        // Kart bilgisi yoksa boş bırak (güvenlik için)
+        refundData.setCardNumber(null);
+
+        // Cache'e hem paymentId hem de orderNumber ile kaydet
+        refundSessionCache.put(paymentId, refundData);
+        // orderNumber ile de erişim için ayrıca kaydet
+        if (!orderNumber.equals(paymentId)) {
+            refundSessionCache.put(orderNumber, refundData);
         }
+
+        log.info("İade bilgileri cache'e kaydedildi - paymentId: {}, orderNumber: {}, transactionId: {}", 
+                paymentId, orderNumber, paymentTransactionId);
     }
 
-    private String buildEmailItemDescription(OrderItem item) {
-        List<String> parts = new ArrayList<>();
-        if (item.getWidth() != null && item.getHeight() != null) {
-            parts.add(String.format("Ölçü: %.0f x %.0f cm", item.getWidth(), item.getHeight()));
-        }
-        if (item.getPleatType() != null) {
-            parts.add("Pile: " + item.getPleatType());
-        }
-        return String.join(" • ", parts);
+    /**
+     * Callback sonucu: created=false ise sipariş önceki bir callback'te oluşturulmuştur
+     */
+    private record CompletedPayment(String orderNumber, boolean created, Address address, String paymentTransactionId) {
     }
 
     @Override
@@ -1336,7 +1211,7 @@ public class PaymentManager implements PaymentService {
             if (cartInfo.getCart() != null && cartInfo.getCart().getStatus() == CartStatus.AKTIF) {
                 try {
                     cartService.confirmCart(cartInfo.getCart().getId());
-                    log.info("Sepet onaylandı ve stoklar düşüldü - cartId: {}", cartInfo.getCart().getId());
+                    log.info("Sepet onaylandı - cartId: {}", cartInfo.getCart().getId());
                 } catch (Exception e) {
                     log.error("Sepet onaylanırken hata: {}", e.getMessage());
                     return new ResponseMessage("Sepet onaylanırken hata oluştu: " + e.getMessage(), false);
@@ -1499,6 +1374,13 @@ public class PaymentManager implements PaymentService {
             request.setBillingAddress(billingAddress);
             request.setBasketItems(basketItems);
 
+            // 🔹 Stok ayır (3D Secure oturumu süresince; ödeme başarısız olur veya süre dolarsa geri verilir)
+            try {
+                stockReservationService.reserve(conversationId, stockRequirements(priceInfo.getValidatedOrderDetails()));
+            } catch (ProductException e) {
+                return new ResponseMessage(e.getMessage(), false);
+            }
+
             // 🔹 Payment Record oluştur (pending durumunda - 3D Secure başlatılmadan önce)
             try {
                 String ipAddress = getClientIpAddress(httpRequest);
@@ -1528,7 +1410,13 @@ public class PaymentManager implements PaymentService {
             }
             
             // 1️⃣3️⃣ 3D Secure başlat
-            ThreedsInitialize threedsInitialize = ThreedsInitialize.create(request, iyzicoOptions);
+            ThreedsInitialize threedsInitialize;
+            try {
+                threedsInitialize = ThreedsInitialize.create(request, iyzicoOptions);
+            } catch (RuntimeException e) {
+                stockReservationService.release(conversationId);
+                throw e;
+            }
             log.info("İyzico 3D Secure başlatma - Status: {}, ErrorMessage: {}", 
                     threedsInitialize.getStatus(), threedsInitialize.getErrorMessage());
 
@@ -1562,7 +1450,8 @@ public class PaymentManager implements PaymentService {
                         threedsInitialize.getHtmlContent()
                 );
             } else {
-                // 3D Secure başlatma başarısız - PENDING PaymentRecord'u FAILED olarak güncelle
+                // 3D Secure başlatma başarısız - ayrılan stoğu geri ver, PENDING PaymentRecord'u FAILED olarak güncelle
+                stockReservationService.release(conversationId);
                 try {
                     Optional<PaymentRecord> existingRecordOpt = paymentRecordRepository.findByConversationId(conversationId);
                     if (existingRecordOpt.isPresent()) {
@@ -1671,6 +1560,11 @@ public class PaymentManager implements PaymentService {
         BigDecimal toplamTutar = BigDecimal.ZERO;
         BigDecimal frontendToplamTutar = BigDecimal.ZERO;
 
+        // Satılabilir metre (ledger bakiyesi, tek sorgu)
+        Map<Long, BigDecimal> availableMeters = inventoryLedger.available(orderDetailsList.stream()
+                .map(OrderDetail::getProductId)
+                .toList());
+
         for (OrderDetail detail : orderDetailsList) {
             // Ürün veritabanından kontrol et
             Product product = productRepository.findById(detail.getProductId())
@@ -1685,7 +1579,7 @@ public class PaymentManager implements PaymentService {
             }
 
             // Stok kontrolü
-            validateProductStock(product, detail);
+            validateProductStock(product, detail, availableMeters.getOrDefault(product.getId(), StockMeters.zero()));
 
             // Fiyat hesaplama
             BigDecimal backendHesaplananFiyat = calculateProductPrice(product, detail);
@@ -1721,60 +1615,46 @@ public class PaymentManager implements PaymentService {
     }
 
     /**
-     * Ürün stok kontrolü
+     * Sipariş detaylarından ürün başına düşülecek stok (metre)
      */
-    private void validateProductStock(Product product, OrderDetail detail) {
-        if (product.getQuantity() != null) {
-            double widthInMeters = detail.getWidth() != null ? detail.getWidth() / 100.0 : 0.0;
-            
-            // PleatType çarpanını hesapla
-            double pleatMultiplier = 1.0;
-            if (detail.getPleatType() != null && !detail.getPleatType().isEmpty()) {
-                try {
-                    String[] parts = detail.getPleatType().split("x");
-                    if (parts.length == 2) {
-                        pleatMultiplier = Double.parseDouble(parts[1]);
-                    }
-                } catch (Exception e) {
-                    log.warn("PleatType parse edilemedi: {}, varsayılan 1.0 kullanılıyor", detail.getPleatType());
-                }
-            }
-            
-            double requiredStock = widthInMeters * pleatMultiplier * detail.getQuantity();
-            
-            if (product.getQuantity() < requiredStock) {
-                throw new RuntimeException(
-                        String.format("Ürün '%s' için yeterli stok yok. Mevcut stok: %d m, İstenen: %.2f m",
-                                product.getName(), product.getQuantity(), requiredStock)
-                );
+    private static Map<Long, BigDecimal> stockRequirements(List<OrderDetail> orderDetails) {
+        Map<Long, BigDecimal> requirements = new HashMap<>();
+        if (orderDetails != null) {
+            for (OrderDetail detail : orderDetails) {
+                requirements.merge(detail.getProductId(),
+                        StockMeters.fromCentimeters(detail.getWidth(), detail.getPleatType(), detail.getQuantity()),
+                        BigDecimal::add);
             }
         }
+        return requirements;
+    }
+
+    /**
+     * Ürün stok kontrolü (ön kontrol; kesin ayırma StockReservationService ile yapılır)
+     */
+    private void validateProductStock(Product product, OrderDetail detail, BigDecimal availableMeters) {
+        BigDecimal requiredStock = StockMeters.fromCentimeters(detail.getWidth(), detail.getPleatType(), detail.getQuantity());
+        if (availableMeters.compareTo(requiredStock) < 0) {
+            throw new RuntimeException(
+                    String.format("Ürün '%s' için yeterli stok yok. Mevcut stok: %s m, İstenen: %s m",
+                            product.getName(), availableMeters.stripTrailingZeros().toPlainString(),
+                            requiredStock.stripTrailingZeros().toPlainString())
+            );
+        }
     }
 
     /**
      * Ürün fiyatını hesapla
      */
     private BigDecimal calculateProductPrice(Product product, OrderDetail detail) {
-        // Pile çarpanı
-        double pileCarpani = 1.0;
-        if (detail.getPleatType() != null && !detail.getPleatType().equalsIgnoreCase("pilesiz")) {
-            try {
-                String[] parts = detail.getPleatType().split("x");
-                if (parts.length == 2) {
-                    pileCarpani = Double.parseDouble(parts[1]);
-                } else {
-                    log.warn("PleatType formatı beklenenden farklı: {}", detail.getPleatType());
-                }
-            } catch (Exception e) {
-                log.warn("PleatType parse hatası: {}", detail.getPleatType());
-            }
-        }
+        // Pile çarpanı (önbellekten)
+        BigDecimal pileCarpani = StockMeters.pleatMultiplier(detail.getPleatType());
 
         // Fiyat hesaplama: metre fiyatı * en (cm) * pile sayısı * adet
         BigDecimal enMetre = BigDecimal.valueOf(detail.getWidth()).divide(BigDecimal.valueOf(100.0), 4, java.math.RoundingMode.HALF_UP);
         return product.getPrice()
                 .multiply(enMetre)
-                .multiply(BigDecimal.valueOf(pileCarpani))
+                .multiply(pileCarpani)
                 .multiply(BigDecimal.valueOf(detail.getQuantity()))
                 .setScale(2, java.math.RoundingMode.HALF_UP);
     }
@@ -1,8 +1,10 @@
 package eticaret.demo.payment;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -25,6 +27,13 @@ public interface PaymentRecordRepository extends JpaRepository<PaymentRecord, Lo
      */
     Optional<PaymentRecord> findByConversationId(String conversationId);
     
+    /**
+     * Conversation ID ile bul ve satırı kilitle (3D callback'inin tek seferde tamamlanması için)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PaymentRecord p WHERE p.conversationId = :conversationId")
+    Optional<PaymentRecord> findByConversationIdForUpdate(@Param("conversationId") String conversationId);
+    
     /**
      * Order Number ile bul
      */
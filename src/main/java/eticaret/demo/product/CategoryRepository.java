@@ -1,11 +1,24 @@
 package eticaret.demo.product;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByNameIgnoreCase(String name);
     boolean existsByNameIgnoreCase(String name);
-}
 
+    // Admin listesi: id'ye göre azalan keyset sayfalama (durum ve ad filtresi opsiyonel)
+    @Query("SELECT c FROM Category c WHERE c.id < :afterId " +
+           "AND (:active IS NULL OR c.active = :active) " +
+           "AND (:namePattern IS NULL OR LOWER(c.name) LIKE :namePattern ESCAPE '\\') " +
+           "ORDER BY c.id DESC")
+    List<Category> findAdminPage(@Param("afterId") long afterId,
+                                 @Param("active") Boolean active,
+                                 @Param("namePattern") String namePattern,
+                                 Pageable limit);
+}
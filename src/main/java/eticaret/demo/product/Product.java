@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import eticaret.demo.product.stock.StockMeters;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -21,7 +22,7 @@ import java.util.List;
  */
 @Entity
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "products", indexes = {
@@ -93,7 +94,9 @@ public class Product {
     private String pleatType;
     
     /**
-     * Stok miktarı (metre cinsinden)
+     * Stok miktarı (tam metre; katalog filtreleri ve gösterim için)
+     * Kesin bakiye inventory_balances tablosundadır (InventoryLedger); her stok hareketinde bu alan
+     * bakiyenin tam kısmı ile aynı SQL ifadesinde güncellenir.
      */
     @Column(nullable = false)
     @NotNull(message = "Stok miktarı boş olamaz")
@@ -408,20 +411,7 @@ public class Product {
      * Pilaj çarpanını hesapla
      */
     private double getPleatMultiplier(String pleatType) {
-        if (pleatType == null || pleatType.isEmpty()) {
-            return 1.0;
-        }
-        
-        try {
-            String[] parts = pleatType.split("x");
-            if (parts.length == 2) {
-                return Double.parseDouble(parts[1]);
-            }
-        } catch (NumberFormatException e) {
-            // Hata durumunda varsayılan değer
-        }
-        
-        return 1.0;
+        return StockMeters.pleatMultiplier(pleatType).doubleValue();
     }
     
     /**
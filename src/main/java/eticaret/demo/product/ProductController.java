@@ -13,6 +13,14 @@ import eticaret.demo.auth.UserRole;
 import eticaret.demo.visitor.VisitorType;
 import eticaret.demo.visitor.VisitorTrackingService;
 import eticaret.demo.cloudinary.MediaUploadService;
+import eticaret.demo.product.catalog.CatalogFacetIndex;
+import eticaret.demo.product.catalog.CatalogFacetService;
+import eticaret.demo.product.catalog.CatalogSnapshotService;
+import eticaret.demo.product.dto.ProductBrowseResponse;
+import eticaret.demo.product.dto.ProductDetailResponse;
+import eticaret.demo.product.dto.ProductSearchResponse;
+import eticaret.demo.product.search.ProductSearchIndex;
+import eticaret.demo.product.search.ProductSearchService;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -21,8 +29,9 @@ import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -31,12 +40,16 @@ import java.util.Optional;
 public class ProductController {
 
     private final ProductRepository productRepository;
-    private final ProductViewRepository productViewRepository;
-    private final ProductReviewRepository productReviewRepository;
+    private final ProductDetailService productDetailService;
+    private final ProductViewTracker productViewTracker;
+    private final ProductStatsService productStatsService;
+    private final ProductSearchService productSearchService;
     private final AppUserRepository userRepository;
     private final VisitorTrackingService visitorTrackingService;
     private final AuditLogService auditLogService;
     private final MediaUploadService mediaUploadService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogFacetService catalogFacetService;
 
     /**
      * Tüm ürünleri listele (herkes erişebilir)
@@ -113,14 +126,11 @@ public class ProductController {
             }
             
             // Repository'den gelen ürünler zaten stokta olanlar olduğu için ek filtreleme gerekmez
-            // Sadece görselleri optimize et ve istatistikleri ekle
+            // Sadece görselleri optimize et ve istatistikleri (tek sorguda) ekle
             List<Product> optimizedProducts = productsPage.getContent().stream()
-                    .map(product -> {
-                        Product optimized = optimizeProductImages(product);
-                        enrichProductWithStatistics(optimized);
-                        return optimized;
-                    })
+                    .map(this::optimizeProductImages)
                     .toList();
+            productStatsService.applyTo(optimizedProducts);
             
             // Sayfalama bilgileri ile yeni sayfa oluştur
             Page<Product> finalPage = new org.springframework.data.domain.PageImpl<>(
@@ -145,7 +155,7 @@ public class ProductController {
      * List'ten Page oluştur (yardımcı metod)
      */
     private Page<Product> createPageFromList(List<Product> list, Pageable pageable) {
-        int start = (int) pageable.getOffset();
+        int start = (int) Math.min(pageable.getOffset(), list.size());
         int end = Math.min((start + pageable.getPageSize()), list.size());
         List<Product> pageContent = list.subList(start, end);
         return new org.springframework.data.domain.PageImpl<>(pageContent, pageable, list.size());
@@ -153,9 +163,9 @@ public class ProductController {
     
     /**
      * Ürün ara (keyword ile)
+     * Bellek içi arama indeksi: Türkçe harf katlama, alaka sıralaması, önek ve yazım hatası toleransı
      */
     @GetMapping("/search")
-    @Cacheable(value = "products", key = "'search-' + #keyword + '-' + #page")
     public ResponseEntity<DataResponseMessage<Page<Product>>> searchProducts(
             @RequestParam String keyword,
             @RequestParam(required = false, defaultValue = "0") int page,
@@ -169,23 +179,11 @@ public class ProductController {
             }
             
             Pageable pageable = PageRequest.of(page, size);
-            Page<Product> productsPage = productRepository.searchByKeyword(keyword.trim(), pageable);
+            ProductSearchIndex.Result result = productSearchService.search(keyword.trim());
             
-            // Repository'den gelen ürünler zaten stokta olanlar olduğu için ek filtreleme gerekmez
-            // Görselleri optimize et ve istatistikleri ekle
-            List<Product> optimizedProducts = productsPage.getContent().stream()
-                    .map(product -> {
-                        Product optimized = optimizeProductImages(product);
-                        enrichProductWithStatistics(optimized);
-                        return optimized;
-                    })
-                    .toList();
-            
-            Page<Product> finalPage = new org.springframework.data.domain.PageImpl<>(
-                    optimizedProducts,
-                    pageable,
-                    productsPage.getTotalElements()
-            );
+            // İndeks katalog görüntüsü üzerinde çalışır (sadece aktif ve stokta olanlar)
+            Page<Product> finalPage = createPageFromList(result.products(), pageable).map(this::toListView);
+            productStatsService.applyTo(finalPage.getContent());
             
             auditLogService.logSimple("SEARCH_PRODUCTS", "Product", null,
                     "Ürün araması yapıldı: '" + keyword + "' (Sonuç: " + finalPage.getTotalElements() + ")", request);
@@ -199,6 +197,116 @@ public class ProductController {
         }
     }
     
+    /**
+     * Ürün ara (facet sayıları ve yazım düzeltmeleri ile)
+     * GET /api/products/search/faceted?keyword=...
+     */
+    @GetMapping("/search/faceted")
+    public ResponseEntity<DataResponseMessage<ProductSearchResponse>> searchProductsFaceted(
+            @RequestParam String keyword,
+            @RequestParam(required = false, defaultValue = "0") int page,
+            @RequestParam(required = false, defaultValue = "20") int size,
+            HttpServletRequest request
+    ) {
+        try {
+            if (keyword == null || keyword.trim().isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(DataResponseMessage.error("Arama kelimesi boş olamaz"));
+            }
+            
+            long start = System.nanoTime();
+            ProductSearchIndex.Result result = productSearchService.search(keyword.trim());
+            Page<Product> resultPage = createPageFromList(result.products(), PageRequest.of(page, size))
+                    .map(this::toListView);
+            productStatsService.applyTo(resultPage.getContent());
+            
+            ProductSearchResponse response = ProductSearchResponse.builder()
+                    .content(resultPage.getContent())
+                    .page(resultPage.getNumber())
+                    .size(resultPage.getSize())
+                    .totalElements(resultPage.getTotalElements())
+                    .totalPages(resultPage.getTotalPages())
+                    .facets(result.facets())
+                    .corrections(result.corrections())
+                    .tookMicros((System.nanoTime() - start) / 1_000)
+                    .build();
+            
+            auditLogService.logSimple("SEARCH_PRODUCTS", "Product", null,
+                    "Ürün araması yapıldı: '" + keyword + "' (Sonuç: " + response.getTotalElements() + ")", request);
+            
+            return ResponseEntity.ok(DataResponseMessage.success("Arama sonuçları getirildi", response));
+        } catch (Exception e) {
+            auditLogService.logError("SEARCH_PRODUCTS", "Product", null,
+                    "Ürün araması sırasında hata: " + e.getMessage(), e.getMessage(), request);
+            return ResponseEntity.badRequest()
+                    .body(DataResponseMessage.error("Arama yapılamadı: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Facet'li ürün gezinme (aktif ve stokta olan ürünler)
+     * Aynı facet içindeki değerler VEYA, farklı facet'ler VE ile birleştirilir.
+     * GET /api/products/browse?color=Beyaz&color=Krem&category=3&price=500-1000&sort=price_asc
+     */
+    @GetMapping("/browse")
+    public ResponseEntity<DataResponseMessage<ProductBrowseResponse>> browseProducts(
+            @RequestParam(required = false) List<String> color,
+            @RequestParam(required = false) List<String> material,
+            @RequestParam(required = false) List<String> usageArea,
+            @RequestParam(required = false) List<String> mountingType,
+            @RequestParam(required = false) List<String> lightTransmittance,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false, defaultValue = "0") int page,
+            @RequestParam(required = false, defaultValue = "20") int size
+    ) {
+        try {
+            if (page < 0 || size < 1 || size > 100) {
+                return ResponseEntity.badRequest()
+                        .body(DataResponseMessage.error("Geçersiz sayfalama parametreleri"));
+            }
+            
+            Map<String, List<String>> filters = new HashMap<>();
+            putFilter(filters, CatalogFacetIndex.COLOR, color);
+            putFilter(filters, CatalogFacetIndex.MATERIAL, material);
+            putFilter(filters, CatalogFacetIndex.USAGE_AREA, usageArea);
+            putFilter(filters, CatalogFacetIndex.MOUNTING_TYPE, mountingType);
+            putFilter(filters, CatalogFacetIndex.LIGHT_TRANSMITTANCE, lightTransmittance);
+            putFilter(filters, CatalogFacetIndex.CATEGORY, category);
+            putFilter(filters, CatalogFacetIndex.PRICE, price);
+            
+            long start = System.nanoTime();
+            CatalogFacetIndex.Result result = catalogFacetService.browse(
+                    filters, CatalogFacetIndex.SortOption.from(sort), page, size);
+            List<Product> content = result.content().stream()
+                    .map(this::toListView)
+                    .toList();
+            productStatsService.applyTo(content);
+            
+            ProductBrowseResponse response = ProductBrowseResponse.builder()
+                    .content(content)
+                    .page(page)
+                    .size(size)
+                    .totalElements(result.totalElements())
+                    .totalPages((result.totalElements() + size - 1) / size)
+                    .facets(result.facets())
+                    .tookMicros((System.nanoTime() - start) / 1_000)
+                    .build();
+            
+            return ResponseEntity.ok(DataResponseMessage.success("Ürünler getirildi", response));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(DataResponseMessage.error("Ürünler getirilemedi: " + e.getMessage()));
+        }
+    }
+    
+    private static void putFilter(Map<String, List<String>> filters, String facet, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            filters.put(facet, values);
+        }
+    }
+    
     /**
      * Ürünleri filtrele (renk, materyal, kullanım alanı, takma şekli)
      */
@@ -211,17 +319,15 @@ public class ProductController {
             HttpServletRequest request
     ) {
         try {
-            List<Product> products = productRepository.filterProducts(color, material, usageArea, mountingType);
-            
-            // Repository'den gelen ürünler zaten stokta olanlar olduğu için ek filtreleme gerekmez
-            // Görselleri optimize et ve istatistikleri ekle
-            List<Product> optimizedProducts = products.stream()
-                    .map(product -> {
-                        Product optimized = optimizeProductImages(product);
-                        enrichProductWithStatistics(optimized);
-                        return optimized;
-                    })
+            Map<String, List<String>> filters = new HashMap<>();
+            putFilter(filters, CatalogFacetIndex.COLOR, color != null ? List.of(color) : null);
+            putFilter(filters, CatalogFacetIndex.MATERIAL, material != null ? List.of(material) : null);
+            putFilter(filters, CatalogFacetIndex.USAGE_AREA, usageArea != null ? List.of(usageArea) : null);
+            putFilter(filters, CatalogFacetIndex.MOUNTING_TYPE, mountingType != null ? List.of(mountingType) : null);
+            List<Product> optimizedProducts = catalogFacetService.filter(filters).content().stream()
+                    .map(this::toListView)
                     .toList();
+            productStatsService.applyTo(optimizedProducts);
             
             auditLogService.logSimple("FILTER_PRODUCTS", "Product", null,
                     "Ürünler filtrelendi (Sonuç: " + optimizedProducts.size() + ")", request);
@@ -239,21 +345,14 @@ public class ProductController {
      * Öne çıkarılmış ürünleri getir
      */
     @GetMapping("/featured")
-    @Cacheable(value = "products", key = "'featured'")
     public ResponseEntity<DataResponseMessage<List<Product>>> getFeaturedProducts(
             HttpServletRequest request
     ) {
         try {
-            List<Product> products = productRepository.findByFeaturedTrueAndActiveTrueOrderBySortOrderAsc();
-            
-            List<Product> optimizedProducts = products.stream()
-                    .filter(product -> product.getQuantity() != null && product.getQuantity() > 0)
-                    .map(product -> {
-                        Product optimized = optimizeProductImages(product);
-                        enrichProductWithStatistics(optimized);
-                        return optimized;
-                    })
+            List<Product> optimizedProducts = catalogSnapshotService.current().featured().stream()
+                    .map(this::toListView)
                     .toList();
+            productStatsService.applyTo(optimizedProducts);
             
             return ResponseEntity.ok(DataResponseMessage.success("Öne çıkarılmış ürünler getirildi", optimizedProducts));
         } catch (Exception e) {
@@ -266,23 +365,16 @@ public class ProductController {
      * Yeni ürünleri getir
      */
     @GetMapping("/new")
-    @Cacheable(value = "products", key = "'new'")
     public ResponseEntity<DataResponseMessage<List<Product>>> getNewProducts(
             @RequestParam(required = false, defaultValue = "10") int limit,
             HttpServletRequest request
     ) {
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Product> products = productRepository.findByIsNewTrueAndActiveTrueOrderByCreatedAtDesc(pageable);
-            
-            List<Product> optimizedProducts = products.stream()
-                    .filter(product -> product.getQuantity() != null && product.getQuantity() > 0)
-                    .map(product -> {
-                        Product optimized = optimizeProductImages(product);
-                        enrichProductWithStatistics(optimized);
-                        return optimized;
-                    })
+            List<Product> optimizedProducts = catalogSnapshotService.current().newest().stream()
+                    .limit(Math.max(limit, 0))
+                    .map(this::toListView)
                     .toList();
+            productStatsService.applyTo(optimizedProducts);
             
             return ResponseEntity.ok(DataResponseMessage.success("Yeni ürünler getirildi", optimizedProducts));
         } catch (Exception e) {
@@ -295,21 +387,14 @@ public class ProductController {
      * İndirimli ürünleri getir
      */
     @GetMapping("/sale")
-    @Cacheable(value = "products", key = "'sale'")
     public ResponseEntity<DataResponseMessage<List<Product>>> getSaleProducts(
             HttpServletRequest request
     ) {
         try {
-            List<Product> products = productRepository.findByOnSaleTrueAndActiveTrueOrderBySortOrderAsc();
-            
-            List<Product> optimizedProducts = products.stream()
-                    .filter(product -> product.getQuantity() != null && product.getQuantity() > 0)
-                    .map(product -> {
-                        Product optimized = optimizeProductImages(product);
-                        enrichProductWithStatistics(optimized);
-                        return optimized;
-                    })
+            List<Product> optimizedProducts = catalogSnapshotService.current().onSale().stream()
+                    .map(this::toListView)
                     .toList();
+            productStatsService.applyTo(optimizedProducts);
             
             return ResponseEntity.ok(DataResponseMessage.success("İndirimli ürünler getirildi", optimizedProducts));
         } catch (Exception e) {
@@ -330,23 +415,12 @@ public class ProductController {
     ) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Product> productsPage = productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable);
+            Page<Product> categoryPage = createPageFromList(
+                    catalogSnapshotService.current().byCategory(categoryId), pageable);
             
-            // Repository'den gelen ürünler zaten stokta olanlar olduğu için ek filtreleme gerekmez
-            // Görselleri optimize et ve istatistikleri ekle
-            List<Product> optimizedProducts = productsPage.getContent().stream()
-                    .map(product -> {
-                        Product optimized = optimizeProductImages(product);
-                        enrichProductWithStatistics(optimized);
-                        return optimized;
-                    })
-                    .toList();
-            
-            Page<Product> finalPage = new org.springframework.data.domain.PageImpl<>(
-                    optimizedProducts,
-                    pageable,
-                    productsPage.getTotalElements()
-            );
+            // Görseller görüntü oluşturulurken optimize edildi, sadece istatistikleri ekle
+            Page<Product> finalPage = categoryPage.map(this::toListView);
+            productStatsService.applyTo(finalPage.getContent());
             
             return ResponseEntity.ok(DataResponseMessage.success("Kategori ürünleri getirildi", finalPage));
         } catch (Exception e) {
@@ -371,7 +445,7 @@ public class ProductController {
             }
             
             Product product = optimizeProductImages(productOpt.get());
-            enrichProductWithStatistics(product);
+            productStatsService.applyTo(product);
             
             return ResponseEntity.ok(DataResponseMessage.success("Ürün bulundu", product));
         } catch (Exception e) {
@@ -382,98 +456,43 @@ public class ProductController {
     
     /**
      * Ürün detayı getir (herkes erişebilir)
-     * Görüntüleme kaydı tutulur
-     * Cache kullanır - aynı ürün için tekrar veritabanı sorgusu yapmaz
+     * Okuma modeli (ürün + puan özeti + görsel varyantları) ProductDetailService üzerinden cache'lenir;
+     * ziyaretçi takibi ve görüntüleme kaydı cache'den bağımsız olarak her istekte asenkron çalışır.
      */
     @GetMapping("/{id}")
-    @Cacheable(value = "productDetails", key = "#id")
-    public ResponseEntity<DataResponseMessage<Product>> getProductById(
+    public ResponseEntity<DataResponseMessage<ProductDetailResponse>> getProductById(
             @PathVariable Long id,
             HttpServletRequest request,
             Authentication authentication
     ) {
-        // Sadece aktif ürünleri getir
-        Optional<Product> product = productRepository.findByIdAndActiveTrue(id);
-        if (product.isPresent()) {
-            Product productEntity = product.get();
-            
-            // Ziyaretçi takibi
-            AppUser appUser = resolveAppUser(authentication);
-            visitorTrackingService.trackVisitor(
-                    request,
-                    "/products/" + id,
-                    null,
-                    resolveVisitorType(appUser),
-                    appUser != null ? appUser.getId() : null,
-                    appUser != null ? appUser.getEmail() : null
-            );
-            
-            // Görüntüleme kaydı oluştur
-            try {
-                String ipAddress = getClientIpAddress(request);
-                String userAgent = request.getHeader("User-Agent");
-                
-                AppUser user = appUser != null ? userRepository.findByEmailIgnoreCase(appUser.getEmail()).orElse(null) : null;
-                
-                // Aynı IP'den son 1 saatte aynı ürüne yapılan görüntülemeleri kontrol et (spam önleme)
-                LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-                Long recentViews = productViewRepository.countByProductIdAndIpAddressSince(
-                    id, ipAddress, oneHourAgo
-                );
-                
-                // Son 1 saatte aynı IP'den 5'ten fazla görüntüleme yoksa kaydet
-                if (recentViews == null || recentViews < 5) {
-                    ProductView view = ProductView.builder()
-                            .product(productEntity)
-                            .user(user)
-                            .ipAddress(ipAddress)
-                            .userAgent(userAgent != null ? (userAgent.length() > 500 ? userAgent.substring(0, 500) : userAgent) : null)
-                            .viewedAt(LocalDateTime.now())
-                            .build();
-                    productViewRepository.save(view);
-                }
-            } catch (Exception e) {
-                // Görüntüleme kaydı hatası ürün getirme işlemini engellemez
-                // Loglama yapılabilir
-            }
-            
-            // Görsel URL'lerini optimize et ve istatistikleri ekle
-            Product optimizedProduct = optimizeProductImages(productEntity);
-            enrichProductWithStatistics(optimizedProduct);
-            
-            auditLogService.logSimple("GET_PRODUCT", "Product", id, 
-                    "Ürün detayı görüntülendi: " + productEntity.getName(), request);
-            
-            return ResponseEntity.ok(DataResponseMessage.success("Ürün başarıyla getirildi", optimizedProduct));
-        } else {
+        ProductDetailResponse detail = productDetailService.getProductDetail(id);
+        if (detail == null) {
             auditLogService.logError("GET_PRODUCT", "Product", id,
                     "Ürün bulunamadı", "Ürün bulunamadı", request);
             return ResponseEntity.notFound().build();
         }
-    }
-    
-    /**
-     * Client IP adresini al
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
-        }
         
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
+        // Ziyaretçi takibi ve görüntüleme kaydı (istek bilgileri bu thread'de alınır)
+        try {
+            AppUser appUser = resolveAppUser(authentication);
+            productViewTracker.trackProductView(
+                    id,
+                    visitorTrackingService.captureRequestInfo(request, null),
+                    resolveVisitorType(appUser),
+                    appUser != null ? appUser.getId() : null,
+                    appUser != null ? appUser.getEmail() : null
+            );
+        } catch (Exception e) {
+            // Takip hatası ürün getirme işlemini engellemez
         }
         
-        String xClientIp = request.getHeader("X-Client-IP");
-        if (xClientIp != null && !xClientIp.isEmpty() && !"unknown".equalsIgnoreCase(xClientIp)) {
-            return xClientIp;
-        }
+        auditLogService.logSimple("GET_PRODUCT", "Product", id, 
+                "Ürün detayı görüntülendi: " + detail.getProduct().getName(), request);
         
-        return request.getRemoteAddr();
+        return ResponseEntity.ok(DataResponseMessage.success("Ürün başarıyla getirildi",
+                productDetailService.withLiveViewCount(detail)));
     }
-
+    
     /**
      * Fiyat hesapla (width, height, pleatType, price ile)
      */
@@ -588,6 +607,15 @@ public class ProductController {
         return VisitorType.KULLANICI;
     }
     
+    /**
+     * Katalog görüntüsündeki ürünün istek bazlı kopyasını oluştur
+     * Görüntüdeki nesneler paylaşıldığı için doğrudan değiştirilmez;
+     * istatistikler liste için tek sorguda kopyaya eklenir.
+     */
+    private Product toListView(Product snapshotProduct) {
+        return snapshotProduct.toBuilder().build();
+    }
+    
     /**
      * Ürün görsel URL'lerini optimize eder (WebP, cache kullanır)
      * Cache mekanizması sayesinde aynı görsel için tekrar istek atmaz
@@ -621,35 +649,4 @@ public class ProductController {
         
         return product;
     }
-    
-    /**
-     * Ürün istatistiklerini ekle (yorum sayısı, ortalama puan, görüntüleme sayısı)
-     * 
-     * @param product Ürün entity'si
-     */
-    private void enrichProductWithStatistics(Product product) {
-        if (product == null || product.getId() == null) {
-            return;
-        }
-        
-        try {
-            // Yorum istatistikleri
-            Long reviewCount = productReviewRepository.countByProductIdAndActiveTrue(product.getId());
-            Double averageRating = productReviewRepository.calculateAverageRatingByProductId(product.getId());
-            
-            product.setReviewCount(reviewCount != null ? reviewCount : 0L);
-            product.setAverageRating(averageRating != null ? averageRating : 0.0);
-            
-            // Görüntüleme istatistikleri
-            Long viewCount = productViewRepository.countByProductId(product.getId());
-            product.setViewCount(viewCount != null ? viewCount : 0L);
-        } catch (Exception e) {
-            // İstatistik hesaplama hatası ürün döndürmeyi engellemez
-            // Varsayılan değerler
-            product.setReviewCount(0L);
-            product.setAverageRating(0.0);
-            product.setViewCount(0L);
-        }
-    }
 }
-
@@ -0,0 +1,84 @@
+package eticaret.demo.product;
+
+import eticaret.demo.cloudinary.MediaUploadService;
+import eticaret.demo.product.catalog.CatalogSnapshotService;
+import eticaret.demo.product.dto.ProductDetailResponse;
+import eticaret.demo.product.dto.ProductReviewPageResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Ürün detay okuma modeli servisi
+ * Sadece okuma yapar; ziyaretçi takibi ve görüntüleme kaydı ProductViewTracker'dadır.
+ * Sonuç "productDetails" cache'inde tutulur ve ürün/yorum event'lerinde temizlenir.
+ * Görüntüleme sayısı her istekte değiştiği için cache'e yazılmaz; withLiveViewCount ile eklenir.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductDetailService {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ProductStatsService productStatsService;
+    private final MediaUploadService mediaUploadService;
+
+    /**
+     * Aktif ürünün detayını getir (bulunamazsa null, null sonuç cache'lenmez)
+     */
+    @Cacheable(value = "productDetails", key = "#productId", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public ProductDetailResponse getProductDetail(Long productId) {
+        Product source = catalogSnapshotService.findActiveProduct(productId).orElse(null);
+        if (source == null) {
+            return null;
+        }
+
+        // Görüntüdeki nesne paylaşıldığı için kopya üzerinde çalış
+        Product product = source.toBuilder().build();
+        // Yorum özeti tek istatistik satırından okunur
+        ProductStats stats = productStatsService.getStats(productId);
+        ProductReviewPageResponse.ReviewSummary ratingSummary = buildRatingSummary(stats);
+
+        product.setReviewCount(ratingSummary.getTotalReviewCount());
+        product.setAverageRating(ratingSummary.getAverageRating());
+        product.setViewCount(null);
+
+        return ProductDetailResponse.builder()
+                .product(product)
+                .ratingSummary(ratingSummary)
+                .coverImageVariants(mediaUploadService.getResponsiveImageUrls(source.getCoverImageUrl()))
+                .detailImageVariants(mediaUploadService.getResponsiveImageUrls(source.getDetailImageUrl()))
+                .build();
+    }
+
+    /**
+     * Cache'lenmiş detayın güncel görüntüleme sayısıyla kopyası
+     * Cache'teki nesne paylaşıldığı için değiştirilmez.
+     */
+    public ProductDetailResponse withLiveViewCount(ProductDetailResponse detail) {
+        Product product = detail.getProduct().toBuilder()
+                .viewCount(productStatsService.getViewCount(detail.getProduct().getId()))
+                .build();
+        return detail.toBuilder().product(product).build();
+    }
+
+    private ProductReviewPageResponse.ReviewSummary buildRatingSummary(ProductStats stats) {
+        ProductReviewPageResponse.RatingBreakdown breakdown = ProductReviewPageResponse.RatingBreakdown.builder()
+                .fiveStars(stats.getRating5())
+                .fourStars(stats.getRating4())
+                .threeStars(stats.getRating3())
+                .twoStars(stats.getRating2())
+                .oneStar(stats.getRating1())
+                .build();
+
+        return ProductReviewPageResponse.ReviewSummary.builder()
+                .totalReviewCount(stats.getReviewCount())
+                .averageRating(stats.getRoundedAverageRating())
+                .imageReviewCount(stats.getImageReviewCount())
+                .breakdown(breakdown)
+                .build();
+    }
+}
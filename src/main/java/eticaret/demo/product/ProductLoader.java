@@ -0,0 +1,159 @@
+package eticaret.demo.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * ID listesinden ürünleri toplu yükleyen ortak bileşen
+ * - Bir ID koleksiyonu tek sorguda (findAllById) yüklenir, sonuç istek sırasını koruyan map olarak döner
+ * - HTTP isteği içinde sonuçlar istek boyunca hatırlanır (aynı ürün ikinci kez sorgulanmaz)
+ * - Zamanlanmış görevler openScope() ile kendi hatırlama kapsamını açar
+ * Döngü içinde findById çağırmak yerine bu bileşen kullanılmalıdır.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductLoader {
+
+    private static final String REQUEST_ATTRIBUTE = ProductLoader.class.getName() + ".memo";
+    private static final ThreadLocal<Memo> SCOPE = new ThreadLocal<>();
+
+    private final ProductRepository productRepository;
+
+    /**
+     * Mevcut thread için hatırlama kapsamı aç (zamanlanmış görevler için)
+     * İç içe açılan kapsamlar dıştakini kullanır; try-with-resources ile kapatılmalıdır.
+     */
+    public Scope openScope() {
+        if (SCOPE.get() != null) {
+            return () -> { };
+        }
+        SCOPE.set(new Memo());
+        return SCOPE::remove;
+    }
+
+    /**
+     * Ürünleri tek sorguda yükle
+     *
+     * @return verilen ID sırasıyla ürünler; bulunamayan ID'ler map'te yer almaz
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Product> loadAll(Collection<Long> productIds) {
+        Map<Long, Product> result = new LinkedHashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return result;
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        ids.remove(null);
+
+        Memo memo = currentMemo();
+        Map<Long, Product> known = memo != null ? memo.products : new HashMap<>();
+
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (!known.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findAllById(missing)) {
+                known.put(product.getId(), product);
+            }
+            // Bulunamayanları da hatırla (tekrar sorgulanmasın)
+            for (Long id : missing) {
+                known.putIfAbsent(id, null);
+            }
+        }
+
+        for (Long id : ids) {
+            Product product = known.get(id);
+            if (product != null) {
+                result.put(id, product);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tek ürün yükle (istek kapsamında hatırlanır)
+     */
+    @Transactional(readOnly = true)
+    public Optional<Product> load(Long productId) {
+        if (productId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(loadAll(List.of(productId)).get(productId));
+    }
+
+    /**
+     * Tek aktif ürün yükle (istek kapsamında hatırlanır)
+     */
+    @Transactional(readOnly = true)
+    public Optional<Product> loadActive(Long productId) {
+        return load(productId).filter(product -> Boolean.TRUE.equals(product.getActive()));
+    }
+
+    /**
+     * Tüm aktif ürünler (kapsam içinde bir kez sorgulanır)
+     * Dönen liste değiştirilemez; karıştırma/sıralama için kopyalanmalıdır.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> loadAllActive() {
+        Memo memo = currentMemo();
+        if (memo != null && memo.activeProducts != null) {
+            return memo.activeProducts;
+        }
+        List<Product> products = List.copyOf(productRepository.findByActiveTrue());
+        if (memo != null) {
+            memo.activeProducts = products;
+            for (Product product : products) {
+                memo.products.putIfAbsent(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
+    private Memo currentMemo() {
+        Memo memo = SCOPE.get();
+        if (memo != null) {
+            return memo;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        memo = (Memo) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new Memo();
+            attributes.setAttribute(REQUEST_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+
+    /**
+     * Hatırlama kapsamı (kapatılınca hatırlanan ürünler bırakılır)
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Memo {
+        private final Map<Long, Product> products = new HashMap<>();
+        private List<Product> activeProducts;
+    }
+}
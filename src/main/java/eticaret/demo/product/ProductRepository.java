@@ -162,22 +162,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
            "LOWER(p.shortDescription) LIKE LOWER(CONCAT('%', :keyword, '%')))")
     Page<Product> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
-    /**
-     * Renk, materyal, kullanım alanı gibi özelliklere göre filtreleme - sadece stokta olanlar
-     */
-    @EntityGraph(attributePaths = {"category"})
-    @Query("SELECT p FROM Product p WHERE p.active = true AND p.quantity > 0 " +
-           "AND (:color IS NULL OR LOWER(p.color) = LOWER(:color)) " +
-           "AND (:material IS NULL OR LOWER(p.material) = LOWER(:material)) " +
-           "AND (:usageArea IS NULL OR LOWER(p.usageArea) LIKE LOWER(CONCAT('%', :usageArea, '%'))) " +
-           "AND (:mountingType IS NULL OR LOWER(p.mountingType) = LOWER(:mountingType))")
-    List<Product> filterProducts(
-            @Param("color") String color,
-            @Param("material") String material,
-            @Param("usageArea") String usageArea,
-            @Param("mountingType") String mountingType
-    );
-    
     /**
      * Fiyata göre sıralama (artan) - sadece stokta olanlar
      */
@@ -227,4 +211,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @Query("SELECT COUNT(p) FROM Product p WHERE p.active = true AND p.quantity > 0 AND p.quantity < 10")
     long countLowStockProducts();
+    
+    /**
+     * Tüm ürün ID'leri (istatistik uzlaştırması için, entity yüklemeden)
+     */
+    @Query("SELECT p.id FROM Product p ORDER BY p.id")
+    List<Long> findAllIds();
 }
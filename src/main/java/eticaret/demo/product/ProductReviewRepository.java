@@ -73,6 +73,20 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
     @Query("SELECT r.rating AS rating, COUNT(r) AS ratingCount FROM ProductReview r WHERE r.product.id = :productId AND r.active = true GROUP BY r.rating")
     List<Object[]> countByRatingBuckets(Long productId);
 
+    /**
+     * Tüm ürünler için puan dağılımı (istatistik uzlaştırması için)
+     * Satır: [productId, rating, count]
+     */
+    @Query("SELECT r.product.id, r.rating, COUNT(r) FROM ProductReview r WHERE r.active = true GROUP BY r.product.id, r.rating")
+    List<Object[]> countRatingBucketsGroupByProduct();
+
+    /**
+     * Tüm ürünler için fotoğraflı yorum sayısı (istatistik uzlaştırması için)
+     * Satır: [productId, count]
+     */
+    @Query("SELECT r.product.id, COUNT(r) FROM ProductReview r WHERE r.active = true AND size(r.imageUrls) > 0 GROUP BY r.product.id")
+    List<Object[]> countActiveWithImagesGroupByProduct();
+
     /**
      * Kullanıcının tüm yorumlarını getir
      * JOIN FETCH ile lazy loading proxy hatasını önler
@@ -0,0 +1,113 @@
+package eticaret.demo.product;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Ürün istatistikleri okuma modeli (ürün başına tek satır)
+ * Görüntüleme ve yorum event'leriyle artımlı güncellenir, periyodik olarak kaynak tablolardan uzlaştırılır.
+ * Sıralama ve zenginleştirme kodu COUNT/AVG sorguları yerine bu satırı okur.
+ */
+@Entity
+@Table(name = "product_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStats {
+
+    /**
+     * Ürün ID (products tablosuna bire bir)
+     */
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "view_count", nullable = false)
+    @Builder.Default
+    private Long viewCount = 0L;
+
+    /**
+     * Aktif yorum sayısı
+     */
+    @Column(name = "review_count", nullable = false)
+    @Builder.Default
+    private Long reviewCount = 0L;
+
+    /**
+     * Fotoğraflı aktif yorum sayısı
+     */
+    @Column(name = "image_review_count", nullable = false)
+    @Builder.Default
+    private Long imageReviewCount = 0L;
+
+    /**
+     * Aktif yorumların puan toplamı (ortalama = toplam / yorum sayısı)
+     */
+    @Column(name = "rating_sum", nullable = false)
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    /**
+     * Puan histogramı (1-5 yıldız)
+     */
+    @Column(name = "rating_1", nullable = false)
+    @Builder.Default
+    private Long rating1 = 0L;
+
+    @Column(name = "rating_2", nullable = false)
+    @Builder.Default
+    private Long rating2 = 0L;
+
+    @Column(name = "rating_3", nullable = false)
+    @Builder.Default
+    private Long rating3 = 0L;
+
+    @Column(name = "rating_4", nullable = false)
+    @Builder.Default
+    private Long rating4 = 0L;
+
+    @Column(name = "rating_5", nullable = false)
+    @Builder.Default
+    private Long rating5 = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Boş istatistik (henüz satırı olmayan ürünler için)
+     */
+    public static ProductStats empty(Long productId) {
+        return ProductStats.builder().productId(productId).build();
+    }
+
+    /**
+     * Ortalama puan (yorum yoksa 0.0)
+     */
+    public double getAverageRating() {
+        if (reviewCount == null || reviewCount == 0 || ratingSum == null) {
+            return 0.0;
+        }
+        return (double) ratingSum / reviewCount;
+    }
+
+    /**
+     * Tek ondalığa yuvarlanmış ortalama puan (gösterim için)
+     */
+    public double getRoundedAverageRating() {
+        return BigDecimal.valueOf(getAverageRating()).setScale(1, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onSave() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,13 @@
+package eticaret.demo.product;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ProductStatsRepository extends JpaRepository<ProductStats, Long> {
+
+    @Query("SELECT s.viewCount FROM ProductStats s WHERE s.productId = :productId")
+    Optional<Long> findViewCount(@Param("productId") Long productId);
+}
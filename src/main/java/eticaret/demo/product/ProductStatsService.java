@@ -0,0 +1,313 @@
+package eticaret.demo.product;
+
+import eticaret.demo.product.event.ReviewChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Ürün istatistikleri (product_stats) okuma modeli servisi
+ * - Görüntüleme sayıları, görüntüleme batch'i yazılırken aynı transaction içinde artırılır
+ * - Yorum istatistikleri (sayı, puan toplamı, histogram) yorum event'lerinde ürün bazında yeniden hesaplanır
+ * - Her gece kaynak tablolardan tam uzlaştırma yapılır (sadece kaymış satırlar yazılır)
+ *   Görüntüleme artışları paylaşımlı, uzlaştırma özel advisory lock alır; böylece uzlaştırmanın
+ *   yazdığı mutlak view_count, sayım ile yazma arasında commit edilen bir artışı ezemez.
+ * Okuyucular ürün başına tek satır okur; liste için tek sorgu (findAllById) yeterlidir.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductStatsService {
+
+    private static final long VIEW_COUNT_LOCK_KEY = 0x5053544154L;
+
+    private static final String UPSERT_VIEWS_SQL =
+            "INSERT INTO product_stats (product_id, view_count, review_count, image_review_count, rating_sum, " +
+            "rating_1, rating_2, rating_3, rating_4, rating_5, updated_at) " +
+            "VALUES (?, ?, 0, 0, 0, 0, 0, 0, 0, 0, ?) " +
+            "ON CONFLICT (product_id) DO UPDATE SET view_count = product_stats.view_count + EXCLUDED.view_count, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    /**
+     * Yorum kolonlarını yazar, view_count'a dokunmaz (eşzamanlı görüntüleme artışlarını ezmemek için)
+     */
+    private static final String UPSERT_REVIEWS_SQL =
+            "INSERT INTO product_stats (product_id, view_count, review_count, image_review_count, rating_sum, " +
+            "rating_1, rating_2, rating_3, rating_4, rating_5, updated_at) " +
+            "VALUES (?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (product_id) DO UPDATE SET review_count = EXCLUDED.review_count, " +
+            "image_review_count = EXCLUDED.image_review_count, rating_sum = EXCLUDED.rating_sum, " +
+            "rating_1 = EXCLUDED.rating_1, rating_2 = EXCLUDED.rating_2, rating_3 = EXCLUDED.rating_3, " +
+            "rating_4 = EXCLUDED.rating_4, rating_5 = EXCLUDED.rating_5, updated_at = EXCLUDED.updated_at";
+
+    private static final String UPSERT_ALL_SQL =
+            "INSERT INTO product_stats (product_id, view_count, review_count, image_review_count, rating_sum, " +
+            "rating_1, rating_2, rating_3, rating_4, rating_5, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (product_id) DO UPDATE SET view_count = EXCLUDED.view_count, " +
+            "review_count = EXCLUDED.review_count, image_review_count = EXCLUDED.image_review_count, " +
+            "rating_sum = EXCLUDED.rating_sum, rating_1 = EXCLUDED.rating_1, rating_2 = EXCLUDED.rating_2, " +
+            "rating_3 = EXCLUDED.rating_3, rating_4 = EXCLUDED.rating_4, rating_5 = EXCLUDED.rating_5, " +
+            "updated_at = EXCLUDED.updated_at " +
+            "WHERE (product_stats.view_count, product_stats.review_count, product_stats.image_review_count, " +
+            "product_stats.rating_sum, product_stats.rating_1, product_stats.rating_2, product_stats.rating_3, " +
+            "product_stats.rating_4, product_stats.rating_5) IS DISTINCT FROM (EXCLUDED.view_count, " +
+            "EXCLUDED.review_count, EXCLUDED.image_review_count, EXCLUDED.rating_sum, EXCLUDED.rating_1, " +
+            "EXCLUDED.rating_2, EXCLUDED.rating_3, EXCLUDED.rating_4, EXCLUDED.rating_5)";
+
+    private final ProductStatsRepository productStatsRepository;
+    private final ProductReviewRepository productReviewRepository;
+    private final ProductViewRepository productViewRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Tek ürünün istatistikleri (satır yoksa sıfır değerli nesne)
+     */
+    @Transactional(readOnly = true)
+    public ProductStats getStats(Long productId) {
+        if (productId == null) {
+            return ProductStats.empty(null);
+        }
+        return productStatsRepository.findById(productId).orElseGet(() -> ProductStats.empty(productId));
+    }
+
+    /**
+     * Tek ürünün güncel görüntüleme sayısı (satır yoksa 0)
+     * Detay cache'i görüntüleme sayısı taşımaz; bu değer her istekte üzerine yazılır.
+     */
+    @Transactional(readOnly = true)
+    public long getViewCount(Long productId) {
+        if (productId == null) {
+            return 0L;
+        }
+        return productStatsRepository.findViewCount(productId).orElse(0L);
+    }
+
+    /**
+     * Birden çok ürünün istatistikleri tek sorguda
+     * Dönen map her ID için bir değer içerir (satırı olmayanlar sıfır değerli).
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ProductStats> getStats(Collection<Long> productIds) {
+        Map<Long, ProductStats> result = new HashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return result;
+        }
+        Set<Long> ids = new HashSet<>(productIds);
+        ids.remove(null);
+        for (ProductStats stats : productStatsRepository.findAllById(ids)) {
+            result.put(stats.getProductId(), stats);
+        }
+        for (Long id : ids) {
+            result.computeIfAbsent(id, ProductStats::empty);
+        }
+        return result;
+    }
+
+    /**
+     * Ürünlerin transient istatistik alanlarını (yorum sayısı, ortalama puan, görüntüleme) tek sorguda doldur
+     * Hata durumunda varsayılan değerler atanır, ürün döndürme engellenmez.
+     */
+    public void applyTo(Collection<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return;
+        }
+        Map<Long, ProductStats> statsById;
+        try {
+            statsById = getStats(products.stream().map(Product::getId).filter(Objects::nonNull).toList());
+        } catch (Exception e) {
+            log.warn("Ürün istatistikleri okunamadı: {}", e.getMessage());
+            statsById = Collections.emptyMap();
+        }
+        for (Product product : products) {
+            ProductStats stats = product.getId() != null ? statsById.get(product.getId()) : null;
+            apply(product, stats != null ? stats : ProductStats.empty(product.getId()));
+        }
+    }
+
+    /**
+     * Tek ürün için istatistik alanlarını doldur
+     */
+    public void applyTo(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        applyTo(List.of(product));
+    }
+
+    private void apply(Product product, ProductStats stats) {
+        product.setReviewCount(stats.getReviewCount());
+        product.setAverageRating(stats.getAverageRating());
+        product.setViewCount(stats.getViewCount());
+    }
+
+    /**
+     * Görüntüleme sayılarını artır (ürün başına toplanmış delta)
+     * Çağıranın transaction'ı içinde çalışır; görüntüleme batch'i ile birlikte commit edilir.
+     */
+    public void incrementViews(Map<Long, Long> deltas) {
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock_shared(?)", rs -> null, VIEW_COUNT_LOCK_KEY);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(deltas.entrySet());
+        // Sabit sıra: eşzamanlı batch'ler arasında satır kilidi deadlock'unu önler
+        entries.sort(Map.Entry.comparingByKey());
+        jdbcTemplate.batchUpdate(UPSERT_VIEWS_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey());
+            ps.setLong(2, entry.getValue());
+            ps.setTimestamp(3, now);
+        });
+    }
+
+    /**
+     * Yorum değişikliği commit edildikten sonra ürünün yorum istatistiklerini yeniden hesapla
+     * Cache temizleme listener'ından önce çalışır; böylece temizlenen detay cache'i yeni istatistikle dolar.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        if (event.productId() == null) {
+            return;
+        }
+        try {
+            recomputeReviewStats(event.productId());
+        } catch (Exception e) {
+            // Gece uzlaştırması kaymayı düzeltir
+            log.error("Ürün {} yorum istatistikleri güncellenirken hata: {}", event.productId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tek ürünün yorum istatistiklerini kaynak tablodan yeniden hesapla (2 sorgu + 1 upsert)
+     */
+    @Transactional
+    public void recomputeReviewStats(Long productId) {
+        long[] histogram = new long[6];
+        List<Object[]> buckets = productReviewRepository.countByRatingBuckets(productId);
+        if (buckets != null) {
+            for (Object[] row : buckets) {
+                if (row != null && row.length == 2 && row[0] != null && row[1] != null) {
+                    addToHistogram(histogram, ((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+                }
+            }
+        }
+        Long imageReviewCount = productReviewRepository.countActiveWithImages(productId);
+
+        ReviewAggregate aggregate = ReviewAggregate.of(histogram, imageReviewCount != null ? imageReviewCount : 0L);
+        jdbcTemplate.update(UPSERT_REVIEWS_SQL, productId, aggregate.reviewCount(), aggregate.imageReviewCount(),
+                aggregate.ratingSum(), histogram[1], histogram[2], histogram[3], histogram[4], histogram[5],
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * İstatistik tablosu boşsa (ilk kurulum) uygulama açılışında doldur
+     * reconcile kendi transaction'ını açtığı için proxy dışından çağrılması sorun değildir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            if (productStatsRepository.count() == 0) {
+                log.info("Ürün istatistik tablosu boş, ilk doldurma yapılıyor");
+                reconcile();
+            }
+        } catch (Exception e) {
+            log.error("Ürün istatistikleri ilk doldurma sırasında hata: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tüm ürünlerin istatistiklerini kaynak tablolardan yeniden hesapla (3 gruplu sorgu + batch upsert)
+     * Varsayılan: Her gün saat 04:00
+     */
+    @Scheduled(cron = "${product.stats.reconcile-cron:0 0 4 * * ?}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        Integer productCount = transactionTemplate.execute(status -> reconcileInTransaction());
+        log.info("Ürün istatistikleri uzlaştırıldı: {} ürün, {} ms", productCount, System.currentTimeMillis() - start);
+    }
+
+    private int reconcileInTransaction() {
+        // Sayım ile yazma arasında görüntüleme artışı commit edilemesin
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, VIEW_COUNT_LOCK_KEY);
+
+        Map<Long, Long> viewCounts = new HashMap<>();
+        for (Object[] row : productViewRepository.findMostViewedProducts()) {
+            if (row != null && row[0] != null && row[1] != null) {
+                viewCounts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+        }
+
+        Map<Long, long[]> histograms = new HashMap<>();
+        for (Object[] row : productReviewRepository.countRatingBucketsGroupByProduct()) {
+            if (row != null && row[0] != null && row[1] != null && row[2] != null) {
+                long[] histogram = histograms.computeIfAbsent(((Number) row[0]).longValue(), k -> new long[6]);
+                addToHistogram(histogram, ((Number) row[1]).intValue(), ((Number) row[2]).longValue());
+            }
+        }
+
+        Map<Long, Long> imageCounts = new HashMap<>();
+        for (Object[] row : productReviewRepository.countActiveWithImagesGroupByProduct()) {
+            if (row != null && row[0] != null && row[1] != null) {
+                imageCounts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+        }
+
+        // Hiç görüntüleme/yorumu olmayan ürünler de sıfır satırıyla yazılır
+        List<Long> ids = productRepository.findAllIds();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_ALL_SQL, ids, 500, (ps, productId) -> {
+            long[] histogram = histograms.getOrDefault(productId, new long[6]);
+            ReviewAggregate aggregate = ReviewAggregate.of(histogram, imageCounts.getOrDefault(productId, 0L));
+            ps.setLong(1, productId);
+            ps.setLong(2, viewCounts.getOrDefault(productId, 0L));
+            ps.setLong(3, aggregate.reviewCount());
+            ps.setLong(4, aggregate.imageReviewCount());
+            ps.setLong(5, aggregate.ratingSum());
+            ps.setLong(6, histogram[1]);
+            ps.setLong(7, histogram[2]);
+            ps.setLong(8, histogram[3]);
+            ps.setLong(9, histogram[4]);
+            ps.setLong(10, histogram[5]);
+            ps.setTimestamp(11, now);
+        });
+        return ids.size();
+    }
+
+    private static void addToHistogram(long[] histogram, int rating, long count) {
+        if (rating >= 1 && rating <= 5) {
+            histogram[rating] += count;
+        }
+    }
+
+    private record ReviewAggregate(long reviewCount, long ratingSum, long imageReviewCount) {
+        static ReviewAggregate of(long[] histogram, long imageReviewCount) {
+            long count = 0;
+            long sum = 0;
+            for (int rating = 1; rating <= 5; rating++) {
+                count += histogram[rating];
+                sum += histogram[rating] * rating;
+            }
+            return new ReviewAggregate(count, sum, imageReviewCount);
+        }
+    }
+}
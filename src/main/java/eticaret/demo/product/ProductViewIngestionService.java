@@ -0,0 +1,287 @@
+package eticaret.demo.product;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import eticaret.demo.visitor.UserAgentClassifier;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ürün görüntüleme kayıtlarını toplu (batch) olarak yazan servis
+ * - Görüntülemeler sınırlı kapasiteli bir kuyruğa alınır (istek thread'i DB'ye gitmez)
+ * - Aynı IP'den aynı ürüne gelen görüntülemeler bellekteki kayan pencere ile sınırlanır (COUNT sorgusu yok)
+ * - Kuyruk her N ms'de bir veya M kayda ulaşınca JDBC batch insert ile boşaltılır
+ * - Kuyruk doluysa yeni kayıt düşürülür ve sayılır (back-pressure), uygulama kapanırken kuyruk boşaltılır
+ * - product_stats görüntüleme sayaçları aynı transaction içinde ürün başına toplanarak artırılır
+ */
+@Service
+@Slf4j
+public class ProductViewIngestionService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product_views (product_id, user_id, ip_address, user_agent, viewed_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor taskExecutor;
+    private final ProductStatsService productStatsService;
+
+    private final int batchSize;
+    private final int maxViewsPerWindow;
+    private final Duration dedupWindow;
+
+    private final BlockingQueue<PendingView> queue;
+    private final Cache<String, ViewWindow> recentViews;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong deduplicatedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong lastFlushDurationMs = new AtomicLong();
+    private volatile LocalDateTime lastFlushAt;
+
+    public ProductViewIngestionService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("taskExecutor") Executor taskExecutor,
+            ProductStatsService productStatsService,
+            @Value("${product.views.queue-capacity:20000}") int queueCapacity,
+            @Value("${product.views.batch-size:500}") int batchSize,
+            @Value("${product.views.dedup.max-per-window:5}") int maxViewsPerWindow,
+            @Value("${product.views.dedup.window-minutes:60}") long dedupWindowMinutes,
+            @Value("${product.views.dedup.max-keys:200000}") long dedupMaxKeys
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.productStatsService = productStatsService;
+        this.batchSize = batchSize;
+        this.maxViewsPerWindow = maxViewsPerWindow;
+        this.dedupWindow = Duration.ofMinutes(dedupWindowMinutes);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.recentViews = Caffeine.newBuilder()
+                .maximumSize(dedupMaxKeys)
+                .expireAfterAccess(dedupWindow)
+                .build();
+    }
+
+    /**
+     * Görüntülemeyi kuyruğa al (bloklamaz)
+     *
+     * @return kayıt kuyruğa alındıysa true; spam penceresine takıldıysa veya kuyruk doluysa false
+     */
+    public boolean record(Long productId, Long userId, String ipAddress, String userAgent) {
+        if (productId == null) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        ViewWindow window = recentViews.get(productId + "|" + ipAddress, key -> new ViewWindow(maxViewsPerWindow));
+        if (!window.tryAcquire(now, dedupWindow.toMillis())) {
+            deduplicatedCount.incrementAndGet();
+            return false;
+        }
+
+        PendingView view = new PendingView(
+                productId,
+                userId,
+                ipAddress,
+                UserAgentClassifier.truncate(userAgent),
+                LocalDateTime.now()
+        );
+        if (!queue.offer(view)) {
+            droppedCount.incrementAndGet();
+            log.warn("Ürün görüntüleme kuyruğu dolu, kayıt düşürüldü - productId: {}", productId);
+            return false;
+        }
+        acceptedCount.incrementAndGet();
+
+        // Batch boyutuna ulaşıldıysa zamanlayıcıyı beklemeden boşalt
+        if (queue.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                taskExecutor.execute(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                });
+            } catch (Exception e) {
+                flushScheduled.set(false);
+                log.warn("Görüntüleme kuyruğu boşaltma görevi başlatılamadı: {}", e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Kuyruğu periyodik olarak boşalt
+     * Varsayılan: 2 saniyede bir
+     */
+    @Scheduled(fixedDelayString = "${product.views.flush-interval-ms:2000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            // Başka bir thread zaten boşaltıyor
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            List<PendingView> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            }
+            lastFlushDurationMs.set(System.currentTimeMillis() - start);
+            lastFlushAt = LocalDateTime.now();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Uygulama kapanırken kuyrukta kalan kayıtları yaz
+     */
+    @PreDestroy
+    public void drainOnShutdown() {
+        log.info("Ürün görüntüleme kuyruğu kapanışta boşaltılıyor: {} kayıt", queue.size());
+        flushLock.lock();
+        try {
+            List<PendingView> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeBatch(List<PendingView> batch) {
+        try {
+            Map<Long, Long> viewDeltas = new HashMap<>();
+            for (PendingView view : batch) {
+                viewDeltas.merge(view.productId(), 1L, Long::sum);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(),
+                        (ps, view) -> {
+                            ps.setLong(1, view.productId());
+                            if (view.userId() != null) {
+                                ps.setLong(2, view.userId());
+                            } else {
+                                ps.setNull(2, Types.BIGINT);
+                            }
+                            ps.setString(3, view.ipAddress());
+                            ps.setString(4, view.userAgent());
+                            ps.setTimestamp(5, Timestamp.valueOf(view.viewedAt()));
+                        });
+                productStatsService.incrementViews(viewDeltas);
+            });
+            writtenCount.addAndGet(batch.size());
+        } catch (Exception e) {
+            // Batch içinde silinmiş bir ürün vb. varsa kayıtları tek tek dene
+            log.warn("Görüntüleme batch'i yazılamadı ({} kayıt), tek tek deneniyor: {}", batch.size(), e.getMessage());
+            for (PendingView view : batch) {
+                writeSingle(view);
+            }
+        }
+    }
+
+    private void writeSingle(PendingView view) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(INSERT_SQL,
+                        view.productId(), view.userId(), view.ipAddress(), view.userAgent(),
+                        Timestamp.valueOf(view.viewedAt()));
+                productStatsService.incrementViews(Map.of(view.productId(), 1L));
+            });
+            writtenCount.incrementAndGet();
+        } catch (Exception e) {
+            failedCount.incrementAndGet();
+            log.debug("Görüntüleme kaydı yazılamadı - productId: {}, hata: {}", view.productId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Kuyruk ve yazma istatistikleri (admin izleme için)
+     */
+    public IngestionStats getStats() {
+        return IngestionStats.builder()
+                .queueDepth(queue.size())
+                .queueRemainingCapacity(queue.remainingCapacity())
+                .accepted(acceptedCount.get())
+                .deduplicated(deduplicatedCount.get())
+                .dropped(droppedCount.get())
+                .written(writtenCount.get())
+                .failed(failedCount.get())
+                .trackedKeys(recentViews.estimatedSize())
+                .lastFlushDurationMs(lastFlushDurationMs.get())
+                .lastFlushAt(lastFlushAt)
+                .build();
+    }
+
+    private record PendingView(Long productId, Long userId, String ipAddress, String userAgent,
+                               LocalDateTime viewedAt) {
+    }
+
+    /**
+     * (ürün, IP) başına kayan pencere: son N görüntülemenin zamanlarını halka dizide tutar
+     */
+    private static final class ViewWindow {
+        private final long[] timestamps;
+        private int next;
+
+        ViewWindow(int capacity) {
+            this.timestamps = new long[Math.max(1, capacity)];
+        }
+
+        synchronized boolean tryAcquire(long now, long windowMillis) {
+            // En eski kayıt pencere içindeyse limit dolmuş demektir
+            if (timestamps[next] != 0 && now - timestamps[next] < windowMillis) {
+                return false;
+            }
+            timestamps[next] = now;
+            next = (next + 1) % timestamps.length;
+            return true;
+        }
+    }
+
+    @Data
+    @Builder
+    public static class IngestionStats {
+        private int queueDepth;
+        private int queueRemainingCapacity;
+        private long accepted;
+        private long deduplicated;
+        private long dropped;
+        private long written;
+        private long failed;
+        private long trackedKeys;
+        private long lastFlushDurationMs;
+        private LocalDateTime lastFlushAt;
+    }
+}
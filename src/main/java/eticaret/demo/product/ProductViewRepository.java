@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ProductViewRepository extends JpaRepository<ProductView, Long> {
     /**
@@ -31,6 +32,12 @@ public interface ProductViewRepository extends JpaRepository<ProductView, Long>
     @Query("SELECT v.product.id, COUNT(v) as viewCount FROM ProductView v GROUP BY v.product.id ORDER BY COUNT(v) DESC")
     List<Object[]> findMostViewedProducts();
 
+    /**
+     * Belirli bir tarihten beri en çok görüntülenen ürünler
+     */
+    @Query("SELECT v.product.id, COUNT(v) as viewCount FROM ProductView v WHERE v.viewedAt >= :since GROUP BY v.product.id ORDER BY COUNT(v) DESC")
+    List<Object[]> findMostViewedProductsSince(LocalDateTime since);
+
     /**
      * Kullanıcının belirli bir ürünü görüntüleyip görüntülemediğini kontrol et
      */
@@ -82,5 +89,13 @@ public interface ProductViewRepository extends JpaRepository<ProductView, Long>
            "GROUP BY v2.product.id " +
            "ORDER BY userCount DESC")
     List<Object[]> findSimilarProductsByUserViews(Long productId);
-}
 
+    /**
+     * Giriş yapmış kullanıcıların görüntülediği (kullanıcı, ürün) çiftleri kullanıcı ID'sine göre sıralı
+     * Ürün komşuluk indeksi oluşturulurken akış (stream) olarak okunur; transaction içinde kullanılmalıdır.
+     */
+    @Query("SELECT DISTINCT v.user.id, v.product.id FROM ProductView v " +
+           "WHERE v.user.id IS NOT NULL " +
+           "ORDER BY v.user.id")
+    Stream<Object[]> streamUserProductPairs();
+}
@@ -0,0 +1,42 @@
+package eticaret.demo.product;
+
+import eticaret.demo.visitor.UserAgentClassifier;
+import eticaret.demo.visitor.VisitRequestInfo;
+import eticaret.demo.visitor.VisitorTrackingService;
+import eticaret.demo.visitor.VisitorType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ürün görüntüleme takibi (fire-and-forget)
+ * Ürün detayı cache'den dönse bile her istekte çalışır; istek thread'ini bekletmez.
+ * İstek bilgileri (IP, User-Agent, session) çağıran tarafından önceden alınmalıdır.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductViewTracker {
+
+    private final VisitorTrackingService visitorTrackingService;
+    private final ProductViewIngestionService productViewIngestionService;
+    private final UserAgentClassifier userAgentClassifier;
+
+    /**
+     * Ziyaretçi takibi ve ürün görüntüleme kaydı
+     */
+    @Async("taskExecutor")
+    public void trackProductView(Long productId, VisitRequestInfo requestInfo,
+                                 VisitorType visitorType, Long userId, String userEmail) {
+        visitorTrackingService.trackVisitor(requestInfo, "/products/" + productId, visitorType, userId, userEmail);
+
+        // Bot/crawler istekleri görüntülenme sayılarını şişirmesin
+        if (userAgentClassifier.classify(requestInfo.userAgent()).bot()) {
+            return;
+        }
+
+        // Görüntüleme kaydı toplu yazma kuyruğuna alınır (spam penceresi bellekte kontrol edilir)
+        productViewIngestionService.record(productId, userId, requestInfo.ipAddress(), requestInfo.userAgent());
+    }
+}
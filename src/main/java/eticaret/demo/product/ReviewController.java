@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import eticaret.demo.product.event.CatalogEventPublisher;
 
 /**
  * Kullanıcılar için yorum endpoint'leri
@@ -47,6 +48,7 @@ public class ReviewController {
     private final MediaUploadService mediaUploadService;
     private final OrderRepository orderRepository;
     private final ReviewService reviewService;
+    private final CatalogEventPublisher catalogEventPublisher;
 
     /**
      * Authentication'dan AppUser'ı al
@@ -235,6 +237,7 @@ public class ReviewController {
             }
 
             ProductReview updated = reviewRepository.save(review);
+            catalogEventPublisher.reviewChanged(review.getProduct().getId(), updated.getId());
             return ResponseEntity.ok(DataResponseMessage.success("Yorum başarıyla güncellendi.", updated));
 
         } catch (Exception e) {
@@ -275,6 +278,7 @@ public class ReviewController {
             // Soft delete
             review.setActive(false);
             reviewRepository.save(review);
+            catalogEventPublisher.reviewChanged(review.getProduct().getId(), review.getId());
 
             return ResponseEntity.ok(new DataResponseMessage<>("Yorum başarıyla silindi.", true, null));
 
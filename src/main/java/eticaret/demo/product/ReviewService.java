@@ -16,6 +16,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import eticaret.demo.product.event.CatalogEventPublisher;
 
 /**
  * Yorum işlemleri için servis
@@ -31,6 +32,7 @@ public class ReviewService {
     private final OrderRepository orderRepository;
     private final MediaUploadService mediaUploadService;
     private final AppUserRepository appUserRepository;
+    private final CatalogEventPublisher catalogEventPublisher;
 
 
     /**
@@ -122,6 +124,7 @@ public class ReviewService {
                     .build();
 
             ProductReview saved = reviewRepository.save(review);
+            catalogEventPublisher.reviewChanged(productId, saved.getId());
             log.info("Asenkron yorum oluşturma tamamlandı - reviewId: {}, productId: {}, userId: {}", 
                     saved.getId(), productId, user.getId());
 
@@ -0,0 +1,276 @@
+package eticaret.demo.product.catalog;
+
+import eticaret.demo.product.Product;
+import eticaret.demo.product.dto.FacetCount;
+import eticaret.demo.product.search.TurkishTextAnalyzer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Katalog görüntüsü üzerinde facet (özellik) indeksi
+ * - Her (facet, değer) çifti için ürünlerin bit kümesi (BitSet) tutulur
+ * - Filtreleme: aynı facet içindeki değerler VEYA, farklı facet'ler VE ile birleştirilir
+ * - Facet sayıları, o facet hariç diğer filtrelerin kesişimi üzerinden hesaplanır
+ *   (seçili bir renk varken diğer renklerin sayısı da görünür)
+ * Görüntü değiştiğinde yeni indeks oluşturulur; indeks asla değişmez.
+ */
+public final class CatalogFacetIndex {
+
+    public static final String COLOR = "color";
+    public static final String MATERIAL = "material";
+    public static final String USAGE_AREA = "usageArea";
+    public static final String MOUNTING_TYPE = "mountingType";
+    public static final String LIGHT_TRANSMITTANCE = "lightTransmittance";
+    public static final String CATEGORY = "category";
+    public static final String PRICE = "price";
+
+    public static final List<String> FACETS = List.of(
+            COLOR, MATERIAL, USAGE_AREA, MOUNTING_TYPE, LIGHT_TRANSMITTANCE, CATEGORY, PRICE);
+
+    /**
+     * Sıralama seçenekleri
+     */
+    public enum SortOption {
+        DEFAULT, PRICE_ASC, PRICE_DESC, NEWEST;
+
+        public static SortOption from(String value) {
+            if (value == null || value.isBlank()) {
+                return DEFAULT;
+            }
+            for (SortOption option : values()) {
+                if (option.name().equalsIgnoreCase(value.trim().replace('-', '_'))) {
+                    return option;
+                }
+            }
+            return DEFAULT;
+        }
+    }
+
+    private final Product[] documents;
+    private final Map<String, Map<String, BitSet>> bits;
+    private final Map<String, Map<String, String>> labels;
+    private final Map<SortOption, int[]> orders;
+
+    private CatalogFacetIndex(Product[] documents, Map<String, Map<String, BitSet>> bits,
+                              Map<String, Map<String, String>> labels, Map<SortOption, int[]> orders) {
+        this.documents = documents;
+        this.bits = bits;
+        this.labels = labels;
+        this.orders = orders;
+    }
+
+    /**
+     * Görüntüdeki ürünlerden indeks oluştur
+     *
+     * @param priceBoundaries artan sırada fiyat aralığı sınırları (ör. 250, 500, 1000)
+     */
+    public static CatalogFacetIndex build(CatalogSnapshot snapshot, List<BigDecimal> priceBoundaries) {
+        Product[] documents = snapshot.all().toArray(new Product[0]);
+        Map<String, Map<String, BitSet>> bits = new HashMap<>();
+        Map<String, Map<String, String>> labels = new HashMap<>();
+        for (String facet : FACETS) {
+            bits.put(facet, new LinkedHashMap<>());
+            labels.put(facet, new LinkedHashMap<>());
+        }
+
+        for (int doc = 0; doc < documents.length; doc++) {
+            Product product = documents[doc];
+            addText(bits, labels, COLOR, product.getColor(), doc);
+            addText(bits, labels, MATERIAL, product.getMaterial(), doc);
+            addText(bits, labels, MOUNTING_TYPE, product.getMountingType(), doc);
+            addText(bits, labels, LIGHT_TRANSMITTANCE, product.getLightTransmittance(), doc);
+            // Kullanım alanı birden fazla değer içerebilir ("Salon, Yatak Odası")
+            if (product.getUsageArea() != null) {
+                for (String area : product.getUsageArea().split("[,;/]")) {
+                    addText(bits, labels, USAGE_AREA, area, doc);
+                }
+            }
+            if (product.getCategory() != null && product.getCategory().getId() != null) {
+                String key = String.valueOf(product.getCategory().getId());
+                add(bits, labels, CATEGORY, key, product.getCategory().getName(), doc);
+            }
+            if (product.getPrice() != null) {
+                String bucket = priceBucket(product.getPrice(), priceBoundaries);
+                add(bits, labels, PRICE, bucket, bucket, doc);
+            }
+        }
+
+        Map<SortOption, int[]> orders = new HashMap<>();
+        orders.put(SortOption.DEFAULT, IntStream.range(0, documents.length).toArray());
+        orders.put(SortOption.PRICE_ASC, sortedOrder(documents, Comparator.comparing(
+                (Integer doc) -> documents[doc].getPrice(), Comparator.nullsLast(Comparator.naturalOrder()))));
+        orders.put(SortOption.PRICE_DESC, sortedOrder(documents, Comparator.comparing(
+                (Integer doc) -> documents[doc].getPrice(), Comparator.nullsLast(Comparator.reverseOrder()))));
+        orders.put(SortOption.NEWEST, sortedOrder(documents, Comparator.comparing(
+                (Integer doc) -> documents[doc].getCreatedAt(), Comparator.nullsLast(Comparator.reverseOrder()))));
+
+        return new CatalogFacetIndex(documents, bits, labels, orders);
+    }
+
+    private static int[] sortedOrder(Product[] documents, Comparator<Integer> comparator) {
+        return IntStream.range(0, documents.length).boxed()
+                .sorted(comparator.thenComparing(Comparator.naturalOrder()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static void addText(Map<String, Map<String, BitSet>> bits, Map<String, Map<String, String>> labels,
+                                String facet, String value, int doc) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String display = value.trim();
+        add(bits, labels, facet, normalize(display), display, doc);
+    }
+
+    private static void add(Map<String, Map<String, BitSet>> bits, Map<String, Map<String, String>> labels,
+                            String facet, String key, String label, int doc) {
+        bits.get(facet).computeIfAbsent(key, k -> new BitSet()).set(doc);
+        labels.get(facet).putIfAbsent(key, label);
+    }
+
+    /**
+     * Fiyat aralığı anahtarı ("0-250", "250-500", ..., "2000+")
+     */
+    static String priceBucket(BigDecimal price, List<BigDecimal> boundaries) {
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal upper : boundaries) {
+            if (price.compareTo(upper) < 0) {
+                return lower.stripTrailingZeros().toPlainString() + "-" + upper.stripTrailingZeros().toPlainString();
+            }
+            lower = upper;
+        }
+        return lower.stripTrailingZeros().toPlainString() + "+";
+    }
+
+    /**
+     * Filtre değerlerini indeks anahtarına çevir (Türkçe harf katlama, kategori/fiyat olduğu gibi)
+     */
+    private static String normalize(String value) {
+        return TurkishTextAnalyzer.fold(value.trim());
+    }
+
+    public int size() {
+        return documents.length;
+    }
+
+    /**
+     * Filtreleri uygula, sıralı sayfayı ve facet sayılarını döndür
+     *
+     * @param filters facet adı → seçili değerler (boş/null olan facet filtrelenmez)
+     */
+    public Result query(Map<String, ? extends Collection<String>> filters, SortOption sort, int page, int size) {
+        return query(filters, Set.of(), sort, page, size);
+    }
+
+    /**
+     * Filtreleri uygula; containsFacets içindeki facet'lerde değer, anahtarın bir parçası olarak aranır
+     * (ör. kullanım alanında "salon" hem "Salon" hem "Salon Takımı" değerleriyle eşleşir)
+     */
+    public Result query(Map<String, ? extends Collection<String>> filters, Set<String> containsFacets,
+                        SortOption sort, int page, int size) {
+        Map<String, BitSet> masks = new HashMap<>();
+        for (String facet : FACETS) {
+            Collection<String> values = filters != null ? filters.get(facet) : null;
+            if (values == null || values.isEmpty()) {
+                continue;
+            }
+            BitSet mask = new BitSet(documents.length);
+            Map<String, BitSet> facetBits = bits.get(facet);
+            for (String value : values) {
+                if (value == null || value.isBlank()) {
+                    continue;
+                }
+                String key = CATEGORY.equals(facet) || PRICE.equals(facet) ? value.trim() : normalize(value);
+                if (containsFacets.contains(facet)) {
+                    facetBits.forEach((candidate, valueBits) -> {
+                        if (candidate.contains(key)) {
+                            mask.or(valueBits);
+                        }
+                    });
+                    continue;
+                }
+                BitSet valueBits = facetBits.get(key);
+                if (valueBits != null) {
+                    mask.or(valueBits);
+                }
+            }
+            masks.put(facet, mask);
+        }
+
+        BitSet matched = intersectExcept(masks, null);
+
+        // Facet sayıları: her facet için kendi filtresi hariç kesişim
+        Map<String, List<FacetCount>> facetCounts = new LinkedHashMap<>();
+        for (String facet : FACETS) {
+            BitSet base = masks.containsKey(facet) ? intersectExcept(masks, facet) : matched;
+            List<FacetCount> counts = new ArrayList<>();
+            for (Map.Entry<String, BitSet> entry : bits.get(facet).entrySet()) {
+                BitSet intersection = (BitSet) entry.getValue().clone();
+                intersection.and(base);
+                int count = intersection.cardinality();
+                if (count > 0) {
+                    String label = labels.get(facet).get(entry.getKey());
+                    boolean keyed = CATEGORY.equals(facet);
+                    counts.add(FacetCount.builder()
+                            .value(keyed ? entry.getKey() : label)
+                            .label(keyed ? label : null)
+                            .count(count)
+                            .build());
+                }
+            }
+            if (!PRICE.equals(facet)) {
+                counts.sort(Comparator.comparingLong(FacetCount::getCount).reversed()
+                        .thenComparing(FacetCount::getValue));
+            }
+            facetCounts.put(facet, counts);
+        }
+
+        // Sayfalama: seçilen sıralama dizisinde eşleşenleri atlayarak ilerle
+        int total = matched.cardinality();
+        long offset = (long) Math.max(page, 0) * Math.max(size, 1);
+        List<Product> content = new ArrayList<>((int) Math.min(size, Math.max(total - offset, 0)));
+        long seen = 0;
+        for (int doc : orders.get(sort != null ? sort : SortOption.DEFAULT)) {
+            if (!matched.get(doc)) {
+                continue;
+            }
+            if (seen++ < offset) {
+                continue;
+            }
+            content.add(documents[doc]);
+            if (content.size() >= size) {
+                break;
+            }
+        }
+
+        return new Result(content, total, facetCounts);
+    }
+
+    private BitSet intersectExcept(Map<String, BitSet> masks, String excludedFacet) {
+        BitSet result = new BitSet(documents.length);
+        result.set(0, documents.length);
+        masks.forEach((facet, mask) -> {
+            if (!facet.equals(excludedFacet)) {
+                result.and(mask);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Sorgu sonucu: sayfa içeriği, toplam eşleşme ve facet sayıları
+     */
+    public record Result(List<Product> content, int totalElements, Map<String, List<FacetCount>> facets) {
+    }
+}
@@ -0,0 +1,55 @@
+package eticaret.demo.product.catalog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Facet'li ürün gezinme servisi
+ * Facet indeksi katalog görüntüsü üzerinden oluşturulur. Görüntü ürün/stok/kategori event'leriyle
+ * güncellendiğinde indeks bir sonraki sorguda yeniden oluşturulur; oluşturma sürerken diğer istekler
+ * bir önceki indeksle cevap verir.
+ */
+@Service
+public class CatalogFacetService {
+
+    private final SnapshotIndexHolder<CatalogFacetIndex> index;
+
+    public CatalogFacetService(
+            CatalogSnapshotService catalogSnapshotService,
+            @Value("${catalog.facets.price-buckets:250,500,1000,2000}") List<BigDecimal> priceBoundaries
+    ) {
+        List<BigDecimal> boundaries = priceBoundaries.stream().sorted().toList();
+        this.index = new SnapshotIndexHolder<>("Facet", catalogSnapshotService,
+                snapshot -> CatalogFacetIndex.build(snapshot, boundaries));
+    }
+
+    /**
+     * Filtrele, sırala, sayfala ve facet sayılarını hesapla
+     */
+    public CatalogFacetIndex.Result browse(Map<String, ? extends Collection<String>> filters,
+                                           CatalogFacetIndex.SortOption sort, int page, int size) {
+        return currentIndex().query(filters, sort, page, size);
+    }
+
+    /**
+     * Filtreye uyan tüm ürünler (varsayılan sırada)
+     * Eski /filter davranışı korunur: kullanım alanı "içerir" ile, diğer alanlar tam eşleşme ile aranır.
+     */
+    public CatalogFacetIndex.Result filter(Map<String, ? extends Collection<String>> filters) {
+        return currentIndex().query(filters, Set.of(CatalogFacetIndex.USAGE_AREA),
+                CatalogFacetIndex.SortOption.DEFAULT, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Güncel indeks (katalog görüntüsü değiştiyse yeniden oluşturulur)
+     */
+    public CatalogFacetIndex currentIndex() {
+        return index.current();
+    }
+}
@@ -0,0 +1,234 @@
+package eticaret.demo.product.catalog;
+
+import eticaret.demo.product.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Aktif ve stokta olan ürünlerin değişmez (immutable) katalog görüntüsü
+ * Liste endpoint'leri bu görüntü üzerinden veritabanına gitmeden cevap verir.
+ * Bir görüntü oluşturulduktan sonra asla değişmez; güncelleme yeni bir görüntü
+ * oluşturulup atomik olarak yer değiştirilerek yapılır.
+ */
+public final class CatalogSnapshot {
+
+    private static final Comparator<Product> BY_SORT_ORDER = Comparator
+            .comparing((Product p) -> p.getSortOrder() != null ? p.getSortOrder() : 0)
+            .thenComparing(Product::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Product::getId);
+
+    private static final Comparator<Product> BY_CREATED_AT_DESC = Comparator
+            .comparing(Product::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Product::getId, Comparator.reverseOrder());
+
+    private static final Comparator<Product> BY_PRICE = Comparator
+            .comparing(Product::getPrice)
+            .thenComparing(Product::getId);
+
+    private static final CatalogSnapshot EMPTY = new CatalogSnapshot(Collections.emptyList(), null);
+
+    private final Map<Long, Product> byId;
+    private final List<Product> bySortOrder;
+    private final Map<Long, List<Product>> byCategory;
+    private final List<Product> featured;
+    private final List<Product> newest;
+    private final List<Product> onSale;
+    private final List<Product> byPrice;
+    private final BigDecimal[] prices;
+    private final LocalDateTime builtAt;
+
+    private CatalogSnapshot(Collection<Product> products, LocalDateTime builtAt) {
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(BY_SORT_ORDER);
+
+        Map<Long, Product> idIndex = new LinkedHashMap<>();
+        Map<Long, List<Product>> categoryIndex = new HashMap<>();
+        List<Product> featuredList = new ArrayList<>();
+        List<Product> newList = new ArrayList<>();
+        List<Product> saleList = new ArrayList<>();
+        List<Product> pricedList = new ArrayList<>();
+
+        for (Product product : sorted) {
+            idIndex.put(product.getId(), product);
+            if (product.getCategory() != null && product.getCategory().getId() != null) {
+                categoryIndex.computeIfAbsent(product.getCategory().getId(), k -> new ArrayList<>()).add(product);
+            }
+            if (Boolean.TRUE.equals(product.getFeatured())) {
+                featuredList.add(product);
+            }
+            if (Boolean.TRUE.equals(product.getIsNew())) {
+                newList.add(product);
+            }
+            if (Boolean.TRUE.equals(product.getOnSale())) {
+                saleList.add(product);
+            }
+            if (product.getPrice() != null) {
+                pricedList.add(product);
+            }
+        }
+        newList.sort(BY_CREATED_AT_DESC);
+        pricedList.sort(BY_PRICE);
+
+        Map<Long, List<Product>> frozenCategories = new HashMap<>();
+        categoryIndex.forEach((categoryId, list) -> frozenCategories.put(categoryId, List.copyOf(list)));
+
+        this.byId = Collections.unmodifiableMap(idIndex);
+        this.bySortOrder = List.copyOf(sorted);
+        this.byCategory = Collections.unmodifiableMap(frozenCategories);
+        this.featured = List.copyOf(featuredList);
+        this.newest = List.copyOf(newList);
+        this.onSale = List.copyOf(saleList);
+        this.byPrice = List.copyOf(pricedList);
+        this.prices = pricedList.stream().map(Product::getPrice).toArray(BigDecimal[]::new);
+        this.builtAt = builtAt;
+    }
+
+    /**
+     * Boş görüntü (ilk yükleme tamamlanmadan önce kullanılır)
+     */
+    public static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Verilen ürünlerden yeni bir görüntü oluştur
+     * Aktif olmayan veya stokta olmayan ürünler dahil edilmez.
+     */
+    public static CatalogSnapshot of(Collection<Product> products) {
+        List<Product> eligible = products.stream()
+                .filter(CatalogSnapshot::isListable)
+                .toList();
+        return new CatalogSnapshot(eligible, LocalDateTime.now());
+    }
+
+    /**
+     * Tek bir ürünü ekleyip/güncelleyip yeni görüntü döndür
+     * Ürün artık listelenemiyorsa (pasif veya stok bitti) görüntüden çıkarılır.
+     */
+    public CatalogSnapshot withProduct(Product product) {
+        Map<Long, Product> next = new LinkedHashMap<>(byId);
+        if (isListable(product)) {
+            next.put(product.getId(), product);
+        } else {
+            next.remove(product.getId());
+        }
+        return new CatalogSnapshot(next.values(), LocalDateTime.now());
+    }
+
+    /**
+     * Tek bir ürünü çıkarıp yeni görüntü döndür
+     */
+    public CatalogSnapshot withoutProduct(Long productId) {
+        if (!byId.containsKey(productId)) {
+            return this;
+        }
+        Map<Long, Product> next = new LinkedHashMap<>(byId);
+        next.remove(productId);
+        return new CatalogSnapshot(next.values(), LocalDateTime.now());
+    }
+
+    static boolean isListable(Product product) {
+        return product != null
+                && product.getId() != null
+                && Boolean.TRUE.equals(product.getActive())
+                && product.isInStock();
+    }
+
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Tüm ürünler (sortOrder'a göre sıralı)
+     */
+    public List<Product> all() {
+        return bySortOrder;
+    }
+
+    /**
+     * Kategoriye göre ürünler (sortOrder'a göre sıralı)
+     */
+    public List<Product> byCategory(Long categoryId) {
+        return byCategory.getOrDefault(categoryId, Collections.emptyList());
+    }
+
+    /**
+     * Öne çıkarılmış ürünler (sortOrder'a göre sıralı)
+     */
+    public List<Product> featured() {
+        return featured;
+    }
+
+    /**
+     * Yeni ürünler (oluşturulma tarihine göre yeniden eskiye)
+     */
+    public List<Product> newest() {
+        return newest;
+    }
+
+    /**
+     * İndirimli ürünler (sortOrder'a göre sıralı)
+     */
+    public List<Product> onSale() {
+        return onSale;
+    }
+
+    /**
+     * Fiyat aralığındaki ürünler (fiyata göre artan)
+     * Fiyat dizisi üzerinde ikili arama ile O(log n) sınır bulunur.
+     */
+    public List<Product> priceBetween(BigDecimal min, BigDecimal max) {
+        int from = min != null ? lowerBound(min) : 0;
+        int to = max != null ? upperBound(max) : prices.length;
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        return byPrice.subList(from, to);
+    }
+
+    private int lowerBound(BigDecimal value) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid].compareTo(value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(BigDecimal value) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid].compareTo(value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+}
@@ -0,0 +1,191 @@
+package eticaret.demo.product.catalog;
+
+import eticaret.demo.cloudinary.MediaUploadService;
+import eticaret.demo.product.Product;
+import eticaret.demo.product.ProductRepository;
+import eticaret.demo.product.event.CategoryChangedEvent;
+import eticaret.demo.product.event.ProductChangedEvent;
+import eticaret.demo.product.event.StockChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Katalog görüntüsünü (CatalogSnapshot) yöneten servis
+ * - Uygulama açılışında tüm aktif ürünleri tek sorguda yükler
+ * - Ürün/stok event'lerinde sadece ilgili ürünü yeniden okuyup görüntüyü atomik olarak değiştirir
+ * - Kategori event'lerinde ve periyodik olarak (güvenlik ağı) tam yenileme yapar
+ * Okuyucular hiçbir kilit almaz, her zaman tutarlı bir görüntü görür.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSnapshotService {
+
+    private final ProductRepository productRepository;
+    private final MediaUploadService mediaUploadService;
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>(CatalogSnapshot.empty());
+
+    /**
+     * Yazma işlemleri (tam yenileme ve tekil güncelleme) sıralı çalışır
+     * Böylece eski bir tam yenileme, daha yeni bir tekil güncellemeyi ezemez.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * Güncel katalog görüntüsü
+     */
+    public CatalogSnapshot current() {
+        return snapshot.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Tüm katalog görüntüsünü yeniden oluştur (tek sorgu)
+     * Varsayılan: 5 dakikada bir
+     */
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-interval-ms:300000}",
+            initialDelayString = "${catalog.snapshot.refresh-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        try {
+            synchronized (writeLock) {
+                List<Product> products = productRepository.findAllActiveWithCategory();
+                List<Product> prepared = new ArrayList<>(products.size());
+                for (Product product : products) {
+                    prepared.add(prepare(product));
+                }
+                CatalogSnapshot next = CatalogSnapshot.of(prepared);
+                snapshot.set(next);
+                log.info("Katalog görüntüsü yenilendi: {} ürün", next.size());
+            }
+        } catch (Exception e) {
+            log.error("Katalog görüntüsü yenilenirken hata: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ürün değişikliği commit edildikten sonra görüntüyü güncelle
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.deleted()) {
+            removeProduct(event.productId());
+        } else {
+            refreshProduct(event.productId());
+        }
+    }
+
+    /**
+     * Stok değişikliği commit edildikten sonra ürünü yeniden oku
+     * Stoğu biten ürün görüntüden çıkar, stoğu gelen ürün görüntüye girer.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onStockChanged(StockChangedEvent event) {
+        refreshProduct(event.productId());
+    }
+
+    /**
+     * Kategori değişikliğinde (isim vb. ürünlere gömülü olduğu için) tam yenileme
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Tek bir ürünü veritabanından yeniden okuyup görüntüye uygula
+     * Ürün silinmiş, pasif veya stokta değilse görüntüden çıkarılır.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void refreshProduct(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        try {
+            synchronized (writeLock) {
+                Product product = productRepository.findByIdAndActiveTrue(productId).orElse(null);
+                if (product == null) {
+                    snapshot.set(snapshot.get().withoutProduct(productId));
+                } else {
+                    snapshot.set(snapshot.get().withProduct(prepare(product)));
+                }
+            }
+            log.debug("Katalog görüntüsünde ürün güncellendi: {}", productId);
+        } catch (Exception e) {
+            log.error("Katalog görüntüsünde ürün {} güncellenirken hata: {}", productId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Aktif ürünü getir
+     * Önce görüntüye bakılır; stokta olmayan (görüntüde bulunmayan) aktif ürünler
+     * için veritabanına gidilir ve aynı şekilde hazırlanmış bir kopya döndürülür.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Product> findActiveProduct(Long productId) {
+        Optional<Product> cached = snapshot.get().findById(productId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        return productRepository.findByIdAndActiveTrue(productId).map(this::prepare);
+    }
+
+    /**
+     * Ürünü görüntüden çıkar (silme işlemleri için)
+     */
+    public void removeProduct(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            snapshot.set(snapshot.get().withoutProduct(productId));
+        }
+    }
+
+    /**
+     * Görüntüde tutulacak ürün kopyasını hazırla
+     * - Lazy koleksiyonlar kopyalanır, böylece görüntü persistence context'e bağlı kalmaz
+     * - Görsel URL'leri bir kez optimize edilir (her istekte tekrar hesaplanmaz)
+     */
+    private Product prepare(Product source) {
+        Product copy = source.toBuilder()
+                .imageUrls(source.getImageUrls() != null ? List.copyOf(source.getImageUrls()) : List.of())
+                .reviews(new ArrayList<>())
+                .views(new ArrayList<>())
+                .build();
+
+        try {
+            if (copy.getCoverImageUrl() != null && !copy.getCoverImageUrl().isEmpty()) {
+                copy.setCoverImageUrl(mediaUploadService.getOptimizedImageUrl(copy.getCoverImageUrl(), 800, 800));
+            }
+            if (copy.getDetailImageUrl() != null && !copy.getDetailImageUrl().isEmpty()) {
+                copy.setDetailImageUrl(mediaUploadService.getOptimizedImageUrl(copy.getDetailImageUrl(), 1920, 1920));
+            }
+        } catch (Exception e) {
+            // Optimizasyon hatası görüntü oluşturmayı engellemez
+            log.warn("Ürün {} görselleri optimize edilemedi: {}", copy.getId(), e.getMessage());
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,70 @@
+package eticaret.demo.product.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Katalog görüntüsünden türetilen değişmez indeksin tutucusu
+ * - İndeks, görüntü değiştiğinde bir sonraki istekte yeniden oluşturulur
+ * - Oluşturma sürerken diğer istekler bir önceki indeksle cevap verir; sadece ilk oluşturmada beklenir
+ * Arama indeksi ve facet indeksi tarafından ortak kullanılır.
+ */
+@Slf4j
+public final class SnapshotIndexHolder<T> {
+
+    private final String name;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final Function<CatalogSnapshot, T> builder;
+
+    private final AtomicReference<Built<T>> built = new AtomicReference<>();
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    /**
+     * @param name    log mesajlarında kullanılan indeks adı
+     * @param builder görüntüden indeks oluşturan fonksiyon (yan etkisiz olmalı)
+     */
+    public SnapshotIndexHolder(String name, CatalogSnapshotService catalogSnapshotService,
+                               Function<CatalogSnapshot, T> builder) {
+        this.name = name;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.builder = builder;
+    }
+
+    /**
+     * Güncel indeks (katalog görüntüsü değiştiyse yeniden oluşturulur)
+     */
+    public T current() {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        Built<T> current = built.get();
+        if (current != null && current.source() == snapshot) {
+            return current.index();
+        }
+        if (current != null && !buildLock.tryLock()) {
+            // Başka bir thread yeni indeksi oluşturuyor, eskisiyle devam et
+            return current.index();
+        }
+        if (current == null) {
+            buildLock.lock();
+        }
+        try {
+            current = built.get();
+            snapshot = catalogSnapshotService.current();
+            if (current == null || current.source() != snapshot) {
+                long start = System.nanoTime();
+                current = new Built<>(snapshot, builder.apply(snapshot));
+                built.set(current);
+                log.debug("{} indeksi oluşturuldu: {} ürün, {} ms",
+                        name, snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+            }
+            return current.index();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private record Built<T>(CatalogSnapshot source, T index) {
+    }
+}
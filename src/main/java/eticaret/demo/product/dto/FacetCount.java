@@ -0,0 +1,29 @@
+package eticaret.demo.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Facet değeri ve bu değere sahip ürün sayısı
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCount {
+    /**
+     * Filtrede kullanılacak değer
+     */
+    private String value;
+
+    /**
+     * Gösterim etiketi (kategori adı, fiyat aralığı vb.; değer ile aynıysa boş)
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String label;
+
+    private long count;
+}
@@ -0,0 +1,33 @@
+package eticaret.demo.product.dto;
+
+import eticaret.demo.product.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facet'li ürün gezinme sonucu (sayfa + facet sayıları)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBrowseResponse {
+    private List<Product> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    /**
+     * Facet sayıları (color, material, usageArea, mountingType, lightTransmittance, category, price)
+     * Her facet, kendi seçimi hariç diğer filtreler uygulanmış kümede sayılır.
+     */
+    private Map<String, List<FacetCount>> facets;
+
+    private long tookMicros;
+}
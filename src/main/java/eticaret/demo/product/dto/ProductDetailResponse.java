@@ -0,0 +1,25 @@
+package eticaret.demo.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import eticaret.demo.cloudinary.OptimizedImageResult;
+import eticaret.demo.product.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ürün detay okuma modeli (cache'lenebilir, istek bazlı yan etkisi yoktur)
+ * Ürün alanları JSON'da üst seviyede kalır, ek olarak puan özeti ve görsel varyantları döner.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDetailResponse {
+    @JsonUnwrapped
+    private Product product;
+    private ProductReviewPageResponse.ReviewSummary ratingSummary;
+    private OptimizedImageResult.ImageVariants coverImageVariants;
+    private OptimizedImageResult.ImageVariants detailImageVariants;
+}
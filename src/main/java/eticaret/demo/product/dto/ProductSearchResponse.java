@@ -0,0 +1,37 @@
+package eticaret.demo.product.dto;
+
+import eticaret.demo.product.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ürün arama sonucu (alaka sırasına göre sayfa + facet sayıları)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponse {
+    private List<Product> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    /**
+     * Tüm eşleşen ürünler üzerinden facet sayıları (color, material, mountingType)
+     */
+    private Map<String, List<FacetCount>> facets;
+
+    /**
+     * Yazım hatası toleransı ile düzeltilen sorgu terimleri (aranan → eşleşen)
+     */
+    private Map<String, String> corrections;
+
+    private long tookMicros;
+}
@@ -0,0 +1,66 @@
+package eticaret.demo.product.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Katalog event'lerine göre Spring cache kayıtlarını temizler
+ * - Ürün detayı gibi ID ile anahtarlanan kayıtlar tek tek silinir
+ * - Liste ve öneri cache'lerinin anahtarları sayfa/filtre kombinasyonları olduğu için tamamen temizlenir
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogCacheInvalidationListener {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict("productDetails", event.productId());
+        clear("products");
+        clear("recommendations");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        evict("productDetails", event.productId());
+        clear("products");
+        clear("recommendations");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        evict("productDetails", event.productId());
+        evict("productReviews", event.productId());
+        clear("products");
+        clear("recommendations");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        clear("categories");
+        clear("products");
+        clear("productDetails");
+        clear("recommendations");
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+            log.debug("Cache kaydı silindi: {} -> {}", cacheName, key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
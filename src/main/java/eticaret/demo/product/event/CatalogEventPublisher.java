@@ -0,0 +1,45 @@
+package eticaret.demo.product.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Katalog domain event'lerini yayınlar
+ * Dinleyiciler @TransactionalEventListener(AFTER_COMMIT) ile çalışır;
+ * aktif bir transaction varsa event commit sonrasında, yoksa hemen işlenir.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogEventPublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void productChanged(Long productId) {
+        if (productId != null) {
+            eventPublisher.publishEvent(new ProductChangedEvent(productId, false));
+        }
+    }
+
+    public void productDeleted(Long productId) {
+        if (productId != null) {
+            eventPublisher.publishEvent(new ProductChangedEvent(productId, true));
+        }
+    }
+
+    public void categoryChanged(Long categoryId) {
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+    }
+
+    public void reviewChanged(Long productId, Long reviewId) {
+        if (productId != null) {
+            eventPublisher.publishEvent(new ReviewChangedEvent(productId, reviewId));
+        }
+    }
+
+    public void stockChanged(Long productId) {
+        if (productId != null) {
+            eventPublisher.publishEvent(new StockChangedEvent(productId));
+        }
+    }
+}
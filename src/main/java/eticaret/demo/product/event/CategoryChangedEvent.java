@@ -0,0 +1,9 @@
+package eticaret.demo.product.event;
+
+/**
+ * Kategori oluşturuldu, güncellendi veya silindi
+ *
+ * @param categoryId Kategori ID
+ */
+public record CategoryChangedEvent(Long categoryId) {
+}
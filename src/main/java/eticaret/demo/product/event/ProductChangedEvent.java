@@ -0,0 +1,10 @@
+package eticaret.demo.product.event;
+
+/**
+ * Ürün oluşturuldu, güncellendi veya silindi
+ *
+ * @param productId Ürün ID
+ * @param deleted   Ürün silindiyse true
+ */
+public record ProductChangedEvent(Long productId, boolean deleted) {
+}
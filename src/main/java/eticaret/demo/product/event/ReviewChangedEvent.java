@@ -0,0 +1,10 @@
+package eticaret.demo.product.event;
+
+/**
+ * Bir ürüne ait yorum eklendi, güncellendi, silindi veya aktif/pasif yapıldı
+ *
+ * @param productId Yorumun ait olduğu ürün ID
+ * @param reviewId  Yorum ID
+ */
+public record ReviewChangedEvent(Long productId, Long reviewId) {
+}
@@ -0,0 +1,9 @@
+package eticaret.demo.product.event;
+
+/**
+ * Ürün stoğu değişti (sipariş, iade veya admin güncellemesi)
+ *
+ * @param productId Ürün ID
+ */
+public record StockChangedEvent(Long productId) {
+}
@@ -0,0 +1,298 @@
+package eticaret.demo.product.search;
+
+import eticaret.demo.product.Product;
+import eticaret.demo.product.catalog.CatalogSnapshot;
+import eticaret.demo.product.dto.FacetCount;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Katalog görüntüsü üzerinden oluşturulan değişmez ters indeks (inverted index)
+ * - Sıralı terim dizisi: tam eşleşme ve önek (prefix) araması ikili arama ile bulunur
+ * - Her terim için doküman numaraları ve alan ağırlıklı skorlar ilkel dizilerde tutulur
+ * - Eşleşmeyen terimler için sınırlı düzenleme mesafesiyle (typo) en yakın terimler denenir
+ * Ürün değişikliklerinde görüntü değiştiğinde indeks yeniden oluşturulur.
+ */
+public final class ProductSearchIndex {
+
+    public static final String FACET_COLOR = "color";
+    public static final String FACET_MATERIAL = "material";
+    public static final String FACET_MOUNTING_TYPE = "mountingType";
+
+    private static final float WEIGHT_NAME = 3.0f;
+    private static final float WEIGHT_SKU = 3.0f;
+    private static final float WEIGHT_CATEGORY = 2.0f;
+    private static final float WEIGHT_ATTRIBUTE = 1.5f;
+    private static final float WEIGHT_SHORT_DESCRIPTION = 1.5f;
+    private static final float WEIGHT_DESCRIPTION = 1.0f;
+
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final float FUZZY_FACTOR = 0.5f;
+
+    private final Product[] documents;
+    private final String[] terms;
+    private final int[][] postings;
+    private final float[][] scores;
+
+    private ProductSearchIndex(Product[] documents, String[] terms, int[][] postings, float[][] scores) {
+        this.documents = documents;
+        this.terms = terms;
+        this.postings = postings;
+        this.scores = scores;
+    }
+
+    /**
+     * Katalog görüntüsündeki tüm ürünleri indeksle
+     */
+    public static ProductSearchIndex build(CatalogSnapshot snapshot) {
+        List<Product> products = snapshot.all();
+        Product[] documents = products.toArray(new Product[0]);
+        Map<String, Map<Integer, Float>> raw = new HashMap<>();
+
+        for (int doc = 0; doc < documents.length; doc++) {
+            Product product = documents[doc];
+            addField(raw, doc, product.getName(), WEIGHT_NAME);
+            addField(raw, doc, product.getSku(), WEIGHT_SKU);
+            addField(raw, doc, product.getCategory() != null ? product.getCategory().getName() : null, WEIGHT_CATEGORY);
+            addField(raw, doc, product.getColor(), WEIGHT_ATTRIBUTE);
+            addField(raw, doc, product.getMaterial(), WEIGHT_ATTRIBUTE);
+            addField(raw, doc, product.getMountingType(), WEIGHT_ATTRIBUTE);
+            addField(raw, doc, product.getUsageArea(), WEIGHT_ATTRIBUTE);
+            addField(raw, doc, product.getShortDescription(), WEIGHT_SHORT_DESCRIPTION);
+            addField(raw, doc, product.getDescription(), WEIGHT_DESCRIPTION);
+        }
+
+        String[] terms = raw.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        int[][] postings = new int[terms.length][];
+        float[][] scores = new float[terms.length][];
+        for (int t = 0; t < terms.length; t++) {
+            TreeMap<Integer, Float> docs = new TreeMap<>(raw.get(terms[t]));
+            // Ters belge sıklığı: nadir terimler daha değerli
+            float idf = (float) Math.log(1.0 + (double) documents.length / docs.size());
+            postings[t] = new int[docs.size()];
+            scores[t] = new float[docs.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Float> entry : docs.entrySet()) {
+                postings[t][i] = entry.getKey();
+                // Terim tekrarının etkisi logaritmik olarak sınırlanır
+                scores[t][i] = (float) (1.0 + Math.log(entry.getValue())) * idf;
+                i++;
+            }
+        }
+        return new ProductSearchIndex(documents, terms, postings, scores);
+    }
+
+    private static void addField(Map<String, Map<Integer, Float>> raw, int doc, String text, float weight) {
+        for (String term : TurkishTextAnalyzer.analyze(text)) {
+            raw.computeIfAbsent(term, k -> new HashMap<>()).merge(doc, weight, Float::sum);
+        }
+    }
+
+    public int documentCount() {
+        return documents.length;
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * Sorguyu çalıştır
+     * Her sorgu terimi (tam, önek veya yazım toleranslı) eşleşmelidir; skorlar toplanır.
+     */
+    public Result search(String query) {
+        List<String> queryTerms = TurkishTextAnalyzer.analyze(query);
+        if (queryTerms.isEmpty() || documents.length == 0) {
+            return new Result(List.of(), Map.of(), Map.of());
+        }
+
+        float[] totals = null;
+        boolean[] matched = null;
+        Map<String, String> corrections = new LinkedHashMap<>();
+
+        for (String queryTerm : queryTerms) {
+            float[] termScores = new float[documents.length];
+            boolean[] termMatched = new boolean[documents.length];
+            boolean any = collectExactAndPrefix(queryTerm, termScores, termMatched);
+            if (!any) {
+                String corrected = collectFuzzy(queryTerm, termScores, termMatched);
+                if (corrected == null) {
+                    // Bir terim hiç eşleşmiyorsa sonuç boş (VE semantiği)
+                    return new Result(List.of(), Map.of(), corrections);
+                }
+                corrections.put(queryTerm, corrected);
+            }
+            if (totals == null) {
+                totals = termScores;
+                matched = termMatched;
+            } else {
+                for (int doc = 0; doc < documents.length; doc++) {
+                    matched[doc] = matched[doc] && termMatched[doc];
+                    totals[doc] += termScores[doc];
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (int doc = 0; doc < documents.length; doc++) {
+            if (matched[doc]) {
+                hits.add(new Hit(documents[doc], totals[doc]));
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparing(hit -> hit.product().getId()));
+
+        List<Product> products = hits.stream().map(Hit::product).toList();
+        return new Result(products, facets(products), corrections);
+    }
+
+    private boolean collectExactAndPrefix(String queryTerm, float[] termScores, boolean[] termMatched) {
+        boolean any = false;
+        int start = lowerBound(queryTerm);
+        for (int t = start; t < terms.length && terms[t].startsWith(queryTerm); t++) {
+            float factor = terms[t].equals(queryTerm) ? 1.0f : PREFIX_FACTOR;
+            accumulate(t, factor, termScores, termMatched);
+            any = true;
+        }
+        return any;
+    }
+
+    /**
+     * Düzenleme mesafesi 1 (8+ karakterde 2) olan en yakın terimleri ekle
+     *
+     * @return eşleşen en iyi terim; yoksa null
+     */
+    private String collectFuzzy(String queryTerm, float[] termScores, boolean[] termMatched) {
+        if (queryTerm.length() < 4) {
+            return null;
+        }
+        int maxEdits = queryTerm.length() >= 8 ? 2 : 1;
+        String best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int t = 0; t < terms.length; t++) {
+            String term = terms[t];
+            if (Math.abs(term.length() - queryTerm.length()) > maxEdits) {
+                continue;
+            }
+            int distance = editDistance(queryTerm, term, maxEdits);
+            if (distance <= maxEdits) {
+                accumulate(t, FUZZY_FACTOR / distance, termScores, termMatched);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = term;
+                }
+            }
+        }
+        return best;
+    }
+
+    private void accumulate(int termIndex, float factor, float[] termScores, boolean[] termMatched) {
+        int[] docs = postings[termIndex];
+        float[] weights = scores[termIndex];
+        for (int i = 0; i < docs.length; i++) {
+            // Aynı sorgu terimi için bir dokümanın en iyi eşleşmesi sayılır
+            termScores[docs[i]] = Math.max(termScores[docs[i]], weights[i] * factor);
+            termMatched[docs[i]] = true;
+        }
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sınırlı Damerau-Levenshtein mesafesi (komşu harf yer değiştirmesi 1 düzenleme sayılır)
+     * Satır minimumu sınırı aşarsa erken çıkar.
+     */
+    static int editDistance(String a, String b, int limit) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Eşleşen ürünler üzerinden renk, materyal ve takma şekli sayıları
+     * Değerler Türkçe katlanmış hâliyle gruplanır, ilk görülen yazımla döndürülür.
+     */
+    private static Map<String, List<FacetCount>> facets(List<Product> products) {
+        Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+        facets.put(FACET_COLOR, countValues(products, Product::getColor));
+        facets.put(FACET_MATERIAL, countValues(products, Product::getMaterial));
+        facets.put(FACET_MOUNTING_TYPE, countValues(products, Product::getMountingType));
+        return facets;
+    }
+
+    private static List<FacetCount> countValues(List<Product> products, Function<Product, String> attribute) {
+        Map<String, String> displayValues = new HashMap<>();
+        Map<String, Long> counts = new HashMap<>();
+        for (Product product : products) {
+            String value = attribute.apply(product);
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            String key = TurkishTextAnalyzer.fold(value.trim());
+            displayValues.putIfAbsent(key, value.trim());
+            counts.merge(key, 1L, Long::sum);
+        }
+        List<FacetCount> result = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> result.add(FacetCount.builder()
+                .value(displayValues.get(key))
+                .count(count)
+                .build()));
+        result.sort(Comparator.comparingLong(FacetCount::getCount).reversed().thenComparing(FacetCount::getValue));
+        return result;
+    }
+
+    private record Hit(Product product, float score) {
+    }
+
+    /**
+     * Arama sonucu: alaka sırasına göre ürünler, facet sayıları ve düzeltilen terimler
+     */
+    public record Result(List<Product> products, Map<String, List<FacetCount>> facets,
+                         Map<String, String> corrections) {
+    }
+}
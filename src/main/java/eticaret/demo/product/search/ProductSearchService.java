@@ -0,0 +1,35 @@
+package eticaret.demo.product.search;
+
+import eticaret.demo.product.catalog.CatalogSnapshotService;
+import eticaret.demo.product.catalog.SnapshotIndexHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Ürün arama servisi (bellek içi ters indeks)
+ * İndeks, katalog görüntüsü (CatalogSnapshot) üzerinden oluşturulur. Görüntü ürün/stok/kategori
+ * event'leriyle güncellendiğinde indeks bir sonraki aramada yeniden oluşturulur; oluşturma sürerken
+ * diğer istekler bir önceki indeksle cevap verir.
+ */
+@Service
+public class ProductSearchService {
+
+    private final SnapshotIndexHolder<ProductSearchIndex> index;
+
+    public ProductSearchService(CatalogSnapshotService catalogSnapshotService) {
+        this.index = new SnapshotIndexHolder<>("Arama", catalogSnapshotService, ProductSearchIndex::build);
+    }
+
+    /**
+     * Anahtar kelime ile ara (alaka sırasına göre tüm eşleşmeler + facet sayıları)
+     */
+    public ProductSearchIndex.Result search(String keyword) {
+        return currentIndex().search(keyword);
+    }
+
+    /**
+     * Güncel indeks (katalog görüntüsü değiştiyse yeniden oluşturulur)
+     */
+    public ProductSearchIndex currentIndex() {
+        return index.current();
+    }
+}
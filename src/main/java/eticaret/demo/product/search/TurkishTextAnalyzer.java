@@ -0,0 +1,88 @@
+package eticaret.demo.product.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Türkçe metin çözümleyici (arama indeksi ve sorgular için)
+ * - Küçük harfe çevirme Türkçe kurallarıyla yapılır (İ → i, I → ı)
+ * - Ardından Türkçe karakterler ASCII karşılıklarına katlanır (ı → i, ş → s, ğ → g, ü → u, ö → o, ç → c);
+ *   böylece "sönümlü" ve "sonumlu" aynı terime düşer
+ * - Harf/rakam dışındaki karakterlerde bölünür, kısa ve sık geçen bağlaçlar atılır
+ * - Çoğul ekleri (-lar/-ler) hafifçe kırpılır
+ */
+public final class TurkishTextAnalyzer {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr-TR");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "ve", "ile", "icin", "bir", "bu", "su", "o", "da", "de", "ki", "mi", "mu",
+            "veya", "ya", "gibi", "cok", "en", "daha", "her", "olan", "olarak"
+    );
+
+    private TurkishTextAnalyzer() {
+    }
+
+    /**
+     * Metni terimlere ayır (indeks ve sorgu için aynı kurallar)
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letterOrDigit = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                String token = folded.substring(start, i);
+                start = -1;
+                if (token.length() < 2 || STOP_WORDS.contains(token)) {
+                    continue;
+                }
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Türkçe küçük harf + ASCII katlama (facet değerlerini karşılaştırmak için de kullanılır)
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(TURKISH);
+        StringBuilder builder = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            switch (c) {
+                case 'ı' -> builder.append('i');
+                case 'ş' -> builder.append('s');
+                case 'ğ' -> builder.append('g');
+                case 'ü', 'û' -> builder.append('u');
+                case 'ö' -> builder.append('o');
+                case 'ç' -> builder.append('c');
+                case 'â' -> builder.append('a');
+                case 'î' -> builder.append('i');
+                // "İ".toLowerCase(tr) tek karakter verir; diğer dillerdeki birleşik nokta işaretini at
+                case '\u0307' -> { }
+                default -> builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String stem(String token) {
+        if (token.length() > 5 && (token.endsWith("lar") || token.endsWith("ler"))) {
+            return token.substring(0, token.length() - 3);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,44 @@
+package eticaret.demo.product.stock;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ürün başına stok bakiyesi (metre, 3 ondalık)
+ * inventory_movements ledger'ının özetidir; her hareket ile aynı SQL ifadesinde güncellenir,
+ * okumalar tek satırdır. products.quantity bu bakiyenin tam metre yansımasıdır (katalog filtreleri için).
+ * Yazma/okuma InventoryLedger üzerinden JDBC ile yapılır; entity tablo şeması içindir.
+ */
+@Entity
+@Table(name = "inventory_balances")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryBalance {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    /**
+     * Satılabilir metre (ödeme sonrası ayırma olmadan satışta negatife düşebilir; fazla satışı gösterir)
+     */
+    @Column(name = "available_meters", nullable = false, precision = 12, scale = 3)
+    private BigDecimal availableMeters;
+
+    /**
+     * Ödemesi beklenen ayrılmış metre
+     */
+    @Column(name = "reserved_meters", nullable = false, precision = 12, scale = 3)
+    private BigDecimal reservedMeters;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,273 @@
+package eticaret.demo.product.stock;
+
+import eticaret.demo.product.event.CatalogEventPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeSet;
+
+/**
+ * Metre bazlı stok ledger'ı
+ * - Her stok değişimi inventory_movements tablosuna fark ve sonrası bakiye ile eklenir (yalnızca ekleme)
+ * - Ürün bakiyesi (inventory_balances) ve products.quantity (tam metre yansıması) hareket ile aynı SQL ifadesinde
+ *   güncellenir; bir işlemdeki tüm ürünler tek JDBC batch'inde, ürün id sırasıyla yazılır
+ * - Bakiye okuması ürün başına tek satırdır; toplama yapılmaz
+ * - Ledger'a henüz geçmemiş ürün ilk hareketinde products.quantity ile açılır (OPENING)
+ * - Her gece bakiyeler hareket toplamları ile karşılaştırılır; fark varsa loglanır
+ */
+@Component
+@Slf4j
+public class InventoryLedger {
+
+    private static final String OPEN_SQL_TEMPLATE =
+            "WITH b AS (" +
+            "INSERT INTO inventory_balances (product_id, available_meters, reserved_meters, updated_at) " +
+            "SELECT id, COALESCE(quantity, 0), 0, ? FROM products %s " +
+            "ON CONFLICT (product_id) DO NOTHING RETURNING product_id, available_meters) " +
+            "INSERT INTO inventory_movements (product_id, movement_type, available_delta, reserved_delta, " +
+            "available_after, reserved_after, reference_key, created_at) " +
+            "SELECT product_id, 'OPENING', available_meters, 0, available_meters, 0, NULL, ? FROM b";
+
+    private static final String OPEN_SQL = String.format(OPEN_SQL_TEMPLATE, "WHERE id = ?");
+
+    private static final String OPEN_ALL_SQL = String.format(OPEN_SQL_TEMPLATE, "");
+
+    private static final String APPLY_SQL_TEMPLATE =
+            "WITH b AS (" +
+            "UPDATE inventory_balances SET available_meters = available_meters + ?, " +
+            "reserved_meters = reserved_meters + ?, updated_at = ? WHERE product_id = ?%s " +
+            "RETURNING product_id, available_meters, reserved_meters), " +
+            "m AS (" +
+            "INSERT INTO inventory_movements (product_id, movement_type, available_delta, reserved_delta, " +
+            "available_after, reserved_after, reference_key, created_at) " +
+            "SELECT product_id, ?, ?, ?, available_meters, reserved_meters, ?, ? FROM b) " +
+            "UPDATE products SET quantity = GREATEST(CAST(FLOOR(b.available_meters) AS INTEGER), 0) " +
+            "FROM b WHERE products.id = b.product_id";
+
+    private static final String APPLY_SQL = String.format(APPLY_SQL_TEMPLATE, "");
+
+    private static final String GUARDED_APPLY_SQL = String.format(APPLY_SQL_TEMPLATE,
+            " AND available_meters + ? >= 0");
+
+    private static final String SYNC_PRODUCT_SQL =
+            "UPDATE products SET quantity = GREATEST(CAST(FLOOR(b.available_meters) AS INTEGER), 0) " +
+            "FROM inventory_balances b WHERE b.product_id = ? AND products.id = b.product_id";
+
+    private static final String AVAILABLE_SQL =
+            "SELECT p.id, COALESCE(b.available_meters, p.quantity, 0) FROM products p " +
+            "LEFT JOIN inventory_balances b ON b.product_id = p.id WHERE p.id IN (:ids)";
+
+    private static final String AUDIT_SQL =
+            "SELECT b.product_id, b.available_meters, b.reserved_meters, " +
+            "COALESCE(SUM(m.available_delta), 0), COALESCE(SUM(m.reserved_delta), 0) " +
+            "FROM inventory_balances b LEFT JOIN inventory_movements m ON m.product_id = b.product_id " +
+            "GROUP BY b.product_id, b.available_meters, b.reserved_meters " +
+            "HAVING b.available_meters <> COALESCE(SUM(m.available_delta), 0) " +
+            "OR b.reserved_meters <> COALESCE(SUM(m.reserved_delta), 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogEventPublisher catalogEventPublisher;
+
+    public InventoryLedger(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            CatalogEventPublisher catalogEventPublisher
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogEventPublisher = catalogEventPublisher;
+    }
+
+    /**
+     * Hareketleri uygula (ürün başına bir hareket, tek batch)
+     *
+     * @param meters ürün id → pozitif metre; yön hareket tipinden gelir
+     * @return ürün id sırasıyla uygulanıp uygulanmadığı (guarded tipte satılabilir metre yetersizse false)
+     */
+    @Transactional
+    public boolean[] apply(InventoryMovementType type, String referenceKey, SortedMap<Long, BigDecimal> meters) {
+        boolean[] applied = new boolean[meters.size()];
+        if (meters.isEmpty()) {
+            return applied;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        open(meters.keySet(), now);
+
+        List<Object[]> rows = new ArrayList<>(meters.size());
+        meters.forEach((productId, amount) -> {
+            BigDecimal availableDelta = StockMeters.normalize(amount.multiply(BigDecimal.valueOf(type.availableSign())));
+            BigDecimal reservedDelta = StockMeters.normalize(amount.multiply(BigDecimal.valueOf(type.reservedSign())));
+            rows.add(type.guarded()
+                    ? new Object[]{availableDelta, reservedDelta, now, productId, availableDelta,
+                            type.name(), availableDelta, reservedDelta, referenceKey, now}
+                    : new Object[]{availableDelta, reservedDelta, now, productId,
+                            type.name(), availableDelta, reservedDelta, referenceKey, now});
+        });
+        int[] updated = jdbcTemplate.batchUpdate(type.guarded() ? GUARDED_APPLY_SQL : APPLY_SQL, rows);
+
+        int index = 0;
+        for (Long productId : meters.keySet()) {
+            // Batch sürücüsü satır sayısını bildirmezse (SUCCESS_NO_INFO) uygulanmış kabul edilir
+            applied[index] = updated[index] != 0;
+            if (applied[index]) {
+                catalogEventPublisher.stockChanged(productId);
+            }
+            index++;
+        }
+        return applied;
+    }
+
+    /**
+     * Satılabilir metreyi verilen değere getir (admin stok düzeltmesi; fark ADJUSTMENT olarak yazılır)
+     * Değer aynıysa yalnızca products.quantity bakiye ile eşitlenir.
+     *
+     * @return uygulanan fark
+     */
+    @Transactional
+    public BigDecimal adjustTo(Long productId, BigDecimal availableMeters, String referenceKey) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        open(List.of(productId), now);
+        List<BigDecimal> current = jdbcTemplate.queryForList(
+                "SELECT available_meters FROM inventory_balances WHERE product_id = ? FOR UPDATE",
+                BigDecimal.class, productId);
+        if (current.isEmpty()) {
+            // Ürün yok
+            return StockMeters.zero();
+        }
+        BigDecimal delta = StockMeters.normalize(availableMeters).subtract(current.get(0));
+        if (delta.signum() == 0) {
+            jdbcTemplate.update(SYNC_PRODUCT_SQL, productId);
+            return delta;
+        }
+        jdbcTemplate.update(APPLY_SQL, delta, StockMeters.zero(), now, productId,
+                InventoryMovementType.ADJUSTMENT.name(), delta, StockMeters.zero(), referenceKey, now);
+        catalogEventPublisher.stockChanged(productId);
+        log.info("Stok düzeltildi - productId: {}, fark: {} m, yeni: {} m, kaynak: {}",
+                productId, delta, StockMeters.normalize(availableMeters), referenceKey);
+        return delta;
+    }
+
+    /**
+     * Satılabilir metre (ledger'a geçmemiş ürün için products.quantity)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> available(Collection<Long> productIds) {
+        Map<Long, BigDecimal> available = new HashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return available;
+        }
+        namedParameterJdbcTemplate.query(AVAILABLE_SQL, Map.of("ids", productIds), rs -> {
+            available.put(rs.getLong(1), StockMeters.normalize(rs.getBigDecimal(2)));
+        });
+        return available;
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal available(Long productId) {
+        return available(List.of(productId)).getOrDefault(productId, StockMeters.zero());
+    }
+
+    /**
+     * Ürünün bakiyesi ve son hareketleri (admin denetimi)
+     *
+     * @param beforeId bu id'den eski hareketler (ilk sayfa için null)
+     */
+    @Transactional(readOnly = true)
+    public LedgerView view(Long productId, Long beforeId, int limit) {
+        List<LedgerView.Balance> balance = jdbcTemplate.query(
+                "SELECT available_meters, reserved_meters, updated_at FROM inventory_balances WHERE product_id = ?",
+                (rs, rowNum) -> new LedgerView.Balance(rs.getBigDecimal(1), rs.getBigDecimal(2),
+                        rs.getTimestamp(3).toLocalDateTime()),
+                productId);
+        List<LedgerView.Movement> movements = jdbcTemplate.query(
+                "SELECT id, movement_type, available_delta, reserved_delta, available_after, reserved_after, " +
+                "reference_key, created_at FROM inventory_movements WHERE product_id = ? AND id < ? " +
+                "ORDER BY id DESC LIMIT ?",
+                (rs, rowNum) -> new LedgerView.Movement(rs.getLong(1), rs.getString(2), rs.getBigDecimal(3),
+                        rs.getBigDecimal(4), rs.getBigDecimal(5), rs.getBigDecimal(6), rs.getString(7),
+                        rs.getTimestamp(8).toLocalDateTime()),
+                productId, beforeId != null ? beforeId : Long.MAX_VALUE, limit);
+        return new LedgerView(productId, balance.isEmpty() ? null : balance.get(0), movements);
+    }
+
+    /**
+     * Ledger'a geçmemiş tüm ürünleri mevcut stokları ile aç
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void openAll() {
+        try {
+            Integer opened = transactionTemplate.execute(status -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                return jdbcTemplate.update(OPEN_ALL_SQL, now, now);
+            });
+            if (opened != null && opened > 0) {
+                log.info("{} ürün stok ledger'ına açılış bakiyesi ile eklendi", opened);
+            }
+        } catch (Exception e) {
+            log.error("Stok ledger açılışı yapılırken hata: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Bakiyeleri hareket toplamları ile karşılaştır
+     * Varsayılan: Her gün saat 04:45
+     */
+    @Scheduled(cron = "${inventory.ledger.audit-cron:0 45 4 * * ?}")
+    public void audit() {
+        try {
+            List<String> drifts = transactionTemplate.execute(status -> jdbcTemplate.query(AUDIT_SQL,
+                    (rs, rowNum) -> String.format("productId=%d bakiye=%s/%s hareket=%s/%s",
+                            rs.getLong(1), rs.getBigDecimal(2), rs.getBigDecimal(3),
+                            rs.getBigDecimal(4), rs.getBigDecimal(5))));
+            if (drifts == null || drifts.isEmpty()) {
+                log.info("Stok ledger denetimi: tüm bakiyeler hareketlerle tutarlı");
+            } else {
+                log.error("Stok ledger denetimi: {} üründe bakiye hareket toplamından farklı: {}", drifts.size(), drifts);
+            }
+        } catch (Exception e) {
+            log.error("Stok ledger denetimi yapılırken hata: {}", e.getMessage(), e);
+        }
+    }
+
+    private void open(Collection<Long> productIds, Timestamp now) {
+        List<Object[]> rows = new ArrayList<>(productIds.size());
+        for (Long productId : new TreeSet<>(productIds)) {
+            rows.add(new Object[]{now, productId, now});
+        }
+        jdbcTemplate.batchUpdate(OPEN_SQL, rows);
+    }
+
+    /**
+     * Ürün bakiyesi ve hareketleri
+     */
+    public record LedgerView(Long productId, Balance balance, List<Movement> movements) {
+
+        public record Balance(BigDecimal availableMeters, BigDecimal reservedMeters, LocalDateTime updatedAt) {
+        }
+
+        public record Movement(long id, String type, BigDecimal availableDelta, BigDecimal reservedDelta,
+                               BigDecimal availableAfter, BigDecimal reservedAfter, String referenceKey,
+                               LocalDateTime createdAt) {
+        }
+    }
+}
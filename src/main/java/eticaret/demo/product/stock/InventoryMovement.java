@@ -0,0 +1,60 @@
+package eticaret.demo.product.stock;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Stok hareketi (yalnızca eklenir, güncellenmez/silinmez)
+ * Her satır bakiyeye uygulanan farkı ve uygulama sonrası bakiyeyi taşır;
+ * bir ürünün farklarının toplamı her zaman inventory_balances satırına eşittir (denetim).
+ * Yazma/okuma InventoryLedger üzerinden JDBC ile yapılır; entity tablo şeması içindir.
+ */
+@Entity
+@Table(name = "inventory_movements", indexes = {
+    @Index(name = "idx_inventory_movement_product_id", columnList = "product_id, id"),
+    @Index(name = "idx_inventory_movement_reference", columnList = "reference_key")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", length = 20, nullable = false)
+    private InventoryMovementType movementType;
+
+    @Column(name = "available_delta", nullable = false, precision = 12, scale = 3)
+    private BigDecimal availableDelta;
+
+    @Column(name = "reserved_delta", nullable = false, precision = 12, scale = 3)
+    private BigDecimal reservedDelta;
+
+    @Column(name = "available_after", nullable = false, precision = 12, scale = 3)
+    private BigDecimal availableAfter;
+
+    @Column(name = "reserved_after", nullable = false, precision = 12, scale = 3)
+    private BigDecimal reservedAfter;
+
+    /**
+     * Hareketin kaynağı (3D Secure conversationId, sipariş numarası, admin e-postası)
+     */
+    @Column(name = "reference_key", length = 100)
+    private String referenceKey;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,45 @@
+package eticaret.demo.product.stock;
+
+/**
+ * Stok hareket tipi ve bakiyeye etkisi (satılabilir / ayrılmış metre)
+ */
+public enum InventoryMovementType {
+    OPENING(1, 0, false),       // Ledger'a geçişte ürünün mevcut stoğu ile açılış
+    ADJUSTMENT(1, 0, false),    // Admin stok düzeltmesi (fark kadar)
+    RESERVE(-1, 1, true),       // Ödeme başlatıldı: satılabilirden ayrılmışa (yetersizse yapılmaz)
+    COMMIT(0, -1, false),       // Ödeme tamamlandı: ayrılmış stok satıldı
+    RELEASE(1, -1, false),      // Ödeme başarısız / süresi doldu: ayrılmıştan satılabilire
+    CONSUME(-1, 0, false),      // Ayırma olmadan satış (ayırma süresi dolduktan sonra gelen ödeme)
+    RESTOCK(1, 0, false);       // İade sonrası geri ekleme
+
+    private final int availableSign;
+    private final int reservedSign;
+    private final boolean guarded;
+
+    InventoryMovementType(int availableSign, int reservedSign, boolean guarded) {
+        this.availableSign = availableSign;
+        this.reservedSign = reservedSign;
+        this.guarded = guarded;
+    }
+
+    /**
+     * Satılabilir metreye etkisi (+1, 0, -1)
+     */
+    public int availableSign() {
+        return availableSign;
+    }
+
+    /**
+     * Ayrılmış metreye etkisi (+1, 0, -1)
+     */
+    public int reservedSign() {
+        return reservedSign;
+    }
+
+    /**
+     * Satılabilir metre yetersizse hareket uygulanmaz
+     */
+    public boolean guarded() {
+        return guarded;
+    }
+}
@@ -0,0 +1,106 @@
+package eticaret.demo.product.stock;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stok metre hesapları
+ * - Stok ve hareketler metre cinsinden 3 ondalık hassasiyetle (milimetre) tutulur; kesir kaybolmaz
+ * - Pile tipi ("1x2.5" → 2.5) bir kez ayrıştırılır ve önbellekte tutulur (pile tipleri sınırlı sayıdadır)
+ */
+@Slf4j
+public final class StockMeters {
+
+    /**
+     * Metre ondalık hassasiyeti (NUMERIC(12,3) kolonları ile aynı)
+     */
+    public static final int SCALE = 3;
+
+    private static final int MAX_CACHED_PLEAT_TYPES = 256;
+    private static final BigDecimal CENTIMETERS_PER_METER = BigDecimal.valueOf(100);
+    private static final Map<String, BigDecimal> PLEAT_MULTIPLIERS = new ConcurrentHashMap<>();
+
+    private StockMeters() {
+    }
+
+    /**
+     * Pile çarpanı (örn: "1x2.5" → 2.5); boş, "pilesiz" veya okunamazsa 1
+     */
+    public static BigDecimal pleatMultiplier(String pleatType) {
+        if (pleatType == null || pleatType.isEmpty()) {
+            return BigDecimal.ONE;
+        }
+        BigDecimal cached = PLEAT_MULTIPLIERS.get(pleatType);
+        if (cached != null) {
+            return cached;
+        }
+        BigDecimal multiplier = parsePleatMultiplier(pleatType);
+        if (PLEAT_MULTIPLIERS.size() < MAX_CACHED_PLEAT_TYPES) {
+            PLEAT_MULTIPLIERS.put(pleatType, multiplier);
+        }
+        return multiplier;
+    }
+
+    private static BigDecimal parsePleatMultiplier(String pleatType) {
+        String[] parts = pleatType.split("x");
+        if (parts.length != 2) {
+            return BigDecimal.ONE;
+        }
+        try {
+            BigDecimal multiplier = new BigDecimal(parts[1].trim());
+            return multiplier.signum() > 0 ? multiplier : BigDecimal.ONE;
+        } catch (NumberFormatException e) {
+            log.warn("PleatType parse edilemedi: {}, varsayılan 1.0 kullanılıyor", pleatType);
+            return BigDecimal.ONE;
+        }
+    }
+
+    /**
+     * Sipariş/sepet satırının stoktan düşülecek miktarı
+     * Formül: en (metre) * pile çarpanı * adet
+     *
+     * @param widthInCentimeters en (cm; sepet ve ödeme isteklerindeki birim)
+     */
+    public static BigDecimal fromCentimeters(Double widthInCentimeters, String pleatType, Integer quantity) {
+        if (widthInCentimeters == null) {
+            return zero();
+        }
+        return required(BigDecimal.valueOf(widthInCentimeters).divide(CENTIMETERS_PER_METER), pleatType, quantity);
+    }
+
+    /**
+     * Sipariş satırının stoktan düşülmüş miktarı
+     *
+     * @param widthInMeters en (metre; OrderItem'daki birim)
+     */
+    public static BigDecimal fromMeters(Double widthInMeters, String pleatType, Integer quantity) {
+        if (widthInMeters == null) {
+            return zero();
+        }
+        return required(BigDecimal.valueOf(widthInMeters), pleatType, quantity);
+    }
+
+    /**
+     * Metreyi ledger hassasiyetine getir
+     */
+    public static BigDecimal normalize(BigDecimal meters) {
+        return meters == null ? zero() : meters.setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    public static BigDecimal zero() {
+        return BigDecimal.ZERO.setScale(SCALE);
+    }
+
+    private static BigDecimal required(BigDecimal widthInMeters, String pleatType, Integer quantity) {
+        if (quantity == null || quantity <= 0 || widthInMeters.signum() <= 0) {
+            return zero();
+        }
+        return normalize(widthInMeters
+                .multiply(pleatMultiplier(pleatType))
+                .multiply(BigDecimal.valueOf(quantity)));
+    }
+}
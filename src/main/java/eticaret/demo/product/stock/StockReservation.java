@@ -0,0 +1,55 @@
+package eticaret.demo.product.stock;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ödeme süresince ayrılmış stok satırı (ürün başına bir satır)
+ * reservationKey 3D Secure oturumunun conversationId'sidir; aynı anahtardaki satırlar birlikte
+ * onaylanır veya serbest bırakılır. Ayrılan metre ayırma anında satılabilir stoktan ayrılmış stoğa geçer
+ * (InventoryLedger RESERVE hareketi).
+ * Yazma/okuma StockReservationService üzerinden JDBC ile yapılır; entity tablo şeması içindir.
+ */
+@Entity
+@Table(name = "stock_reservations", indexes = {
+    @Index(name = "idx_stock_reservation_key", columnList = "reservation_key"),
+    @Index(name = "idx_stock_reservation_status_expires", columnList = "status, expires_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_key", length = 64, nullable = false)
+    private String reservationKey;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "meters", nullable = false, precision = 12, scale = 3)
+    private BigDecimal meters;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private StockReservationStatus status;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,221 @@
+package eticaret.demo.product.stock;
+
+import eticaret.demo.common.exception.ProductException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Atomik stok ayırma servisi
+ * - Stok, ödeme başlatılırken koşullu ledger hareketi (satılabilir >= istenen) ile sipariş başına tek batch'te ayrılır;
+ *   satırlar ürün id sırasıyla kilitlenir (deadlock olmaz), herhangi bir ürün yetersizse tümü geri alınır
+ * - Ayırma 3D Secure oturumuna (conversationId) bağlıdır ve süreyle sınırlıdır:
+ *   ödeme başarılı → COMMITTED, başarısız / süre doldu → RELEASED ve metre satılabilir stoğa geri döner
+ * - Durum geçişleri "status = 'ACTIVE'" koşullu UPDATE ile yapılır; aynı ayırma iki kez onaylanamaz
+ *   veya iki kez serbest bırakılamaz (birden fazla instance ve eşzamanlı callback güvenli)
+ * Tüm işlemler kendi kısa transaction'ında çalışır; ürün satır kilitleri harici ödeme çağrıları boyunca tutulmaz.
+ * Miktarlar metre cinsinden, 3 ondalık hassasiyetle tutulur (StockMeters).
+ */
+@Service
+@Slf4j
+public class StockReservationService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO stock_reservations (reservation_key, product_id, meters, status, expires_at, created_at, updated_at) " +
+            "VALUES (?, ?, ?, 'ACTIVE', ?, ?, ?)";
+
+    private static final String COMMIT_SQL =
+            "UPDATE stock_reservations SET status = 'COMMITTED', updated_at = ? WHERE reservation_key = ? AND status = 'ACTIVE' " +
+            "RETURNING product_id, meters";
+
+    private static final String RELEASE_SQL =
+            "UPDATE stock_reservations SET status = 'RELEASED', updated_at = ? WHERE reservation_key = ? AND status = 'ACTIVE' " +
+            "RETURNING product_id, meters";
+
+    private static final String EXPIRED_KEYS_SQL =
+            "SELECT DISTINCT reservation_key FROM stock_reservations WHERE status = 'ACTIVE' AND expires_at < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryLedger inventoryLedger;
+    private final Duration ttl;
+    private final int sweepBatchSize;
+
+    public StockReservationService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            InventoryLedger inventoryLedger,
+            @Value("${stock.reservation.ttl-minutes:20}") long ttlMinutes,
+            @Value("${stock.reservation.sweep-batch-size:200}") int sweepBatchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.inventoryLedger = inventoryLedger;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    /**
+     * Stok ayır (hepsi ya da hiçbiri)
+     *
+     * @param reservationKey 3D Secure conversationId
+     * @param meters         ürün id → metre (aynı ürünün satırları toplanır)
+     * @throws ProductException herhangi bir ürünün stoğu yetersizse (hiçbir stok ayrılmaz)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void reserve(String reservationKey, Map<Long, BigDecimal> meters) {
+        TreeMap<Long, BigDecimal> ordered = positive(meters);
+        if (ordered.isEmpty()) {
+            return;
+        }
+        boolean[] applied = inventoryLedger.apply(InventoryMovementType.RESERVE, reservationKey, ordered);
+
+        int index = 0;
+        for (Map.Entry<Long, BigDecimal> entry : ordered.entrySet()) {
+            if (!applied[index++]) {
+                BigDecimal available = inventoryLedger.available(entry.getKey());
+                log.info("Stok ayrılamadı - key: {}, productId: {}, istenen: {} m, mevcut: {} m",
+                        reservationKey, entry.getKey(), entry.getValue(), available);
+                // Exception transaction'ı geri alır; önceki ürünler için yazılan hareketler de geri alınır
+                throw ProductException.insufficientStock(entry.getKey(), entry.getValue(), available);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp expiresAt = Timestamp.valueOf(LocalDateTime.now().plus(ttl));
+        List<Object[]> rows = new ArrayList<>(ordered.size());
+        ordered.forEach((productId, amount) ->
+                rows.add(new Object[]{reservationKey, productId, amount, expiresAt, now, now}));
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        log.info("Stok ayrıldı - key: {}, ürün sayısı: {}", reservationKey, ordered.size());
+    }
+
+    /**
+     * Ödeme tamamlandı: ayırmayı kalıcı yap (ayrılmış metre satılmış sayılır)
+     *
+     * @return ACTIVE ayırma yoksa (hiç yapılmamış ya da süresi dolup serbest bırakılmış) false
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean commit(String reservationKey) {
+        TreeMap<Long, BigDecimal> committed = transition(COMMIT_SQL, reservationKey);
+        if (committed.isEmpty()) {
+            return false;
+        }
+        inventoryLedger.apply(InventoryMovementType.COMMIT, reservationKey, committed);
+        log.info("Stok ayırması onaylandı - key: {}, ürün sayısı: {}", reservationKey, committed.size());
+        return true;
+    }
+
+    /**
+     * Ödeme başarısız / süresi doldu: ayırmayı serbest bırak ve metreyi satılabilir stoğa geri ekle (idempotent)
+     *
+     * @return geri eklenen ürün satırı sayısı
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int release(String reservationKey) {
+        return releaseInCurrentTransaction(reservationKey);
+    }
+
+    private int releaseInCurrentTransaction(String reservationKey) {
+        TreeMap<Long, BigDecimal> released = transition(RELEASE_SQL, reservationKey);
+        if (released.isEmpty()) {
+            return 0;
+        }
+        inventoryLedger.apply(InventoryMovementType.RELEASE, reservationKey, released);
+        log.info("Stok ayırması serbest bırakıldı - key: {}, ürün sayısı: {}", reservationKey, released.size());
+        return released.size();
+    }
+
+    private TreeMap<Long, BigDecimal> transition(String sql, String reservationKey) {
+        TreeMap<Long, BigDecimal> rows = new TreeMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            rows.merge(rs.getLong(1), rs.getBigDecimal(2), BigDecimal::add);
+        }, Timestamp.valueOf(LocalDateTime.now()), reservationKey);
+        return rows;
+    }
+
+    /**
+     * Ayırma olmadan stok düş (ödeme alınmış ama ayırma bulunamamışsa)
+     * Satış gerçekleştiği için koşulsuz düşülür; satılabilir metre negatife inerse fazla satış ledger'da görünür.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void consume(String referenceKey, Map<Long, BigDecimal> meters) {
+        inventoryLedger.apply(InventoryMovementType.CONSUME, referenceKey, positive(meters));
+    }
+
+    /**
+     * Bu anahtarın satışı stoğa zaten yansıdı mı (ayırma onaylandı veya ayırmasız düşüldü)
+     * Tekrar denenen ödeme adımlarının stoğu ikinci kez düşmemesi için.
+     */
+    @Transactional(readOnly = true)
+    public boolean isSettled(String referenceKey) {
+        Boolean settled = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM stock_reservations WHERE reservation_key = ? AND status = 'COMMITTED') " +
+                "OR EXISTS (SELECT 1 FROM inventory_movements WHERE reference_key = ? AND movement_type = 'CONSUME')",
+                Boolean.class, referenceKey, referenceKey);
+        return Boolean.TRUE.equals(settled);
+    }
+
+    /**
+     * İade sonrası stoğu geri ekle
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void restock(String referenceKey, Map<Long, BigDecimal> meters) {
+        TreeMap<Long, BigDecimal> ordered = positive(meters);
+        if (ordered.isEmpty()) {
+            return;
+        }
+        inventoryLedger.apply(InventoryMovementType.RESTOCK, referenceKey, ordered);
+        log.info("Stok geri eklendi - kaynak: {}, ürün sayısı: {}", referenceKey, ordered.size());
+    }
+
+    /**
+     * Süresi dolan ayırmaları serbest bırak (ödeme callback'i hiç gelmeyen oturumlar)
+     * Varsayılan: Her dakika
+     */
+    @Scheduled(fixedDelayString = "${stock.reservation.sweep-interval-ms:60000}")
+    public void releaseExpired() {
+        try {
+            List<String> keys = transactionTemplate.execute(status -> jdbcTemplate.queryForList(
+                    EXPIRED_KEYS_SQL, String.class, Timestamp.valueOf(LocalDateTime.now()), sweepBatchSize));
+            if (keys == null) {
+                return;
+            }
+            for (String key : keys) {
+                transactionTemplate.executeWithoutResult(status -> releaseInCurrentTransaction(key));
+            }
+            if (!keys.isEmpty()) {
+                log.info("Süresi dolan {} stok ayırması serbest bırakıldı", keys.size());
+            }
+        } catch (Exception e) {
+            log.error("Süresi dolan stok ayırmaları serbest bırakılırken hata: {}", e.getMessage(), e);
+        }
+    }
+
+    private static TreeMap<Long, BigDecimal> positive(Map<Long, BigDecimal> meters) {
+        TreeMap<Long, BigDecimal> ordered = new TreeMap<>();
+        if (meters != null) {
+            meters.forEach((productId, amount) -> {
+                if (productId != null && amount != null && amount.signum() > 0) {
+                    ordered.merge(productId, StockMeters.normalize(amount), BigDecimal::add);
+                }
+            });
+        }
+        return ordered;
+    }
+}
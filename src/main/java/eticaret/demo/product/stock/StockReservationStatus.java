@@ -0,0 +1,7 @@
+package eticaret.demo.product.stock;
+
+public enum StockReservationStatus {
+    ACTIVE,     // Stok ayrıldı, ödeme bekleniyor
+    COMMITTED,  // Ödeme tamamlandı, stok kalıcı olarak düşüldü
+    RELEASED    // Ödeme başarısız / süresi doldu, stok geri verildi
+}
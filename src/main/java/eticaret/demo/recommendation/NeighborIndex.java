@@ -0,0 +1,144 @@
+package eticaret.demo.recommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ürün başına ilk K komşuyu tutan değişmez (immutable), kompakt indeks
+ * Veriler nesne yerine ilkel dizilerde (CSR düzeni) tutulur:
+ * - productIds: sıralı ürün ID'leri (ikili arama ile bulunur)
+ * - offsets: productIds[i] ürününün komşuları [offsets[i], offsets[i+1]) aralığındadır
+ * - neighborIds / scores: skora göre azalan sırada komşular
+ * Sorgu bir ikili arama ve dizi kopyasıdır; veritabanına gidilmez.
+ */
+public final class NeighborIndex {
+
+    private static final NeighborIndex EMPTY = new NeighborIndex(new long[0], new int[]{0}, new long[0], new int[0]);
+
+    private final long[] productIds;
+    private final int[] offsets;
+    private final long[] neighborIds;
+    private final int[] scores;
+
+    private NeighborIndex(long[] productIds, int[] offsets, long[] neighborIds, int[] scores) {
+        this.productIds = productIds;
+        this.offsets = offsets;
+        this.neighborIds = neighborIds;
+        this.scores = scores;
+    }
+
+    public static NeighborIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Ürünün komşu ID'leri (skora göre azalan)
+     */
+    public long[] neighbors(long productId) {
+        int index = Arrays.binarySearch(productIds, productId);
+        if (index < 0) {
+            return new long[0];
+        }
+        return Arrays.copyOfRange(neighborIds, offsets[index], offsets[index + 1]);
+    }
+
+    /**
+     * Ürünün komşu skorları (neighbors() ile aynı sırada)
+     */
+    public int[] scores(long productId) {
+        int index = Arrays.binarySearch(productIds, productId);
+        if (index < 0) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(scores, offsets[index], offsets[index + 1]);
+    }
+
+    /**
+     * Komşusu olan ürün sayısı
+     */
+    public int productCount() {
+        return productIds.length;
+    }
+
+    /**
+     * Toplam komşuluk kaydı sayısı
+     */
+    public int edgeCount() {
+        return neighborIds.length;
+    }
+
+    /**
+     * Tüm komşulukları sırayla gez (kalıcı kayıt için)
+     */
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (int i = 0; i < productIds.length; i++) {
+            for (int position = offsets[i]; position < offsets[i + 1]; position++) {
+                visitor.visit(productIds[i], neighborIds[position], scores[position], position - offsets[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void visit(long productId, long neighborId, int score, int rank);
+    }
+
+    /**
+     * Ham birlikte geçme sayılarından indeks oluşturur
+     * Her ürün için sadece minScore'u geçen en güçlü topK komşu tutulur.
+     */
+    public static NeighborIndex fromCounts(Map<Long, Map<Long, Integer>> counts, int topK, int minScore) {
+        Builder builder = new Builder();
+        counts.forEach((productId, neighbors) -> {
+            List<Map.Entry<Long, Integer>> entries = new ArrayList<>(neighbors.entrySet());
+            entries.removeIf(entry -> entry.getValue() < minScore);
+            entries.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            int limit = Math.min(topK, entries.size());
+            for (int i = 0; i < limit; i++) {
+                builder.add(productId, entries.get(i).getKey(), entries.get(i).getValue());
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Sıralı (ürün, komşu, skor) kayıtlarından indeks oluşturan yardımcı
+     * Aynı ürüne ait kayıtlar skor sırasına göre eklenmelidir; ürünlerin sırası önemsizdir.
+     */
+    public static final class Builder {
+        private final Map<Long, List<long[]>> rows = new HashMap<>();
+
+        public Builder add(long productId, long neighborId, int score) {
+            rows.computeIfAbsent(productId, k -> new ArrayList<>()).add(new long[]{neighborId, score});
+            return this;
+        }
+
+        public NeighborIndex build() {
+            if (rows.isEmpty()) {
+                return EMPTY;
+            }
+            long[] ids = rows.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            int total = rows.values().stream().mapToInt(List::size).sum();
+
+            int[] offsets = new int[ids.length + 1];
+            long[] neighborIds = new long[total];
+            int[] scores = new int[total];
+
+            int position = 0;
+            for (int i = 0; i < ids.length; i++) {
+                offsets[i] = position;
+                for (long[] row : rows.get(ids[i])) {
+                    neighborIds[position] = row[0];
+                    scores[position] = (int) row[1];
+                    position++;
+                }
+            }
+            offsets[ids.length] = position;
+            return new NeighborIndex(ids, offsets, neighborIds, scores);
+        }
+    }
+}
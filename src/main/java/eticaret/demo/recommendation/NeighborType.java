@@ -0,0 +1,19 @@
+package eticaret.demo.recommendation;
+
+/**
+ * Ürün komşuluk türü
+ */
+public enum NeighborType {
+    CO_PURCHASE("Birlikte Satın Alınan"),
+    CO_VIEW("Birlikte Görüntülenen");
+
+    private final String displayName;
+
+    NeighborType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
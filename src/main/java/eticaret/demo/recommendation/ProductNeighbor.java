@@ -0,0 +1,49 @@
+package eticaret.demo.recommendation;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Önceden hesaplanmış ürün komşuluğu (ürün başına ilk K komşu)
+ * Uygulama açılışında bellekteki indeksin hızlı yüklenmesi için saklanır;
+ * sadece ProductNeighborIndexService tarafından toplu olarak yazılır.
+ */
+@Entity
+@Table(name = "product_neighbors", indexes = {
+    @Index(name = "idx_neighbor_type_product", columnList = "neighbor_type, product_id, rank_no")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductNeighbor {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "neighbor_type", nullable = false, length = 20)
+    private NeighborType neighborType;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "neighbor_id", nullable = false)
+    private Long neighborId;
+
+    /**
+     * Birlikte geçme sayısı (sipariş veya kullanıcı)
+     */
+    @Column(name = "score", nullable = false)
+    private Integer score;
+
+    /**
+     * Ürünün komşuları arasındaki sıra (0 = en güçlü)
+     */
+    @Column(name = "rank_no", nullable = false)
+    private Integer rankNo;
+}
@@ -0,0 +1,263 @@
+package eticaret.demo.recommendation;
+
+import eticaret.demo.order.OrderItemRepository;
+import eticaret.demo.product.ProductViewRepository;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Ürünler arası komşuluk (item-to-item) indeksi servisi
+ * - Sipariş kalemlerinden "birlikte satın alınan", kullanıcı görüntülemelerinden "birlikte görüntülenen"
+ *   ilk K komşu periyodik olarak hesaplanır (kaynak tablolar tek geçişte akış olarak okunur)
+ * - Sonuç bellekte ilkel dizili NeighborIndex olarak tutulur, istek başına sorgu yapılmaz
+ * - Sonuç product_neighbors tablosuna yazılır; açılışta hesaplama yerine bu tablodan yüklenir
+ */
+@Service
+@Slf4j
+public class ProductNeighborIndexService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product_neighbors (neighbor_type, product_id, neighbor_id, score, rank_no) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT neighbor_type, product_id, neighbor_id, score FROM product_neighbors " +
+            "ORDER BY neighbor_type, product_id, rank_no";
+
+    private final OrderItemRepository orderItemRepository;
+    private final ProductViewRepository productViewRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    private final int topK;
+    private final int minCoPurchaseCount;
+    private final int minCoViewCount;
+    private final int maxBasketSize;
+
+    private final AtomicReference<NeighborIndex> coPurchaseIndex = new AtomicReference<>(NeighborIndex.empty());
+    private final AtomicReference<NeighborIndex> coViewIndex = new AtomicReference<>(NeighborIndex.empty());
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private volatile LocalDateTime builtAt;
+    private volatile long lastBuildDurationMs;
+
+    public ProductNeighborIndexService(
+            OrderItemRepository orderItemRepository,
+            ProductViewRepository productViewRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${recommendation.neighbors.top-k:20}") int topK,
+            @Value("${recommendation.neighbors.min-co-purchase:2}") int minCoPurchaseCount,
+            @Value("${recommendation.neighbors.min-co-view:1}") int minCoViewCount,
+            @Value("${recommendation.neighbors.max-basket-size:50}") int maxBasketSize
+    ) {
+        this.orderItemRepository = orderItemRepository;
+        this.productViewRepository = productViewRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.topK = topK;
+        this.minCoPurchaseCount = minCoPurchaseCount;
+        this.minCoViewCount = minCoViewCount;
+        this.maxBasketSize = maxBasketSize;
+    }
+
+    /**
+     * Güncel "birlikte satın alınan" indeksi
+     */
+    public NeighborIndex coPurchaseIndex() {
+        return coPurchaseIndex.get();
+    }
+
+    /**
+     * Güncel "birlikte görüntülenen" indeksi
+     * Komşular ve skorlar aynı indeks örneğinden okunmalıdır (yenileme sırasında tutarlılık için).
+     */
+    public NeighborIndex coViewIndex() {
+        return coViewIndex.get();
+    }
+
+    /**
+     * Açılışta kayıtlı indeksi yükle, yoksa hesapla
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            load();
+            if (coPurchaseIndex.get().productCount() == 0 && coViewIndex.get().productCount() == 0) {
+                log.info("Kayıtlı ürün komşuluk indeksi yok, hesaplanıyor");
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Ürün komşuluk indeksi yüklenirken hata: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * İndeksi kaynak tablolardan yeniden hesapla ve kaydet
+     * Varsayılan: saatte bir
+     */
+    @Scheduled(fixedDelayString = "${recommendation.neighbors.rebuild-interval-ms:3600000}",
+            initialDelayString = "${recommendation.neighbors.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.debug("Ürün komşuluk indeksi zaten hesaplanıyor");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+
+            NeighborIndex coPurchase = readOnlyTransaction.execute(status -> {
+                try (Stream<Object[]> pairs = orderItemRepository.streamOrderProductPairs()) {
+                    return NeighborIndex.fromCounts(countCoOccurrences(pairs), topK, minCoPurchaseCount);
+                }
+            });
+            NeighborIndex coView = readOnlyTransaction.execute(status -> {
+                try (Stream<Object[]> pairs = productViewRepository.streamUserProductPairs()) {
+                    return NeighborIndex.fromCounts(countCoOccurrences(pairs), topK, minCoViewCount);
+                }
+            });
+
+            persist(coPurchase, coView);
+            coPurchaseIndex.set(coPurchase);
+            coViewIndex.set(coView);
+            builtAt = LocalDateTime.now();
+            lastBuildDurationMs = System.currentTimeMillis() - start;
+
+            log.info("Ürün komşuluk indeksi hesaplandı: birlikte alınan {} ürün/{} kayıt, birlikte görüntülenen {} ürün/{} kayıt, {} ms",
+                    coPurchase.productCount(), coPurchase.edgeCount(),
+                    coView.productCount(), coView.edgeCount(), lastBuildDurationMs);
+        } catch (Exception e) {
+            log.error("Ürün komşuluk indeksi hesaplanırken hata: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * (grup, ürün) çiftlerinden (grup = sipariş veya kullanıcı) ürün çiftlerinin birlikte geçme sayısını çıkar
+     * Çiftler grup ID'sine göre sıralı gelmelidir; bellekte aynı anda sadece bir grubun ürünleri tutulur.
+     */
+    private Map<Long, Map<Long, Integer>> countCoOccurrences(Stream<Object[]> pairs) {
+        Map<Long, Map<Long, Integer>> counts = new HashMap<>();
+        Set<Long> basket = new LinkedHashSet<>();
+        Long[] currentGroup = {null};
+
+        pairs.forEach(row -> {
+            if (row[0] == null || row[1] == null) {
+                return;
+            }
+            Long groupId = ((Number) row[0]).longValue();
+            if (!groupId.equals(currentGroup[0])) {
+                addBasket(counts, basket);
+                basket.clear();
+                currentGroup[0] = groupId;
+            }
+            // Çok büyük sepetler (toplu alım, bot) çift sayısını karesel büyütür; sınırla
+            if (basket.size() < maxBasketSize) {
+                basket.add(((Number) row[1]).longValue());
+            }
+        });
+        addBasket(counts, basket);
+        return counts;
+    }
+
+    private static void addBasket(Map<Long, Map<Long, Integer>> counts, Set<Long> basket) {
+        if (basket.size() < 2) {
+            return;
+        }
+        List<Long> items = new ArrayList<>(basket);
+        for (int i = 0; i < items.size(); i++) {
+            for (int j = i + 1; j < items.size(); j++) {
+                Long a = items.get(i);
+                Long b = items.get(j);
+                counts.computeIfAbsent(a, k -> new HashMap<>()).merge(b, 1, Integer::sum);
+                counts.computeIfAbsent(b, k -> new HashMap<>()).merge(a, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * İndeksi tabloya yaz (tek transaction: okuyucular eski veya yeni kümenin tamamını görür)
+     */
+    private void persist(NeighborIndex coPurchase, NeighborIndex coView) {
+        List<Object[]> rows = new ArrayList<>(coPurchase.edgeCount() + coView.edgeCount());
+        coPurchase.forEachEdge((productId, neighborId, score, rank) ->
+                rows.add(new Object[]{NeighborType.CO_PURCHASE.name(), productId, neighborId, score, rank}));
+        coView.forEachEdge((productId, neighborId, score, rank) ->
+                rows.add(new Object[]{NeighborType.CO_VIEW.name(), productId, neighborId, score, rank}));
+
+        writeTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM product_neighbors");
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, 1000, (ps, row) -> {
+                ps.setString(1, (String) row[0]);
+                ps.setLong(2, (Long) row[1]);
+                ps.setLong(3, (Long) row[2]);
+                ps.setInt(4, (Integer) row[3]);
+                ps.setInt(5, (Integer) row[4]);
+            });
+        });
+    }
+
+    /**
+     * Kayıtlı indeksi tablodan yükle
+     */
+    private void load() {
+        NeighborIndex.Builder coPurchase = new NeighborIndex.Builder();
+        NeighborIndex.Builder coView = new NeighborIndex.Builder();
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(SELECT_SQL, rs -> {
+            NeighborIndex.Builder target = NeighborType.CO_PURCHASE.name().equals(rs.getString(1)) ? coPurchase : coView;
+            target.add(rs.getLong(2), rs.getLong(3), rs.getInt(4));
+        }));
+        coPurchaseIndex.set(coPurchase.build());
+        coViewIndex.set(coView.build());
+        builtAt = LocalDateTime.now();
+        log.info("Ürün komşuluk indeksi yüklendi: birlikte alınan {} ürün, birlikte görüntülenen {} ürün",
+                coPurchaseIndex.get().productCount(), coViewIndex.get().productCount());
+    }
+
+    /**
+     * İndeks durumu (izleme için)
+     */
+    public IndexStats getStats() {
+        return IndexStats.builder()
+                .coPurchaseProducts(coPurchaseIndex.get().productCount())
+                .coPurchaseEdges(coPurchaseIndex.get().edgeCount())
+                .coViewProducts(coViewIndex.get().productCount())
+                .coViewEdges(coViewIndex.get().edgeCount())
+                .builtAt(builtAt)
+                .lastBuildDurationMs(lastBuildDurationMs)
+                .build();
+    }
+
+    @Data
+    @Builder
+    public static class IndexStats {
+        private int coPurchaseProducts;
+        private int coPurchaseEdges;
+        private int coViewProducts;
+        private int coViewEdges;
+        private LocalDateTime builtAt;
+        private long lastBuildDurationMs;
+    }
+}
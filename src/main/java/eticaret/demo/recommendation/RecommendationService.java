@@ -1,10 +1,15 @@
 package eticaret.demo.recommendation;
 
-import eticaret.demo.order.OrderItemRepository;
 import eticaret.demo.product.Product;
+import eticaret.demo.product.ProductLoader;
 import eticaret.demo.product.ProductRepository;
-import eticaret.demo.product.ProductReviewRepository;
+import eticaret.demo.product.ProductStats;
+import eticaret.demo.product.ProductStatsService;
 import eticaret.demo.product.ProductViewRepository;
+import eticaret.demo.product.catalog.CatalogFacetIndex;
+import eticaret.demo.product.catalog.CatalogFacetService;
+import eticaret.demo.product.catalog.CatalogSnapshot;
+import eticaret.demo.product.catalog.CatalogSnapshotService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
@@ -26,43 +31,29 @@ import java.util.stream.Collectors;
 public class RecommendationService {
 
     private final ProductRepository productRepository;
-    private final OrderItemRepository orderItemRepository;
+    private final ProductLoader productLoader;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogFacetService catalogFacetService;
+    private final ProductNeighborIndexService productNeighborIndexService;
     private final ProductViewRepository productViewRepository;
-    private final ProductReviewRepository productReviewRepository;
+    private final ProductStatsService productStatsService;
 
     private static final int MAX_RECOMMENDATIONS = 10;
-    private static final int MIN_PURCHASE_COUNT = 2; // En az 2 kez birlikte alınmış olmalı
     private static final int MIN_RATING = 4; // Minimum rating (4+ yıldız)
     private static final int TREND_DAYS = 30; // Trend ürünler için son 30 gün
 
     /**
      * "Bu ürünü alanlar şunları da aldı" önerisi
-     * Collaborative Filtering - Birlikte alınan ürünleri bulur
+     * Collaborative Filtering - Önceden hesaplanmış komşuluk indeksinden okunur (sorgu yok)
      */
-    @Transactional(readOnly = true)
-    @Cacheable(value = "recommendations", key = "'frequently-bought-' + #productId")
     public List<Product> getFrequentlyBoughtTogether(Long productId) {
         try {
-            // Bu ürünle birlikte alınan ürünleri bul
-            List<Object[]> results = orderItemRepository.findFrequentlyBoughtTogether(productId);
-            
+            CatalogSnapshot catalog = catalogSnapshotService.current();
             List<Product> recommendations = new ArrayList<>();
             
-            for (Object[] result : results) {
-                Long recommendedProductId = ((Number) result[0]).longValue();
-                Long purchaseCount = ((Number) result[1]).longValue();
-                
-                // En az MIN_PURCHASE_COUNT kez birlikte alınmış olmalı
-                if (purchaseCount >= MIN_PURCHASE_COUNT) {
-                    Optional<Product> productOpt = productRepository.findById(recommendedProductId);
-                    if (productOpt.isPresent()) {
-                        Product product = productOpt.get();
-                        // Stoğu biten ürünleri önerme
-                        if (product.getQuantity() != null && product.getQuantity() > 0) {
-                            recommendations.add(product);
-                        }
-                    }
-                }
+            for (long recommendedProductId : productNeighborIndexService.coPurchaseIndex().neighbors(productId)) {
+                // Görüntüde sadece aktif ve stokta olan ürünler bulunur
+                catalog.findById(recommendedProductId).ifPresent(recommendations::add);
                 
                 // Maksimum öneri sayısına ulaşıldıysa dur
                 if (recommendations.size() >= MAX_RECOMMENDATIONS) {
@@ -70,7 +61,7 @@ public class RecommendationService {
                 }
             }
             
-            log.info("Ürün {} için {} adet 'birlikte alınan' önerisi bulundu", productId, recommendations.size());
+            log.debug("Ürün {} için {} adet 'birlikte alınan' önerisi bulundu", productId, recommendations.size());
             return recommendations;
         } catch (Exception e) {
             log.error("Birlikte alınan ürünler bulunurken hata: ", e);
@@ -80,7 +71,7 @@ public class RecommendationService {
 
     /**
      * Kullanıcının gezinme geçmişine göre öneriler
-     * Content-Based Filtering - Benzer ürünleri önerir
+     * Görüntüleme geçmişi tek sorguda okunur, benzer ürünler komşuluk indeksinden toplanır
      */
     @Transactional(readOnly = true)
     public List<Product> getRecommendationsBasedOnBrowsingHistory(Long userId, String ipAddress) {
@@ -100,36 +91,34 @@ public class RecommendationService {
             }
             
             // Son 10 görüntülenen ürünü al
-            List<Long> recentViewedIds = viewedProductIds.stream()
+            Set<Long> recentViewedIds = viewedProductIds.stream()
                     .limit(10)
-                    .collect(Collectors.toList());
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
             
-            // Bu ürünleri görüntüleyen kullanıcıların görüntülediği diğer ürünleri bul
+            // Bu ürünleri görüntüleyen kullanıcıların görüntülediği diğer ürünleri topla
+            NeighborIndex coViewIndex = productNeighborIndexService.coViewIndex();
             Map<Long, Integer> productScores = new HashMap<>();
             
             for (Long viewedProductId : recentViewedIds) {
-                List<Object[]> similarProducts = productViewRepository.findSimilarProductsByUserViews(viewedProductId);
+                long[] similarProductIds = coViewIndex.neighbors(viewedProductId);
+                int[] userCounts = coViewIndex.scores(viewedProductId);
                 
-                for (Object[] result : similarProducts) {
-                    Long similarProductId = ((Number) result[0]).longValue();
-                    Integer userCount = ((Number) result[1]).intValue();
-                    
+                for (int i = 0; i < similarProductIds.length; i++) {
                     // Zaten görüntülenen ürünleri önerme
-                    if (!recentViewedIds.contains(similarProductId)) {
-                        productScores.put(similarProductId, 
-                                productScores.getOrDefault(similarProductId, 0) + userCount);
+                    if (!recentViewedIds.contains(similarProductIds[i])) {
+                        productScores.merge(similarProductIds[i], userCounts[i], Integer::sum);
                     }
                 }
             }
             
-            // Skora göre sırala ve ürünleri getir
+            // Skora göre sırala, ürünleri katalog görüntüsünden al (stokta olmayanlar görüntüde yok)
+            CatalogSnapshot catalog = catalogSnapshotService.current();
             List<Product> recommendations = productScores.entrySet().stream()
                     .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
-                    .limit(MAX_RECOMMENDATIONS)
-                    .map(entry -> productRepository.findById(entry.getKey()))
+                    .map(entry -> catalog.findById(entry.getKey()))
                     .filter(Optional::isPresent)
                     .map(Optional::get)
-                    .filter(product -> product.getQuantity() != null && product.getQuantity() > 0) // Stoğu biten ürünleri önerme
+                    .limit(MAX_RECOMMENDATIONS)
                     .collect(Collectors.toList());
             
             log.info("Kullanıcı {} için {} adet 'gezinme geçmişine göre' önerisi bulundu", 
@@ -150,7 +139,7 @@ public class RecommendationService {
     @Cacheable(value = "recommendations", key = "'category-' + #productId + '-' + #limit")
     public List<Product> getRecommendationsByCategory(Long productId, int limit) {
         try {
-            Optional<Product> productOpt = productRepository.findByIdAndActiveTrue(productId);
+            Optional<Product> productOpt = productLoader.loadActive(productId);
             if (productOpt.isEmpty() || productOpt.get().getCategory() == null) {
                 return Collections.emptyList();
             }
@@ -160,29 +149,22 @@ public class RecommendationService {
             // Aynı kategorideki aktif ürünleri getir
             List<Product> categoryProducts = productRepository.findByCategoryIdAndActiveTrue(categoryId);
             
-            // Rating ve görüntüleme sayısına göre sırala
-            List<Product> recommendations = categoryProducts.stream()
+            List<Product> candidates = categoryProducts.stream()
                     .filter(p -> !p.getId().equals(productId)) // Aynı ürünü önerme
                     .filter(p -> Boolean.TRUE.equals(p.getActive())) // Sadece aktif ürünler
                     .filter(p -> p.getQuantity() != null && p.getQuantity() > 0) // Stoğu biten ürünleri önerme
-                    .sorted((p1, p2) -> {
-                        // Önce rating'e göre, sonra görüntüleme sayısına göre
-                        Double rating1 = productReviewRepository.calculateAverageRatingByProductId(p1.getId());
-                        Double rating2 = productReviewRepository.calculateAverageRatingByProductId(p2.getId());
-                        Long views1 = productViewRepository.countByProductId(p1.getId());
-                        Long views2 = productViewRepository.countByProductId(p2.getId());
-                        
-                        int ratingCompare = Double.compare(
-                                rating2 != null ? rating2 : 0.0,
-                                rating1 != null ? rating1 : 0.0
-                        );
-                        if (ratingCompare != 0) return ratingCompare;
-                        
-                        return Long.compare(
-                                views2 != null ? views2 : 0L,
-                                views1 != null ? views1 : 0L
-                        );
-                    })
+                    .toList();
+            
+            // Tüm adayların istatistikleri tek sorguda (karşılaştırma başına sorgu yok)
+            Map<Long, ProductStats> stats = productStatsService.getStats(
+                    candidates.stream().map(Product::getId).toList());
+            
+            // Önce rating'e göre, sonra görüntüleme sayısına göre sırala
+            List<Product> recommendations = candidates.stream()
+                    .sorted(Comparator
+                            .comparingDouble((Product p) -> stats.get(p.getId()).getAverageRating()).reversed()
+                            .thenComparing(Comparator.comparingLong(
+                                    (Product p) -> stats.get(p.getId()).getViewCount()).reversed()))
                     .limit(limit)
                     .collect(Collectors.toList());
             
@@ -202,22 +184,24 @@ public class RecommendationService {
     @Cacheable(value = "recommendations", key = "'rating-' + #productId + '-' + #limit")
     public List<Product> getRecommendationsByRating(Long productId, int limit) {
         try {
-            Optional<Product> productOpt = productRepository.findByIdAndActiveTrue(productId);
+            Optional<Product> productOpt = productLoader.loadActive(productId);
             if (productOpt.isEmpty()) {
                 return Collections.emptyList();
             }
             
             Product product = productOpt.get();
-            Double productRating = productReviewRepository.calculateAverageRatingByProductId(productId);
+            double productRating = productStatsService.getStats(productId).getAverageRating();
             
-            if (productRating == null || productRating < MIN_RATING) {
+            if (productRating < MIN_RATING) {
                 return Collections.emptyList();
             }
             
             // Aynı kategorideki yüksek puanlı ürünleri getir
             Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
             
-            List<Product> allProducts = productRepository.findByActiveTrue();
+            List<Product> allProducts = productLoader.loadAllActive();
+            Map<Long, ProductStats> stats = productStatsService.getStats(
+                    allProducts.stream().map(Product::getId).toList());
             
             List<Product> recommendations = allProducts.stream()
                     .filter(p -> !p.getId().equals(productId))
@@ -228,20 +212,13 @@ public class RecommendationService {
                         boolean sameCategory = categoryId != null && 
                                 p.getCategory() != null && 
                                 p.getCategory().getId().equals(categoryId);
-                        Double pRating = productReviewRepository.calculateAverageRatingByProductId(p.getId());
-                        boolean similarRating = pRating != null && 
-                                pRating >= MIN_RATING && 
+                        double pRating = stats.get(p.getId()).getAverageRating();
+                        boolean similarRating = pRating >= MIN_RATING && 
                                 Math.abs(pRating - productRating) <= 1.0;
                         return sameCategory || similarRating;
                     })
-                    .sorted((p1, p2) -> {
-                        Double r1 = productReviewRepository.calculateAverageRatingByProductId(p1.getId());
-                        Double r2 = productReviewRepository.calculateAverageRatingByProductId(p2.getId());
-                        return Double.compare(
-                                r2 != null ? r2 : 0.0,
-                                r1 != null ? r1 : 0.0
-                        );
-                    })
+                    .sorted(Comparator.comparingDouble(
+                            (Product p) -> stats.get(p.getId()).getAverageRating()).reversed())
                     .limit(limit)
                     .collect(Collectors.toList());
             
@@ -262,26 +239,25 @@ public class RecommendationService {
         try {
             LocalDateTime since = LocalDateTime.now().minusDays(TREND_DAYS);
             
-            // Son 30 günde en çok görüntülenen ürünler
-            List<Object[]> mostViewed = productViewRepository.findMostViewedProducts();
+            // Son 30 günde en çok görüntülenen ürünler (tek sorgu)
+            List<Long> mostViewedIds = productViewRepository.findMostViewedProductsSince(since).stream()
+                    .map(result -> ((Number) result[0]).longValue())
+                    .toList();
             
-            List<Product> trending = mostViewed.stream()
-                    .map(result -> {
-                        Long productId = ((Number) result[0]).longValue();
-                        return productRepository.findByIdAndActiveTrue(productId);
-                    })
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .filter(p -> Boolean.TRUE.equals(p.getActive()))
-                    .filter(p -> p.getQuantity() != null && p.getQuantity() > 0)
-                    .filter(p -> {
-                        // Son 30 günde görüntülenmiş olmalı
-                        Long recentViews = productViewRepository.countByProductIdAndDateRange(
-                                p.getId(), since, LocalDateTime.now());
-                        return recentViews != null && recentViews > 0;
-                    })
-                    .limit(limit)
-                    .collect(Collectors.toList());
+            // Aday ürünleri parça parça toplu yükle (stoğu biten/pasif ürünler elendiği için limitten fazlası gerekebilir)
+            List<Product> trending = new ArrayList<>();
+            int chunkSize = Math.max(limit * 2, MAX_RECOMMENDATIONS);
+            for (int i = 0; i < mostViewedIds.size() && trending.size() < limit; i += chunkSize) {
+                List<Long> chunk = mostViewedIds.subList(i, Math.min(i + chunkSize, mostViewedIds.size()));
+                for (Product p : productLoader.loadAll(chunk).values()) {
+                    if (Boolean.TRUE.equals(p.getActive()) && p.getQuantity() != null && p.getQuantity() > 0) {
+                        trending.add(p);
+                        if (trending.size() >= limit) {
+                            break;
+                        }
+                    }
+                }
+            }
             
             log.info("{} adet trend ürün bulundu", trending.size());
             return trending;
@@ -298,25 +274,31 @@ public class RecommendationService {
     @Cacheable(value = "recommendations", key = "'similar-' + #productId + '-' + #limit")
     public List<Product> getSimilarProducts(Long productId, int limit) {
         try {
-            Optional<Product> productOpt = productRepository.findByIdAndActiveTrue(productId);
+            Optional<Product> productOpt = productLoader.loadActive(productId);
             if (productOpt.isEmpty()) {
                 return Collections.emptyList();
             }
             
             Product product = productOpt.get();
             
-            // Benzer özelliklere sahip ürünleri bul
-            List<Product> similar = productRepository.filterProducts(
-                    product.getColor(),
-                    product.getMaterial(),
-                    product.getUsageArea(),
-                    product.getMountingType()
-            );
+            // Benzer özelliklere sahip ürünleri facet indeksinden bul (aktif ve stokta olanlar)
+            Map<String, List<String>> filters = new HashMap<>();
+            if (product.getColor() != null) {
+                filters.put(CatalogFacetIndex.COLOR, List.of(product.getColor()));
+            }
+            if (product.getMaterial() != null) {
+                filters.put(CatalogFacetIndex.MATERIAL, List.of(product.getMaterial()));
+            }
+            if (product.getUsageArea() != null) {
+                filters.put(CatalogFacetIndex.USAGE_AREA, List.of(product.getUsageArea().split("[,;/]")));
+            }
+            if (product.getMountingType() != null) {
+                filters.put(CatalogFacetIndex.MOUNTING_TYPE, List.of(product.getMountingType()));
+            }
+            List<Product> similar = catalogFacetService.filter(filters).content();
             
             List<Product> recommendations = similar.stream()
                     .filter(p -> !p.getId().equals(productId))
-                    .filter(p -> Boolean.TRUE.equals(p.getActive()))
-                    .filter(p -> p.getQuantity() != null && p.getQuantity() > 0)
                     .sorted((p1, p2) -> {
                         // Fiyat benzerliğine göre sırala
                         BigDecimal price1 = p1.getPrice() != null ? p1.getPrice() : BigDecimal.ZERO;
@@ -345,47 +327,41 @@ public class RecommendationService {
      */
     @Transactional(readOnly = true)
     public List<Product> getMixedRecommendations(Long productId, Long userId, String ipAddress) {
-        Map<Product, Double> productScores = new HashMap<>();
+        // Skorlar ürün ID'sine göre tutulur (Product equals/hashCode lazy koleksiyonları da gezer)
+        Map<Long, Double> productScores = new HashMap<>();
+        Map<Long, Product> productsById = new HashMap<>();
         
         // 1. Birlikte alınan ürünler (ağırlık: 3.0)
-        List<Product> frequentlyBought = getFrequentlyBoughtTogether(productId);
-        for (Product p : frequentlyBought) {
-            productScores.put(p, productScores.getOrDefault(p, 0.0) + 3.0);
-        }
+        addScores(productScores, productsById, getFrequentlyBoughtTogether(productId), 3.0);
         
         // 2. Rating bazlı (ağırlık: 2.5)
-        List<Product> ratingBased = getRecommendationsByRating(productId, MAX_RECOMMENDATIONS);
-        for (Product p : ratingBased) {
-            productScores.put(p, productScores.getOrDefault(p, 0.0) + 2.5);
-        }
+        addScores(productScores, productsById, getRecommendationsByRating(productId, MAX_RECOMMENDATIONS), 2.5);
         
         // 3. Gezinme geçmişine göre (ağırlık: 2.0)
-        List<Product> browsingBased = getRecommendationsBasedOnBrowsingHistory(userId, ipAddress);
-        for (Product p : browsingBased) {
-            productScores.put(p, productScores.getOrDefault(p, 0.0) + 2.0);
-        }
+        addScores(productScores, productsById, getRecommendationsBasedOnBrowsingHistory(userId, ipAddress), 2.0);
         
         // 4. Benzer ürünler (ağırlık: 1.5)
-        List<Product> similar = getSimilarProducts(productId, MAX_RECOMMENDATIONS);
-        for (Product p : similar) {
-            productScores.put(p, productScores.getOrDefault(p, 0.0) + 1.5);
-        }
+        addScores(productScores, productsById, getSimilarProducts(productId, MAX_RECOMMENDATIONS), 1.5);
         
         // 5. Eğer yeterli öneri yoksa kategori bazlı ekle (ağırlık: 1.0)
         if (productScores.size() < MAX_RECOMMENDATIONS) {
             int remaining = MAX_RECOMMENDATIONS - productScores.size();
-            List<Product> categoryBased = getRecommendationsByCategory(productId, remaining);
-            for (Product p : categoryBased) {
-                productScores.put(p, productScores.getOrDefault(p, 0.0) + 1.0);
-            }
+            addScores(productScores, productsById, getRecommendationsByCategory(productId, remaining), 1.0);
         }
         
         // Skora göre sırala ve en iyi önerileri döndür
         return productScores.entrySet().stream()
-                .sorted(Map.Entry.<Product, Double>comparingByValue().reversed())
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
                 .limit(MAX_RECOMMENDATIONS)
-                .map(Map.Entry::getKey)
+                .map(entry -> productsById.get(entry.getKey()))
                 .collect(Collectors.toList());
     }
+    
+    private void addScores(Map<Long, Double> productScores, Map<Long, Product> productsById,
+                           List<Product> products, double weight) {
+        for (Product p : products) {
+            productScores.merge(p.getId(), weight, Double::sum);
+            productsById.putIfAbsent(p.getId(), p);
+        }
+    }
 }
-
@@ -0,0 +1,28 @@
+package eticaret.demo.security;
+
+import eticaret.demo.auth.AppUser;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * AppUser güncellendiğinde/silindiğinde kimlik önbelleğini düşüren JPA entity listener
+ * Pasifleştirme ve rol değişikliği hangi servisten yapılırsa yapılsın yakalanır.
+ */
+@Component
+public class AppUserCacheListener {
+
+    private final AuthenticatedPrincipalCache principalCache;
+
+    // EntityManagerFactory oluşurken döngüsel bağımlılığa girmemek için tembel (lazy) enjekte edilir
+    public AppUserCacheListener(@Lazy AuthenticatedPrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(AppUser user) {
+        principalCache.invalidate(user.getId());
+    }
+}
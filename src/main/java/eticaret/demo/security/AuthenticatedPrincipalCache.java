@@ -0,0 +1,109 @@
+package eticaret.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import eticaret.demo.auth.AppUser;
+import eticaret.demo.auth.AppUserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * JWT ile kimliği doğrulanan kullanıcılar için kısa ömürlü önbellek
+ * - Her istekte kullanıcı tablosu sorgulanmaz; kayıt userId ile kısa süre (varsayılan 30 sn) tutulur
+ * - Kullanıcı güncellendiğinde/silindiğinde (pasifleştirme, rol değişikliği) kayıt hemen düşürülür
+ *   (AppUserCacheListener üzerinden)
+ * - Önbellekteki nesne paylaşılmaz; her istek kendi kopyasını alır
+ */
+@Component
+@Slf4j
+public class AuthenticatedPrincipalCache {
+
+    private final AppUserRepository appUserRepository;
+    private final Cache<Long, AppUser> principals;
+
+    public AuthenticatedPrincipalCache(
+            AppUserRepository appUserRepository,
+            @Value("${security.jwt.principal-cache.max-size:10000}") long maxSize,
+            @Value("${security.jwt.principal-cache.ttl-seconds:30}") long ttlSeconds
+    ) {
+        this.appUserRepository = appUserRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Token claim'lerine karşılık gelen aktif kullanıcı
+     * userId claim'i olmayan eski token'lar için email ile sorgulanır (önbelleğe alınmaz).
+     */
+    public Optional<AppUser> resolve(JwtService.TokenClaims claims) {
+        if (claims.userId() == null) {
+            return appUserRepository.findByEmailIgnoreCase(claims.email())
+                    .filter(AppUser::isActive);
+        }
+
+        AppUser cached = principals.getIfPresent(claims.userId());
+        if (cached == null) {
+            cached = appUserRepository.findById(claims.userId())
+                    .filter(AppUser::isActive)
+                    .orElse(null);
+            if (cached == null) {
+                return Optional.empty();
+            }
+            principals.put(claims.userId(), copyOf(cached));
+            return Optional.of(cached);
+        }
+        return Optional.of(copyOf(cached));
+    }
+
+    /**
+     * Kullanıcının önbellek kaydını düşür
+     * Transaction içindeyse commit sonrasında tekrar düşürülür (arada eski hâlin yüklenmesine karşı).
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        principals.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    principals.invalidate(userId);
+                }
+            });
+        }
+        log.debug("Kullanıcı önbellek kaydı düşürüldü: userId={}", userId);
+    }
+
+    public void invalidateAll() {
+        principals.invalidateAll();
+    }
+
+    public long size() {
+        return principals.estimatedSize();
+    }
+
+    private static AppUser copyOf(AppUser user) {
+        return AppUser.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .fullName(user.getFullName())
+                .phone(user.getPhone())
+                .role(user.getRole())
+                .emailVerified(user.isEmailVerified())
+                .active(user.isActive())
+                .lastLoginAt(user.getLastLoginAt())
+                .lastVerificationCodeSentAt(user.getLastVerificationCodeSentAt())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+}
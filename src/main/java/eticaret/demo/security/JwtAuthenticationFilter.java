@@ -14,9 +14,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import eticaret.demo.auth.AppUser;
-import eticaret.demo.auth.AppUserRepository;
 import eticaret.demo.auth.UserRole;
-import eticaret.demo.security.JwtTokenBlacklist;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -28,8 +26,7 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final AppUserRepository appUserRepository;
-    private final JwtTokenBlacklist tokenBlacklist;
+    private final AuthenticatedPrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(
@@ -62,16 +59,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
         try {
-            // Blacklist kontrolü
-            if (tokenBlacklist.isBlacklisted(jwt)) {
+            // Token tek seferde çözümlenir (imza + süre + claim'ler)
+            JwtService.TokenClaims claims = jwtService.verify(jwt).orElse(null);
+            if (claims == null) {
                 if (shouldLog) {
-                    log.warn("JWT token blacklist'te - token geçersiz");
+                    log.warn("JWT token doğrulama başarısız: imza/süre geçersiz");
                 }
                 filterChain.doFilter(request, response);
                 return;
             }
             
-            username = jwtService.extractEmail(jwt);
+            // İptal (logout) kontrolü - bellek içi Bloom filtresi + kesin küme
+            if (jwtService.isRevoked(claims, jwt)) {
+                if (shouldLog) {
+                    log.warn("JWT token iptal edilmiş - token geçersiz");
+                }
+                filterChain.doFilter(request, response);
+                return;
+            }
+            username = claims.email();
             
             if (shouldLog) {
                 log.info("JWT token'dan email çıkarıldı: {}", username);
@@ -80,9 +86,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 AppUser user = null;
                 try {
-                    user = appUserRepository.findByEmailIgnoreCase(username)
-                            .filter(AppUser::isActive)
-                            .orElse(null);
+                    // Kısa ömürlü kimlik önbelleği (her istekte kullanıcı sorgusu yapılmaz)
+                    user = principalCache.resolve(claims).orElse(null);
                 } catch (Exception dbException) {
                     log.error("Veritabanı hatası - kullanıcı sorgulanamadı: {}", dbException.getMessage());
                     // Hata durumunda null döndür, authentication başarısız olur
@@ -95,7 +100,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         log.info("Kullanıcı bulundu: email={}, role={}, active={}", user.getEmail(), user.getRole(), user.isActive());
                     }
                     
-                    boolean isValid = jwtService.validateToken(jwt, user);
+                    boolean isValid = jwtService.matches(claims, user);
                     if (shouldLog) {
                         log.info("Token doğrulama sonucu: {}", isValid);
                     }
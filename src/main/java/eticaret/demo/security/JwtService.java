@@ -1,6 +1,8 @@
 package eticaret.demo.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
@@ -11,9 +13,13 @@ import eticaret.demo.auth.UserRole;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -32,8 +38,28 @@ public class JwtService {
     
     private final JwtTokenBlacklist tokenBlacklist;
 
+    // Anahtar ve parser bir kez oluşturulur (JwtParser thread-safe)
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build();
+            parser = current;
+        }
+        return current;
     }
 
     /**
@@ -71,16 +97,33 @@ public class JwtService {
     }
     
     /**
-     * Token'ı blacklist'e ekle (logout için)
+     * Token'ı iptal et (logout için)
+     * Süresi dolmuş veya geçersiz token zaten kullanılamadığı için kaydedilmez.
      */
     public void invalidateToken(String token) {
+        verify(token).ifPresent(claims -> tokenBlacklist.blacklistToken(
+                revocationKey(claims, token), claims.userId(), claims.expiration().getTime()));
+    }
+
+    /**
+     * Token iptal edilmiş mi (bellek içi kontrol)
+     */
+    public boolean isRevoked(TokenClaims claims, String token) {
+        return tokenBlacklist.isBlacklisted(revocationKey(claims, token));
+    }
+
+    /**
+     * İptal anahtarı: jti; jti olmayan eski token'larda token'ın SHA-256 özeti
+     */
+    private static String revocationKey(TokenClaims claims, String token) {
+        if (claims.tokenId() != null && !claims.tokenId().isBlank()) {
+            return claims.tokenId();
+        }
         try {
-            Date expiration = extractExpiration(token);
-            if (expiration != null) {
-                tokenBlacklist.blacklistToken(token, expiration.getTime());
-            }
-        } catch (Exception e) {
-            // Token parse edilemezse zaten geçersiz
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 desteklenmiyor", e);
         }
     }
 
@@ -98,13 +141,47 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return getParser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
+    /**
+     * Token'ı tek seferde çözümle ve doğrula (imza + süre)
+     * İstek başına token bir kez parse edilir; gerekli tüm claim'ler tek kayıtta döner.
+     *
+     * @return geçerli token'ın claim'leri; imza hatalı, süresi dolmuş veya bozuksa boş
+     */
+    public Optional<TokenClaims> verify(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            Object role = claims.get("role");
+            return Optional.of(new TokenClaims(
+                    claims.getSubject(),
+                    toLong(claims.get("userId")),
+                    role != null ? UserRole.valueOf(role.toString()) : null,
+                    claims.get("jti", String.class),
+                    claims.getExpiration()
+            ));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Doğrulanmış claim'ler kullanıcıyla eşleşiyor mu (email, aktiflik, rol)
+     */
+    public boolean matches(TokenClaims claims, AppUser user) {
+        if (claims.email() == null || !claims.email().equalsIgnoreCase(user.getEmail())) {
+            return false;
+        }
+        if (!user.isActive()) {
+            return false;
+        }
+        // Token'daki role ile user'ın role'ü eşleşiyor mu
+        return claims.role() == null || claims.role().equals(user.getRole());
+    }
+
     public Boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -114,43 +191,18 @@ public class JwtService {
      * Blacklist kontrolü, expiration kontrolü, user kontrolü
      */
     public Boolean validateToken(String token, AppUser user) {
-        try {
-            // Blacklist kontrolü
-            if (tokenBlacklist.isBlacklisted(token)) {
-                return false;
-            }
-            
-            // Token expiration kontrolü
-            if (isTokenExpired(token)) {
-                return false;
-            }
-            
-            // Email kontrolü
-            final String extractedEmail = extractEmail(token);
-            if (!extractedEmail.equalsIgnoreCase(user.getEmail())) {
-                return false;
-            }
-            
-            // User aktif mi kontrolü
-            if (!user.isActive()) {
-                return false;
-            }
-            
-            // Token'daki role ile user'ın role'ü eşleşiyor mu
-            UserRole tokenRole = extractRole(token);
-            if (tokenRole != null && !tokenRole.equals(user.getRole())) {
-                return false;
-            }
-            
-            return true;
-        } catch (Exception e) {
-            // Token parse edilemezse geçersiz
-            return false;
-        }
+        // İmza ve expiration kontrolü tek parse ile yapılır, ardından iptal kontrolü
+        return verify(token)
+                .filter(claims -> !isRevoked(claims, token))
+                .map(claims -> matches(claims, user))
+                .orElse(false);
     }
 
     public Long extractUserId(String token) {
-        Object userId = extractAllClaims(token).get("userId");
+        return toLong(extractAllClaims(token).get("userId"));
+    }
+
+    private static Long toLong(Object userId) {
         if (userId instanceof Integer intValue) {
             return (long) intValue;
         }
@@ -178,5 +230,16 @@ public class JwtService {
     public Instant getAccessTokenExpirationInstant() {
         return Instant.ofEpochMilli(System.currentTimeMillis() + expiration);
     }
-}
 
+    /**
+     * Doğrulanmış token claim'leri
+     *
+     * @param email      subject (kullanıcı email'i)
+     * @param userId     userId claim'i (eski token'larda olmayabilir)
+     * @param role       token üretildiği andaki rol
+     * @param tokenId    jti claim'i
+     * @param expiration token bitiş zamanı
+     */
+    public record TokenClaims(String email, Long userId, UserRole role, String tokenId, Date expiration) {
+    }
+}
@@ -1,91 +1,192 @@
 package eticaret.demo.security;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * JWT token blacklist servisi
- * Logout edilen token'ları takip eder
+ * JWT token iptal (blacklist) servisi
+ * - İptal edilen token'ların kimliği (jti) süresiyle birlikte revoked_tokens tablosuna yazılır;
+ *   yeniden başlatmada kaybolmaz ve tüm uygulama örnekleri tarafından görülür
+ * - Her örnek bellekte Bloom filtresi + kesin küme tutar; istek yolunda veritabanına gidilmez
+ * - Diğer örneklerin iptalleri revoked_at üzerinden periyodik olarak (varsayılan 5 sn) çekilir
+ * - Süresi dolan kayıtlar saatlik temizlikte hem tablodan hem bellekten silinir
  */
 @Service
 @Slf4j
 public class JwtTokenBlacklist {
-    
-    // Token blacklist (token -> expiration time)
-    private final Map<String, Long> blacklistedTokens = new ConcurrentHashMap<>();
-    
-    // Temizleme aralığı
-    private static final long CLEANUP_INTERVAL_MS = 3600000; // 1 saat
-    private long lastCleanupTime = System.currentTimeMillis();
-    
+
+    private static final String INSERT_SQL =
+            "INSERT INTO revoked_tokens (token_id, user_id, expires_at, revoked_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (token_id) DO NOTHING";
+
+    private static final String SELECT_SINCE_SQL =
+            "SELECT token_id, expires_at, revoked_at FROM revoked_tokens WHERE revoked_at > ? AND expires_at > ?";
+
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM revoked_tokens WHERE expires_at < ?";
+
+    // Commit gecikmesi ve saat farkı için yoklama penceresi geriye kaydırılır (tekrar eklemek zararsız)
+    private static final long POLL_OVERLAP_SECONDS = 30;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int initialCapacity;
+
+    // Token kimliği -> expiration time (milliseconds)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private volatile TokenBloomFilter bloomFilter;
+    private volatile LocalDateTime lastSeenRevokedAt = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public JwtTokenBlacklist(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${security.jwt.revocation.expected-size:100000}") int initialCapacity
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.initialCapacity = initialCapacity;
+        this.bloomFilter = new TokenBloomFilter(initialCapacity, FALSE_POSITIVE_RATE);
+    }
+
     /**
-     * Token'ı blacklist'e ekle
-     * @param token JWT token
+     * Token'ı iptal et
+     * @param tokenId JWT kimliği (jti veya token özeti)
+     * @param userId token sahibi (izleme için, boş olabilir)
      * @param expirationTime Token'ın expiration zamanı (milliseconds)
      */
-    public void blacklistToken(String token, long expirationTime) {
-        blacklistedTokens.put(token, expirationTime);
-        log.debug("Token blacklist'e eklendi. Expiration: {}", Instant.ofEpochMilli(expirationTime));
+    public void blacklistToken(String tokenId, Long userId, long expirationTime) {
+        if (tokenId == null || System.currentTimeMillis() > expirationTime) {
+            return;
+        }
+        addLocal(tokenId, expirationTime);
+        LocalDateTime expiresAt = toLocalDateTime(expirationTime);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL,
+                tokenId, userId, Timestamp.valueOf(expiresAt), Timestamp.valueOf(LocalDateTime.now())));
+        log.debug("Token iptal edildi. Expiration: {}", Instant.ofEpochMilli(expirationTime));
     }
-    
+
     /**
-     * Token blacklist'te mi kontrol et
-     * @param token JWT token
-     * @return true eğer token blacklist'te
+     * Token iptal edilmiş mi kontrol et (sadece bellek)
+     * @param tokenId JWT kimliği (jti veya token özeti)
+     * @return true eğer token iptal edilmiş ve süresi dolmamışsa
      */
-    public boolean isBlacklisted(String token) {
-        cleanup();
-        
-        Long expirationTime = blacklistedTokens.get(token);
-        if (expirationTime == null) {
+    public boolean isBlacklisted(String tokenId) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
             return false;
         }
-        
-        // Token'ın expiration zamanı geçmişse blacklist'ten kaldır
-        if (System.currentTimeMillis() > expirationTime) {
-            blacklistedTokens.remove(token);
-            return false;
+        Long expirationTime = revokedTokens.get(tokenId);
+        return expirationTime != null && System.currentTimeMillis() <= expirationTime;
+    }
+
+    /**
+     * Açılışta süresi dolmamış tüm iptalleri yükle
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            int loaded = pollChanges();
+            log.info("JWT iptal listesi yüklendi: {} kayıt", loaded);
+        } catch (Exception e) {
+            log.error("JWT iptal listesi yüklenirken hata: {}", e.getMessage(), e);
         }
-        
-        return true;
     }
-    
+
     /**
-     * Eski token'ları temizle
+     * Diğer uygulama örneklerinin iptallerini çek
      */
-    private void cleanup() {
-        long now = System.currentTimeMillis();
-        if (now - lastCleanupTime < CLEANUP_INTERVAL_MS) {
-            return;
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.poll-interval-ms:5000}",
+            initialDelayString = "${security.jwt.revocation.poll-interval-ms:5000}")
+    public void poll() {
+        try {
+            pollChanges();
+        } catch (Exception e) {
+            log.warn("JWT iptal listesi güncellenemedi: {}", e.getMessage());
+        }
+    }
+
+    private int pollChanges() {
+        LocalDateTime since = lastSeenRevokedAt.minusSeconds(POLL_OVERLAP_SECONDS);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] count = {0};
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(SELECT_SINCE_SQL, rs -> {
+            LocalDateTime revokedAt = rs.getTimestamp(3).toLocalDateTime();
+            addLocal(rs.getString(1), rs.getTimestamp(2).getTime());
+            if (revokedAt.isAfter(lastSeenRevokedAt)) {
+                lastSeenRevokedAt = revokedAt;
+            }
+            count[0]++;
+        }, Timestamp.valueOf(since), now));
+        return count[0];
+    }
+
+    /**
+     * Süresi dolan iptalleri temizle ve Bloom filtresini yeniden oluştur
+     * Varsayılan: saatte bir
+     */
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.cleanup-interval-ms:3600000}",
+            initialDelayString = "${security.jwt.revocation.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        try {
+            int deleted = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(DELETE_EXPIRED_SQL, Timestamp.valueOf(LocalDateTime.now())));
+            long now = System.currentTimeMillis();
+            revokedTokens.values().removeIf(expirationTime -> now > expirationTime);
+            rebuildFilter();
+            log.debug("JWT iptal listesi temizliği yapıldı. Silinen: {}, kalan: {}", deleted, revokedTokens.size());
+        } catch (Exception e) {
+            log.warn("JWT iptal listesi temizlenemedi: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void addLocal(String tokenId, long expirationTime) {
+        revokedTokens.put(tokenId, expirationTime);
+        bloomFilter.add(tokenId);
+        if (revokedTokens.size() > bloomFilter.capacity()) {
+            // Kapasite aşıldı, yanlış pozitif oranı yükselmesin
+            rebuildFilter();
         }
-        
-        lastCleanupTime = now;
-        
-        // Expiration zamanı geçmiş token'ları kaldır
-        blacklistedTokens.entrySet().removeIf(entry -> 
-            System.currentTimeMillis() > entry.getValue()
-        );
-        
-        log.debug("JWT token blacklist temizliği yapıldı. Kalan token sayısı: {}", blacklistedTokens.size());
     }
-    
+
+    private synchronized void rebuildFilter() {
+        int capacity = Math.max(initialCapacity, revokedTokens.size() * 2);
+        TokenBloomFilter filter = new TokenBloomFilter(capacity, FALSE_POSITIVE_RATE);
+        revokedTokens.keySet().forEach(filter::add);
+        bloomFilter = filter;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return new Timestamp(epochMillis).toLocalDateTime();
+    }
+
     /**
-     * Blacklist'i temizle (test amaçlı veya admin işlemi)
+     * Bellekteki listeyi temizle (test amaçlı veya admin işlemi)
+     * Tablodaki kayıtlar bir sonraki yoklamada geri yüklenir.
      */
-    public void clear() {
-        blacklistedTokens.clear();
+    public synchronized void clear() {
+        revokedTokens.clear();
+        bloomFilter = new TokenBloomFilter(initialCapacity, FALSE_POSITIVE_RATE);
+        lastSeenRevokedAt = LocalDateTime.of(1970, 1, 1, 0, 0);
         log.info("JWT token blacklist temizlendi");
     }
-    
+
     /**
-     * Blacklist boyutunu getir
+     * Bellekteki iptal sayısını getir
      */
     public int size() {
-        return blacklistedTokens.size();
+        return revokedTokens.size();
     }
 }
-
@@ -0,0 +1,47 @@
+package eticaret.demo.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+
+    /**
+     * Rate limiting açık mı
+     */
+    private boolean enabled = true;
+
+    /**
+     * Politika adı -> politika. İstek ilk eşleşen politikaya göre sınırlanır.
+     */
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Policy {
+        /**
+         * Ant path desenleri (ör. /api/auth/**)
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * HTTP metotları (boşsa tümü)
+         */
+        private List<String> methods = new ArrayList<>();
+
+        /**
+         * Pencere başına istek (aynı zamanda en fazla patlama)
+         */
+        private int capacity = 60;
+
+        private int windowSeconds = 60;
+    }
+}
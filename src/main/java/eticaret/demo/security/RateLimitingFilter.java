@@ -1,31 +1,103 @@
 package eticaret.demo.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eticaret.demo.security.ip.ClientIpResolver;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Rate limiting filter - DEVRE DIŞI
- * Rate limiting kaldırıldı, tüm istekler geçiriliyor
+ * Rate limiting filter
+ * İstek, ratelimit.policies altındaki ilk eşleşen politikaya göre istemci IP'si bazında sınırlanır
+ * (auth, iletişim formu, sipariş sorgulama, heartbeat). Limit aşılırsa 429 ve Retry-After döner.
+ * İstemci IP'si ClientIpResolver ile çözülür; X-Forwarded-For yalnızca güvenilen vekillerden kabul edilir.
  */
 @Component
 @Order(2)
+@RequiredArgsConstructor
+@Slf4j
 public class RateLimitingFilter extends OncePerRequestFilter {
 
+    private final RateLimitingService rateLimitingService;
+    private final RateLimitProperties properties;
+    private final ClientIpResolver clientIpResolver;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
             HttpServletResponse response,
             FilterChain filterChain
     ) throws ServletException, IOException {
-        
-        // Rate limiting devre dışı bırakıldı - tüm istekler geçiriliyor
+        if (!properties.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String path = request.getRequestURI();
+        for (Map.Entry<String, RateLimitProperties.Policy> entry : properties.getPolicies().entrySet()) {
+            RateLimitProperties.Policy policy = entry.getValue();
+            if (!matches(policy, request.getMethod(), path)) {
+                continue;
+            }
+
+            String clientIp = clientIpResolver.resolve(request);
+            RateLimitingService.Decision decision = rateLimitingService.tryAcquire(
+                    entry.getKey() + ":" + clientIp, policy.getCapacity(), policy.getWindowSeconds());
+            response.setHeader("X-RateLimit-Limit", String.valueOf(decision.limit()));
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+
+            if (!decision.allowed()) {
+                log.warn("Rate limit aşıldı: policy={}, ip={}, path={}", entry.getKey(), clientIp, path);
+                reject(response, decision.retryAfterSeconds());
+                return;
+            }
+            break;
+        }
+
         filterChain.doFilter(request, response);
     }
+
+    private boolean matches(RateLimitProperties.Policy policy, String method, String path) {
+        if (!policy.getMethods().isEmpty()
+                && policy.getMethods().stream().noneMatch(allowed -> allowed.equalsIgnoreCase(method))) {
+            return false;
+        }
+        for (String pattern : policy.getPaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", "Çok fazla istek gönderildi. Lütfen " + retryAfterSeconds + " saniye sonra tekrar deneyin.");
+        response.getWriter().write(objectMapper.writeValueAsString(body));
+    }
 }
@@ -1,36 +1,39 @@
 package eticaret.demo.security;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Rate limiting servisi - API isteklerini sınırlar
+ * - Her anahtar (politika + IP/email) için kilitsiz token bucket tutulur
+ * - Bucket, GCRA (generic cell rate algorithm) ile tek bir AtomicLong üzerinde CAS ile güncellenir:
+ *   "teorik varış zamanı" her istekte bir aralık (pencere / kapasite) ileri alınır,
+ *   kapasite kadar patlamaya (burst) izin verilir
+ * - Dolmuş (boşta kalan) bucket'lar istek yolunda değil, arka planda periyodik olarak silinir
  */
 @Service
 @Slf4j
 public class RateLimitingService {
 
-    // IP adresi bazlı rate limiting
-    private final Map<String, RequestCounter> ipRequestCounts;
-    
-    // Email bazlı rate limiting (auth işlemleri için)
-    private final Map<String, RequestCounter> emailRequestCounts;
-    
-    // Temizleme işlemi için son temizleme zamanı
-    private long lastCleanupTime;
-    private static final long CLEANUP_INTERVAL = 60000; // 1 dakika
-    
+    // Anahtar -> bucket (ConcurrentHashMap kendi içinde parçalı kilit kullanır)
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
     /**
-     * Constructor - Spring bean oluşturma için gerekli
+     * Bucket'tan bir izin almayı dene
+     * @param key bucket anahtarı (ör. "auth:1.2.3.4")
+     * @param capacity pencere başına izin (aynı zamanda en fazla patlama)
+     * @param windowSeconds zaman penceresi (saniye)
      */
-    public RateLimitingService() {
-        this.ipRequestCounts = new ConcurrentHashMap<>();
-        this.emailRequestCounts = new ConcurrentHashMap<>();
-        this.lastCleanupTime = System.currentTimeMillis();
+    public Decision tryAcquire(String key, int capacity, int windowSeconds) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, windowSeconds, now));
+        return bucket.tryAcquire(now);
     }
 
     /**
@@ -41,79 +44,77 @@ public class RateLimitingService {
      * @return true eğer istek yapılabilir, false eğer limit aşıldı
      */
     public boolean isAllowed(String ipAddress, int maxRequests, int windowSeconds) {
-        cleanup();
-        
-        RequestCounter counter = ipRequestCounts.computeIfAbsent(ipAddress, 
-            k -> new RequestCounter(windowSeconds));
-        
-        return counter.incrementAndCheck(maxRequests);
+        return tryAcquire("ip:" + maxRequests + "/" + windowSeconds + ":" + ipAddress,
+                maxRequests, windowSeconds).allowed();
     }
 
     /**
      * Email adresi için rate limit kontrolü (auth işlemleri için)
      */
     public boolean isEmailAllowed(String email, int maxRequests, int windowSeconds) {
-        cleanup();
-        
-        RequestCounter counter = emailRequestCounts.computeIfAbsent(email.toLowerCase(), 
-            k -> new RequestCounter(windowSeconds));
-        
-        return counter.incrementAndCheck(maxRequests);
+        return tryAcquire("email:" + maxRequests + "/" + windowSeconds + ":" + email.toLowerCase(),
+                maxRequests, windowSeconds).allowed();
     }
 
     /**
-     * Eski kayıtları temizle
+     * Dolmuş bucket'ları temizle (tam kapasitedeki bucket silinse de davranış değişmez)
      */
-    private void cleanup() {
-        long now = System.currentTimeMillis();
-        if (now - lastCleanupTime < CLEANUP_INTERVAL) {
-            return;
-        }
-        
-        lastCleanupTime = now;
-        
-        // IP bazlı temizlik
-        ipRequestCounts.entrySet().removeIf(entry -> entry.getValue().isExpired());
-        
-        // Email bazlı temizlik
-        emailRequestCounts.entrySet().removeIf(entry -> entry.getValue().isExpired());
-        
-        log.debug("Rate limiting temizliği yapıldı. IP: {}, Email: {}", 
-            ipRequestCounts.size(), emailRequestCounts.size());
+    @Scheduled(fixedDelayString = "${ratelimit.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now));
+        log.debug("Rate limiting temizliği yapıldı. Silinen: {}, kalan: {}", before - buckets.size(), buckets.size());
+    }
+
+    public int size() {
+        return buckets.size();
     }
 
     /**
-     * İstek sayacı sınıfı
+     * Rate limit kararı
+     * @param allowed izin verildi mi
+     * @param remaining bu pencerede kalan izin
+     * @param retryAfterSeconds reddedildiyse tekrar denemeden önce beklenecek süre (saniye)
      */
-    private static class RequestCounter {
-        private final AtomicInteger count = new AtomicInteger(0);
-        private final long windowMillis;
-        private long windowStart;
+    public record Decision(boolean allowed, int limit, long remaining, long retryAfterSeconds) {
+    }
 
-        public RequestCounter(int windowSeconds) {
-            this.windowMillis = windowSeconds * 1000L;
-            this.windowStart = System.currentTimeMillis();
+    /**
+     * GCRA tabanlı token bucket
+     */
+    static final class TokenBucket {
+        private final int capacity;
+        private final long emissionIntervalNanos;
+        private final long burstNanos;
+        // Teorik varış zamanı (nanoTime); bu zamandan önce gelen istekler birikmiş patlama payını kullanır
+        private final AtomicLong theoreticalArrival;
+
+        TokenBucket(int capacity, int windowSeconds, long now) {
+            this.capacity = Math.max(capacity, 1);
+            this.emissionIntervalNanos = Math.max(TimeUnit.SECONDS.toNanos(windowSeconds) / this.capacity, 1);
+            this.burstNanos = emissionIntervalNanos * this.capacity;
+            this.theoreticalArrival = new AtomicLong(now);
         }
 
-        public boolean incrementAndCheck(int maxRequests) {
-            long now = System.currentTimeMillis();
-            
-            // Zaman penceresi dolmuş mu kontrol et
-            if (now - windowStart >= windowMillis) {
-                // Yeni pencere başlat
-                count.set(1);
-                windowStart = now;
-                return true;
+        Decision tryAcquire(long now) {
+            while (true) {
+                long tat = theoreticalArrival.get();
+                long newTat = Math.max(tat, now) + emissionIntervalNanos;
+                long backlog = newTat - now;
+                if (backlog > burstNanos) {
+                    long waitNanos = backlog - burstNanos;
+                    long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                    return new Decision(false, capacity, 0, retryAfter);
+                }
+                if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                    return new Decision(true, capacity, (burstNanos - backlog) / emissionIntervalNanos, 0);
+                }
             }
-            
-            // Mevcut pencere içinde sayacı artır
-            int current = count.incrementAndGet();
-            return current <= maxRequests;
         }
 
-        public boolean isExpired() {
-            return System.currentTimeMillis() - windowStart >= windowMillis;
+        boolean isIdle(long now) {
+            return theoreticalArrival.get() - now <= 0;
         }
     }
 }
-
@@ -1,6 +1,7 @@
 package eticaret.demo.security;
 
 import eticaret.demo.security.ip.IpAccessFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -46,6 +47,8 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
                         .sessionFixation().migrateSession())
                 .authorizeHttpRequests(auth -> auth
+                        // SSE (dashboard akışı) gibi asenkron yanıtların tamamlanma dispatch'i; ilk istek zaten yetkilendirilmiştir
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/auth/oauth2/**").permitAll() // OAuth2 endpoint'leri
                         .requestMatchers("/api/products/**").permitAll() // Ürünler herkese açık
@@ -0,0 +1,80 @@
+package eticaret.demo.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * İptal edilmiş token kimlikleri için Bloom filtresi
+ * - "Yok" cevabı kesindir; istek yolunda iptal edilmemiş token'lar (çoğunluk) tek bakışta geçer
+ * - "Olabilir" cevabında kesin küme kontrol edilir
+ * Eleman silinemez; süresi dolan kayıtlar temizlendikten sonra filtre yeniden oluşturulur.
+ */
+final class TokenBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+    private final int capacity;
+
+    /**
+     * @param capacity             beklenen eleman sayısı
+     * @param falsePositiveRate    hedef yanlış pozitif oranı (ör. 0.01)
+     */
+    TokenBloomFilter(int capacity, double falsePositiveRate) {
+        int expected = Math.max(capacity, 1024);
+        long m = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+        this.capacity = expected;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void add(String key) {
+        long h1 = hash(key, 0x9E3779B97F4A7C15L);
+        long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            int index = (int) Long.remainderUnsigned(h1 + i * h2, bitCount);
+            long mask = 1L << (index & 63);
+            int word = index >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String key) {
+        long h1 = hash(key, 0x9E3779B97F4A7C15L);
+        long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            int index = (int) Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits.get(index >>> 6) & (1L << (index & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64 bit karıştırmalı (FNV-1a + son karıştırma) string özeti
+     */
+    private static long hash(String key, long seed) {
+        long h = seed ^ 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
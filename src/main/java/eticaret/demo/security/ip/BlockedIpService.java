@@ -1,6 +1,7 @@
 package eticaret.demo.security.ip;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +13,7 @@ import java.util.Optional;
 public class BlockedIpService {
 
     private final BlockedIpAddressRepository blockedIpAddressRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<BlockedIpAddress> getBlockedIps() {
@@ -31,7 +33,9 @@ public class BlockedIpService {
                 .reason(normalizeReason(reason))
                 .build();
 
-        return blockedIpAddressRepository.save(entity);
+        BlockedIpAddress saved = blockedIpAddressRepository.save(entity);
+        eventPublisher.publishEvent(new IpRulesChangedEvent());
+        return saved;
     }
 
     @Transactional
@@ -43,6 +47,7 @@ public class BlockedIpService {
         Optional<BlockedIpAddress> entity = blockedIpAddressRepository.findById(id);
         if (entity.isPresent()) {
             blockedIpAddressRepository.delete(entity.get());
+            eventPublisher.publishEvent(new IpRulesChangedEvent());
             return true;
         }
 
@@ -0,0 +1,310 @@
+package eticaret.demo.security.ip;
+
+import java.util.Arrays;
+
+/**
+ * IPv4/IPv6 CIDR kuralları için değişmez ikili önek ağacı (radix trie)
+ * - Düğümler ilkel dizilerde tutulur; arama adresin bitleri üzerinden en fazla önek uzunluğu kadar adım atar
+ * - Adres metni InetAddress kullanılmadan (DNS çözümlemesi ve nesne üretimi olmadan) elle çözümlenir
+ * - IPv4-mapped IPv6 adresleri (::ffff:a.b.c.d) IPv4 olarak aranır
+ * Kurallar değiştiğinde yeni ağaç oluşturulur; oluşturulan ağaç asla değişmez.
+ */
+public final class CidrTrie {
+
+    private static final CidrTrie EMPTY = new Builder().build();
+
+    private static final ThreadLocal<ParseBuffer> BUFFER = ThreadLocal.withInitial(ParseBuffer::new);
+
+    // Düğüm i'nin 0/1 çocukları (0 numaralı düğüm ayrılmıştır, 0 = çocuk yok)
+    private final int[] zero;
+    private final int[] one;
+    private final boolean[] terminal;
+    private final int ipv4Root;
+    private final int ipv6Root;
+    private final int ruleCount;
+
+    private CidrTrie(int[] zero, int[] one, boolean[] terminal, int ipv4Root, int ipv6Root, int ruleCount) {
+        this.zero = zero;
+        this.one = one;
+        this.terminal = terminal;
+        this.ipv4Root = ipv4Root;
+        this.ipv6Root = ipv6Root;
+        this.ruleCount = ruleCount;
+    }
+
+    public static CidrTrie empty() {
+        return EMPTY;
+    }
+
+    public int ruleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Adres herhangi bir kurala uyuyor mu
+     * Geçersiz adresler için false döner. Çözümleme thread başına tampon kullanır, arama nesne üretmez.
+     */
+    public boolean contains(String address) {
+        if (address == null || ruleCount == 0) {
+            return false;
+        }
+        String ip = address.trim();
+        if (ip.indexOf(':') < 0) {
+            long v4 = parseIpv4(ip, 0, ip.length());
+            return v4 >= 0 && match(ipv4Root, v4 << 32, 0, 32);
+        }
+        ParseBuffer buffer = BUFFER.get();
+        if (!parseIpv6(ip, buffer.words, buffer.groups)) {
+            return false;
+        }
+        long high = buffer.words[0];
+        long low = buffer.words[1];
+        // ::ffff:a.b.c.d
+        if (high == 0 && (low >>> 32) == 0xFFFFL) {
+            return match(ipv4Root, low << 32, 0, 32);
+        }
+        return match(ipv6Root, high, low, 128);
+    }
+
+    /**
+     * Metin geçerli bir IPv4/IPv6 adresi mi (CIDR öneki kabul edilmez)
+     */
+    public static boolean isAddress(String address) {
+        if (address == null || address.isEmpty()) {
+            return false;
+        }
+        if (address.indexOf(':') < 0) {
+            return parseIpv4(address, 0, address.length()) >= 0;
+        }
+        ParseBuffer buffer = BUFFER.get();
+        return parseIpv6(address, buffer.words, buffer.groups);
+    }
+
+    /**
+     * Kökten başlayarak adresin bitlerini izle; yol üstünde terminal (kural sonu) düğüm varsa eşleşir
+     */
+    private boolean match(int root, long high, long low, int length) {
+        int node = root;
+        for (int i = 0; i < length; i++) {
+            if (terminal[node]) {
+                return true;
+            }
+            long bits = i < 64 ? high << i : low << (i - 64);
+            node = bits < 0 ? one[node] : zero[node];
+            if (node == 0) {
+                return false;
+            }
+        }
+        return terminal[node];
+    }
+
+    /**
+     * "a.b.c.d" çözümle
+     *
+     * @return 32 bit adres (işaretsiz); geçersizse -1
+     */
+    static long parseIpv4(String text, int start, int end) {
+        long result = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? text.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (value < 0 || octets == 4) {
+                    return -1;
+                }
+                result = (result << 8) | value;
+                octets++;
+                value = -1;
+            } else {
+                return -1;
+            }
+        }
+        return octets == 4 ? result : -1;
+    }
+
+    /**
+     * IPv6 adresini (sıkıştırma "::", gömülü IPv4 ve %zone dahil) iki long'a çözümle
+     */
+    static boolean parseIpv6(String text, long[] out, int[] groups) {
+        int end = text.indexOf('%');
+        if (end < 0) {
+            end = text.length();
+        }
+        int count = 0;
+        int compressAt = -1;
+        int i = 0;
+        if (end >= 2 && text.charAt(0) == ':' && text.charAt(1) == ':') {
+            compressAt = 0;
+            i = 2;
+        }
+        while (i < end) {
+            int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            while (i < end && text.charAt(i) != ':') {
+                char c = text.charAt(i);
+                if (c == '.') {
+                    // Gömülü IPv4 (son 32 bit)
+                    long v4 = parseIpv4(text, groupStart, end);
+                    if (v4 < 0 || count > 6) {
+                        return false;
+                    }
+                    groups[count++] = (int) (v4 >>> 16);
+                    groups[count++] = (int) (v4 & 0xFFFF);
+                    i = end;
+                    digits = -1;
+                    break;
+                }
+                int digit = Character.digit(c, 16);
+                if (digit < 0 || ++digits > 4) {
+                    return false;
+                }
+                value = (value << 4) | digit;
+                i++;
+            }
+            if (digits == -1) {
+                break;
+            }
+            if (digits == 0 || count == 8) {
+                return false;
+            }
+            groups[count++] = value;
+            if (i < end) {
+                i++; // ':'
+                if (i < end && text.charAt(i) == ':') {
+                    if (compressAt >= 0) {
+                        return false;
+                    }
+                    compressAt = count;
+                    i++;
+                } else if (i == end) {
+                    return false;
+                }
+            }
+        }
+        if (compressAt >= 0) {
+            if (count == 8) {
+                return false;
+            }
+            int missing = 8 - count;
+            System.arraycopy(groups, compressAt, groups, compressAt + missing, count - compressAt);
+            Arrays.fill(groups, compressAt, compressAt + missing, 0);
+        } else if (count != 8) {
+            return false;
+        }
+        long high = 0;
+        long low = 0;
+        for (int g = 0; g < 4; g++) {
+            high = (high << 16) | groups[g];
+            low = (low << 16) | groups[g + 4];
+        }
+        out[0] = high;
+        out[1] = low;
+        return true;
+    }
+
+    /**
+     * Kurallardan ağaç oluşturucu
+     */
+    public static final class Builder {
+        private int[] zero = new int[64];
+        private int[] one = new int[64];
+        private boolean[] terminal = new boolean[64];
+        private int size;
+        private final int ipv4Root;
+        private final int ipv6Root;
+        private int ruleCount;
+
+        public Builder() {
+            size = 1; // 0 numaralı düğüm "yok" anlamında ayrılır
+            ipv4Root = newNode();
+            ipv6Root = newNode();
+        }
+
+        /**
+         * Kural ekle: tekil adres ("10.0.0.1", "::1") veya CIDR ("10.0.0.0/8", "2001:db8::/32")
+         *
+         * @return kural geçerliyse true
+         */
+        public boolean add(String rule) {
+            if (rule == null || rule.isBlank()) {
+                return false;
+            }
+            String trimmed = rule.trim();
+            int slash = trimmed.indexOf('/');
+            String address = slash < 0 ? trimmed : trimmed.substring(0, slash);
+            int prefix;
+            try {
+                prefix = slash < 0 ? -1 : Integer.parseInt(trimmed.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+
+            if (address.indexOf(':') < 0) {
+                long v4 = parseIpv4(address, 0, address.length());
+                if (v4 < 0 || prefix > 32) {
+                    return false;
+                }
+                insert(ipv4Root, v4 << 32, 0, prefix < 0 ? 32 : prefix);
+            } else {
+                long[] v6 = new long[2];
+                if (!parseIpv6(address, v6, new int[8]) || prefix > 128) {
+                    return false;
+                }
+                int length = prefix < 0 ? 128 : prefix;
+                if (v6[0] == 0 && (v6[1] >>> 32) == 0xFFFFL && length >= 96) {
+                    // IPv4-mapped kural IPv4 ağacına yazılır
+                    insert(ipv4Root, v6[1] << 32, 0, length - 96);
+                } else {
+                    insert(ipv6Root, v6[0], v6[1], length);
+                }
+            }
+            ruleCount++;
+            return true;
+        }
+
+        private void insert(int root, long high, long low, int length) {
+            int node = root;
+            for (int i = 0; i < length; i++) {
+                long bits = i < 64 ? high << i : low << (i - 64);
+                boolean bit = bits < 0;
+                int next = bit ? one[node] : zero[node];
+                if (next == 0) {
+                    next = newNode();
+                    if (bit) {
+                        one[node] = next;
+                    } else {
+                        zero[node] = next;
+                    }
+                }
+                node = next;
+            }
+            terminal[node] = true;
+        }
+
+        private int newNode() {
+            if (size == zero.length) {
+                zero = Arrays.copyOf(zero, size * 2);
+                one = Arrays.copyOf(one, size * 2);
+                terminal = Arrays.copyOf(terminal, size * 2);
+            }
+            return size++;
+        }
+
+        public CidrTrie build() {
+            return new CidrTrie(Arrays.copyOf(zero, size), Arrays.copyOf(one, size),
+                    Arrays.copyOf(terminal, size), ipv4Root, ipv6Root, ruleCount);
+        }
+    }
+
+    private static final class ParseBuffer {
+        private final long[] words = new long[2];
+        private final int[] groups = new int[8];
+    }
+}
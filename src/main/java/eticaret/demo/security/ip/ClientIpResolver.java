@@ -0,0 +1,70 @@
+package eticaret.demo.security.ip;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Enumeration;
+
+/**
+ * İstemci IP çözümleyici (rate limiting ve IP engelleme için ortak)
+ * - İstemcinin gönderdiği başlıklara varsayılan olarak güvenilmez; anahtar bağlantı adresidir (remoteAddr)
+ * - Bağlantı ipaccess.trusted-proxies listesindeki bir vekilden geliyorsa X-Forwarded-For sağdan sola
+ *   okunur ve güvenilmeyen ilk adres (vekilin gördüğü gerçek istemci) alınır; soldaki değerler
+ *   istemci tarafından uydurulabileceği için kullanılmaz
+ */
+@Slf4j
+@Component
+public class ClientIpResolver {
+
+    private final CidrTrie trustedProxies;
+
+    public ClientIpResolver(IpAccessProperties properties) {
+        CidrTrie.Builder builder = new CidrTrie.Builder();
+        for (String rule : properties.getTrustedProxies()) {
+            if (!builder.add(rule)) {
+                log.warn("Geçersiz güvenilen vekil kuralı atlandı: {}", rule);
+            }
+        }
+        this.trustedProxies = builder.build();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!trustedProxies.contains(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        // Birden fazla X-Forwarded-For başlığı sırayla birleştirilmiş tek liste gibi değerlendirilir
+        StringBuilder chain = new StringBuilder();
+        Enumeration<String> headers = request.getHeaders("X-Forwarded-For");
+        while (headers != null && headers.hasMoreElements()) {
+            String value = headers.nextElement();
+            if (value != null && !value.isBlank()) {
+                if (!chain.isEmpty()) {
+                    chain.append(',');
+                }
+                chain.append(value);
+            }
+        }
+        if (chain.isEmpty()) {
+            String realIp = request.getHeader("X-Real-IP");
+            return realIp != null && CidrTrie.isAddress(realIp.trim()) ? realIp.trim() : remoteAddr;
+        }
+
+        String[] hops = chain.toString().split(",");
+        String client = remoteAddr;
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!CidrTrie.isAddress(hop)) {
+                // Bozuk değerin solundaki zincire güvenilemez; en son doğrulanan adreste kal
+                break;
+            }
+            client = hop;
+            if (!trustedProxies.contains(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+}
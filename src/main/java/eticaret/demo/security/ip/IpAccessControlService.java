@@ -2,45 +2,133 @@ package eticaret.demo.security.ip;
 
 import eticaret.demo.admin.AdminAllowedIp;
 import eticaret.demo.admin.AdminAllowedIpRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * IP erişim kontrolü
+ * Engelli ve admin izinli IP kuralları bellekte değişmez CIDR ağaçlarına (CidrTrie) derlenir;
+ * istek başına veritabanı okunmaz. Kurallar BlockedIpService/AdminIpService üzerinden değiştiğinde
+ * (IpRulesChangedEvent) ve diğer uygulama örneklerindeki değişiklikler için periyodik olarak yeniden yüklenir.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class IpAccessControlService {
 
+    // Bu kurallardan biri izinliyse tüm loopback adresleri izinli sayılır (önceki davranış)
+    private static final Set<String> LOOPBACK_RULES = Set.of("127.0.0.1", "0.0.0.0", "::1", "0:0:0:0:0:0:0:1", "localhost");
+
     private final BlockedIpAddressRepository blockedIpAddressRepository;
     private final AdminAllowedIpRepository adminAllowedIpRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicReference<Rules> rules = new AtomicReference<>();
+
+    public IpAccessControlService(BlockedIpAddressRepository blockedIpAddressRepository,
+                                  AdminAllowedIpRepository adminAllowedIpRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.blockedIpAddressRepository = blockedIpAddressRepository;
+        this.adminAllowedIpRepository = adminAllowedIpRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
-    @Transactional(readOnly = true)
     public boolean isBlocked(String ipAddress) {
         if (ipAddress == null || ipAddress.isBlank()) {
             return false;
         }
-        List<BlockedIpAddress> blockedIps = blockedIpAddressRepository.findAll();
-        return blockedIps.stream().anyMatch(rule -> rule.matches(ipAddress));
+        return currentRules().blocked().contains(ipAddress);
     }
 
-    @Transactional(readOnly = true)
     public boolean isAdminAllowed(String ipAddress) {
         if (ipAddress == null || ipAddress.isBlank()) {
             return false;
         }
-        List<AdminAllowedIp> allowedIps = adminAllowedIpRepository.findByIsActiveTrue();
-        return allowedIps.stream().anyMatch(rule ->
-                matches(rule.getIpAddress(), ipAddress)
-        );
+        return currentRules().adminAllowed().contains(ipAddress);
     }
 
-    private boolean matches(String rule, String clientIp) {
-        if (rule == null || rule.isBlank() || clientIp == null || clientIp.isBlank()) {
-            return false;
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRulesChanged(IpRulesChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * Diğer uygulama örneklerinde yapılan değişiklikleri de almak için periyodik yenileme
+     */
+    @Scheduled(fixedDelayString = "${ipaccess.reload-interval-ms:60000}",
+            initialDelayString = "${ipaccess.reload-interval-ms:60000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * Kuralları veritabanından okuyup yeni ağaçları tek seferde devreye al
+     * Hata durumunda mevcut kurallar korunur.
+     */
+    public void reload() {
+        try {
+            Rules loaded = readOnlyTransaction.execute(status -> compile(
+                    blockedIpAddressRepository.findAll(),
+                    adminAllowedIpRepository.findByIsActiveTrue()));
+            rules.set(loaded);
+            log.debug("IP kuralları yüklendi: engelli {}, admin izinli {}",
+                    loaded.blocked().ruleCount(), loaded.adminAllowed().ruleCount());
+        } catch (Exception e) {
+            log.error("IP kuralları yüklenemedi: {}", e.getMessage(), e);
         }
-        return new IpAddressMatcher(rule.trim()).matches(clientIp.trim());
     }
-}
 
+    private Rules currentRules() {
+        Rules current = rules.get();
+        if (current == null) {
+            synchronized (rules) {
+                if (rules.get() == null) {
+                    reload();
+                }
+                current = rules.get();
+            }
+        }
+        return current != null ? current : Rules.EMPTY;
+    }
+
+    private Rules compile(List<BlockedIpAddress> blockedIps, List<AdminAllowedIp> allowedIps) {
+        CidrTrie.Builder blocked = new CidrTrie.Builder();
+        for (BlockedIpAddress rule : blockedIps) {
+            if (!blocked.add(rule.getIpAddress())) {
+                log.warn("Geçersiz engelli IP kuralı atlandı: {}", rule.getIpAddress());
+            }
+        }
+
+        CidrTrie.Builder adminAllowed = new CidrTrie.Builder();
+        for (AdminAllowedIp rule : allowedIps) {
+            String ip = rule.getIpAddress() != null ? rule.getIpAddress().trim() : null;
+            if (ip != null && LOOPBACK_RULES.contains(ip)) {
+                adminAllowed.add("127.0.0.0/8");
+                adminAllowed.add("::1");
+            }
+            if (!adminAllowed.add(ip) && !"localhost".equals(ip)) {
+                log.warn("Geçersiz admin IP kuralı atlandı: {}", ip);
+            }
+        }
+        return new Rules(blocked.build(), adminAllowed.build());
+    }
+
+    private record Rules(CidrTrie blocked, CidrTrie adminAllowed) {
+        private static final Rules EMPTY = new Rules(CidrTrie.empty(), CidrTrie.empty());
+    }
+}
@@ -23,13 +23,14 @@ import java.util.Map;
 public class IpAccessFilter extends OncePerRequestFilter {
 
     private final IpAccessControlService ipAccessControlService;
+    private final ClientIpResolver clientIpResolver;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        String clientIp = resolveClientIp(request);
+        String clientIp = clientIpResolver.resolve(request);
         String path = request.getRequestURI();
 
         if (ipAccessControlService.isBlocked(clientIp)) {
@@ -52,22 +53,4 @@ public class IpAccessFilter extends OncePerRequestFilter {
         body.put("message", message);
         response.getWriter().write(objectMapper.writeValueAsString(body));
     }
-
-    private String resolveClientIp(HttpServletRequest request) {
-        String[] headerCandidates = {
-                "X-Forwarded-For",
-                "X-Real-IP",
-                "X-Client-IP",
-                "CF-Connecting-IP"
-        };
-
-        for (String header : headerCandidates) {
-            String ipList = request.getHeader(header);
-            if (ipList != null && !ipList.isBlank() && !"unknown".equalsIgnoreCase(ipList)) {
-                return ipList.split(",")[0].trim();
-            }
-        }
-        return request.getRemoteAddr();
-    }
 }
-
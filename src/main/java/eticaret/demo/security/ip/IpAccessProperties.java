@@ -15,5 +15,11 @@ public class IpAccessProperties {
  * Tüm sistem için global engelli IP/CIDR listesi.
  */
 private List<String> blocked = new ArrayList<>();
+
+/**
+ * Güvenilen ters vekil (load balancer, CDN) IP/CIDR listesi.
+ * X-Forwarded-For yalnızca istek bu adreslerden geldiğinde dikkate alınır; boşsa bağlantı adresi kullanılır.
+ */
+private List<String> trustedProxies = new ArrayList<>();
 }
 
@@ -0,0 +1,8 @@
+package eticaret.demo.security.ip;
+
+/**
+ * Engelli IP veya admin izinli IP kuralları değişti
+ * IpAccessControlService bellekteki CIDR ağaçlarını commit sonrasında yeniden oluşturur.
+ */
+public record IpRulesChangedEvent() {
+}
@@ -21,7 +21,8 @@ import eticaret.demo.auth.AuthVerificationCodeRepository;
 import eticaret.demo.auth.AuthVerificationCode;
 import eticaret.demo.auth.VerificationChannel;
 import eticaret.demo.mail.EmailMessage;
-import eticaret.demo.mail.MailService;
+import eticaret.demo.mail.EmailPriority;
+import eticaret.demo.mail.MailOutboxHandler;
 import eticaret.demo.mail.EmailTemplateBuilder;
 import eticaret.demo.mail.EmailTemplateModel;
 import java.security.SecureRandom;
@@ -55,7 +56,7 @@ public class UserProfileController {
     private final OrderRepository orderRepository;
     private final ProductReviewRepository productReviewRepository;
     private final AuthVerificationCodeRepository verificationCodeRepository;
-    private final MailService mailService;
+    private final MailOutboxHandler mailOutboxHandler;
     private static final SecureRandom RANDOM = new SecureRandom();
 
     /**
@@ -266,9 +267,10 @@ public class UserProfileController {
                     .subject("Email Değişikliği Doğrulama Kodu")
                     .body(emailBody)
                     .isHtml(true)
+                    .priority(EmailPriority.OTP)
                     .build();
 
-            mailService.queueEmail(emailMessage);
+            mailOutboxHandler.enqueue(emailMessage);
 
             // Audit log
             auditLogService.logSuccess(
@@ -0,0 +1,193 @@
+package eticaret.demo.visitor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * User-Agent sınıflandırıcı (cihaz tipi, tarayıcı, işletim sistemi, bot)
+ * - Farklı User-Agent sayısı az olduğu için sonuçlar boyut sınırlı önbellekte tutulur
+ * - Önbellekte yoksa metin tek geçişte parçalanır (her kalıp için ayrı regex taraması yapılmaz)
+ * Ziyaretçi takibi, ürün görüntüleme kaydı ve audit log tarafından ortak kullanılır.
+ */
+@Component
+public class UserAgentClassifier {
+
+    /**
+     * Saklanan User-Agent en fazla uzunluğu (user_agent kolonları 500 karakter)
+     */
+    public static final int MAX_LENGTH = 500;
+
+    // User-Agent yoksa tarayıcı/işletim sistemi boş bırakılır
+    private static final UserAgentInfo UNKNOWN =
+            new UserAgentInfo(VisitorPageView.DeviceType.UNKNOWN, null, null, false);
+
+    /**
+     * Bot sayılan ürün adları (kapalı liste). "...bot" ile biten her parça bot sayılmaz;
+     * ör. "CUBOT" gerçek bir telefon markasıdır. Listede olmayan tarayıcısız istemciler
+     * çoğunlukla "+http://..." iletişim adresi bıraktığından o da ayrıca kontrol edilir.
+     */
+    private static final Set<String> CRAWLER_TOKENS = Set.of(
+            // Arama motorları
+            "googlebot", "googlebot-image", "googlebot-video", "googlebot-news", "adsbot-google",
+            "adsbot-google-mobile", "mediapartners-google", "google-inspectiontool", "storebot-google",
+            "bingbot", "bingpreview", "adidxbot", "msnbot", "slurp", "duckduckbot", "baiduspider",
+            "yandexbot", "yandeximages", "yandexmobilebot", "applebot", "petalbot", "seznambot",
+            "sogou", "exabot", "qwantify", "yeti",
+            // Sosyal medya ve mesajlaşma önizlemeleri
+            "facebookexternalhit", "facebot", "meta-externalagent", "twitterbot", "linkedinbot",
+            "pinterestbot", "slackbot", "slackbot-linkexpanding", "slack-imgproxy",
+            "discordbot", "telegrambot", "whatsapp", "skypeuripreview", "embedly", "redditbot",
+            // SEO, arşiv ve yapay zeka tarayıcıları
+            "ahrefsbot", "semrushbot", "mj12bot", "dotbot", "rogerbot", "blexbot", "dataforseobot",
+            "ia_archiver", "archive.org_bot", "bytespider", "gptbot", "chatgpt-user",
+            "oai-searchbot", "claudebot", "claude-web", "anthropic-ai", "ccbot", "amazonbot",
+            "perplexitybot", "cohere-ai", "diffbot", "applebot-extended",
+            // İzleme ve otomasyon araçları
+            "uptimerobot", "statuscake", "site24x7", "chrome-lighthouse",
+            "headlesschrome", "phantomjs", "curl", "wget", "python-requests", "python-urllib", "aiohttp",
+            "httpx", "okhttp", "java", "java-http-client", "apache-httpclient", "go-http-client", "axios",
+            "node-fetch", "undici", "postmanruntime", "insomnia", "libwww-perl", "scrapy",
+            // Genel adlar
+            "bot", "crawler", "spider", "robot");
+
+    private final Cache<String, UserAgentInfo> cache;
+
+    public UserAgentClassifier(@Value("${visitor.user-agent.cache-size:5000}") long cacheSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * User-Agent'ı sınıflandır (önbellekli)
+     */
+    public UserAgentInfo classify(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return UNKNOWN;
+        }
+        return cache.get(truncate(userAgent), UserAgentClassifier::parse);
+    }
+
+    /**
+     * User-Agent'ı kolon uzunluğuna kırp
+     */
+    public static String truncate(String userAgent) {
+        if (userAgent == null) {
+            return null;
+        }
+        return userAgent.length() > MAX_LENGTH ? userAgent.substring(0, MAX_LENGTH) : userAgent;
+    }
+
+    /**
+     * Tek geçişli ayrıştırma
+     * Metin boşluk, noktalı virgül, parantez ve virgülde bölünür; her parça bir kez incelenir.
+     */
+    static UserAgentInfo parse(String userAgent) {
+        String ua = userAgent.toLowerCase(Locale.ROOT);
+
+        boolean chrome = false, firefox = false, edge = false, version = false, safari = false;
+        boolean android = false, mobileToken = false, tabletToken = false, handheld = false;
+        boolean iphone = false, ipad = false, windows = false, mac = false, linux = false;
+        boolean bot = false;
+        boolean mobileAfterAndroid = false;
+        String previous = "";
+
+        int start = -1;
+        for (int i = 0; i <= ua.length(); i++) {
+            char c = i < ua.length() ? ua.charAt(i) : ' ';
+            boolean separator = c == ' ' || c == ';' || c == '(' || c == ')' || c == ',';
+            if (!separator) {
+                if (start < 0) {
+                    start = i;
+                }
+                continue;
+            }
+            if (start < 0) {
+                continue;
+            }
+            String token = ua.substring(start, i);
+            start = -1;
+
+            int slash = token.indexOf('/');
+            String name = slash < 0 ? token : token.substring(0, slash);
+            switch (name) {
+                case "chrome", "crios", "chromium" -> chrome = true;
+                case "firefox", "fxios" -> firefox = true;
+                case "edg", "edge", "edga", "edgios" -> edge = true;
+                case "version" -> version = slash >= 0;
+                case "safari" -> safari = true;
+                case "android" -> android = true;
+                case "mobile" -> {
+                    mobileToken = true;
+                    mobileAfterAndroid |= android;
+                }
+                case "tablet" -> tabletToken = true;
+                case "iphone", "ipod" -> iphone = true;
+                case "ipad" -> ipad = true;
+                case "webos", "blackberry", "iemobile" -> handheld = true;
+                case "mini" -> handheld |= "opera".equals(previous);
+                case "windows" -> windows = true;
+                case "macintosh" -> mac = true;
+                case "os" -> mac |= "mac".equals(previous);
+                case "linux" -> linux = true;
+                default -> bot |= CRAWLER_TOKENS.contains(name) || name.startsWith("+http");
+            }
+            previous = name;
+        }
+
+        VisitorPageView.DeviceType deviceType;
+        if (ipad || tabletToken || (android && !mobileAfterAndroid)) {
+            deviceType = VisitorPageView.DeviceType.TABLET;
+        } else if (android || iphone || handheld || mobileToken) {
+            deviceType = VisitorPageView.DeviceType.MOBILE;
+        } else {
+            deviceType = VisitorPageView.DeviceType.DESKTOP;
+        }
+
+        // Edge ve Chrome tabanlı tarayıcılar "Chrome/" da içerdiğinden önce Edge bakılır
+        String browser;
+        if (edge) {
+            browser = "Edge";
+        } else if (chrome) {
+            browser = "Chrome";
+        } else if (firefox) {
+            browser = "Firefox";
+        } else if (version && safari) {
+            browser = "Safari";
+        } else {
+            browser = "Unknown";
+        }
+
+        // iOS User-Agent'ı "like Mac OS X" içerdiğinden önce iOS bakılır
+        String operatingSystem;
+        if (windows) {
+            operatingSystem = "Windows";
+        } else if (iphone || ipad) {
+            operatingSystem = "iOS";
+        } else if (android) {
+            operatingSystem = "Android";
+        } else if (mac) {
+            operatingSystem = "macOS";
+        } else if (linux) {
+            operatingSystem = "Linux";
+        } else {
+            operatingSystem = "Unknown";
+        }
+
+        return new UserAgentInfo(deviceType, browser, operatingSystem, bot);
+    }
+
+    /**
+     * Sınıflandırma sonucu
+     *
+     * @param bot arama motoru botu, tarayıcısız istemci veya otomasyon aracı
+     */
+    public record UserAgentInfo(VisitorPageView.DeviceType deviceType, String browser,
+                                String operatingSystem, boolean bot) {
+    }
+}
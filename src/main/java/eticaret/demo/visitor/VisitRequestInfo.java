@@ -0,0 +1,15 @@
+package eticaret.demo.visitor;
+
+/**
+ * Ziyaret takibi için HTTP isteğinden alınan bilgiler
+ * İstek thread'inde oluşturulur; böylece takip işlemi HttpServletRequest'e
+ * bağlı kalmadan asenkron olarak çalışabilir.
+ */
+public record VisitRequestInfo(
+        String ipAddress,
+        String userAgent,
+        String referrer,
+        String language,
+        String sessionId
+) {
+}
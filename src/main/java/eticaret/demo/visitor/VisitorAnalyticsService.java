@@ -1,10 +1,12 @@
 package eticaret.demo.visitor;
 
+import eticaret.demo.visitor.realtime.VisitorTimeWheel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -22,6 +24,19 @@ public class VisitorAnalyticsService {
     
     private final ActiveVisitorRepository activeVisitorRepository;
     private final VisitorPageViewRepository pageViewRepository;
+    private final VisitorTimeWheel visitorTimeWheel;
+
+    /**
+     * Gerçek zamanlı ziyaretçi sayıları (son 5 dakika ve son 1 saat)
+     * Bellekteki zaman çarkından hesaplanır, DB'ye gitmez. Değerler HyperLogLog tahminidir (~%3 hata).
+     */
+    public RealTimeStats getRealTimeStats() {
+        return new RealTimeStats(
+                visitorTimeWheel.snapshot(Duration.ofMinutes(5)),
+                visitorTimeWheel.snapshot(Duration.ofHours(1)),
+                LocalDateTime.now()
+        );
+    }
     
     /**
      * Genel ziyaretçi istatistikleri
@@ -31,14 +46,20 @@ public class VisitorAnalyticsService {
         VisitorStatistics stats = new VisitorStatistics();
         stats.setSince(since);
         
-        // Aktif ziyaretçiler
-        long activeCount = activeVisitorRepository.countActiveVisitors(since);
-        stats.setActiveVisitors(activeCount);
-        
-        // Tip bazlı aktif ziyaretçiler
-        stats.setActiveGuests(activeVisitorRepository.countActiveVisitorsByType(since, VisitorType.MISAFIR));
-        stats.setActiveUsers(activeVisitorRepository.countActiveVisitorsByType(since, VisitorType.KULLANICI));
-        stats.setActiveAdmins(activeVisitorRepository.countActiveVisitorsByType(since, VisitorType.YONETICI));
+        // Aktif ziyaretçiler (pencere zaman çarkının kapsamındaysa bellekten, değilse DB'den)
+        Duration window = Duration.between(since, LocalDateTime.now());
+        if (!window.isNegative() && window.compareTo(VisitorTimeWheel.MAX_WINDOW) <= 0) {
+            VisitorTimeWheel.Snapshot snapshot = visitorTimeWheel.snapshot(window);
+            stats.setActiveVisitors(snapshot.total());
+            stats.setActiveGuests(snapshot.byVisitorType().getOrDefault(VisitorType.MISAFIR, 0L));
+            stats.setActiveUsers(snapshot.byVisitorType().getOrDefault(VisitorType.KULLANICI, 0L));
+            stats.setActiveAdmins(snapshot.byVisitorType().getOrDefault(VisitorType.YONETICI, 0L));
+        } else {
+            stats.setActiveVisitors(activeVisitorRepository.countActiveVisitors(since));
+            stats.setActiveGuests(activeVisitorRepository.countActiveVisitorsByType(since, VisitorType.MISAFIR));
+            stats.setActiveUsers(activeVisitorRepository.countActiveVisitorsByType(since, VisitorType.KULLANICI));
+            stats.setActiveAdmins(activeVisitorRepository.countActiveVisitorsByType(since, VisitorType.YONETICI));
+        }
         
         // Sayfa görüntülemeleri
         long totalPageViews = pageViewRepository.countByCreatedAtAfter(since);
@@ -120,6 +141,14 @@ public class VisitorAnalyticsService {
         return trend;
     }
     
+    /**
+     * Gerçek zamanlı ziyaretçi sayıları
+     */
+    public record RealTimeStats(VisitorTimeWheel.Snapshot last5Minutes,
+                                VisitorTimeWheel.Snapshot lastHour,
+                                LocalDateTime timestamp) {
+    }
+    
     /**
      * Visitor statistics DTO
      */
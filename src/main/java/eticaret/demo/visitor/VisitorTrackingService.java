@@ -1,332 +1,46 @@
 package eticaret.demo.visitor;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
+import eticaret.demo.visitor.realtime.VisitorTimeWheel;
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.exception.ConstraintViolationException;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
-import java.util.regex.Pattern;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Ziyaretçi takibi (write-behind)
+ * - Heartbeat'ler bellekteki oturum tablosunu (sessionId -> son görülme, sayfa, tip) günceller; istek thread'i DB'ye gitmez
+ * - Aktif ziyaretçi sayıları bellekten hesaplanır (COUNT sorgusu yok), sonuç kısa süre önbellekte tutulur
+ * - Değişen oturumlar her N ms'de bir tek satır/oturum olacak şekilde birleştirilip active_visitors'a upsert edilir
+ * - Sayfa görüntülemeleri sınırlı kuyruğa alınır ve aynı periyotta JDBC batch insert ile yazılır
+ * Bellekteki tablo yalnızca bu uygulama örneğine gelen heartbeat'leri bilir.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class VisitorTrackingService {
 
-    private final ActiveVisitorRepository visitorRepository;
-    private final VisitorPageViewRepository pageViewRepository;
-    
-    // User-Agent parsing için pattern'ler
-    private static final Pattern MOBILE_PATTERN = Pattern.compile(
-        "(?i)(android|webos|iphone|ipad|ipod|blackberry|iemobile|opera mini)");
-    private static final Pattern TABLET_PATTERN = Pattern.compile(
-        "(?i)(ipad|android(?!.*mobile)|tablet)");
-    private static final Pattern CHROME_PATTERN = Pattern.compile("(?i)chrome/([\\d.]+)");
-    private static final Pattern FIREFOX_PATTERN = Pattern.compile("(?i)firefox/([\\d.]+)");
-    private static final Pattern SAFARI_PATTERN = Pattern.compile("(?i)version/([\\d.]+).*safari");
-    private static final Pattern EDGE_PATTERN = Pattern.compile("(?i)edg?e?/([\\d.]+)");
-    private static final Pattern WINDOWS_PATTERN = Pattern.compile("(?i)windows");
-    private static final Pattern MACOS_PATTERN = Pattern.compile("(?i)mac os x|macintosh");
-    private static final Pattern LINUX_PATTERN = Pattern.compile("(?i)linux");
-    private static final Pattern ANDROID_PATTERN = Pattern.compile("(?i)android");
-    private static final Pattern IOS_PATTERN = Pattern.compile("(?i)(iphone|ipad|ipod)");
-
-    /**
-     * Ziyaretçi aktivitesini kaydet veya güncelle
-     * Sayfa görüntüleme kaydı da oluşturur
-     */
-    @Transactional
-    public String trackVisitor(
-            HttpServletRequest request,
-            String currentPage,
-            String providedSessionId,
-            VisitorType visitorType,
-            Long userId,
-            String userEmail
-    ) {
-        try {
-            String ipAddress = getClientIpAddress(request);
-            String userAgent = request.getHeader("User-Agent");
-            String referrer = request.getHeader("Referer");
-            String language = request.getHeader("Accept-Language");
-            String sessionId = resolveSessionId(request, providedSessionId);
-            
-            // Device ve browser bilgilerini parse et
-            DeviceInfo deviceInfo = parseDeviceInfo(userAgent);
-
-            // Mevcut ziyaretçiyi bul (session ID ile)
-            Optional<ActiveVisitor> existingVisitorOpt = visitorRepository.findBySessionId(sessionId);
-            
-            ActiveVisitor visitor;
-            boolean isNewVisitor = false;
-            
-            if (existingVisitorOpt.isPresent()) {
-                // Mevcut ziyaretçiyi güncelle
-                visitor = existingVisitorOpt.get();
-                visitor.setLastActivityAt(LocalDateTime.now());
-                visitor.incrementPageView();
-                visitor.updateCurrentPage(currentPage);
-                visitor.setVisitorType(visitorType != null ? visitorType : VisitorType.MISAFIR);
-
-                if (userId != null) {
-                    visitor.setUserId(userId);
-                }
-                if (userEmail != null) {
-                    visitor.setUserEmail(trimEmail(userEmail));
-                }
-                if (userAgent != null && !userAgent.isBlank()) {
-                    visitor.setUserAgent(trimUserAgent(userAgent));
-                }
-                
-                // Device bilgilerini güncelle
-                if (deviceInfo.deviceType != null) {
-                    visitor.setDeviceType(deviceInfo.deviceType);
-                }
-                if (deviceInfo.browser != null) {
-                    visitor.setBrowser(deviceInfo.browser);
-                }
-                if (deviceInfo.operatingSystem != null) {
-                    visitor.setOperatingSystem(deviceInfo.operatingSystem);
-                }
-                if (referrer != null && !referrer.isBlank()) {
-                    visitor.setReferrer(trimReferrer(referrer));
-                }
-                if (language != null && !language.isBlank()) {
-                    visitor.setLanguage(extractLanguage(language));
-                }
-            } else {
-                // Yeni ziyaretçi oluştur
-                isNewVisitor = true;
-                visitor = ActiveVisitor.builder()
-                        .ipAddress(ipAddress)
-                        .userAgent(userAgent != null ? trimUserAgent(userAgent) : null)
-                        .sessionId(sessionId)
-                        .firstSeenAt(LocalDateTime.now())
-                        .lastActivityAt(LocalDateTime.now())
-                        .pageViews(1)
-                        .currentPage(currentPage)
-                        .visitorType(visitorType != null ? visitorType : VisitorType.MISAFIR)
-                        .userId(userId)
-                        .userEmail(userEmail != null ? trimEmail(userEmail) : null)
-                        .deviceType(deviceInfo.deviceType)
-                        .browser(deviceInfo.browser)
-                        .operatingSystem(deviceInfo.operatingSystem)
-                        .referrer(referrer != null ? trimReferrer(referrer) : null)
-                        .language(language != null ? extractLanguage(language) : null)
-                        .totalSessionDuration(0)
-                        .build();
-            }
-
-            try {
-                visitor = visitorRepository.save(visitor);
-            } catch (DataIntegrityViolationException | ConstraintViolationException e) {
-                // Duplicate key hatası - eşzamanlı istek durumunda mevcut kaydı bul ve güncelle
-                if (e.getCause() instanceof org.hibernate.exception.ConstraintViolationException ||
-                    e.getMessage() != null && e.getMessage().contains("duplicate key")) {
-                    log.debug("Duplicate key hatası yakalandı, mevcut kayıt güncelleniyor: SessionId={}", sessionId);
-                    Optional<ActiveVisitor> retryVisitorOpt = visitorRepository.findBySessionId(sessionId);
-                    if (retryVisitorOpt.isPresent()) {
-                        visitor = retryVisitorOpt.get();
-                        visitor.setLastActivityAt(LocalDateTime.now());
-                        visitor.incrementPageView();
-                        visitor.updateCurrentPage(currentPage);
-                        visitor.setVisitorType(visitorType != null ? visitorType : VisitorType.MISAFIR);
-                        
-                        if (userId != null) {
-                            visitor.setUserId(userId);
-                        }
-                        if (userEmail != null) {
-                            visitor.setUserEmail(trimEmail(userEmail));
-                        }
-                        if (userAgent != null && !userAgent.isBlank()) {
-                            visitor.setUserAgent(trimUserAgent(userAgent));
-                        }
-                        
-                        // Device bilgilerini güncelle
-                        if (deviceInfo.deviceType != null) {
-                            visitor.setDeviceType(deviceInfo.deviceType);
-                        }
-                        if (deviceInfo.browser != null) {
-                            visitor.setBrowser(deviceInfo.browser);
-                        }
-                        if (deviceInfo.operatingSystem != null) {
-                            visitor.setOperatingSystem(deviceInfo.operatingSystem);
-                        }
-                        if (referrer != null && !referrer.isBlank()) {
-                            visitor.setReferrer(trimReferrer(referrer));
-                        }
-                        if (language != null && !language.isBlank()) {
-                            visitor.setLanguage(extractLanguage(language));
-                        }
-                        
-                        visitor = visitorRepository.save(visitor);
-                        isNewVisitor = false;
-                    } else {
-                        // Hala bulunamadıysa, yeni bir session ID oluştur
-                        log.warn("Duplicate key hatası sonrası kayıt bulunamadı, yeni session ID oluşturuluyor: SessionId={}", sessionId);
-                        sessionId = UUID.randomUUID().toString();
-                        visitor = ActiveVisitor.builder()
-                                .ipAddress(ipAddress)
-                                .userAgent(userAgent != null ? trimUserAgent(userAgent) : null)
-                                .sessionId(sessionId)
-                                .firstSeenAt(LocalDateTime.now())
-                                .lastActivityAt(LocalDateTime.now())
-                                .pageViews(1)
-                                .currentPage(currentPage)
-                                .visitorType(visitorType != null ? visitorType : VisitorType.MISAFIR)
-                                .userId(userId)
-                                .userEmail(userEmail != null ? trimEmail(userEmail) : null)
-                                .deviceType(deviceInfo.deviceType)
-                                .browser(deviceInfo.browser)
-                                .operatingSystem(deviceInfo.operatingSystem)
-                                .referrer(referrer != null ? trimReferrer(referrer) : null)
-                                .language(language != null ? extractLanguage(language) : null)
-                                .totalSessionDuration(0)
-                                .build();
-                        visitor = visitorRepository.save(visitor);
-                        isNewVisitor = true;
-                    }
-                } else {
-                    throw e;
-                }
-            }
-            
-            // Sayfa görüntüleme kaydı oluştur (ayrı transaction'da)
-            try {
-                createPageView(visitor, currentPage, referrer, deviceInfo, language, request);
-            } catch (Exception e) {
-                // Sayfa görüntüleme hatası ana transaction'ı etkilemez
-                log.warn("Sayfa görüntüleme kaydı oluşturulamadı: {}", e.getMessage());
-            }
-            
-            log.debug("Ziyaretçi takip edildi: SessionId={}, Page={}, Type={}, New={}", 
-                sessionId, currentPage, visitorType, isNewVisitor);
-
-            return sessionId;
-        } catch (Exception e) {
-            // Ziyaretçi takibi hatası ana işlemi engellemez
-            log.warn("Ziyaretçi takibi hatası: {}", e.getMessage(), e);
-            return providedSessionId != null ? providedSessionId : UUID.randomUUID().toString();
-        }
-    }
-    
-    /**
-     * Sayfa görüntüleme kaydı oluştur (ayrı transaction'da)
-     */
-    @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
-    private void createPageView(ActiveVisitor visitor, String currentPage, String referrer, 
-                                DeviceInfo deviceInfo, String language, HttpServletRequest request) {
-        try {
-            VisitorPageView pageView = VisitorPageView.builder()
-                    .sessionId(visitor.getSessionId())
-                    .userId(visitor.getUserId())
-                    .ipAddress(visitor.getIpAddress())
-                    .pagePath(currentPage != null ? trimPagePath(currentPage) : "/")
-                    .referrer(referrer != null ? trimReferrer(referrer) : null)
-                    .userAgent(visitor.getUserAgent())
-                    .deviceType(deviceInfo.deviceType)
-                    .browser(deviceInfo.browser)
-                    .operatingSystem(deviceInfo.operatingSystem)
-                    .language(language != null ? extractLanguage(language) : null)
-                    .visitorType(visitor.getVisitorType())
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            
-            pageViewRepository.save(pageView);
-        } catch (Exception e) {
-            log.warn("Sayfa görüntüleme kaydı oluşturulamadı: {}", e.getMessage());
-            throw e; // Yeni transaction'da exception fırlatılabilir
-        }
-    }
-    
-    /**
-     * Device bilgilerini parse et
-     */
-    private DeviceInfo parseDeviceInfo(String userAgent) {
-        DeviceInfo info = new DeviceInfo();
-        
-        if (userAgent == null || userAgent.isBlank()) {
-            info.deviceType = VisitorPageView.DeviceType.UNKNOWN;
-            return info;
-        }
-        
-        // Device type
-        if (TABLET_PATTERN.matcher(userAgent).find()) {
-            info.deviceType = VisitorPageView.DeviceType.TABLET;
-        } else if (MOBILE_PATTERN.matcher(userAgent).find()) {
-            info.deviceType = VisitorPageView.DeviceType.MOBILE;
-        } else {
-            info.deviceType = VisitorPageView.DeviceType.DESKTOP;
-        }
-        
-        // Browser
-        if (CHROME_PATTERN.matcher(userAgent).find()) {
-            info.browser = "Chrome";
-        } else if (FIREFOX_PATTERN.matcher(userAgent).find()) {
-            info.browser = "Firefox";
-        } else if (EDGE_PATTERN.matcher(userAgent).find()) {
-            info.browser = "Edge";
-        } else if (SAFARI_PATTERN.matcher(userAgent).find()) {
-            info.browser = "Safari";
-        } else {
-            info.browser = "Unknown";
-        }
-        
-        // Operating System
-        if (WINDOWS_PATTERN.matcher(userAgent).find()) {
-            info.operatingSystem = "Windows";
-        } else if (MACOS_PATTERN.matcher(userAgent).find()) {
-            info.operatingSystem = "macOS";
-        } else if (ANDROID_PATTERN.matcher(userAgent).find()) {
-            info.operatingSystem = "Android";
-        } else if (IOS_PATTERN.matcher(userAgent).find()) {
-            info.operatingSystem = "iOS";
-        } else if (LINUX_PATTERN.matcher(userAgent).find()) {
-            info.operatingSystem = "Linux";
-        } else {
-            info.operatingSystem = "Unknown";
-        }
-        
-        return info;
-    }
-    
-    /**
-     * Device bilgileri için inner class
-     */
-    private static class DeviceInfo {
-        VisitorPageView.DeviceType deviceType;
-        String browser;
-        String operatingSystem;
-    }
-
-    /**
-     * Client IP adresini al
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-
-        String xClientIp = request.getHeader("X-Client-IP");
-        if (xClientIp != null && !xClientIp.isEmpty() && !"unknown".equalsIgnoreCase(xClientIp)) {
-            return xClientIp;
-        }
-
-        return request.getRemoteAddr();
-    }
 
     /**
      * Session ID'yi dışarıdan gelen değer öncelikli olacak şekilde çöz
@@ -356,8 +70,7 @@ public class VisitorTrackingService {
     }
 
     private String trimUserAgent(String userAgent) {
-        if (userAgent == null) return null;
-        return userAgent.length() > 500 ? userAgent.substring(0, 500) : userAgent;
+        return UserAgentClassifier.truncate(userAgent);
     }
 
     private String trimEmail(String email) {
@@ -404,7 +117,9 @@ public class VisitorTrackingService {
         try {
             LocalDateTime cutoff = LocalDateTime.now().minusMinutes(30);
             int deletedCount = visitorRepository.deleteOldVisitors(cutoff);
-            log.debug("Eski ziyaretçi kayıtları temizlendi: {} kayıt silindi", deletedCount);
+            int evictedCount = evictInactiveSessions();
+            log.debug("Eski ziyaretçi kayıtları temizlendi: {} kayıt silindi, {} oturum bellekten çıkarıldı",
+                    deletedCount, evictedCount);
         } catch (Exception e) {
             log.warn("Ziyaretçi temizleme hatası: {}", e.getMessage());
         }
@@ -434,19 +149,134 @@ public class VisitorTrackingService {
     }
     
     /**
-     * Aktif ziyaretçi sayısını getir
+     * Saklama süresini aşmış ve yazılmayı beklemeyen oturumları bellekten çıkar
+     */
+    private int evictInactiveSessions() {
+        long cutoff = System.currentTimeMillis() - RETENTION.toMillis();
+        int before = sessions.size();
+        for (String sessionId : sessions.keySet()) {
+            sessions.computeIfPresent(sessionId, (key, state) -> state.isEvictable(cutoff) ? null : state);
+        }
+        return Math.max(0, before - sessions.size());
+    }
+
+    /**
+     * Aktif ziyaretçi sayısını getir (bellekten)
      */
     public long getActiveVisitorCount() {
-        LocalDateTime since = LocalDateTime.now().minusMinutes(5);
-        return visitorRepository.countActiveVisitors(since);
+        return currentCounts().total();
     }
     
     /**
-     * Belirli bir tip için aktif ziyaretçi sayısını getir
+     * Belirli bir tip için aktif ziyaretçi sayısını getir (bellekten)
      */
     public long getActiveVisitorCountByType(VisitorType type) {
-        LocalDateTime since = LocalDateTime.now().minusMinutes(5);
-        return visitorRepository.countActiveVisitorsByType(since, type);
+        return currentCounts().byType().getOrDefault(type, 0L);
     }
-}
 
+    /**
+     * Sayılar en fazla COUNT_CACHE_MILLIS eski olabilir; süresi dolmuşsa tek bir thread yeniden hesaplar,
+     * diğerleri bu sırada mevcut değeri kullanır
+     */
+    private ActiveCounts currentCounts() {
+        ActiveCounts counts = activeCounts;
+        long now = System.currentTimeMillis();
+        if (now - counts.computedAtMillis() < COUNT_CACHE_MILLIS || !countRefreshing.compareAndSet(false, true)) {
+            return counts;
+        }
+        try {
+            long since = now - ACTIVE_WINDOW.toMillis();
+            long total = 0;
+            Map<VisitorType, Long> byType = new EnumMap<>(VisitorType.class);
+            for (SessionState state : sessions.values()) {
+                if (state.lastSeenMillis >= since) {
+                    total++;
+                    byType.merge(state.visitorType, 1L, Long::sum);
+                }
+            }
+            counts = new ActiveCounts(total, byType, now);
+            activeCounts = counts;
+            return counts;
+        } finally {
+            countRefreshing.set(false);
+        }
+    }
+
+    private record ActiveCounts(long total, Map<VisitorType, Long> byType, long computedAtMillis) {
+    }
+
+    private record VisitorUpdate(String sessionId, String ipAddress, String userAgent, LocalDateTime firstSeenAt,
+                                 LocalDateTime lastActivityAt, int pageViews, String currentPage, String previousPage,
+                                 VisitorType visitorType, Long userId, String userEmail,
+                                 VisitorPageView.DeviceType deviceType, String browser, String operatingSystem,
+                                 String referrer, String language) {
+    }
+
+    private record PendingPageView(String sessionId, Long userId, String ipAddress, String pagePath, String referrer,
+                                   String userAgent, VisitorPageView.DeviceType deviceType, String browser,
+                                   String operatingSystem, String language, VisitorType visitorType,
+                                   LocalDateTime createdAt) {
+    }
+
+    /**
+     * Bellekteki oturum durumu
+     * Alanlar oturum nesnesi üzerinde senkronize güncellenir; sayım için okunan alanlar volatile'dır.
+     */
+    private static final class SessionState {
+        private final String sessionId;
+        private final String ipAddress;
+        private final LocalDateTime firstSeenAt;
+        private volatile long lastSeenMillis;
+        private volatile VisitorType visitorType = VisitorType.MISAFIR;
+        private LocalDateTime lastActivityAt;
+        private String currentPage;
+        private String previousPage;
+        private Long userId;
+        private String userEmail;
+        private String userAgent;
+        private VisitorPageView.DeviceType deviceType;
+        private String browser;
+        private String operatingSystem;
+        private String referrer;
+        private String language;
+        private int pendingPageViews;
+        private boolean dirty;
+
+        SessionState(String sessionId, String ipAddress, LocalDateTime firstSeenAt) {
+            this.sessionId = sessionId;
+            this.ipAddress = ipAddress;
+            this.firstSeenAt = firstSeenAt;
+        }
+
+        void touch(LocalDateTime now, long nowMillis, String page, VisitorType type) {
+            lastActivityAt = now;
+            lastSeenMillis = nowMillis;
+            visitorType = type;
+            if (currentPage != null && !currentPage.equals(page)) {
+                previousPage = currentPage;
+            }
+            currentPage = page;
+            pendingPageViews++;
+            dirty = true;
+        }
+
+        /**
+         * Son flush'tan beri değiştiyse birleştirilmiş güncellemeyi döndür ve bekleyen sayacı sıfırla
+         */
+        synchronized VisitorUpdate drain() {
+            if (!dirty) {
+                return null;
+            }
+            VisitorUpdate update = new VisitorUpdate(sessionId, ipAddress, userAgent, firstSeenAt, lastActivityAt,
+                    pendingPageViews, currentPage, previousPage, visitorType, userId, userEmail,
+                    deviceType, browser, operatingSystem, referrer, language);
+            pendingPageViews = 0;
+            dirty = false;
+            return update;
+        }
+
+        synchronized boolean isEvictable(long cutoffMillis) {
+            return !dirty && lastSeenMillis < cutoffMillis;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package eticaret.demo.visitor.realtime;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sabit boyutlu HyperLogLog taslağı (benzersiz eleman tahmini)
+ * - 2^precision adet 8 bitlik register, long başına 8 register olacak şekilde paketlenir
+ * - Ekleme kilitsizdir (CAS); birleştirme register bazında max alınarak yapılır
+ * precision=10 için 1 KB bellek ve ~%3 standart hata.
+ */
+public final class HyperLogLog {
+
+    private final int precision;
+    private final AtomicLongArray words;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("HyperLogLog precision 4-16 arasında olmalıdır: " + precision);
+        }
+        this.precision = precision;
+        this.words = new AtomicLongArray((1 << precision) / 8);
+    }
+
+    public int registerCount() {
+        return 1 << precision;
+    }
+
+    /**
+     * 64 bitlik hash değerini ekle
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Kalan bitlerdeki ilk 1'in konumu; en fazla 64 - precision + 1
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        long rank = Long.numberOfLeadingZeros(remaining) + 1;
+
+        int word = index >>> 3;
+        int shift = (index & 7) << 3;
+        while (true) {
+            long current = words.get(word);
+            if (((current >>> shift) & 0xFF) >= rank) {
+                return;
+            }
+            long next = (current & ~(0xFFL << shift)) | (rank << shift);
+            if (words.compareAndSet(word, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Register'ları hedef diziye max alarak birleştir
+     */
+    public void mergeInto(byte[] target) {
+        for (int word = 0; word < words.length(); word++) {
+            long value = words.get(word);
+            if (value == 0) {
+                continue;
+            }
+            int base = word << 3;
+            for (int i = 0; i < 8; i++) {
+                int register = (int) ((value >>> (i << 3)) & 0xFF);
+                if (register > target[base + i]) {
+                    target[base + i] = (byte) register;
+                }
+            }
+        }
+    }
+
+    public long estimate() {
+        byte[] registers = new byte[registerCount()];
+        mergeInto(registers);
+        return estimate(registers);
+    }
+
+    /**
+     * Birleştirilmiş register dizisinden kardinalite tahmini (küçük değerlerde linear counting)
+     */
+    public static long estimate(byte[] registers) {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Metin için 64 bitlik hash (FNV-1a + murmur3 fmix64 karıştırma)
+     */
+    public static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
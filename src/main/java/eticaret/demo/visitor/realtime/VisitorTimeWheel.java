@@ -0,0 +1,221 @@
+package eticaret.demo.visitor.realtime;
+
+import eticaret.demo.visitor.VisitorPageView;
+import eticaret.demo.visitor.VisitorType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Aktif ziyaretçi sayıları için kayan zaman çarkı
+ * - Saniye çarkı (son 5 dakika) ve dakika çarkı (son 1 saat) halka dizilerden oluşur
+ * - Her dilimde ziyaretçi tipi x cihaz tipi segmenti başına bir HyperLogLog taslağı tutulur (ihtiyaç olunca oluşturulur)
+ * - Süresi geçen dilim, yeni zamana ait ilk kayıtta yerine yenisi konarak sıfırlanır
+ * Sorgu yalnızca pencereye düşen dilimlerin register'larını birleştirir; DB'ye gidilmez.
+ */
+@Component
+public class VisitorTimeWheel {
+
+    private static final int SECOND_SLOTS = 300;
+    private static final int MINUTE_SLOTS = 60;
+
+    public static final Duration MAX_WINDOW = Duration.ofMinutes(MINUTE_SLOTS);
+
+    private static final VisitorType[] VISITOR_TYPES = VisitorType.values();
+    private static final VisitorPageView.DeviceType[] DEVICE_TYPES = VisitorPageView.DeviceType.values();
+    private static final int SEGMENTS = VISITOR_TYPES.length * DEVICE_TYPES.length;
+
+    private final int precision;
+    private final Ring seconds = new Ring(SECOND_SLOTS, 1000);
+    private final Ring minutes = new Ring(MINUTE_SLOTS, 60_000);
+
+    public VisitorTimeWheel(@Value("${visitor.realtime.hll-precision:10}") int precision) {
+        this.precision = precision;
+    }
+
+    /**
+     * Ziyaretçi aktivitesini kaydet
+     */
+    public void record(String sessionId, VisitorType visitorType, VisitorPageView.DeviceType deviceType) {
+        record(sessionId, visitorType, deviceType, System.currentTimeMillis());
+    }
+
+    void record(String sessionId, VisitorType visitorType, VisitorPageView.DeviceType deviceType, long nowMillis) {
+        if (sessionId == null) {
+            return;
+        }
+        long hash = HyperLogLog.hash(sessionId);
+        int segment = segment(visitorType != null ? visitorType : VisitorType.MISAFIR,
+                deviceType != null ? deviceType : VisitorPageView.DeviceType.UNKNOWN);
+        seconds.add(nowMillis, segment, hash);
+        minutes.add(nowMillis, segment, hash);
+    }
+
+    /**
+     * Son pencere içindeki benzersiz ziyaretçi sayısı (tüm segmentler)
+     */
+    public long uniqueVisitors(Duration window) {
+        return uniqueVisitors(window, null, null);
+    }
+
+    /**
+     * Son pencere içindeki benzersiz ziyaretçi sayısı
+     *
+     * @param visitorTypes null ise tüm ziyaretçi tipleri
+     * @param deviceTypes  null ise tüm cihaz tipleri
+     */
+    public long uniqueVisitors(Duration window, Set<VisitorType> visitorTypes,
+                               Set<VisitorPageView.DeviceType> deviceTypes) {
+        byte[] registers = new byte[1 << precision];
+        boolean[] selected = new boolean[SEGMENTS];
+        for (VisitorType visitorType : VISITOR_TYPES) {
+            for (VisitorPageView.DeviceType deviceType : DEVICE_TYPES) {
+                selected[segment(visitorType, deviceType)] = (visitorTypes == null || visitorTypes.contains(visitorType))
+                        && (deviceTypes == null || deviceTypes.contains(deviceType));
+            }
+        }
+        mergeWindow(window, selected, registers);
+        return HyperLogLog.estimate(registers);
+    }
+
+    /**
+     * Pencere için tüm kırılımları tek seferde hesapla (toplam, ziyaretçi tipi, cihaz tipi)
+     */
+    public Snapshot snapshot(Duration window) {
+        int registerCount = 1 << precision;
+        byte[][] perSegment = new byte[SEGMENTS][];
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            perSegment[segment] = new byte[registerCount];
+        }
+        ringFor(window).mergeSegments(System.currentTimeMillis(), window, perSegment);
+
+        byte[] total = new byte[registerCount];
+        Map<VisitorType, Long> byVisitorType = new EnumMap<>(VisitorType.class);
+        Map<VisitorPageView.DeviceType, Long> byDeviceType = new EnumMap<>(VisitorPageView.DeviceType.class);
+        for (VisitorType visitorType : VISITOR_TYPES) {
+            byte[] merged = new byte[registerCount];
+            for (VisitorPageView.DeviceType deviceType : DEVICE_TYPES) {
+                max(merged, perSegment[segment(visitorType, deviceType)]);
+            }
+            byVisitorType.put(visitorType, HyperLogLog.estimate(merged));
+            max(total, merged);
+        }
+        for (VisitorPageView.DeviceType deviceType : DEVICE_TYPES) {
+            byte[] merged = new byte[registerCount];
+            for (VisitorType visitorType : VISITOR_TYPES) {
+                max(merged, perSegment[segment(visitorType, deviceType)]);
+            }
+            byDeviceType.put(deviceType, HyperLogLog.estimate(merged));
+        }
+        return new Snapshot(window.toSeconds(), HyperLogLog.estimate(total), byVisitorType, byDeviceType);
+    }
+
+    private void mergeWindow(Duration window, boolean[] selected, byte[] registers) {
+        byte[][] perSegment = new byte[SEGMENTS][];
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            if (selected[segment]) {
+                perSegment[segment] = registers;
+            }
+        }
+        ringFor(window).mergeSegments(System.currentTimeMillis(), window, perSegment);
+    }
+
+    private Ring ringFor(Duration window) {
+        return window.toMillis() <= (long) SECOND_SLOTS * 1000 ? seconds : minutes;
+    }
+
+    private static int segment(VisitorType visitorType, VisitorPageView.DeviceType deviceType) {
+        return visitorType.ordinal() * DEVICE_TYPES.length + deviceType.ordinal();
+    }
+
+    private static void max(byte[] target, byte[] source) {
+        for (int i = 0; i < target.length; i++) {
+            if (source[i] > target[i]) {
+                target[i] = source[i];
+            }
+        }
+    }
+
+    /**
+     * Sabit dilim süreli halka
+     */
+    private final class Ring {
+        private final AtomicReferenceArray<Slot> slots;
+        private final long slotMillis;
+
+        Ring(int size, long slotMillis) {
+            this.slots = new AtomicReferenceArray<>(size);
+            this.slotMillis = slotMillis;
+        }
+
+        void add(long nowMillis, int segment, long hash) {
+            long epoch = nowMillis / slotMillis;
+            int index = (int) (epoch % slots.length());
+            Slot slot = slots.get(index);
+            while (slot == null || slot.epoch < epoch) {
+                Slot fresh = new Slot(epoch);
+                if (slots.compareAndSet(index, slot, fresh)) {
+                    slot = fresh;
+                    break;
+                }
+                slot = slots.get(index);
+            }
+            if (slot.epoch != epoch) {
+                // Saat geri gitti; çok eski kayıt dikkate alınmaz
+                return;
+            }
+            slot.sketch(segment).add(hash);
+        }
+
+        /**
+         * Pencereye düşen dilimlerin segment register'larını hedeflere birleştir (hedefi null olan segment atlanır)
+         */
+        void mergeSegments(long nowMillis, Duration window, byte[][] targets) {
+            long current = nowMillis / slotMillis;
+            long count = Math.min(slots.length(), Math.max(1, (window.toMillis() + slotMillis - 1) / slotMillis));
+            long oldest = current - count + 1;
+            for (int i = 0; i < slots.length(); i++) {
+                Slot slot = slots.get(i);
+                if (slot == null || slot.epoch < oldest || slot.epoch > current) {
+                    continue;
+                }
+                for (int segment = 0; segment < targets.length; segment++) {
+                    HyperLogLog sketch = slot.sketches.get(segment);
+                    if (sketch != null && targets[segment] != null) {
+                        sketch.mergeInto(targets[segment]);
+                    }
+                }
+            }
+        }
+    }
+
+    private final class Slot {
+        private final long epoch;
+        private final AtomicReferenceArray<HyperLogLog> sketches = new AtomicReferenceArray<>(SEGMENTS);
+
+        Slot(long epoch) {
+            this.epoch = epoch;
+        }
+
+        HyperLogLog sketch(int segment) {
+            HyperLogLog sketch = sketches.get(segment);
+            if (sketch == null) {
+                HyperLogLog created = new HyperLogLog(precision);
+                sketch = sketches.compareAndSet(segment, null, created) ? created : sketches.get(segment);
+            }
+            return sketch;
+        }
+    }
+
+    /**
+     * Bir pencere için tahmini benzersiz ziyaretçi sayıları
+     */
+    public record Snapshot(long windowSeconds, long total, Map<VisitorType, Long> byVisitorType,
+                           Map<VisitorPageView.DeviceType, Long> byDeviceType) {
+    }
+}
@@ -0,0 +1,96 @@
+package eticaret.demo.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Token bucket eşzamanlılık testleri: tek anahtara çok sayıda thread aynı anda yüklenir,
+ * izin verilen istek sayısı kapasite + pencere içindeki yenilemeyi asla aşmamalı.
+ */
+class RateLimitingServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 2_000;
+
+    @Test
+    void fixedClockAllowsExactlyCapacity() throws Exception {
+        int capacity = 100;
+        long now = System.nanoTime();
+        RateLimitingService.TokenBucket bucket = new RateLimitingService.TokenBucket(capacity, 60, now);
+
+        long allowed = hammer(() -> bucket.tryAcquire(now).allowed());
+
+        assertThat(allowed).isEqualTo(capacity);
+        assertThat(bucket.tryAcquire(now).retryAfterSeconds()).isPositive();
+    }
+
+    @Test
+    void serviceNeverAllowsMoreThanCapacityPlusRefill() throws Exception {
+        int capacity = 50;
+        int windowSeconds = 1;
+        RateLimitingService service = new RateLimitingService();
+
+        long start = System.nanoTime();
+        long allowed = hammer(() -> service.tryAcquire("auth:203.0.113.7", capacity, windowSeconds).allowed());
+        long elapsedNanos = System.nanoTime() - start;
+
+        // Pencere başına kapasite kadar yenilenir; ölçüm sınırındaki tek token için +1 pay
+        long emissionIntervalNanos = TimeUnit.SECONDS.toNanos(windowSeconds) / capacity;
+        long maxAllowed = capacity + elapsedNanos / emissionIntervalNanos + 1;
+        assertThat(allowed).isGreaterThanOrEqualTo(capacity).isLessThanOrEqualTo(maxAllowed);
+        assertThat(service.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keysAreLimitedIndependently() throws Exception {
+        int capacity = 10;
+        RateLimitingService service = new RateLimitingService();
+
+        long allowed = hammer(() -> service.tryAcquire("contact-us:" + Thread.currentThread().getId(), capacity, 600).allowed());
+
+        assertThat(allowed).isEqualTo((long) capacity * THREADS);
+        assertThat(service.size()).isEqualTo(THREADS);
+    }
+
+    private long hammer(Attempt attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch startGate = new CountDownLatch(1);
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    long allowed = 0;
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        if (attempt.tryAcquire()) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            startGate.countDown();
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get(30, TimeUnit.SECONDS);
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        boolean tryAcquire();
+    }
+}
@@ -0,0 +1,66 @@
+package eticaret.demo.security.ip;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIpResolverTest {
+
+    private static ClientIpResolver resolver(String... trustedProxies) {
+        IpAccessProperties properties = new IpAccessProperties();
+        properties.setTrustedProxies(List.of(trustedProxies));
+        return new ClientIpResolver(properties);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String... forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        for (String value : forwardedFor) {
+            request.addHeader("X-Forwarded-For", value);
+        }
+        return request;
+    }
+
+    @Test
+    void ignoresForwardedHeadersFromUntrustedPeer() {
+        MockHttpServletRequest request = request("198.51.100.20", "1.2.3.4");
+        request.addHeader("X-Real-IP", "5.6.7.8");
+        request.addHeader("CF-Connecting-IP", "9.9.9.9");
+
+        assertThat(resolver().resolve(request)).isEqualTo("198.51.100.20");
+        assertThat(resolver("10.0.0.0/8").resolve(request)).isEqualTo("198.51.100.20");
+    }
+
+    @Test
+    void takesRightMostUntrustedHopBehindTrustedProxy() {
+        ClientIpResolver resolver = resolver("10.0.0.0/8");
+
+        // İstemci soldaki değeri uydurabilir; vekilin eklediği sağdaki adres kullanılır
+        assertThat(resolver.resolve(request("10.0.0.5", "6.6.6.6, 203.0.113.9"))).isEqualTo("203.0.113.9");
+        assertThat(resolver.resolve(request("10.0.0.5", "203.0.113.9, 10.0.0.7"))).isEqualTo("203.0.113.9");
+        assertThat(resolver.resolve(request("10.0.0.5", "6.6.6.6", "203.0.113.9"))).isEqualTo("203.0.113.9");
+    }
+
+    @Test
+    void stopsAtMalformedHop() {
+        ClientIpResolver resolver = resolver("10.0.0.0/8");
+
+        assertThat(resolver.resolve(request("10.0.0.5", "203.0.113.9, unknown"))).isEqualTo("10.0.0.5");
+        assertThat(resolver.resolve(request("10.0.0.5", "garbage, 10.0.0.7"))).isEqualTo("10.0.0.7");
+    }
+
+    @Test
+    void fallsBackToRealIpOrRemoteAddr() {
+        ClientIpResolver resolver = resolver("10.0.0.5", "::1");
+
+        MockHttpServletRequest realIp = request("10.0.0.5");
+        realIp.addHeader("X-Real-IP", "203.0.113.9");
+        assertThat(resolver.resolve(realIp)).isEqualTo("203.0.113.9");
+
+        assertThat(resolver.resolve(request("::1"))).isEqualTo("::1");
+        assertThat(resolver.resolve(request("::1", "2001:db8::1"))).isEqualTo("2001:db8::1");
+    }
+}
@@ -0,0 +1,54 @@
+package eticaret.demo.visitor;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserAgentClassifierTest {
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            Chrome Windows    | Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36 | DESKTOP | Chrome  | Windows
+            Edge Windows      | Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36 Edg/126.0.2592.87 | DESKTOP | Edge | Windows
+            Firefox Linux     | Mozilla/5.0 (X11; Linux x86_64; rv:127.0) Gecko/20100101 Firefox/127.0 | DESKTOP | Firefox | Linux
+            Safari macOS      | Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.5 Safari/605.1.15 | DESKTOP | Safari | macOS
+            Safari iPhone     | Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.5 Mobile/15E148 Safari/604.1 | MOBILE | Safari | iOS
+            Safari iPad       | Mozilla/5.0 (iPad; CPU OS 17_5 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.5 Mobile/15E148 Safari/604.1 | TABLET | Safari | iOS
+            Chrome Android    | Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.6478.122 Mobile Safari/537.36 | MOBILE | Chrome | Android
+            Android tablet    | Mozilla/5.0 (Linux; Android 13; SM-X710) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36 | TABLET | Chrome | Android
+            CUBOT phone       | Mozilla/5.0 (Linux; Android 12; CUBOT P60) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.6099.144 Mobile Safari/537.36 | MOBILE | Chrome | Android
+            Samsung browser   | Mozilla/5.0 (Linux; Android 14; SAMSUNG SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/25.0 Chrome/121.0.0.0 Mobile Safari/537.36 | MOBILE | Chrome | Android
+            Chrome iOS        | Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) CriOS/126.0.6478.54 Mobile/15E148 Safari/604.1 | MOBILE | Chrome | iOS
+            """)
+    void classifiesBrowsers(String description, String userAgent, VisitorPageView.DeviceType deviceType,
+                            String browser, String operatingSystem) {
+        UserAgentClassifier.UserAgentInfo info = UserAgentClassifier.parse(userAgent);
+
+        assertThat(info.bot()).as("bot").isFalse();
+        assertThat(info.deviceType()).isEqualTo(deviceType);
+        assertThat(info.browser()).isEqualTo(browser);
+        assertThat(info.operatingSystem()).isEqualTo(operatingSystem);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            Googlebot         | Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)
+            Googlebot mobile  | Mozilla/5.0 (Linux; Android 6.0.1; Nexus 5X Build/MMB29P) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.6478.126 Mobile Safari/537.36 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)
+            Bingbot           | Mozilla/5.0 (compatible; bingbot/2.0; +http://www.bing.com/bingbot.htm)
+            YandexBot         | Mozilla/5.0 (compatible; YandexBot/3.0; +http://yandex.com/bots)
+            Baiduspider       | Mozilla/5.0 (compatible; Baiduspider/2.0; +http://www.baidu.com/search/spider.html)
+            Facebook preview  | facebookexternalhit/1.1 (+http://www.facebook.com/externalhit_uatext.php)
+            Twitterbot        | Twitterbot/1.0
+            AhrefsBot         | Mozilla/5.0 (compatible; AhrefsBot/7.0; +http://ahrefs.com/robot/)
+            GPTBot            | Mozilla/5.0 AppleWebKit/537.36 (KHTML, like Gecko; compatible; GPTBot/1.2; +https://openai.com/gptbot)
+            Unknown crawler   | Mozilla/5.0 (compatible; ExampleFetcher/1.0; +https://example.com/fetcher)
+            Headless Chrome   | Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) HeadlessChrome/126.0.0.0 Safari/537.36
+            curl              | curl/8.5.0
+            python-requests   | python-requests/2.32.3
+            Go client         | Go-http-client/2.0
+            """)
+    void classifiesBots(String description, String userAgent) {
+        assertThat(UserAgentClassifier.parse(userAgent).bot()).isTrue();
+    }
+}